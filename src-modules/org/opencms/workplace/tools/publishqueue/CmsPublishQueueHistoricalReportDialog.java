@@ -37,7 +37,6 @@ import org.opencms.util.CmsUUID;
 import org.opencms.workplace.CmsWidgetDialog;
 
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 
@@ -115,16 +114,12 @@ public class CmsPublishQueueHistoricalReportDialog extends CmsWidgetDialog {
         try {
             CmsPublishJobFinished publishJob = (CmsPublishJobFinished)OpenCms.getPublishManager().getJobByPublishHistoryId(
                 new CmsUUID(m_jobId));
-            byte[] contents = OpenCms.getPublishManager().getReportContents(publishJob);
             StringBuffer result = new StringBuffer();
-
-            if (contents != null) {
-                reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(contents)));
-                String read = reader.readLine();
-                while (read != null) {
-                    result.append(read).append("\n");
-                    read = reader.readLine();
-                }
+            reader = new BufferedReader(new InputStreamReader(OpenCms.getPublishManager().getReportStream(publishJob)));
+            String read = reader.readLine();
+            while (read != null) {
+                result.append(read).append("\n");
+                read = reader.readLine();
             }
             return result.toString();
         } catch (IOException ioex) {
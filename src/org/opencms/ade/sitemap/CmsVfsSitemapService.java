@@ -197,6 +197,132 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
         }
     }
 
+    /**
+     * Data shared by all client entries built while handling a single request.<p>
+     * 
+     * When building the entries of a folder, the aliases of all entries are read with a single query, and default 
+     * files and lock owner names are read once per folder or user, instead of once per sitemap entry.<p>
+     */
+    private class EntryDataCache {
+
+        /** The alias paths by structure id, for the resources whose aliases have already been read. */
+        private Map<CmsUUID, List<String>> m_aliases = new HashMap<CmsUUID, List<String>>();
+
+        /** The default files by folder root path, <code>null</code> values for folders without default file. */
+        private Map<String, CmsResource> m_defaultFiles = new HashMap<String, CmsResource>();
+
+        /** The lock owner display names by user id. */
+        private Map<CmsUUID, String> m_lockOwners = new HashMap<CmsUUID, String>();
+
+        /**
+         * Returns the alias paths pointing to the resource with the given structure id, sorted by path.<p>
+         * 
+         * @param structureId the structure id
+         * 
+         * @return the alias paths
+         * 
+         * @throws CmsException if something goes wrong
+         */
+        public List<String> getAliases(CmsUUID structureId) throws CmsException {
+
+            List<String> result = m_aliases.get(structureId);
+            if (result == null) {
+                result = readAliasPaths(getCmsObject(), structureId);
+                m_aliases.put(structureId, result);
+            }
+            return result;
+        }
+
+        /**
+         * Returns the default file of the given folder.<p>
+         * 
+         * @param folder the folder
+         * 
+         * @return the default file, or <code>null</code> if the folder has none
+         * 
+         * @throws CmsException if something goes wrong
+         */
+        public CmsResource getDefaultFile(CmsResource folder) throws CmsException {
+
+            if (!m_defaultFiles.containsKey(folder.getRootPath())) {
+                m_defaultFiles.put(
+                    folder.getRootPath(),
+                    getCmsObject().readDefaultFile(folder, CmsResourceFilter.ONLY_VISIBLE_NO_DELETED));
+            }
+            return m_defaultFiles.get(folder.getRootPath());
+        }
+
+        /**
+         * Returns the display name of the given lock owner.<p>
+         * 
+         * @param userId the id of the lock owner
+         * 
+         * @return the display name of the user
+         * 
+         * @throws CmsException if something goes wrong
+         */
+        public String getLockOwner(CmsUUID userId) throws CmsException {
+
+            String result = m_lockOwners.get(userId);
+            if (result == null) {
+                CmsObject cms = getCmsObject();
+                result = cms.readUser(userId).getDisplayName(cms, cms.getRequestContext().getLocale());
+                m_lockOwners.put(userId, result);
+            }
+            return result;
+        }
+
+        /**
+         * Returns the default file of the parent folder of the given resource.<p>
+         * 
+         * @param resource the resource
+         * 
+         * @return the default file of the parent folder, or <code>null</code> if it has none
+         * 
+         * @throws CmsException if something goes wrong
+         */
+        public CmsResource getParentDefaultFile(CmsResource resource) throws CmsException {
+
+            String parentRootPath = CmsResource.getParentFolder(resource.getRootPath());
+            if (!m_defaultFiles.containsKey(parentRootPath)) {
+                CmsObject cms = getCmsObject();
+                CmsResource parent = cms.readResource(
+                    CmsResource.getParentFolder(cms.getSitePath(resource)),
+                    CmsResourceFilter.ONLY_VISIBLE_NO_DELETED);
+                return getDefaultFile(parent);
+            }
+            return m_defaultFiles.get(parentRootPath);
+        }
+
+        /**
+         * Reads the aliases of the pages of the given navigation elements with a single query.<p>
+         * 
+         * The page of a folder is its default file.<p>
+         * 
+         * @param navElements the navigation elements
+         * 
+         * @throws CmsException if something goes wrong
+         */
+        public void readAliases(List<CmsJspNavElement> navElements) throws CmsException {
+
+            List<CmsUUID> structureIds = new ArrayList<CmsUUID>();
+            for (CmsJspNavElement navElement : navElements) {
+                CmsResource page = navElement.getResource();
+                if (page.isFolder() && !navElement.isNavigationLevel()) {
+                    page = getDefaultFile(page);
+                }
+                if ((page != null) && page.isFile() && !m_aliases.containsKey(page.getStructureId())) {
+                    structureIds.add(page.getStructureId());
+                }
+            }
+            Map<CmsUUID, List<String>> aliases = readAliasPaths(getCmsObject(), structureIds);
+            for (CmsUUID structureId : structureIds) {
+                List<String> paths = aliases.get(structureId);
+                m_aliases.put(structureId, paths != null ? paths : Collections.<String> emptyList());
+            }
+        }
+    }
+
     /** The path of the JSP used to download aliases. */
     public static final String ALIAS_DOWNLOAD_PATH = "/system/modules/org.opencms.ade.sitemap/pages/download-aliases.jsp";
 
@@ -275,6 +401,54 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
         return result;
     }
 
+    /**
+     * Reads the alias paths of the resources with the given structure ids, sorted by path.<p>
+     * 
+     * The aliases of all sites are read, since a resource may have aliases in other sites than the current one.<p>
+     * 
+     * @param cms the current CMS context
+     * @param structureIds the structure ids of the resources
+     * 
+     * @return the alias paths by structure id, resources without aliases are not contained
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    static Map<CmsUUID, List<String>> readAliasPaths(CmsObject cms, Collection<CmsUUID> structureIds)
+    throws CmsException {
+
+        List<CmsAlias> aliases = OpenCms.getAliasManager().getAliasesForStructureIds(cms, structureIds);
+        Map<CmsUUID, List<String>> result = new HashMap<CmsUUID, List<String>>();
+        for (CmsAlias alias : aliases) {
+            List<String> paths = result.get(alias.getStructureId());
+            if (paths == null) {
+                paths = new ArrayList<String>();
+                result.put(alias.getStructureId(), paths);
+            }
+            paths.add(alias.getAliasPath());
+        }
+        return result;
+    }
+
+    /**
+     * Reads the alias paths of the resource with the given structure id, sorted by path.<p>
+     * 
+     * @param cms the current CMS context
+     * @param structureId the structure id of the resource
+     * 
+     * @return the alias paths
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    static List<String> readAliasPaths(CmsObject cms, CmsUUID structureId) throws CmsException {
+
+        List<CmsAlias> aliases = OpenCms.getAliasManager().getAliasesForStructureId(cms, structureId);
+        List<String> result = new ArrayList<String>(aliases.size());
+        for (CmsAlias alias : aliases) {
+            result.add(alias.getAliasPath());
+        }
+        return result;
+    }
+
     /**
      * @see org.opencms.ade.sitemap.shared.rpc.I_CmsSitemapService#createNewGalleryFolder(java.lang.String, java.lang.String, int)
      */
@@ -410,9 +584,10 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
                 root,
                 CmsResourceFilter.ONLY_VISIBLE_NO_DELETED);
             boolean isRoot = root.equals(entryPointUri);
-            entry = toClientEntry(navElement, isRoot);
+            EntryDataCache entryData = new EntryDataCache();
+            entry = toClientEntry(navElement, isRoot, entryData);
             if ((levels > 0) && (isRoot || (rootRes.isFolder() && (!isSubSitemap(navElement))))) {
-                entry.setSubEntries(getChildren(root, levels, null), null);
+                entry.setSubEntries(getChildren(root, levels, null, entryData), null);
             }
         } catch (Throwable e) {
             error(e);
@@ -1615,12 +1790,13 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
      * Generates a client side lock info object representing the current lock state of the given resource.<p>
      *
      * @param resource the resource
+     * @param entryData the data shared between the entries of the current request
      *
      * @return the client lock
      *
      * @throws CmsException if something goes wrong
      */
-    private CmsClientLock generateClientLock(CmsResource resource) throws CmsException {
+    private CmsClientLock generateClientLock(CmsResource resource, EntryDataCache entryData) throws CmsException {
 
         CmsObject cms = getCmsObject();
         CmsLock lock = cms.getLock(resource);
@@ -1628,7 +1804,7 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
         clientLock.setLockType(CmsClientLock.LockType.valueOf(lock.getType().getMode()));
         CmsUUID ownerId = lock.getUserId();
         if (!lock.isUnlocked() && (ownerId != null)) {
-            clientLock.setLockOwner(cms.readUser(ownerId).getDisplayName(cms, cms.getRequestContext().getLocale()));
+            clientLock.setLockOwner(entryData.getLockOwner(ownerId));
             clientLock.setOwnedByUser(cms.getRequestContext().getCurrentUser().getId().equals(ownerId));
         }
         return clientLock;
@@ -1729,13 +1905,37 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
      */
     private List<CmsClientSitemapEntry> getChildren(String root, int levels, String targetPath) throws CmsException {
 
+        return getChildren(root, levels, targetPath, new EntryDataCache());
+    }
+
+    /**
+     * Returns the sitemap children for the given path with all descendants up to the given level or to the given
+     * target path, sharing the given entry data between all entries.<p>
+     *
+     * @param root the site relative root
+     * @param levels the levels to recurse
+     * @param targetPath the target path
+     * @param entryData the data shared between the entries
+     *
+     * @return the sitemap children
+     *
+     * @throws CmsException if something goes wrong
+     */
+    private List<CmsClientSitemapEntry> getChildren(
+        String root,
+        int levels,
+        String targetPath,
+        EntryDataCache entryData) throws CmsException {
+
         List<CmsClientSitemapEntry> children = new ArrayList<CmsClientSitemapEntry>();
         int i = 0;
-        for (CmsJspNavElement navElement : getNavBuilder().getNavigationForFolder(
+        List<CmsJspNavElement> navElements = getNavBuilder().getNavigationForFolder(
             root,
             Visibility.all,
-            CmsResourceFilter.ONLY_VISIBLE_NO_DELETED)) {
-            CmsClientSitemapEntry child = toClientEntry(navElement, false);
+            CmsResourceFilter.ONLY_VISIBLE_NO_DELETED);
+        entryData.readAliases(navElements);
+        for (CmsJspNavElement navElement : navElements) {
+            CmsClientSitemapEntry child = toClientEntry(navElement, false, entryData);
             if (child != null) {
                 child.setPosition(i);
                 children.add(child);
@@ -1745,7 +1945,9 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
                 }
                 if (child.isFolderType() && ((nextLevels > 1) || (nextLevels == -1)) && !isSubSitemap(navElement)) {
 
-                    child.setSubEntries(getChildren(child.getSitePath(), nextLevels - 1, targetPath), null);
+                    child.setSubEntries(
+                        getChildren(child.getSitePath(), nextLevels - 1, targetPath, entryData),
+                        null);
                     child.setChildrenLoadedInitially(true);
                 }
                 i++;
@@ -1903,6 +2105,7 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
         Object obj = user.getAdditionalInfo(ADDINFO_ADE_MODIFIED_LIST);
         LinkedHashMap<CmsUUID, CmsClientSitemapEntry> result = new LinkedHashMap<CmsUUID, CmsClientSitemapEntry>();
         if (obj instanceof String) {
+            EntryDataCache entryData = new EntryDataCache();
             try {
                 JSONArray array = new JSONArray((String)obj);
                 for (int i = 0; i < array.length(); i++) {
@@ -1914,7 +2117,7 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
                             sitePath,
                             CmsResourceFilter.ONLY_VISIBLE_NO_DELETED);
                         if (navEntry.isInNavigation()) {
-                            CmsClientSitemapEntry modEntry = toClientEntry(navEntry, false);
+                            CmsClientSitemapEntry modEntry = toClientEntry(navEntry, false, entryData);
                             result.put(modId, modEntry);
                         }
                     } catch (Throwable e) {
@@ -2081,11 +2284,12 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
         CmsJspNavElement navElement = getNavBuilder().getNavigationForResource(
             sitePath,
             CmsResourceFilter.ONLY_VISIBLE_NO_DELETED);
-        CmsClientSitemapEntry result = toClientEntry(navElement, true);
+        EntryDataCache entryData = new EntryDataCache();
+        CmsClientSitemapEntry result = toClientEntry(navElement, true, entryData);
         if (result != null) {
             result.setPosition(0);
             result.setChildrenLoadedInitially(true);
-            result.setSubEntries(getChildren(sitePath, 2, targetPath), null);
+            result.setSubEntries(getChildren(sitePath, 2, targetPath, entryData), null);
         }
         return result;
     }
@@ -2190,23 +2394,18 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
      * Checks whether a resource is a default file of a folder.<p>
      *
      * @param resource the resource to check
+     * @param entryData the data shared between the entries of the current request
      *
      * @return true if the resource is the default file of a folder
      *
      * @throws CmsException if something goes wrong
      */
-    private boolean isDefaultFile(CmsResource resource) throws CmsException {
+    private boolean isDefaultFile(CmsResource resource, EntryDataCache entryData) throws CmsException {
 
-        CmsObject cms = getCmsObject();
         if (resource.isFolder()) {
             return false;
         }
-
-        CmsResource parent = cms.readResource(
-            CmsResource.getParentFolder(cms.getSitePath(resource)),
-            CmsResourceFilter.ONLY_VISIBLE_NO_DELETED);
-        CmsResource defaultFile = cms.readDefaultFile(parent, CmsResourceFilter.ONLY_VISIBLE_NO_DELETED);
-        return resource.equals(defaultFile);
+        return resource.equals(entryData.getParentDefaultFile(resource));
     }
 
     /**
@@ -2579,6 +2778,26 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
      */
     private CmsClientSitemapEntry toClientEntry(CmsJspNavElement navElement, boolean isRoot) throws CmsException {
 
+        // a single entry, the aliases of all resources are not needed
+        return toClientEntry(navElement, isRoot, new EntryDataCache());
+    }
+
+    /**
+     * Converts a jsp navigation element into a client sitemap entry, using the given data shared between entries.<p>
+     *
+     * @param navElement the jsp navigation element
+     * @param isRoot true if the entry is a root entry
+     * @param entryData the data shared between the entries of the current request
+     *
+     * @return the client sitemap entry
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    private CmsClientSitemapEntry toClientEntry(
+        CmsJspNavElement navElement,
+        boolean isRoot,
+        EntryDataCache entryData) throws CmsException {
+
         CmsResource entryPage = null;
         CmsObject cms = getCmsObject();
         CmsClientSitemapEntry clientEntry = new CmsClientSitemapEntry();
@@ -2588,7 +2807,7 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
         clientEntry.setResourceState(ownResource.getState());
         CmsResource defaultFileResource = null;
         if (ownResource.isFolder() && !navElement.isNavigationLevel()) {
-            defaultFileResource = cms.readDefaultFile(ownResource, CmsResourceFilter.ONLY_VISIBLE_NO_DELETED);
+            defaultFileResource = entryData.getDefaultFile(ownResource);
         }
 
         Map<String, CmsClientProperty> ownProps = getClientProperties(cms, ownResource, false);
@@ -2601,7 +2820,7 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
         } else {
             defaultFileProps = new HashMap<String, CmsClientProperty>();
         }
-        boolean isDefault = isDefaultFile(ownResource);
+        boolean isDefault = isDefaultFile(ownResource, entryData);
         clientEntry.setId(ownResource.getStructureId());
         clientEntry.setResourceTypeId(ownResource.getTypeId());
         clientEntry.setFolderDefaultPage(isDefault);
@@ -2643,16 +2862,9 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
             }
         }
         if (entryPage.isFile()) {
-            List<CmsAlias> aliases = OpenCms.getAliasManager().getAliasesForStructureId(
-                getCmsObject(),
-                entryPage.getStructureId());
-            if (!aliases.isEmpty()) {
-                List<String> aliasList = new ArrayList<String>();
-                for (CmsAlias alias : aliases) {
-                    String aliasPath = alias.getAliasPath();
-                    aliasList.add(aliasPath);
-                }
-                clientEntry.setAliases(aliasList);
+            List<String> aliasList = entryData.getAliases(entryPage.getStructureId());
+            if (!aliasList.isEmpty()) {
+                clientEntry.setAliases(new ArrayList<String>(aliasList));
             }
         }
         long dateExpired = navElement.getResource().getDateExpired();
@@ -2676,7 +2888,7 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
         clientEntry.setOwnProperties(ownProps);
         clientEntry.setDefaultFileProperties(defaultFileProps);
         clientEntry.setSitePath(entryFolder != null ? cms.getSitePath(entryFolder) : path);
-        clientEntry.setLock(generateClientLock(entryPage));
+        clientEntry.setLock(generateClientLock(entryPage, entryData));
         clientEntry.setInNavigation(isRoot || navElement.isInNavigation());
         String type = OpenCms.getResourceManager().getResourceType(ownResource).getTypeName();
         clientEntry.setResourceTypeName(type);
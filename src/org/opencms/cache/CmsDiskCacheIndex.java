@@ -0,0 +1,418 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.cache;
+
+import org.opencms.main.CmsLog;
+import org.opencms.util.CmsFileUtil;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Index of the files stored in a RFS based disk cache, used to limit the total size of the cache.<p>
+ * 
+ * The index keeps the entries in the order of their last access. When a new file is added and the total size
+ * of the cache exceeds the configured maximum, the least recently used files are deleted until the cache fits again.
+ * Removing the files which have not been used for a given time only visits the oldest entries, so no walk 
+ * of the cache folder tree is required.<p>
+ * 
+ * The index is stored in the file {@link #INDEX_FILE_NAME} in the cache repository folder, so that it survives 
+ * restarts. If this file does not exist, the index is built once by reading the cache folder tree.<p>
+ * 
+ * @since 9.0.0
+ */
+public class CmsDiskCacheIndex {
+
+    /**
+     * An entry of the index.<p>
+     */
+    private static class CmsDiskCacheEntry {
+
+        /** The time of the last access. */
+        long m_lastAccess;
+
+        /** The size of the file. */
+        long m_size;
+
+        /**
+         * Creates a new entry.<p>
+         * 
+         * @param size the size of the file
+         * @param lastAccess the time of the last access
+         */
+        CmsDiskCacheEntry(long size, long lastAccess) {
+
+            m_size = size;
+            m_lastAccess = lastAccess;
+        }
+    }
+
+    /** The name of the index file in the cache repository folder. */
+    public static final String INDEX_FILE_NAME = ".cacheindex";
+
+    /** The minimum time between two automatic writes of the index file, in milliseconds. */
+    public static final long SAVE_INTERVAL = 10 * 60 * 1000;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsDiskCacheIndex.class);
+
+    /** The separator of the values in the index file. */
+    private static final char SEPARATOR = '\t';
+
+    /** Flag which indicates that the index has been changed since it was last written. */
+    private boolean m_changed;
+
+    /** The index entries by cache file path relative to the repository, in the order of their last access. */
+    private LinkedHashMap<String, CmsDiskCacheEntry> m_entries;
+
+    /** The index file. */
+    private File m_indexFile;
+
+    /** The time the index file was last written. */
+    private long m_lastSave;
+
+    /** The maximum total size of the cache in bytes, or zero if the size is not limited. */
+    private long m_maxSize;
+
+    /** The absolute path of the cache repository. */
+    private String m_repositoryPath;
+
+    /** The total size of the indexed files. */
+    private long m_totalSize;
+
+    /**
+     * Creates a new index for the given cache repository, reading the index file if it exists.<p>
+     * 
+     * @param repositoryPath the absolute path of the cache repository in the RFS 
+     * @param maxSize the maximum total size of the cache in bytes, or zero if the size is not limited
+     */
+    public CmsDiskCacheIndex(String repositoryPath, long maxSize) {
+
+        m_repositoryPath = repositoryPath;
+        m_maxSize = maxSize;
+        m_indexFile = new File(repositoryPath, INDEX_FILE_NAME);
+        m_entries = new LinkedHashMap<String, CmsDiskCacheEntry>(1024, 0.75f, true);
+        m_lastSave = System.currentTimeMillis();
+        if (m_indexFile.exists()) {
+            try {
+                read();
+                return;
+            } catch (Exception e) {
+                LOG.warn(Messages.get().getBundle().key(
+                    Messages.LOG_DISK_CACHE_INDEX_READ_FAILED_1,
+                    m_indexFile.getAbsolutePath()), e);
+                m_entries.clear();
+                m_totalSize = 0;
+            }
+        }
+        rebuild();
+    }
+
+    /**
+     * Adds a file which has been written to the cache, and removes the least recently used files 
+     * if the cache has become too large.<p>
+     * 
+     * @param rfsName the RFS name of the cache file 
+     * @param size the size of the cache file 
+     * 
+     * @return the number of deleted files
+     */
+    public synchronized int add(String rfsName, long size) {
+
+        CmsDiskCacheEntry old = m_entries.put(getKey(rfsName), new CmsDiskCacheEntry(size, System.currentTimeMillis()));
+        if (old != null) {
+            m_totalSize -= old.m_size;
+        }
+        m_totalSize += size;
+        int count = 0;
+        if (m_maxSize > 0) {
+            Iterator<Map.Entry<String, CmsDiskCacheEntry>> iter = m_entries.entrySet().iterator();
+            // the entry just added is the most recently used one, so it is never removed here
+            while ((m_totalSize > m_maxSize) && (m_entries.size() > 1)) {
+                Map.Entry<String, CmsDiskCacheEntry> eldest = iter.next();
+                iter.remove();
+                m_totalSize -= eldest.getValue().m_size;
+                deleteFile(eldest.getKey());
+                count++;
+            }
+        }
+        changed();
+        return count;
+    }
+
+    /**
+     * Returns the maximum total size of the cache in bytes.<p>
+     * 
+     * @return the maximum total size of the cache in bytes, or zero if the size is not limited
+     */
+    public long getMaxSize() {
+
+        return m_maxSize;
+    }
+
+    /**
+     * Returns the total size of the indexed cache files in bytes.<p>
+     * 
+     * @return the total size of the indexed cache files
+     */
+    public synchronized long getTotalSize() {
+
+        return m_totalSize;
+    }
+
+    /**
+     * Deletes all cache files which have not been used since the given time.<p>
+     * 
+     * Only the entries which are deleted and the oldest remaining entry are visited.<p>
+     * 
+     * @param date the time of the oldest access to keep 
+     * 
+     * @return the number of deleted files
+     */
+    public synchronized int removeUnusedSince(long date) {
+
+        int count = 0;
+        Iterator<Map.Entry<String, CmsDiskCacheEntry>> iter = m_entries.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry<String, CmsDiskCacheEntry> eldest = iter.next();
+            if (eldest.getValue().m_lastAccess >= date) {
+                break;
+            }
+            iter.remove();
+            m_totalSize -= eldest.getValue().m_size;
+            deleteFile(eldest.getKey());
+            count++;
+        }
+        if (count > 0) {
+            changed();
+        }
+        return count;
+    }
+
+    /**
+     * Writes the index file if the index has been changed.<p>
+     * 
+     * The index is first written to a temporary file which then replaces the index file.<p>
+     */
+    public synchronized void save() {
+
+        if (!m_changed) {
+            return;
+        }
+        File tempFile = new File(m_indexFile.getParentFile(), INDEX_FILE_NAME + ".tmp");
+        try {
+            m_indexFile.getParentFile().mkdirs();
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFile), "UTF-8"));
+            try {
+                for (Map.Entry<String, CmsDiskCacheEntry> entry : m_entries.entrySet()) {
+                    writer.write(String.valueOf(entry.getValue().m_lastAccess));
+                    writer.write(SEPARATOR);
+                    writer.write(String.valueOf(entry.getValue().m_size));
+                    writer.write(SEPARATOR);
+                    writer.write(entry.getKey());
+                    writer.newLine();
+                }
+            } finally {
+                writer.close();
+            }
+            if (m_indexFile.exists() && !m_indexFile.delete()) {
+                throw new IOException(m_indexFile.getAbsolutePath());
+            }
+            if (!tempFile.renameTo(m_indexFile)) {
+                throw new IOException(tempFile.getAbsolutePath());
+            }
+            m_changed = false;
+        } catch (IOException e) {
+            LOG.error(Messages.get().getBundle().key(
+                Messages.LOG_DISK_CACHE_INDEX_WRITE_FAILED_1,
+                m_indexFile.getAbsolutePath()), e);
+        }
+        m_lastSave = System.currentTimeMillis();
+    }
+
+    /**
+     * Returns the number of indexed cache files.<p>
+     * 
+     * @return the number of indexed cache files
+     */
+    public synchronized int size() {
+
+        return m_entries.size();
+    }
+
+    /**
+     * Records an access to a cache file.<p>
+     * 
+     * If the file is not yet indexed, e.g. because it was written by another server using 
+     * the same cache folder, it is added to the index.<p>
+     * 
+     * @param rfsName the RFS name of the cache file 
+     * @param size the size of the cache file 
+     */
+    public void touch(String rfsName, long size) {
+
+        boolean added = false;
+        synchronized (this) {
+            CmsDiskCacheEntry entry = m_entries.get(getKey(rfsName));
+            if (entry != null) {
+                entry.m_lastAccess = System.currentTimeMillis();
+                changed();
+            } else {
+                added = true;
+            }
+        }
+        if (added) {
+            add(rfsName, size);
+        }
+    }
+
+    /**
+     * Marks the index as changed, and writes the index file if it was not written for some time.<p>
+     */
+    private void changed() {
+
+        m_changed = true;
+        if ((System.currentTimeMillis() - m_lastSave) > SAVE_INTERVAL) {
+            save();
+        }
+    }
+
+    /**
+     * Deletes a cache file.<p>
+     * 
+     * @param key the path of the cache file relative to the repository
+     */
+    private void deleteFile(String key) {
+
+        File file = new File(m_repositoryPath + key);
+        if (file.exists() && !file.delete()) {
+            LOG.warn(Messages.get().getBundle().key(Messages.LOG_DISK_CACHE_DELETE_FAILED_1, file.getAbsolutePath()));
+        }
+    }
+
+    /**
+     * Returns the index key for the given RFS name.<p>
+     * 
+     * @param rfsName the RFS name of a cache file
+     * 
+     * @return the path of the cache file relative to the repository
+     */
+    private String getKey(String rfsName) {
+
+        if (rfsName.startsWith(m_repositoryPath)) {
+            return rfsName.substring(m_repositoryPath.length());
+        }
+        return rfsName;
+    }
+
+    /**
+     * Reads the index file.<p>
+     * 
+     * @throws IOException if reading the index file fails 
+     */
+    private void read() throws IOException {
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(m_indexFile), "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int first = line.indexOf(SEPARATOR);
+                int second = line.indexOf(SEPARATOR, first + 1);
+                if ((first < 0) || (second < 0)) {
+                    throw new IOException(line);
+                }
+                long lastAccess = Long.parseLong(line.substring(0, first));
+                long size = Long.parseLong(line.substring(first + 1, second));
+                String key = line.substring(second + 1);
+                CmsDiskCacheEntry old = m_entries.put(key, new CmsDiskCacheEntry(size, lastAccess));
+                if (old != null) {
+                    m_totalSize -= old.m_size;
+                }
+                m_totalSize += size;
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException(e);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Builds the index by reading the cache repository folder tree, ordered by the date of last modification.<p>
+     */
+    private void rebuild() {
+
+        List<File> cacheFiles = new ArrayList<File>();
+        if (new File(m_repositoryPath).isDirectory()) {
+            cacheFiles = CmsFileUtil.getFiles(m_repositoryPath, new FileFilter() {
+
+                public boolean accept(File file) {
+
+                    return file.isFile() && !file.getName().startsWith(INDEX_FILE_NAME);
+                }
+            }, true);
+        }
+        Collections.sort(cacheFiles, new Comparator<File>() {
+
+            public int compare(File f1, File f2) {
+
+                long m1 = f1.lastModified();
+                long m2 = f2.lastModified();
+                return m1 < m2 ? -1 : (m1 == m2 ? 0 : 1);
+            }
+        });
+        for (File file : cacheFiles) {
+            long size = file.length();
+            m_entries.put(getKey(file.getAbsolutePath()), new CmsDiskCacheEntry(size, file.lastModified()));
+            m_totalSize += size;
+        }
+        if (LOG.isInfoEnabled()) {
+            LOG.info(Messages.get().getBundle().key(
+                Messages.LOG_DISK_CACHE_INDEX_REBUILT_2,
+                m_repositoryPath,
+                new Integer(m_entries.size())));
+        }
+        m_changed = true;
+    }
+}
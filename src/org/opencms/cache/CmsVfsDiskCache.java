@@ -60,7 +60,9 @@ public class CmsVfsDiskCache {
     /**
      * Saves the given file content to a RFS file of the given name (full path).<p> 
      * 
-     * If the required parent folders do not exists, they are also created.<p>
+     * If the required parent folders do not exists, they are also created.
+     * The content is written to a temporary file first, which then replaces the file, 
+     * so that readers never see a partly written file.<p>
      * 
      * @param rfsName the RFS name of the file to save the content in
      * @param content the content of the file to save
@@ -71,6 +73,22 @@ public class CmsVfsDiskCache {
      */
     public static File saveFile(String rfsName, byte[] content) throws IOException {
 
+        return saveFile(rfsName, content, -1);
+    }
+
+    /**
+     * Saves the given file content to a temporary file and renames it to the RFS file of the given name.<p>
+     * 
+     * @param rfsName the RFS name of the file to save the content in
+     * @param content the content of the file to save
+     * @param dateLastModified the date of last modification to set for the saved file, or <code>-1</code> 
+     * 
+     * @return a reference to the File that was saved
+     * 
+     * @throws IOException in case of disk access errors
+     */
+    private static File saveFile(String rfsName, byte[] content, long dateLastModified) throws IOException {
+
         File f = new File(rfsName);
         File p = f.getParentFile();
         if (!p.exists()) {
@@ -78,9 +96,29 @@ public class CmsVfsDiskCache {
             p.mkdirs();
         }
         // write file contents
-        FileOutputStream fs = new FileOutputStream(f);
-        fs.write(content);
-        fs.close();
+        File temp = File.createTempFile(f.getName(), ".tmp", p);
+        try {
+            FileOutputStream fs = new FileOutputStream(temp);
+            try {
+                fs.write(content);
+            } finally {
+                fs.close();
+            }
+            if (dateLastModified >= 0) {
+                temp.setLastModified(dateLastModified);
+            }
+            if (!temp.renameTo(f)) {
+                // some file systems do not replace existing files when renaming
+                f.delete();
+                if (!temp.renameTo(f)) {
+                    throw new IOException(f.getAbsolutePath());
+                }
+            }
+        } finally {
+            if (temp.exists()) {
+                temp.delete();
+            }
+        }
         return f;
     }
 
@@ -154,10 +192,7 @@ public class CmsVfsDiskCache {
      */
     public void saveCacheFile(String rfsName, byte[] content, long dateLastModified) throws IOException {
 
-        dateLastModified = simplifyDateLastModified(dateLastModified);
-        File f = saveFile(rfsName, content);
-        // set last modification date
-        f.setLastModified(dateLastModified);
+        saveFile(rfsName, content, simplifyDateLastModified(dateLastModified));
     }
 
     /**
@@ -50,6 +50,9 @@ import java.io.IOException;
  */
 public class CmsVfsNameBasedDiskCache {
 
+    /** The index of the cache files, or null if the cache is not indexed. */
+    private CmsDiskCacheIndex m_index;
+
     /** The name of the cache base repository folder in the RFS. */
     private String m_rfsRepository;
 
@@ -65,6 +68,21 @@ public class CmsVfsNameBasedDiskCache {
         m_rfsRepository = CmsFileUtil.normalizePath(basepath + foldername + File.separatorChar);
     }
 
+    /**
+     * Creates a new disk cache with an index of the cache files, which limits the total size of the cache.<p>
+     * 
+     * @param basepath the base path for the cache in the RFS
+     * @param foldername the folder name for this cache, to be used a sub-folder for the base folder
+     * @param maxSize the maximum total size of the cache in bytes, or zero if the size is not limited
+     * 
+     * @see CmsDiskCacheIndex
+     */
+    public CmsVfsNameBasedDiskCache(String basepath, String foldername, long maxSize) {
+
+        this(basepath, foldername);
+        m_index = new CmsDiskCacheIndex(m_rfsRepository, maxSize);
+    }
+
     /**
      * Returns the content of the requested file in the disk cache, or <code>null</code> if the
      * file is not found in the cache, or is found but outdated.<p>
@@ -76,13 +94,8 @@ public class CmsVfsNameBasedDiskCache {
     public byte[] getCacheContent(String rfsName) {
 
         try {
-            File f = new File(rfsName);
-            if (f.exists()) {
-                long age = f.lastModified();
-                if ((System.currentTimeMillis() - age) > 3600000) {
-                    // file has not been touched for 1 hour, touch the file with the current date
-                    f.setLastModified(System.currentTimeMillis());
-                }
+            File f = getCacheFile(rfsName);
+            if (f != null) {
                 return CmsFileUtil.readFile(f);
             }
         } catch (IOException e) {
@@ -91,6 +104,34 @@ public class CmsVfsNameBasedDiskCache {
         return null;
     }
 
+    /**
+     * Returns the requested file in the disk cache, or <code>null</code> if the
+     * file is not found in the cache.<p>
+     * 
+     * Use this instead of {@link #getCacheContent(String)} to write the cached content to a stream
+     * without reading it into memory first, e.g. with {@link CmsFileUtil#transferFile(File, java.io.OutputStream)}.<p>
+     * 
+     * @param rfsName the file RFS name to look up in the cache 
+     * 
+     * @return the requested file in the disk cache, or <code>null</code>
+     */
+    public File getCacheFile(String rfsName) {
+
+        File f = new File(rfsName);
+        if (!f.exists()) {
+            return null;
+        }
+        long age = f.lastModified();
+        if ((System.currentTimeMillis() - age) > 3600000) {
+            // file has not been touched for 1 hour, touch the file with the current date
+            f.setLastModified(System.currentTimeMillis());
+        }
+        if (m_index != null) {
+            m_index.touch(rfsName, f.length());
+        }
+        return f;
+    }
+
     /**
      * Returns the RFS name to use for caching the given VFS resource with parameters in the disk cache.<p>  
      * 
@@ -133,6 +174,16 @@ public class CmsVfsNameBasedDiskCache {
         return buf.toString();
     }
 
+    /**
+     * Returns the index of the cache files.<p>
+     * 
+     * @return the index of the cache files, or <code>null</code> if this cache is not indexed
+     */
+    public CmsDiskCacheIndex getIndex() {
+
+        return m_index;
+    }
+
     /**
      * Returns the absolute path of the cache repository in the RFS.<p>
      * 
@@ -154,5 +205,8 @@ public class CmsVfsNameBasedDiskCache {
     public void saveCacheFile(String rfsName, byte[] content) throws IOException {
 
         CmsVfsDiskCache.saveFile(rfsName, content);
+        if (m_index != null) {
+            m_index.add(rfsName, content.length);
+        }
     }
 }
\ No newline at end of file
@@ -40,6 +40,18 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_CACHE_COSTS_TOO_HIGH_2 = "LOG_CACHE_COSTS_TOO_HIGH_2";    
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_DISK_CACHE_DELETE_FAILED_1 = "LOG_DISK_CACHE_DELETE_FAILED_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_DISK_CACHE_INDEX_READ_FAILED_1 = "LOG_DISK_CACHE_INDEX_READ_FAILED_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_DISK_CACHE_INDEX_REBUILT_2 = "LOG_DISK_CACHE_INDEX_REBUILT_2";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_DISK_CACHE_INDEX_WRITE_FAILED_1 = "LOG_DISK_CACHE_INDEX_WRITE_FAILED_1";
+
     /** Name of the used resource bundle. */
     private static final String BUNDLE_NAME = "org.opencms.cache.messages";
 
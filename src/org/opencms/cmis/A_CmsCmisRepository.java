@@ -75,7 +75,7 @@ public abstract class A_CmsCmisRepository implements I_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#addObjectToFolder(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, boolean)
      */
-    public synchronized void addObjectToFolder(
+    public void addObjectToFolder(
         CmsCmisCallContext context,
         String objectId,
         String folderId,
@@ -88,7 +88,7 @@ public abstract class A_CmsCmisRepository implements I_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#applyAcl(org.opencms.cmis.CmsCmisCallContext, java.lang.String, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.enums.AclPropagation)
      */
-    public synchronized Acl applyAcl(
+    public Acl applyAcl(
         CmsCmisCallContext context,
         String objectId,
         Acl addAces,
@@ -101,7 +101,7 @@ public abstract class A_CmsCmisRepository implements I_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#applyAcl(org.opencms.cmis.CmsCmisCallContext, java.lang.String, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.enums.AclPropagation)
      */
-    public synchronized Acl applyAcl(
+    public Acl applyAcl(
         CmsCmisCallContext context,
         String objectId,
         Acl aces,
@@ -113,7 +113,7 @@ public abstract class A_CmsCmisRepository implements I_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#applyPolicy(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String)
      */
-    public synchronized void applyPolicy(CmsCmisCallContext context, String policyId, String objectId) {
+    public void applyPolicy(CmsCmisCallContext context, String policyId, String objectId) {
 
         throw notSupported();
 
@@ -122,7 +122,7 @@ public abstract class A_CmsCmisRepository implements I_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#cancelCheckOut(org.opencms.cmis.CmsCmisCallContext, java.lang.String)
      */
-    public synchronized void cancelCheckOut(CmsCmisCallContext context, String objectId) {
+    public void cancelCheckOut(CmsCmisCallContext context, String objectId) {
 
         throw notSupported();
 
@@ -131,7 +131,7 @@ public abstract class A_CmsCmisRepository implements I_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#checkIn(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.spi.Holder, boolean, org.apache.chemistry.opencmis.commons.data.Properties, org.apache.chemistry.opencmis.commons.data.ContentStream, java.lang.String, java.util.List, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.data.Acl)
      */
-    public synchronized void checkIn(
+    public void checkIn(
         CmsCmisCallContext context,
         Holder<String> objectId,
         boolean major,
@@ -149,7 +149,7 @@ public abstract class A_CmsCmisRepository implements I_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#checkOut(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.spi.Holder, org.apache.chemistry.opencmis.commons.spi.Holder)
      */
-    public synchronized void checkOut(CmsCmisCallContext context, Holder<String> objectId, Holder<Boolean> contentCopied) {
+    public void checkOut(CmsCmisCallContext context, Holder<String> objectId, Holder<Boolean> contentCopied) {
 
         throw notSupported();
 
@@ -158,7 +158,7 @@ public abstract class A_CmsCmisRepository implements I_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#createPolicy(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.data.Properties, java.lang.String, java.util.List, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.data.Acl)
      */
-    public synchronized String createPolicy(
+    public String createPolicy(
         CmsCmisCallContext context,
         Properties properties,
         String folderId,
@@ -172,7 +172,7 @@ public abstract class A_CmsCmisRepository implements I_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getAllVersions(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.lang.String, boolean)
      */
-    public synchronized List<ObjectData> getAllVersions(
+    public List<ObjectData> getAllVersions(
         CmsCmisCallContext context,
         String objectId,
         String versionSeriesId,
@@ -185,7 +185,7 @@ public abstract class A_CmsCmisRepository implements I_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getAppliedPolicies(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String)
      */
-    public synchronized List<ObjectData> getAppliedPolicies(CmsCmisCallContext context, String objectId, String filter) {
+    public List<ObjectData> getAppliedPolicies(CmsCmisCallContext context, String objectId, String filter) {
 
         throw notSupported();
     }
@@ -193,7 +193,7 @@ public abstract class A_CmsCmisRepository implements I_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getContentChanges(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.spi.Holder, boolean, java.lang.String, boolean, boolean, java.math.BigInteger)
      */
-    public synchronized ObjectList getContentChanges(
+    public ObjectList getContentChanges(
         CmsCmisCallContext context,
         Holder<String> changeLogToken,
         boolean includeProperties,
@@ -208,7 +208,7 @@ public abstract class A_CmsCmisRepository implements I_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObjectOfLatestVersion(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, boolean, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, boolean, boolean)
      */
-    public synchronized ObjectData getObjectOfLatestVersion(
+    public ObjectData getObjectOfLatestVersion(
         CmsCmisCallContext context,
         String objectId,
         String versionSeriesId,
@@ -226,7 +226,7 @@ public abstract class A_CmsCmisRepository implements I_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getPropertiesOfLatestVersion(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, boolean, java.lang.String)
      */
-    public synchronized Properties getPropertiesOfLatestVersion(
+    public Properties getPropertiesOfLatestVersion(
         CmsCmisCallContext context,
         String objectId,
         String versionSeriesId,
@@ -239,7 +239,7 @@ public abstract class A_CmsCmisRepository implements I_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#query(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ObjectList query(
+    public ObjectList query(
         CmsCmisCallContext context,
         String statement,
         boolean searchAllVersions,
@@ -255,7 +255,7 @@ public abstract class A_CmsCmisRepository implements I_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#removeObjectFromFolder(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String)
      */
-    public synchronized void removeObjectFromFolder(CmsCmisCallContext context, String objectId, String folderId) {
+    public void removeObjectFromFolder(CmsCmisCallContext context, String objectId, String folderId) {
 
         throw notSupported();
 
@@ -264,7 +264,7 @@ public abstract class A_CmsCmisRepository implements I_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#removePolicy(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String)
      */
-    public synchronized void removePolicy(CmsCmisCallContext context, String policyId, String objectId) {
+    public void removePolicy(CmsCmisCallContext context, String policyId, String objectId) {
 
         throw notSupported();
 
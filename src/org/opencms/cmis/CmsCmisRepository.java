@@ -34,6 +34,7 @@ import static org.opencms.cmis.CmsCmisUtil.splitFilter;
 
 import org.opencms.configuration.CmsConfigurationException;
 import org.opencms.configuration.CmsParameterConfiguration;
+import org.opencms.db.CmsChildResourceOrder;
 import org.opencms.file.CmsFile;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsProject;
@@ -43,8 +44,10 @@ import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.CmsVfsResourceAlreadyExistsException;
 import org.opencms.file.types.CmsResourceTypeFolder;
 import org.opencms.file.types.I_CmsResourceType;
+import org.opencms.main.CmsEvent;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
+import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.OpenCms;
 import org.opencms.relations.CmsRelation;
 import org.opencms.relations.CmsRelationFilter;
@@ -62,6 +65,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigInteger;
+import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -69,6 +73,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 
 import org.apache.chemistry.opencmis.commons.PropertyIds;
 import org.apache.chemistry.opencmis.commons.data.Acl;
@@ -124,10 +130,19 @@ import org.apache.chemistry.opencmis.commons.impl.dataobjects.PermissionMappingD
 import org.apache.chemistry.opencmis.commons.impl.dataobjects.RepositoryCapabilitiesImpl;
 import org.apache.chemistry.opencmis.commons.impl.dataobjects.RepositoryInfoImpl;
 import org.apache.chemistry.opencmis.commons.spi.Holder;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.logging.Log;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.Striped;
+
 /**
  * Repository instance for CMIS repositories.<p>
+ *
+ * Read operations of different callers run in parallel. Write operations are only serialized if they
+ * affect the same object id, which is done with a fixed set of striped locks.<p>
  */
 public class CmsCmisRepository extends A_CmsCmisRepository {
 
@@ -190,6 +205,27 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /** The logger instance for this class. */
     protected static final Log LOG = CmsLog.getLog(CmsCmisRepository.class);
 
+    /** The number of minutes for which authenticated CMS contexts are reused. */
+    private static final int LOGIN_CACHE_MINUTES = 2;
+
+    /** The maximum number of authenticated CMS contexts which are cached. */
+    private static final int LOGIN_CACHE_SIZE = 500;
+
+    /** The number of random bytes used to salt the password hashes of the login cache. */
+    private static final int LOGIN_SALT_BYTES = 16;
+
+    /** The number of locks used for serializing write operations. */
+    private static final int OBJECT_LOCK_STRIPES = 64;
+
+    /** The number of minutes for which the position of a child list page is remembered. */
+    private static final int PAGE_CURSOR_MINUTES = 5;
+
+    /** The maximum number of remembered child list page positions. */
+    private static final int PAGE_CURSOR_SIZE = 1000;
+
+    /** The number of child resources read at once when skipping to a page which has no remembered position. */
+    private static final int SKIP_PAGE_SIZE = 500;
+
     /** The index parameter name. */
     private static final String PARAM_INDEX = "index";
 
@@ -213,6 +249,22 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
      */
     private boolean m_isReadOnly;
 
+    /** The authenticated CMS contexts by user name and salted password hash. */
+    private Cache<String, CmsObject> m_loginCache = CacheBuilder.newBuilder().expireAfterWrite(
+        LOGIN_CACHE_MINUTES,
+        TimeUnit.MINUTES).maximumSize(LOGIN_CACHE_SIZE).build();
+
+    /** The random salt for the password hashes of the login cache. */
+    private String m_loginSalt;
+
+    /** The striped locks for write operations, by object id. */
+    private Striped<Lock> m_objectLocks = Striped.lock(OBJECT_LOCK_STRIPES);
+
+    /** The last child resource before a page, by user name, folder id and offset of the page. */
+    private Cache<String, CmsResource> m_pageCursors = CacheBuilder.newBuilder().expireAfterAccess(
+        PAGE_CURSOR_MINUTES,
+        TimeUnit.MINUTES).maximumSize(PAGE_CURSOR_SIZE).build();
+
     /** The parameter configuration map. */
     private CmsParameterConfiguration m_parameterConfiguration = new CmsParameterConfiguration();
 
@@ -263,7 +315,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#createDocument(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.data.Properties, java.lang.String, org.apache.chemistry.opencmis.commons.data.ContentStream, org.apache.chemistry.opencmis.commons.enums.VersioningState, java.util.List, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.data.Acl)
      */
-    public synchronized String createDocument(
+    public String createDocument(
         CmsCmisCallContext context,
         Properties propertiesObj,
         String folderId,
@@ -275,54 +327,59 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
 
         checkWriteAccess();
 
-        if ((addAces != null) || (removeAces != null)) {
-            throw new CmisConstraintException("createDocument: ACEs not allowed");
-        }
-
-        if (contentStream == null) {
-            throw new CmisConstraintException("createDocument: no content stream given");
-        }
-
+        Lock lock = lockObject(folderId);
         try {
-            CmsObject cms = getCmsObject(context);
-            Map<String, PropertyData<?>> properties = propertiesObj.getProperties();
-            String newDocName = (String)properties.get(PropertyIds.NAME).getFirstValue();
-            String defaultType = OpenCms.getResourceManager().getDefaultTypeForName(newDocName).getTypeName();
-            String resTypeName = getResourceTypeFromProperties(properties, defaultType);
-            I_CmsResourceType cmsResourceType = OpenCms.getResourceManager().getResourceType(resTypeName);
-            if (cmsResourceType.isFolder()) {
-                throw new CmisConstraintException("Not a document type: " + resTypeName);
+            if ((addAces != null) || (removeAces != null)) {
+                throw new CmisConstraintException("createDocument: ACEs not allowed");
+            }
+
+            if (contentStream == null) {
+                throw new CmisConstraintException("createDocument: no content stream given");
             }
-            List<CmsProperty> cmsProperties = getOpenCmsProperties(properties);
-            checkResourceName(newDocName);
-            InputStream stream = contentStream.getStream();
-            byte[] content = CmsFileUtil.readFully(stream);
-            CmsUUID parentFolderId = new CmsUUID(folderId);
-            CmsResource parentFolder = cms.readResource(parentFolderId);
-            String newFolderPath = CmsStringUtil.joinPaths(parentFolder.getRootPath(), newDocName);
+
             try {
-                CmsResource newDocument = cms.createResource(
-                    newFolderPath,
-                    cmsResourceType.getTypeId(),
-                    content,
-                    cmsProperties);
-                cms.unlockResource(newDocument.getRootPath());
-                return newDocument.getStructureId().toString();
-            } catch (CmsVfsResourceAlreadyExistsException e) {
-                throw new CmisNameConstraintViolationException(e.getLocalizedMessage(), e);
+                CmsObject cms = getCmsObject(context);
+                Map<String, PropertyData<?>> properties = propertiesObj.getProperties();
+                String newDocName = (String)properties.get(PropertyIds.NAME).getFirstValue();
+                String defaultType = OpenCms.getResourceManager().getDefaultTypeForName(newDocName).getTypeName();
+                String resTypeName = getResourceTypeFromProperties(properties, defaultType);
+                I_CmsResourceType cmsResourceType = OpenCms.getResourceManager().getResourceType(resTypeName);
+                if (cmsResourceType.isFolder()) {
+                    throw new CmisConstraintException("Not a document type: " + resTypeName);
+                }
+                List<CmsProperty> cmsProperties = getOpenCmsProperties(properties);
+                checkResourceName(newDocName);
+                InputStream stream = contentStream.getStream();
+                byte[] content = CmsFileUtil.readFully(stream);
+                CmsUUID parentFolderId = new CmsUUID(folderId);
+                CmsResource parentFolder = cms.readResource(parentFolderId);
+                String newFolderPath = CmsStringUtil.joinPaths(parentFolder.getRootPath(), newDocName);
+                try {
+                    CmsResource newDocument = cms.createResource(
+                        newFolderPath,
+                        cmsResourceType.getTypeId(),
+                        content,
+                        cmsProperties);
+                    cms.unlockResource(newDocument.getRootPath());
+                    return newDocument.getStructureId().toString();
+                } catch (CmsVfsResourceAlreadyExistsException e) {
+                    throw new CmisNameConstraintViolationException(e.getLocalizedMessage(), e);
+                }
+            } catch (CmsException e) {
+                handleCmsException(e);
+                return null;
+            } catch (IOException e) {
+                throw new CmisRuntimeException(e.getLocalizedMessage(), e);
             }
-        } catch (CmsException e) {
-            handleCmsException(e);
-            return null;
-        } catch (IOException e) {
-            throw new CmisRuntimeException(e.getLocalizedMessage(), e);
+        } finally {
+            lock.unlock();
         }
     }
 
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#createDocumentFromSource(org.opencms.cmis.CmsCmisCallContext, java.lang.String, org.apache.chemistry.opencmis.commons.data.Properties, java.lang.String, org.apache.chemistry.opencmis.commons.enums.VersioningState, java.util.List, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.data.Acl)
      */
-    public synchronized String createDocumentFromSource(
+    public String createDocumentFromSource(
         CmsCmisCallContext context,
         String sourceId,
         Properties propertiesObj,
@@ -334,70 +391,75 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
 
         checkWriteAccess();
 
-        if ((addAces != null) || (removeAces != null)) {
-            throw new CmisConstraintException("createDocument: ACEs not allowed");
-        }
-
+        Lock lock = lockObject(folderId);
         try {
-            CmsObject cms = getCmsObject(context);
-            Map<String, PropertyData<?>> properties = new HashMap<String, PropertyData<?>>();
-            if (propertiesObj != null) {
-                properties = propertiesObj.getProperties();
+            if ((addAces != null) || (removeAces != null)) {
+                throw new CmisConstraintException("createDocument: ACEs not allowed");
             }
-            List<CmsProperty> cmsProperties = getOpenCmsProperties(properties);
-            CmsUUID parentFolderId = new CmsUUID(folderId);
-            CmsResource parentFolder = cms.readResource(parentFolderId);
-            CmsUUID sourceUuid = new CmsUUID(sourceId);
-            CmsResource source = cms.readResource(sourceUuid);
-            String sourcePath = source.getRootPath();
-
-            PropertyData<?> nameProp = properties.get(PropertyIds.NAME);
-            String newDocName;
-            if (nameProp != null) {
-                newDocName = (String)nameProp.getFirstValue();
-                checkResourceName(newDocName);
-            } else {
-                newDocName = CmsResource.getName(source.getRootPath());
-            }
-            String targetPath = CmsStringUtil.joinPaths(parentFolder.getRootPath(), newDocName);
 
             try {
-                cms.copyResource(sourcePath, targetPath);
-            } catch (CmsVfsResourceAlreadyExistsException e) {
-                throw new CmisNameConstraintViolationException(e.getLocalizedMessage(), e);
-            }
+                CmsObject cms = getCmsObject(context);
+                Map<String, PropertyData<?>> properties = new HashMap<String, PropertyData<?>>();
+                if (propertiesObj != null) {
+                    properties = propertiesObj.getProperties();
+                }
+                List<CmsProperty> cmsProperties = getOpenCmsProperties(properties);
+                CmsUUID parentFolderId = new CmsUUID(folderId);
+                CmsResource parentFolder = cms.readResource(parentFolderId);
+                CmsUUID sourceUuid = new CmsUUID(sourceId);
+                CmsResource source = cms.readResource(sourceUuid);
+                String sourcePath = source.getRootPath();
+
+                PropertyData<?> nameProp = properties.get(PropertyIds.NAME);
+                String newDocName;
+                if (nameProp != null) {
+                    newDocName = (String)nameProp.getFirstValue();
+                    checkResourceName(newDocName);
+                } else {
+                    newDocName = CmsResource.getName(source.getRootPath());
+                }
+                String targetPath = CmsStringUtil.joinPaths(parentFolder.getRootPath(), newDocName);
 
-            CmsResource targetResource = cms.readResource(targetPath);
-            cms.setDateLastModified(targetResource.getRootPath(), targetResource.getDateCreated(), false);
-            cms.unlockResource(targetResource);
-            boolean wasLocked = ensureLock(cms, targetResource);
-            cms.writePropertyObjects(targetResource, cmsProperties);
-            for (String key : properties.keySet()) {
-                if (key.startsWith(CmsCmisTypeManager.PROPERTY_PREFIX_DYNAMIC)) {
-                    I_CmsPropertyProvider provider = getTypeManager().getPropertyProvider(key);
-                    try {
-                        String value = (String)(properties.get(key).getFirstValue());
-                        provider.setPropertyValue(cms, targetResource, value);
-                    } catch (CmsException e) {
-                        LOG.error(e.getLocalizedMessage(), e);
-                    }
+                try {
+                    cms.copyResource(sourcePath, targetPath);
+                } catch (CmsVfsResourceAlreadyExistsException e) {
+                    throw new CmisNameConstraintViolationException(e.getLocalizedMessage(), e);
                 }
-            }
 
-            if (wasLocked) {
+                CmsResource targetResource = cms.readResource(targetPath);
+                cms.setDateLastModified(targetResource.getRootPath(), targetResource.getDateCreated(), false);
                 cms.unlockResource(targetResource);
+                boolean wasLocked = ensureLock(cms, targetResource);
+                cms.writePropertyObjects(targetResource, cmsProperties);
+                for (String key : properties.keySet()) {
+                    if (key.startsWith(CmsCmisTypeManager.PROPERTY_PREFIX_DYNAMIC)) {
+                        I_CmsPropertyProvider provider = getTypeManager().getPropertyProvider(key);
+                        try {
+                            String value = (String)(properties.get(key).getFirstValue());
+                            provider.setPropertyValue(cms, targetResource, value);
+                        } catch (CmsException e) {
+                            LOG.error(e.getLocalizedMessage(), e);
+                        }
+                    }
+                }
+
+                if (wasLocked) {
+                    cms.unlockResource(targetResource);
+                }
+                return targetResource.getStructureId().toString();
+            } catch (CmsException e) {
+                handleCmsException(e);
+                return null;
             }
-            return targetResource.getStructureId().toString();
-        } catch (CmsException e) {
-            handleCmsException(e);
-            return null;
+        } finally {
+            lock.unlock();
         }
     }
 
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#createFolder(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.data.Properties, java.lang.String, java.util.List, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.data.Acl)
      */
-    public synchronized String createFolder(
+    public String createFolder(
         CmsCmisCallContext context,
         Properties propertiesObj,
         String folderId,
@@ -407,45 +469,52 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
 
         checkWriteAccess();
 
-        if ((addAces != null) || (removeAces != null)) {
-            throw new CmisConstraintException("createFolder: ACEs not allowed");
-        }
-
+        Lock lock = lockObject(folderId);
         try {
-            CmsObject cms = getCmsObject(context);
-            Map<String, PropertyData<?>> properties = propertiesObj.getProperties();
-            String resTypeName = getResourceTypeFromProperties(properties, CmsResourceTypeFolder.getStaticTypeName());
-            I_CmsResourceType cmsResourceType = OpenCms.getResourceManager().getResourceType(resTypeName);
-            if (!cmsResourceType.isFolder()) {
-                throw new CmisConstraintException("Invalid folder type: " + resTypeName);
+            if ((addAces != null) || (removeAces != null)) {
+                throw new CmisConstraintException("createFolder: ACEs not allowed");
             }
-            List<CmsProperty> cmsProperties = getOpenCmsProperties(properties);
-            String newFolderName = (String)properties.get(PropertyIds.NAME).getFirstValue();
-            checkResourceName(newFolderName);
-            CmsUUID parentFolderId = new CmsUUID(folderId);
-            CmsResource parentFolder = cms.readResource(parentFolderId);
-            String newFolderPath = CmsStringUtil.joinPaths(parentFolder.getRootPath(), newFolderName);
+
             try {
-                CmsResource newFolder = cms.createResource(
-                    newFolderPath,
-                    cmsResourceType.getTypeId(),
-                    null,
-                    cmsProperties);
-                cms.unlockResource(newFolder);
-                return newFolder.getStructureId().toString();
-            } catch (CmsVfsResourceAlreadyExistsException e) {
-                throw new CmisNameConstraintViolationException(e.getLocalizedMessage(), e);
+                CmsObject cms = getCmsObject(context);
+                Map<String, PropertyData<?>> properties = propertiesObj.getProperties();
+                String resTypeName = getResourceTypeFromProperties(
+                    properties,
+                    CmsResourceTypeFolder.getStaticTypeName());
+                I_CmsResourceType cmsResourceType = OpenCms.getResourceManager().getResourceType(resTypeName);
+                if (!cmsResourceType.isFolder()) {
+                    throw new CmisConstraintException("Invalid folder type: " + resTypeName);
+                }
+                List<CmsProperty> cmsProperties = getOpenCmsProperties(properties);
+                String newFolderName = (String)properties.get(PropertyIds.NAME).getFirstValue();
+                checkResourceName(newFolderName);
+                CmsUUID parentFolderId = new CmsUUID(folderId);
+                CmsResource parentFolder = cms.readResource(parentFolderId);
+                String newFolderPath = CmsStringUtil.joinPaths(parentFolder.getRootPath(), newFolderName);
+                try {
+                    CmsResource newFolder = cms.createResource(
+                        newFolderPath,
+                        cmsResourceType.getTypeId(),
+                        null,
+                        cmsProperties);
+                    cms.unlockResource(newFolder);
+                    return newFolder.getStructureId().toString();
+                } catch (CmsVfsResourceAlreadyExistsException e) {
+                    throw new CmisNameConstraintViolationException(e.getLocalizedMessage(), e);
+                }
+            } catch (CmsException e) {
+                handleCmsException(e);
+                return null;
             }
-        } catch (CmsException e) {
-            handleCmsException(e);
-            return null;
+        } finally {
+            lock.unlock();
         }
     }
 
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#createRelationship(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.data.Properties, java.util.List, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.data.Acl)
      */
-    public synchronized String createRelationship(
+    public String createRelationship(
         CmsCmisCallContext context,
         Properties properties,
         List<String> policies,
@@ -464,16 +533,21 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
             String cmsTypeName = typeId.substring("opencms:".length());
             CmsUUID sourceId = new CmsUUID(sourceProp);
             CmsUUID targetId = new CmsUUID(targetProp);
-            CmsResource sourceRes = cms.readResource(sourceId);
-            boolean wasLocked = ensureLock(cms, sourceRes);
+            Lock lock = lockObject(sourceProp);
             try {
-                CmsResource targetRes = cms.readResource(targetId);
-                cms.addRelationToResource(sourceRes.getRootPath(), targetRes.getRootPath(), cmsTypeName);
-                return "REL_" + sourceRes.getStructureId() + "_" + targetRes.getStructureId() + "_" + cmsTypeName;
-            } finally {
-                if (wasLocked) {
-                    cms.unlockResource(sourceRes);
+                CmsResource sourceRes = cms.readResource(sourceId);
+                boolean wasLocked = ensureLock(cms, sourceRes);
+                try {
+                    CmsResource targetRes = cms.readResource(targetId);
+                    cms.addRelationToResource(sourceRes.getRootPath(), targetRes.getRootPath(), cmsTypeName);
+                    return "REL_" + sourceRes.getStructureId() + "_" + targetRes.getStructureId() + "_" + cmsTypeName;
+                } finally {
+                    if (wasLocked) {
+                        cms.unlockResource(sourceRes);
+                    }
                 }
+            } finally {
+                lock.unlock();
             }
         } catch (CmsException e) {
             CmsCmisUtil.handleCmsException(e);
@@ -484,7 +558,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#deleteContentStream(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.spi.Holder, org.apache.chemistry.opencmis.commons.spi.Holder)
      */
-    public synchronized void deleteContentStream(
+    public void deleteContentStream(
         CmsCmisCallContext context,
         Holder<String> objectId,
         Holder<String> changeToken) {
@@ -496,16 +570,22 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#deleteObject(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean)
      */
-    public synchronized void deleteObject(CmsCmisCallContext context, String objectId, boolean allVersions) {
+    public void deleteObject(CmsCmisCallContext context, String objectId, boolean allVersions) {
 
         checkWriteAccess();
-        getHelper(objectId).deleteObject(context, objectId, allVersions);
+
+        Lock lock = lockObject(objectId);
+        try {
+            getHelper(objectId).deleteObject(context, objectId, allVersions);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#deleteTree(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.UnfileObject, boolean)
      */
-    public synchronized FailedToDeleteData deleteTree(
+    public FailedToDeleteData deleteTree(
         CmsCmisCallContext context,
         String folderId,
         boolean allVersions,
@@ -514,29 +594,34 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
 
         checkWriteAccess();
 
+        Lock lock = lockObject(folderId);
         try {
+            try {
 
-            FailedToDeleteDataImpl result = new FailedToDeleteDataImpl();
-            result.setIds(new ArrayList<String>());
-            CmsObject cms = getCmsObject(context);
-            CmsUUID structureId = new CmsUUID(folderId);
-            CmsResource folder = cms.readResource(structureId);
-            if (!folder.isFolder()) {
-                throw new CmisConstraintException("deleteTree can only be used on folders.");
+                FailedToDeleteDataImpl result = new FailedToDeleteDataImpl();
+                result.setIds(new ArrayList<String>());
+                CmsObject cms = getCmsObject(context);
+                CmsUUID structureId = new CmsUUID(folderId);
+                CmsResource folder = cms.readResource(structureId);
+                if (!folder.isFolder()) {
+                    throw new CmisConstraintException("deleteTree can only be used on folders.");
+                }
+                ensureLock(cms, folder);
+                cms.deleteResource(folder.getRootPath(), CmsResource.DELETE_PRESERVE_SIBLINGS);
+                return result;
+            } catch (CmsException e) {
+                handleCmsException(e);
+                return null;
             }
-            ensureLock(cms, folder);
-            cms.deleteResource(folder.getRootPath(), CmsResource.DELETE_PRESERVE_SIBLINGS);
-            return result;
-        } catch (CmsException e) {
-            handleCmsException(e);
-            return null;
+        } finally {
+            lock.unlock();
         }
     }
 
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getAcl(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean)
      */
-    public synchronized Acl getAcl(CmsCmisCallContext context, String objectId, boolean onlyBasicPermissions) {
+    public Acl getAcl(CmsCmisCallContext context, String objectId, boolean onlyBasicPermissions) {
 
         return getHelper(objectId).getAcl(context, objectId, onlyBasicPermissions);
     }
@@ -544,7 +629,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getAllowableActions(org.opencms.cmis.CmsCmisCallContext, java.lang.String)
      */
-    public synchronized AllowableActions getAllowableActions(CmsCmisCallContext context, String objectId) {
+    public AllowableActions getAllowableActions(CmsCmisCallContext context, String objectId) {
 
         return getHelper(objectId).getAllowableActions(context, objectId);
     }
@@ -552,7 +637,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getCheckedOutDocs(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ObjectList getCheckedOutDocs(
+    public ObjectList getCheckedOutDocs(
         CmsCmisCallContext context,
         String folderId,
         String filter,
@@ -571,7 +656,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getChildren(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, boolean, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ObjectInFolderList getChildren(
+    public ObjectInFolderList getChildren(
         CmsCmisCallContext context,
         String folderId,
         String filter,
@@ -622,13 +707,39 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
             // prepare result
             ObjectInFolderListImpl result = new ObjectInFolderListImpl();
             String folderSitePath = cms.getRequestContext().getSitePath(folder);
-            List<CmsResource> children = cms.getResourcesInFolder(folderSitePath, CmsResourceFilter.DEFAULT);
-            CmsObjectListLimiter<CmsResource> limiter = new CmsObjectListLimiter<CmsResource>(
-                children,
-                maxItems,
-                skipCount);
+            CmsChildResourceOrder order = getChildResourceOrder(orderBy);
+            String cursorPrefix = cms.getRequestContext().getCurrentUser().getName()
+                + ":"
+                + folderId
+                + ":"
+                + order.name()
+                + ":";
+            CmsResource startAfter = null;
+            if (skip > 0) {
+                startAfter = m_pageCursors.getIfPresent(cursorPrefix + skip);
+                if (startAfter == null) {
+                    startAfter = skipChildren(cms, folderSitePath, order, skip);
+                }
+            }
+            // read one more resource than requested to find out if there are more items
+            List<CmsResource> children = new ArrayList<CmsResource>();
+            if ((startAfter != null) || (skip == 0)) {
+                children = cms.getResourcesInFolder(
+                    folderSitePath,
+                    CmsResourceFilter.DEFAULT,
+                    order,
+                    startAfter,
+                    max == Integer.MAX_VALUE ? max : max + 1);
+            }
+            boolean hasMore = children.size() > max;
+            if (hasMore) {
+                children = children.subList(0, max);
+                if (max > 0) {
+                    m_pageCursors.put(cursorPrefix + (skip + max), children.get(max - 1));
+                }
+            }
             List<ObjectInFolderData> resultObjects = new ArrayList<ObjectInFolderData>();
-            for (CmsResource child : limiter) {
+            for (CmsResource child : children) {
                 // build and add child object
                 ObjectInFolderDataImpl objectInFolder = new ObjectInFolderDataImpl();
                 objectInFolder.setObject(helper.collectObjectData(
@@ -646,8 +757,11 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
                 resultObjects.add(objectInFolder);
             }
             result.setObjects(resultObjects);
-            result.setNumItems(BigInteger.valueOf(children.size()));
-            result.setHasMoreItems(Boolean.valueOf(limiter.hasMore()));
+            // the count does not check permissions, so it is an estimate
+            result.setNumItems(BigInteger.valueOf(Math.max(
+                cms.countResourcesInFolder(folderSitePath),
+                skip + resultObjects.size())));
+            result.setHasMoreItems(Boolean.valueOf(hasMore));
             return result;
         } catch (CmsException e) {
             handleCmsException(e);
@@ -667,7 +781,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getContentStream(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ContentStream getContentStream(
+    public ContentStream getContentStream(
         CmsCmisCallContext context,
         String objectId,
         String streamId,
@@ -708,7 +822,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getDescendants(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.math.BigInteger, java.lang.String, boolean, boolean, boolean)
      */
-    public synchronized List<ObjectInFolderContainer> getDescendants(
+    public List<ObjectInFolderContainer> getDescendants(
         CmsCmisCallContext context,
         String folderId,
         BigInteger depth,
@@ -797,7 +911,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getFolderParent(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String)
      */
-    public synchronized ObjectData getFolderParent(CmsCmisCallContext context, String folderId, String filter) {
+    public ObjectData getFolderParent(CmsCmisCallContext context, String folderId, String filter) {
 
         List<ObjectParentData> parents = getObjectParents(context, folderId, filter, false, false);
         if (parents.size() == 0) {
@@ -825,7 +939,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObject(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, boolean, boolean)
      */
-    public synchronized ObjectData getObject(
+    public ObjectData getObject(
         CmsCmisCallContext context,
         String objectId,
         String filter,
@@ -849,7 +963,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObjectByPath(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, boolean, boolean)
      */
-    public synchronized ObjectData getObjectByPath(
+    public ObjectData getObjectByPath(
         CmsCmisCallContext context,
         String path,
         String filter,
@@ -893,7 +1007,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObjectParents(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, boolean, boolean)
      */
-    public synchronized List<ObjectParentData> getObjectParents(
+    public List<ObjectParentData> getObjectParents(
         CmsCmisCallContext context,
         String objectId,
         String filter,
@@ -948,7 +1062,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObjectRelationships(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.RelationshipDirection, java.lang.String, java.lang.String, boolean, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ObjectList getObjectRelationships(
+    public ObjectList getObjectRelationships(
         CmsCmisCallContext context,
         String objectId,
         boolean includeSubRelationshipTypes,
@@ -993,7 +1107,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getProperties(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String)
      */
-    public synchronized Properties getProperties(CmsCmisCallContext context, String objectId, String filter) {
+    public Properties getProperties(CmsCmisCallContext context, String objectId, String filter) {
 
         ObjectData object = getObject(context, objectId, null, false, null, null, false, false);
         return object.getProperties();
@@ -1002,7 +1116,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getRenditions(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized List<RenditionData> getRenditions(
+    public List<RenditionData> getRenditions(
         CmsCmisCallContext context,
         String objectId,
         String renditionFilter,
@@ -1030,7 +1144,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getRepositoryInfo()
      */
-    public synchronized RepositoryInfo getRepositoryInfo() {
+    public RepositoryInfo getRepositoryInfo() {
 
         // compile repository info
         RepositoryInfoImpl repositoryInfo = new RepositoryInfoImpl();
@@ -1104,7 +1218,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getTypeChildren(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized TypeDefinitionList getTypeChildren(
+    public TypeDefinitionList getTypeChildren(
         CmsCmisCallContext context,
         String typeId,
         boolean includePropertyDefinitions,
@@ -1117,7 +1231,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getTypeDefinition(org.opencms.cmis.CmsCmisCallContext, java.lang.String)
      */
-    public synchronized TypeDefinition getTypeDefinition(CmsCmisCallContext context, String typeId) {
+    public TypeDefinition getTypeDefinition(CmsCmisCallContext context, String typeId) {
 
         return m_typeManager.getTypeDefinition(typeId);
     }
@@ -1125,7 +1239,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getTypeDescendants(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.math.BigInteger, boolean)
      */
-    public synchronized List<TypeDefinitionContainer> getTypeDescendants(
+    public List<TypeDefinitionContainer> getTypeDescendants(
         CmsCmisCallContext context,
         String typeId,
         BigInteger depth,
@@ -1185,12 +1299,26 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
         m_adminCms = offlineCms;
         m_root = root;
         m_isReadOnly = project.isOnlineProject();
+        byte[] salt = new byte[LOGIN_SALT_BYTES];
+        new SecureRandom().nextBytes(salt);
+        m_loginSalt = new String(Hex.encodeHex(salt));
+        OpenCms.addCmsEventListener(new I_CmsEventListener() {
+
+            public void cmsEvent(CmsEvent event) {
+
+                // user changes may invalidate the credentials or permissions of a cached login
+                m_loginCache.invalidateAll();
+            }
+        }, new int[] {
+            I_CmsEventListener.EVENT_USER_MODIFIED,
+            I_CmsEventListener.EVENT_CLEAR_CACHES,
+            I_CmsEventListener.EVENT_CLEAR_PRINCIPAL_CACHES});
     }
 
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#moveObject(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.spi.Holder, java.lang.String, java.lang.String)
      */
-    public synchronized void moveObject(
+    public void moveObject(
         CmsCmisCallContext context,
         Holder<String> objectId,
         String targetFolderId,
@@ -1198,25 +1326,30 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
 
         checkWriteAccess();
 
+        Lock lock = lockObject(objectId.getValue());
         try {
-            CmsObject cms = getCmsObject(context);
-            CmsUUID structureId = new CmsUUID(objectId.getValue());
-            CmsUUID targetStructureId = new CmsUUID(targetFolderId);
-            CmsResource targetFolder = cms.readResource(targetStructureId);
-            CmsResource resourceToMove = cms.readResource(structureId);
-            String name = CmsResource.getName(resourceToMove.getRootPath());
-            String newPath = CmsStringUtil.joinPaths(targetFolder.getRootPath(), name);
-            boolean wasLocked = ensureLock(cms, resourceToMove);
             try {
-                cms.moveResource(resourceToMove.getRootPath(), newPath);
-            } finally {
-                if (wasLocked) {
-                    CmsResource movedResource = cms.readResource(resourceToMove.getStructureId());
-                    cms.unlockResource(movedResource);
+                CmsObject cms = getCmsObject(context);
+                CmsUUID structureId = new CmsUUID(objectId.getValue());
+                CmsUUID targetStructureId = new CmsUUID(targetFolderId);
+                CmsResource targetFolder = cms.readResource(targetStructureId);
+                CmsResource resourceToMove = cms.readResource(structureId);
+                String name = CmsResource.getName(resourceToMove.getRootPath());
+                String newPath = CmsStringUtil.joinPaths(targetFolder.getRootPath(), name);
+                boolean wasLocked = ensureLock(cms, resourceToMove);
+                try {
+                    cms.moveResource(resourceToMove.getRootPath(), newPath);
+                } finally {
+                    if (wasLocked) {
+                        CmsResource movedResource = cms.readResource(resourceToMove.getStructureId());
+                        cms.unlockResource(movedResource);
+                    }
                 }
+            } catch (CmsException e) {
+                handleCmsException(e);
             }
-        } catch (CmsException e) {
-            handleCmsException(e);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -1224,7 +1357,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
      * @see org.opencms.cmis.I_CmsCmisRepository#query(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
     @Override
-    public synchronized ObjectList query(
+    public ObjectList query(
         CmsCmisCallContext context,
         String statement,
         boolean searchAllVersions,
@@ -1280,7 +1413,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#setContentStream(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.spi.Holder, boolean, org.apache.chemistry.opencmis.commons.spi.Holder, org.apache.chemistry.opencmis.commons.data.ContentStream)
      */
-    public synchronized void setContentStream(
+    public void setContentStream(
         CmsCmisCallContext context,
         Holder<String> objectId,
         boolean overwriteFlag,
@@ -1289,29 +1422,34 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
 
         checkWriteAccess();
 
+        Lock lock = lockObject(objectId.getValue());
         try {
-            CmsObject cms = getCmsObject(context);
-            CmsUUID structureId = new CmsUUID(objectId.getValue());
-            if (!overwriteFlag) {
-                throw new CmisContentAlreadyExistsException();
-            }
-            CmsResource resource = cms.readResource(structureId);
-            if (resource.isFolder()) {
-                throw new CmisStreamNotSupportedException("Folders may not have content streams.");
-            }
-            CmsFile file = cms.readFile(resource);
-            InputStream contentInput = contentStream.getStream();
-            byte[] newContent = CmsFileUtil.readFully(contentInput);
-            file.setContents(newContent);
-            boolean wasLocked = ensureLock(cms, resource);
-            CmsFile newFile = cms.writeFile(file);
-            if (wasLocked) {
-                cms.unlockResource(newFile);
+            try {
+                CmsObject cms = getCmsObject(context);
+                CmsUUID structureId = new CmsUUID(objectId.getValue());
+                if (!overwriteFlag) {
+                    throw new CmisContentAlreadyExistsException();
+                }
+                CmsResource resource = cms.readResource(structureId);
+                if (resource.isFolder()) {
+                    throw new CmisStreamNotSupportedException("Folders may not have content streams.");
+                }
+                CmsFile file = cms.readFile(resource);
+                InputStream contentInput = contentStream.getStream();
+                byte[] newContent = CmsFileUtil.readFully(contentInput);
+                file.setContents(newContent);
+                boolean wasLocked = ensureLock(cms, resource);
+                CmsFile newFile = cms.writeFile(file);
+                if (wasLocked) {
+                    cms.unlockResource(newFile);
+                }
+            } catch (CmsException e) {
+                handleCmsException(e);
+            } catch (IOException e) {
+                throw new CmisRuntimeException(e.getLocalizedMessage(), e);
             }
-        } catch (CmsException e) {
-            handleCmsException(e);
-        } catch (IOException e) {
-            throw new CmisRuntimeException(e.getLocalizedMessage(), e);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -1335,7 +1473,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#updateProperties(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.spi.Holder, org.apache.chemistry.opencmis.commons.spi.Holder, org.apache.chemistry.opencmis.commons.data.Properties)
      */
-    public synchronized void updateProperties(
+    public void updateProperties(
         CmsCmisCallContext context,
         Holder<String> objectId,
         Holder<String> changeToken,
@@ -1343,45 +1481,50 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
 
         checkWriteAccess();
 
+        Lock lock = lockObject(objectId.getValue());
         try {
-
-            CmsObject cms = getCmsObject(context);
-            CmsUUID structureId = new CmsUUID(objectId.getValue());
-            CmsResource resource = cms.readResource(structureId);
-            Map<String, PropertyData<?>> propertyMap = properties.getProperties();
-            List<CmsProperty> cmsProperties = getOpenCmsProperties(propertyMap);
-            boolean wasLocked = ensureLock(cms, resource);
             try {
-                cms.writePropertyObjects(resource, cmsProperties);
-                @SuppressWarnings("unchecked")
-                PropertyData<String> nameProperty = (PropertyData<String>)propertyMap.get(PropertyIds.NAME);
-                if (nameProperty != null) {
-                    String newName = nameProperty.getFirstValue();
-                    checkResourceName(newName);
-                    String parentFolder = CmsResource.getParentFolder(resource.getRootPath());
-                    String newPath = CmsStringUtil.joinPaths(parentFolder, newName);
-                    cms.moveResource(resource.getRootPath(), newPath);
-                    resource = cms.readResource(resource.getStructureId());
-                }
 
-                for (String key : properties.getProperties().keySet()) {
-                    if (key.startsWith(CmsCmisTypeManager.PROPERTY_PREFIX_DYNAMIC)) {
-                        I_CmsPropertyProvider provider = getTypeManager().getPropertyProvider(key);
-                        try {
-                            String value = (String)(properties.getProperties().get(key).getFirstValue());
-                            provider.setPropertyValue(cms, resource, value);
-                        } catch (CmsException e) {
-                            LOG.error(e.getLocalizedMessage(), e);
+                CmsObject cms = getCmsObject(context);
+                CmsUUID structureId = new CmsUUID(objectId.getValue());
+                CmsResource resource = cms.readResource(structureId);
+                Map<String, PropertyData<?>> propertyMap = properties.getProperties();
+                List<CmsProperty> cmsProperties = getOpenCmsProperties(propertyMap);
+                boolean wasLocked = ensureLock(cms, resource);
+                try {
+                    cms.writePropertyObjects(resource, cmsProperties);
+                    @SuppressWarnings("unchecked")
+                    PropertyData<String> nameProperty = (PropertyData<String>)propertyMap.get(PropertyIds.NAME);
+                    if (nameProperty != null) {
+                        String newName = nameProperty.getFirstValue();
+                        checkResourceName(newName);
+                        String parentFolder = CmsResource.getParentFolder(resource.getRootPath());
+                        String newPath = CmsStringUtil.joinPaths(parentFolder, newName);
+                        cms.moveResource(resource.getRootPath(), newPath);
+                        resource = cms.readResource(resource.getStructureId());
+                    }
+
+                    for (String key : properties.getProperties().keySet()) {
+                        if (key.startsWith(CmsCmisTypeManager.PROPERTY_PREFIX_DYNAMIC)) {
+                            I_CmsPropertyProvider provider = getTypeManager().getPropertyProvider(key);
+                            try {
+                                String value = (String)(properties.getProperties().get(key).getFirstValue());
+                                provider.setPropertyValue(cms, resource, value);
+                            } catch (CmsException e) {
+                                LOG.error(e.getLocalizedMessage(), e);
+                            }
                         }
                     }
+                } finally {
+                    if (wasLocked) {
+                        cms.unlockResource(resource);
+                    }
                 }
-            } finally {
-                if (wasLocked) {
-                    cms.unlockResource(resource);
-                }
+            } catch (CmsException e) {
+                handleCmsException(e);
             }
-        } catch (CmsException e) {
-            handleCmsException(e);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -1398,6 +1541,10 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * Initializes a CMS context for the authentication data contained in a call context.<p>
      * 
+     * A successful login is cached for a short time, so subsequent calls with the same credentials
+     * only need to copy the already authenticated context. The cache is keyed by the user name and a
+     * salted hash of the password, and is cleared whenever a user is modified.<p>
+     * 
      * @param context the call context
      * @return the initialized CMS context 
      */
@@ -1410,11 +1557,19 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
                 cms.getRequestContext().setCurrentProject(m_adminCms.getRequestContext().getCurrentProject());
                 return cms;
             } else {
-                CmsObject cms = OpenCms.initCmsObject(m_adminCms);
-                CmsProject projectBeforeLogin = cms.getRequestContext().getCurrentProject();
-                cms.loginUser(context.getUsername(), context.getPassword());
-                cms.getRequestContext().setCurrentProject(projectBeforeLogin);
-                return cms;
+                String cacheKey = context.getUsername()
+                    + ":"
+                    + DigestUtils.sha256Hex(m_loginSalt + String.valueOf(context.getPassword()));
+                CmsObject loggedInCms = m_loginCache.getIfPresent(cacheKey);
+                if (loggedInCms == null) {
+                    loggedInCms = OpenCms.initCmsObject(m_adminCms);
+                    CmsProject projectBeforeLogin = loggedInCms.getRequestContext().getCurrentProject();
+                    loggedInCms.loginUser(context.getUsername(), context.getPassword());
+                    loggedInCms.getRequestContext().setCurrentProject(projectBeforeLogin);
+                    m_loginCache.put(cacheKey, loggedInCms);
+                }
+                // every call gets its own copy, the request context must not be shared between threads
+                return OpenCms.initCmsObject(loggedInCms);
             }
         } catch (CmsException e) {
             throw new CmisPermissionDeniedException(e.getLocalizedMessage(), e);
@@ -1564,6 +1719,22 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
         return resultPage;
     }
 
+    /**
+     * Acquires the write lock for the given object id.<p>
+     * 
+     * The caller is responsible for releasing the returned lock.<p>
+     * 
+     * @param objectId the id of the object which should be changed
+     * 
+     * @return the acquired lock 
+     */
+    Lock lockObject(String objectId) {
+
+        Lock lock = m_objectLocks.get(objectId != null ? objectId : "");
+        lock.lock();
+        return lock;
+    }
+
     /**
      * Helper method to collect the descendants of a given folder.<p>
      *  
@@ -1646,6 +1817,28 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
         }
     }
 
+    /**
+     * Returns the order of the child resources for the orderBy parameter of a CMIS call.<p>
+     * 
+     * Ascending order by the last modification date is supported, all other orders fall back
+     * to the order by name.<p>
+     * 
+     * @param orderBy the orderBy parameter, may be null
+     * 
+     * @return the order of the child resources 
+     */
+    private CmsChildResourceOrder getChildResourceOrder(String orderBy) {
+
+        if (orderBy != null) {
+            String[] parts = orderBy.trim().split("\\s+");
+            if (PropertyIds.LAST_MODIFICATION_DATE.equals(parts[0])
+                && ((parts.length == 1) || ((parts.length == 2) && "ASC".equalsIgnoreCase(parts[1])))) {
+                return CmsChildResourceOrder.DATE_LASTMODIFIED;
+            }
+        }
+        return CmsChildResourceOrder.NAME;
+    }
+
     /**
      * Gets the index to use for queries.<p>
      * 
@@ -1680,4 +1873,38 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
         return m_resourceHelper;
     }
 
+    /**
+     * Skips the given number of child resources of a folder without converting them to CMIS objects.<p>
+     *
+     * @param cms the CMS context
+     * @param folderSitePath the site path of the folder
+     * @param order the order of the child resources
+     * @param skip the number of child resources to skip
+     *
+     * @return the last skipped child resource, or null if the folder has not more than <code>skip</code> children
+     *
+     * @throws CmsException if something goes wrong
+     */
+    private CmsResource skipChildren(CmsObject cms, String folderSitePath, CmsChildResourceOrder order, int skip)
+    throws CmsException {
+
+        CmsResource startAfter = null;
+        int remaining = skip;
+        while (remaining > 0) {
+            int pageSize = Math.min(remaining, SKIP_PAGE_SIZE);
+            List<CmsResource> page = cms.getResourcesInFolder(
+                folderSitePath,
+                CmsResourceFilter.DEFAULT,
+                order,
+                startAfter,
+                pageSize);
+            if (page.size() < pageSize) {
+                return null;
+            }
+            startAfter = page.get(page.size() - 1);
+            remaining -= pageSize;
+        }
+        return startAfter;
+    }
+
 }
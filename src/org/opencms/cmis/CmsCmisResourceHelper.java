@@ -116,7 +116,7 @@ public class CmsCmisResourceHelper implements I_CmsCmisObjectHelper {
      * @param objectId the id of the object to delete 
      * @param allVersions flag to delete all version 
      */
-    public synchronized void deleteObject(CmsCmisCallContext context, String objectId, boolean allVersions) {
+    public void deleteObject(CmsCmisCallContext context, String objectId, boolean allVersions) {
 
         try {
             CmsObject cms = m_repository.getCmsObject(context);
@@ -144,7 +144,7 @@ public class CmsCmisResourceHelper implements I_CmsCmisObjectHelper {
      * 
      * @return the ACL for the object 
      */
-    public synchronized Acl getAcl(CmsCmisCallContext context, String objectId, boolean onlyBasicPermissions) {
+    public Acl getAcl(CmsCmisCallContext context, String objectId, boolean onlyBasicPermissions) {
 
         try {
 
@@ -166,7 +166,7 @@ public class CmsCmisResourceHelper implements I_CmsCmisObjectHelper {
      * @param objectId the object id 
      * @return the allowable actions 
      */
-    public synchronized AllowableActions getAllowableActions(CmsCmisCallContext context, String objectId) {
+    public AllowableActions getAllowableActions(CmsCmisCallContext context, String objectId) {
 
         try {
             CmsObject cms = m_repository.getCmsObject(context);
@@ -193,7 +193,7 @@ public class CmsCmisResourceHelper implements I_CmsCmisObjectHelper {
      * 
      * @return the CMIS object data 
      */
-    public synchronized ObjectData getObject(
+    public ObjectData getObject(
         CmsCmisCallContext context,
         String objectId,
         String filter,
@@ -67,6 +67,37 @@ import org.apache.commons.logging.Log;
  */
 public class CmsCmisTypeManager {
 
+    /**
+     * The type definitions and OpenCms property definitions read at one time.<p>
+     * 
+     * An instance is filled completely before it is published, and is not modified afterwards.<p>
+     */
+    private static class TypeData {
+
+        /** The list of OpenCms property definitions. */
+        final List<CmsPropertyDefinition> m_cmsPropertyDefinitions;
+
+        /** The time at which the data was read. */
+        final long m_lastUpdate;
+
+        /** The internal list of type definitions. */
+        final List<TypeDefinitionContainer> m_typeList = new ArrayList<TypeDefinitionContainer>();
+
+        /** The internal map of type definitions. */
+        final Map<String, TypeDefinitionContainerImpl> m_types = new HashMap<String, TypeDefinitionContainerImpl>();
+
+        /**
+         * Creates a new, empty instance.<p>
+         * 
+         * @param cmsPropertyDefinitions the OpenCms property definitions 
+         */
+        TypeData(List<CmsPropertyDefinition> cmsPropertyDefinitions) {
+
+            m_cmsPropertyDefinitions = cmsPropertyDefinitions;
+            m_lastUpdate = System.currentTimeMillis();
+        }
+    }
+
     /** CMIS type id for documents. */
     public static final String DOCUMENT_TYPE_ID = BaseTypeId.CMIS_DOCUMENT.value();
 
@@ -106,21 +137,12 @@ public class CmsCmisTypeManager {
     /** The admin CMS context. */
     private CmsObject m_adminCms;
 
-    /** The list of OpenCms property definitions. */
-    private List<CmsPropertyDefinition> m_cmsPropertyDefinitions;
-
-    /** The last update time. */
-    private long m_lastUpdate;
+    /** The current type data, replaced as a whole on refresh. */
+    private volatile TypeData m_data;
 
     /** List of dynamic property providers. */
     private List<I_CmsPropertyProvider> m_propertyProviders = new ArrayList<I_CmsPropertyProvider>();
 
-    /** The internal list of type definitions. */
-    private List<TypeDefinitionContainer> m_typeList;
-
-    /** The internal map of type definitions. */
-    private Map<String, TypeDefinitionContainerImpl> m_types;
-
     /**
      * Creates a new type manager instance.<p>
      * 
@@ -554,9 +576,9 @@ public class CmsCmisTypeManager {
      */
     public List<String> getCmsPropertyNames() {
 
-        refresh();
+        TypeData data = refresh();
         List<String> result = new ArrayList<String>();
-        for (CmsPropertyDefinition propDef : m_cmsPropertyDefinitions) {
+        for (CmsPropertyDefinition propDef : data.m_cmsPropertyDefinitions) {
             result.add(propDef.getName());
         }
         return result;
@@ -600,8 +622,7 @@ public class CmsCmisTypeManager {
      */
     public TypeDefinition getType(String typeId) {
 
-        refresh();
-        TypeDefinitionContainer tc = m_types.get(typeId);
+        TypeDefinitionContainer tc = refresh().m_types.get(typeId);
         if (tc == null) {
             return null;
         }
@@ -623,7 +644,7 @@ public class CmsCmisTypeManager {
 
     String typeId, boolean includePropertyDefinitions, BigInteger maxItems, BigInteger skipCount) {
 
-        refresh();
+        Map<String, TypeDefinitionContainerImpl> types = refresh().m_types;
         TypeDefinitionListImpl result = new TypeDefinitionListImpl(new ArrayList<TypeDefinition>());
 
         int skip = (skipCount == null ? 0 : skipCount.intValue());
@@ -638,18 +659,18 @@ public class CmsCmisTypeManager {
 
         if (typeId == null) {
             if (skip < 1) {
-                result.getList().add(copyTypeDefintion(m_types.get(FOLDER_TYPE_ID).getTypeDefinition()));
+                result.getList().add(copyTypeDefintion(types.get(FOLDER_TYPE_ID).getTypeDefinition()));
                 max--;
             }
             if ((skip < 2) && (max > 0)) {
-                result.getList().add(copyTypeDefintion(m_types.get(DOCUMENT_TYPE_ID).getTypeDefinition()));
+                result.getList().add(copyTypeDefintion(types.get(DOCUMENT_TYPE_ID).getTypeDefinition()));
                 max--;
             }
 
             result.setHasMoreItems(Boolean.valueOf((result.getList().size() + skip) < 2));
             result.setNumItems(BigInteger.valueOf(2));
         } else {
-            TypeDefinitionContainer tc = m_types.get(typeId);
+            TypeDefinitionContainer tc = types.get(typeId);
             if ((tc == null) || (tc.getChildren() == null)) {
                 return result;
             }
@@ -690,8 +711,7 @@ public class CmsCmisTypeManager {
      */
     public TypeDefinition getTypeDefinition(String typeId) {
 
-        refresh();
-        TypeDefinitionContainer tc = m_types.get(typeId);
+        TypeDefinitionContainer tc = refresh().m_types.get(typeId);
         if (tc == null) {
             throw new CmisObjectNotFoundException("Type '" + typeId + "' is unknown!");
         }
@@ -712,7 +732,7 @@ public class CmsCmisTypeManager {
 
     String typeId, BigInteger depth, boolean includePropertyDefinitions) {
 
-        refresh();
+        Map<String, TypeDefinitionContainerImpl> types = refresh().m_types;
         List<TypeDefinitionContainer> result = new ArrayList<TypeDefinitionContainer>();
 
         // check depth
@@ -722,11 +742,11 @@ public class CmsCmisTypeManager {
         }
 
         if (typeId == null) {
-            result.add(getTypeDescendants(d, m_types.get(FOLDER_TYPE_ID), includePropertyDefinitions));
-            result.add(getTypeDescendants(d, m_types.get(DOCUMENT_TYPE_ID), includePropertyDefinitions));
-            result.add(getTypeDescendants(d, m_types.get(RELATIONSHIP_TYPE_ID), includePropertyDefinitions));
+            result.add(getTypeDescendants(d, types.get(FOLDER_TYPE_ID), includePropertyDefinitions));
+            result.add(getTypeDescendants(d, types.get(DOCUMENT_TYPE_ID), includePropertyDefinitions));
+            result.add(getTypeDescendants(d, types.get(RELATIONSHIP_TYPE_ID), includePropertyDefinitions));
         } else {
-            TypeDefinitionContainer tc = m_types.get(typeId);
+            TypeDefinitionContainer tc = types.get(typeId);
             if (tc != null) {
                 result.add(getTypeDescendants(d, tc, includePropertyDefinitions));
             }
@@ -756,15 +776,15 @@ public class CmsCmisTypeManager {
     }
 
     /**
-     * Creates the base types.
+     * Creates the base types.<p>
+     * 
+     * The types are built in a new type data instance, which replaces the current one when it is complete.<p>
      * 
      * @throws CmsException if something goes wrong 
      */
     void setup() throws CmsException {
 
-        m_types = new HashMap<String, TypeDefinitionContainerImpl>();
-        m_typeList = new ArrayList<TypeDefinitionContainer>();
-        m_cmsPropertyDefinitions = m_adminCms.readAllPropertyDefinitions();
+        TypeData data = new TypeData(m_adminCms.readAllPropertyDefinitions());
 
         // folder type
         FolderTypeDefinitionImpl folderType = new FolderTypeDefinitionImpl();
@@ -785,10 +805,10 @@ public class CmsCmisTypeManager {
 
         addBasePropertyDefinitions(folderType);
         addFolderPropertyDefinitions(folderType);
-        addCmsPropertyDefinitions(folderType);
+        addCmsPropertyDefinitions(data, folderType);
         addProviderPropertyDefinitions(folderType);
 
-        addTypeInternal(folderType);
+        addTypeInternal(data, folderType);
 
         // document type
         DocumentTypeDefinitionImpl documentType = new DocumentTypeDefinitionImpl();
@@ -812,10 +832,10 @@ public class CmsCmisTypeManager {
 
         addBasePropertyDefinitions(documentType);
         addDocumentPropertyDefinitions(documentType);
-        addCmsPropertyDefinitions(documentType);
+        addCmsPropertyDefinitions(data, documentType);
         addProviderPropertyDefinitions(documentType);
 
-        addTypeInternal(documentType);
+        addTypeInternal(data, documentType);
 
         // relationship types
         RelationshipTypeDefinitionImpl relationshipType = new RelationshipTypeDefinitionImpl();
@@ -839,22 +859,23 @@ public class CmsCmisTypeManager {
         relationshipType.setAllowedTargetTypes(typeList);
         addBasePropertyDefinitions(relationshipType);
         addRelationPropertyDefinitions(relationshipType);
-        addTypeInternal(relationshipType);
+        addTypeInternal(data, relationshipType);
 
         for (CmsRelationType relType : CmsRelationType.getAll()) {
-            createRelationshipType(relType);
+            createRelationshipType(data, relType);
         }
-        m_lastUpdate = System.currentTimeMillis();
+        m_data = data;
     }
 
     /**
      * Adds the CMIS property definitions corresponding to the OpenCms property definitions to a CMIS type definition.<p>
      *  
+     * @param data the type data which is being built 
      * @param type the type to which the property definitions should be added
      */
-    private void addCmsPropertyDefinitions(AbstractTypeDefinition type) {
+    private void addCmsPropertyDefinitions(TypeData data, AbstractTypeDefinition type) {
 
-        for (CmsPropertyDefinition propDef : m_cmsPropertyDefinitions) {
+        for (CmsPropertyDefinition propDef : data.m_cmsPropertyDefinitions) {
             type.addPropertyDefinition(createOpenCmsPropertyDefinition(propDef));
             type.addPropertyDefinition(createPropDef(
                 INHERITED_PREFIX + propDef.getName(),
@@ -901,11 +922,12 @@ public class CmsCmisTypeManager {
     /**
      * Adds a type to collection with inheriting base type properties.
      * 
+     * @param data the type data which is being built 
      * @param type the type definition to add
      * 
      * @return true if the type definition was added 
      */
-    private boolean addType(TypeDefinition type) {
+    private boolean addType(TypeData data, TypeDefinition type) {
 
         if (type == null) {
             return false;
@@ -918,13 +940,13 @@ public class CmsCmisTypeManager {
         // find base type
         TypeDefinition baseType = null;
         if (type.getBaseTypeId() == BaseTypeId.CMIS_DOCUMENT) {
-            baseType = copyTypeDefintion(m_types.get(DOCUMENT_TYPE_ID).getTypeDefinition());
+            baseType = copyTypeDefintion(data.m_types.get(DOCUMENT_TYPE_ID).getTypeDefinition());
         } else if (type.getBaseTypeId() == BaseTypeId.CMIS_FOLDER) {
-            baseType = copyTypeDefintion(m_types.get(FOLDER_TYPE_ID).getTypeDefinition());
+            baseType = copyTypeDefintion(data.m_types.get(FOLDER_TYPE_ID).getTypeDefinition());
         } else if (type.getBaseTypeId() == BaseTypeId.CMIS_RELATIONSHIP) {
-            baseType = copyTypeDefintion(m_types.get(RELATIONSHIP_TYPE_ID).getTypeDefinition());
+            baseType = copyTypeDefintion(data.m_types.get(RELATIONSHIP_TYPE_ID).getTypeDefinition());
         } else if (type.getBaseTypeId() == BaseTypeId.CMIS_POLICY) {
-            baseType = copyTypeDefintion(m_types.get(POLICY_TYPE_ID).getTypeDefinition());
+            baseType = copyTypeDefintion(data.m_types.get(POLICY_TYPE_ID).getTypeDefinition());
         } else {
             return false;
         }
@@ -938,22 +960,23 @@ public class CmsCmisTypeManager {
         }
 
         // add it
-        addTypeInternal(newType);
+        addTypeInternal(data, newType);
         return true;
     }
 
     /**
      * Internal method which adds a new type, without adding any property definitions automatically.<p>
      * 
+     * @param data the type data which is being built 
      * @param type the type to add 
      */
-    private void addTypeInternal(AbstractTypeDefinition type) {
+    private void addTypeInternal(TypeData data, AbstractTypeDefinition type) {
 
         if (type == null) {
             return;
         }
 
-        if (m_types.containsKey(type.getId())) {
+        if (data.m_types.containsKey(type.getId())) {
             // can't overwrite a type
             return;
         }
@@ -963,7 +986,7 @@ public class CmsCmisTypeManager {
 
         // add to parent
         if (type.getParentTypeId() != null) {
-            TypeDefinitionContainerImpl tdc = m_types.get(type.getParentTypeId());
+            TypeDefinitionContainerImpl tdc = data.m_types.get(type.getParentTypeId());
             if (tdc != null) {
                 if (tdc.getChildren() == null) {
                     tdc.setChildren(new ArrayList<TypeDefinitionContainer>());
@@ -972,16 +995,17 @@ public class CmsCmisTypeManager {
             }
         }
 
-        m_types.put(type.getId(), tc);
-        m_typeList.add(tc);
+        data.m_types.put(type.getId(), tc);
+        data.m_typeList.add(tc);
     }
 
     /**
      * Creates a CMIS relationship subtype for a given OpenCms relation type.<p>
      * 
+     * @param data the type data which is being built 
      * @param relType the OpenCms relation type
      */
-    private void createRelationshipType(CmsRelationType relType) {
+    private void createRelationshipType(TypeData data, CmsRelationType relType) {
 
         // relationship types
         RelationshipTypeDefinitionImpl relationshipType = new RelationshipTypeDefinitionImpl();
@@ -1005,7 +1029,7 @@ public class CmsCmisTypeManager {
         typeList.add("cmis:folder");
         relationshipType.setAllowedSourceTypes(typeList);
         relationshipType.setAllowedTargetTypes(typeList);
-        addType(relationshipType);
+        addType(data, relationshipType);
     }
 
     /**
@@ -1046,16 +1070,27 @@ public class CmsCmisTypeManager {
 
     /** 
      * Refreshes the internal data if the last update was longer ago than the udpate interval.<p>
+     * 
+     * The type data is rebuilt in a separate instance and then published as a whole, so concurrent 
+     * readers never see partially initialized data and don't have to wait unless an update is due.<p>
+     * 
+     * @return the current type data 
      */
-    private synchronized void refresh() {
+    private TypeData refresh() {
 
-        try {
-            long now = System.currentTimeMillis();
-            if ((now - m_lastUpdate) > UPDATE_INTERVAL) {
-                setup();
+        TypeData data = m_data;
+        if ((System.currentTimeMillis() - data.m_lastUpdate) <= UPDATE_INTERVAL) {
+            return data;
+        }
+        synchronized (this) {
+            if ((System.currentTimeMillis() - m_data.m_lastUpdate) > UPDATE_INTERVAL) {
+                try {
+                    setup();
+                } catch (CmsException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
             }
-        } catch (CmsException e) {
-            LOG.error(e.getLocalizedMessage(), e);
+            return m_data;
         }
     }
 
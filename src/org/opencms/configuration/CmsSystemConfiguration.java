@@ -179,6 +179,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The node name for a job class. */
     public static final String N_CLASS = "class";
 
+    /** The node name for the compact resource cache flag. */
+    public static final String N_COMPACT_RESOURCES = "compact-resources";
+
     /** The configuration node name. */
     public static final String N_CONFIGURATION = "configuration";
 
@@ -335,6 +338,12 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The duration after which responsibles will be notified about out-dated content. */
     public static final String N_NOTIFICATION_TIME = "notification-time";
 
+    /** The node name for the offheapcachebytes node. */
+    public static final String N_OFFHEAPCACHEBYTES = "offheapcachebytes";
+
+    /** The node name for the offheapcachefile node. */
+    public static final String N_OFFHEAPCACHEFILE = "offheapcachefile";
+
     /** The node name for the job parameters. */
     public static final String N_PARAMETERS = "parameters";
 
@@ -1054,13 +1063,15 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
 
         // add flexcache configuration rule
         digester.addObjectCreate("*/" + N_SYSTEM + "/" + N_FLEXCACHE, CmsFlexCacheConfiguration.class);
-        digester.addCallMethod("*/" + N_SYSTEM + "/" + N_FLEXCACHE, "initialize", 6);
+        digester.addCallMethod("*/" + N_SYSTEM + "/" + N_FLEXCACHE, "initialize", 8);
         digester.addCallParam("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_CACHE_ENABLED, 0);
         digester.addCallParam("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_CACHE_OFFLINE, 1);
         digester.addCallParam("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_MAXCACHEBYTES, 2);
         digester.addCallParam("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_AVGCACHEBYTES, 3);
         digester.addCallParam("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_MAXENTRYBYTES, 4);
         digester.addCallParam("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_MAXKEYS, 5);
+        digester.addCallParam("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_OFFHEAPCACHEBYTES, 6);
+        digester.addCallParam("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_OFFHEAPCACHEFILE, 7);
         // add flexcache device selector
         digester.addCallMethod(
             "*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_DEVICESELECTOR,
@@ -1103,6 +1114,10 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
             "setResourceCacheSize",
             0);
         digester.addCallMethod("*/" + N_SYSTEM + "/" + N_RESULTCACHE + "/" + N_SIZE_ROLES, "setRolesCacheSize", 0);
+        digester.addCallMethod(
+            "*/" + N_SYSTEM + "/" + N_RESULTCACHE + "/" + N_COMPACT_RESOURCES,
+            "setCompactResourceCache",
+            0);
         digester.addCallMethod(
             "*/" + N_SYSTEM + "/" + N_RESULTCACHE + "/" + N_SIZE_RESOURCELISTS,
             "setResourcelistCacheSize",
@@ -1524,6 +1539,14 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
         flexcacheElement.addElement(N_MAXENTRYBYTES).addText(
             String.valueOf(m_cmsFlexCacheConfiguration.getMaxEntryBytes()));
         flexcacheElement.addElement(N_MAXKEYS).addText(String.valueOf(m_cmsFlexCacheConfiguration.getMaxKeys()));
+        if (m_cmsFlexCacheConfiguration.getOffHeapCacheBytes() > 0) {
+            flexcacheElement.addElement(N_OFFHEAPCACHEBYTES).addText(
+                String.valueOf(m_cmsFlexCacheConfiguration.getOffHeapCacheBytes()));
+            if (m_cmsFlexCacheConfiguration.getOffHeapCacheFile() != null) {
+                flexcacheElement.addElement(N_OFFHEAPCACHEFILE).addText(
+                    m_cmsFlexCacheConfiguration.getOffHeapCacheFile());
+            }
+        }
         if (m_cmsFlexCacheConfiguration.getDeviceSelectorConfiguration() != null) {
             Element flexcacheDeviceSelectorElement = flexcacheElement.addElement(N_DEVICESELECTOR);
             flexcacheDeviceSelectorElement.addAttribute(
@@ -1569,6 +1592,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
         }
         cacheElement.addElement(N_SIZE_ACLS).setText(Integer.toString(m_cacheSettings.getAclCacheSize()));
         cacheElement.addElement(N_SIZE_PERMISSIONS).setText(Integer.toString(m_cacheSettings.getPermissionCacheSize()));
+        if (m_cacheSettings.isCompactResourceCache()) {
+            cacheElement.addElement(N_COMPACT_RESOURCES).setText(Boolean.TRUE.toString());
+        }
 
         // content notification settings
         if ((m_notificationTime != null) || (m_notificationProject != null)) {
@@ -29,6 +29,8 @@ package org.opencms.db;
 
 import org.opencms.util.CmsUUID;
 
+import java.util.Collection;
+
 /**
  * This class is used for filtering aliases in database operations.<p>
  */
@@ -43,6 +45,19 @@ public class CmsAliasFilter {
     /** The alias structure id. */
     private CmsUUID m_structureId;
 
+    /** The alias structure ids. */
+    private Collection<CmsUUID> m_structureIds;
+
+    /**
+     * Creates a new alias filter for the aliases of several resources.<p>
+     *
+     * @param structureIds the structure ids to filter, must not be empty
+     */
+    public CmsAliasFilter(Collection<CmsUUID> structureIds) {
+
+        m_structureIds = structureIds;
+    }
+
     /**
      * Creates a new alias filter.<p>
      *
@@ -89,6 +104,16 @@ public class CmsAliasFilter {
         return m_structureId;
     }
 
+    /**
+     * Gets the structure ids to filter.<p>
+     *
+     * @return the structure ids, or null if the filter is not restricted to a set of structure ids
+     */
+    public Collection<CmsUUID> getStructureIds() {
+
+        return m_structureIds;
+    }
+
     /**
      * Checks whether this filter is trivial, i.e. would match all aliases.<p>
      *
@@ -96,7 +121,7 @@ public class CmsAliasFilter {
      */
     public boolean isNullFilter() {
 
-        return (m_path == null) && (m_siteRoot == null) && (m_structureId == null);
+        return (m_path == null) && (m_siteRoot == null) && (m_structureId == null) && (m_structureIds == null);
     }
 
 }
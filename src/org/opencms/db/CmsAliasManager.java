@@ -36,8 +36,10 @@ import org.opencms.gwt.shared.alias.CmsAliasImportStatus;
 import org.opencms.gwt.shared.alias.CmsAliasMode;
 import org.opencms.i18n.CmsEncoder;
 import org.opencms.lock.CmsLock;
+import org.opencms.main.CmsEvent;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
+import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.OpenCms;
 import org.opencms.security.CmsRole;
 import org.opencms.util.CmsStringUtil;
@@ -54,7 +56,10 @@ import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.logging.Log;
 
@@ -63,8 +68,11 @@ import com.google.common.collect.Multimap;
 
 /**
  * The alias manager provides access to the aliases stored in the database.<p>
+ * 
+ * The rewrite alias matchers are cached per site. The cache is flushed when rewrite aliases are saved 
+ * or imported, and on publish and clear cache events.<p>
  */
-public class CmsAliasManager {
+public class CmsAliasManager implements I_CmsEventListener {
 
     /** The logger instance for this class. */
     private static final Log LOG = CmsLog.getLog(CmsAliasManager.class);
@@ -72,6 +80,12 @@ public class CmsAliasManager {
     /** The security manager for accessing the database. */
     protected CmsSecurityManager m_securityManager;
 
+    /** The cached rewrite alias matchers, with the site root as key. */
+    private Map<String, CmsRewriteAliasMatcher> m_rewriteAliasMatchers;
+
+    /** Incremented every time the rewrite alias matcher cache is flushed. */
+    private AtomicLong m_rewriteAliasVersion;
+
     /**
      * Creates a new alias manager instance.<p>
      *
@@ -80,6 +94,26 @@ public class CmsAliasManager {
     public CmsAliasManager(CmsSecurityManager securityManager) {
 
         m_securityManager = securityManager;
+        m_rewriteAliasMatchers = new ConcurrentHashMap<String, CmsRewriteAliasMatcher>();
+        m_rewriteAliasVersion = new AtomicLong();
+        OpenCms.addCmsEventListener(this, new int[] {
+            I_CmsEventListener.EVENT_CLEAR_CACHES,
+            I_CmsEventListener.EVENT_PUBLISH_PROJECT});
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsEventListener#cmsEvent(org.opencms.main.CmsEvent)
+     */
+    public void cmsEvent(CmsEvent event) {
+
+        switch (event.getType()) {
+            case I_CmsEventListener.EVENT_CLEAR_CACHES:
+            case I_CmsEventListener.EVENT_PUBLISH_PROJECT:
+                flushRewriteAliasMatchers(null);
+                break;
+            default:
+                // no operation
+        }
     }
 
     /**
@@ -143,6 +177,33 @@ public class CmsAliasManager {
         return aliases;
     }
 
+    /**
+     * Gets the aliases for several structure ids at once.<p>
+     *
+     * @param cms the current CMS context
+     * @param structureIds the structure ids of the resources
+     *
+     * @return the aliases which point to any of the resources, sorted by alias path
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsAlias> getAliasesForStructureIds(CmsObject cms, Collection<CmsUUID> structureIds)
+    throws CmsException {
+
+        if (structureIds.isEmpty()) {
+            return new ArrayList<CmsAlias>();
+        }
+        List<CmsAlias> aliases = m_securityManager.readAliasesByIds(cms.getRequestContext(), structureIds);
+        Collections.sort(aliases, new Comparator<CmsAlias>() {
+
+            public int compare(CmsAlias first, CmsAlias second) {
+
+                return first.getAliasPath().compareTo(second.getAliasPath());
+            }
+        });
+        return aliases;
+    }
+
     /**
      * Reads the rewrite aliases for a given site root.<p>
      * 
@@ -162,6 +223,8 @@ public class CmsAliasManager {
     /**
      * Gets the rewrite alias matcher for the given site.<p>
      *
+     * The matcher is cached until the rewrite aliases of the site are changed.<p>
+     *
      * @param cms the CMS context to use 
      * @param siteRoot the site root
      * 
@@ -171,8 +234,18 @@ public class CmsAliasManager {
      */
     public CmsRewriteAliasMatcher getRewriteAliasMatcher(CmsObject cms, String siteRoot) throws CmsException {
 
-        List<CmsRewriteAlias> aliases = getRewriteAliases(cms, siteRoot);
-        return new CmsRewriteAliasMatcher(aliases);
+        CmsRewriteAliasMatcher matcher = m_rewriteAliasMatchers.get(siteRoot);
+        if (matcher == null) {
+            long version = m_rewriteAliasVersion.get();
+            List<CmsRewriteAlias> aliases = getRewriteAliases(cms, siteRoot);
+            matcher = new CmsRewriteAliasMatcher(aliases);
+            m_rewriteAliasMatchers.put(siteRoot, matcher);
+            if (m_rewriteAliasVersion.get() != version) {
+                // the aliases may have been changed while they were read, so don't keep the matcher
+                m_rewriteAliasMatchers.remove(siteRoot);
+            }
+        }
+        return matcher;
     }
 
     /**
@@ -257,7 +330,11 @@ public class CmsAliasManager {
     throws CmsException {
 
         checkPermissionsForMassEdit(cms, siteRoot);
-        m_securityManager.saveRewriteAliases(cms.getRequestContext(), siteRoot, newAliases);
+        try {
+            m_securityManager.saveRewriteAliases(cms.getRequestContext(), siteRoot, newAliases);
+        } finally {
+            flushRewriteAliasMatchers(siteRoot);
+        }
     }
 
     /**
@@ -513,6 +590,21 @@ public class CmsAliasManager {
         }
     }
 
+    /**
+     * Removes cached rewrite alias matchers.<p>
+     * 
+     * @param siteRoot the site root for which the matcher should be removed, or <code>null</code> for all sites
+     */
+    private void flushRewriteAliasMatchers(String siteRoot) {
+
+        m_rewriteAliasVersion.incrementAndGet();
+        if (siteRoot == null) {
+            m_rewriteAliasMatchers.clear();
+        } else {
+            m_rewriteAliasMatchers.remove(siteRoot);
+        }
+    }
+
     /**
      * Message accessor.<p>
      * 
@@ -604,6 +696,8 @@ public class CmsAliasManager {
                 source,
                 target,
                 mode);
+        } finally {
+            flushRewriteAliasMatchers(siteRoot);
         }
 
     }
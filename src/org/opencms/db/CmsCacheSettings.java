@@ -40,6 +40,9 @@ public class CmsCacheSettings {
     /** The name of the class to generate cache keys. */
     private String m_cacheKeyGenerator;
 
+    /** Flag indicating if the memory monitor's resource cache stores the resources in compact form. */
+    private boolean m_compactResourceCache;
+
     /** The size of the memory monitor's cache for groups. */
     private int m_groupCacheSize;
 
@@ -284,6 +287,19 @@ public class CmsCacheSettings {
         return m_userGroupsCacheSize;
     }
 
+    /**
+     * Returns <code>true</code> if the memory monitor's resource cache stores the resources in compact form.<p>
+     *
+     * The compact form needs much less memory per resource, but a new resource object is created every time
+     * a resource is read from the cache.<p>
+     *
+     * @return <code>true</code> if the resource cache stores the resources in compact form
+     */
+    public boolean isCompactResourceCache() {
+
+        return m_compactResourceCache;
+    }
+
     /**
      * Sets the size of the memory monitor's cache for ACLs.<p>
      *
@@ -304,6 +320,16 @@ public class CmsCacheSettings {
         m_cacheKeyGenerator = classname;
     }
 
+    /**
+     * Sets if the memory monitor's resource cache stores the resources in compact form.<p>
+     *
+     * @param compact <code>"true"</code> if the resource cache should store the resources in compact form
+     */
+    public void setCompactResourceCache(String compact) {
+
+        m_compactResourceCache = Boolean.valueOf(compact).booleanValue();
+    }
+
     /**
      * Sets the size of the memory monitor's cache for groups.<p>
      *
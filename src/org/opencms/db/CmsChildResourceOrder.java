@@ -0,0 +1,43 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db;
+
+/**
+ * The possible orders for reading the child resources of a folder page by page.<p>
+ * 
+ * A page is continued after the last resource of the previous page, so the order must be
+ * stable and unique. Both orders use the root path as final criterion.<p>
+ */
+public enum CmsChildResourceOrder {
+
+    /** Ordered by the date of the last modification, then by the root path. */
+    DATE_LASTMODIFIED,
+
+    /** Ordered by the root path, which for children of the same folder is the order of their names. */
+    NAME;
+}
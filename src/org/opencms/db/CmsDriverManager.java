@@ -83,6 +83,7 @@ import org.opencms.main.CmsMultiException;
 import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.OpenCms;
 import org.opencms.module.CmsModule;
+import org.opencms.monitor.CmsCompositeCacheKey;
 import org.opencms.monitor.CmsMemoryMonitor;
 import org.opencms.publish.CmsPublishEngine;
 import org.opencms.publish.CmsPublishJobInfoBean;
@@ -114,6 +115,9 @@ import org.opencms.util.CmsUUID;
 import org.opencms.util.PrintfFormat;
 import org.opencms.workplace.commons.CmsProgressThread;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -130,6 +134,7 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
+import java.util.zip.GZIPInputStream;
 
 import org.apache.commons.dbcp.PoolingDriver;
 import org.apache.commons.logging.Log;
@@ -309,6 +314,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
     /** Key to indicate update of structure state. */
     public static final int UPDATE_STRUCTURE_STATE = 2;
 
+    /** The maximum number of structure ids for which aliases are read with a single query. */
+    private static final int ALIAS_READ_BATCH_SIZE = 500;
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsDriverManager.class);
 
@@ -1257,6 +1265,27 @@ public final class CmsDriverManager implements I_CmsEventListener {
         }
     }
 
+    /**
+     * Counts the child resources of a folder.<p>
+     *
+     * The count is done in the database, neither permissions nor resource filters are applied, so this is only
+     * an upper bound for the number of child resources visible to the current user.<p>
+     *
+     * @param dbc the current database context
+     * @param resource the folder to count the child resources for
+     * @param getFolders if true the child folders are counted
+     * @param getFiles if true the child files are counted
+     *
+     * @return the number of child resources
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public int countChildResources(CmsDbContext dbc, CmsResource resource, boolean getFolders, boolean getFiles)
+    throws CmsException {
+
+        return getVfsDriver(dbc).countChildResources(dbc, dbc.currentProject(), resource, getFolders, getFiles);
+    }
+
     /**
      * Counts the locked resources in this project.<p>
      *
@@ -4132,6 +4161,23 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return m_lockManager.getLockedResourcesWithCache(dbc, resource, filter, cache);
     }
 
+    /**
+     * Returns the lock states of the given resources.<p>
+     *
+     * @param dbc the current database context
+     * @param resources the resources to return the lock states for
+     *
+     * @return the lock states of the given resources, in the order of the given list
+     *
+     * @throws CmsException if something goes wrong
+     *
+     * @see CmsLockManager#getLocks(CmsDbContext, List)
+     */
+    public List<CmsLock> getLocks(CmsDbContext dbc, List<CmsResource> resources) throws CmsException {
+
+        return m_lockManager.getLocks(dbc, resources);
+    }
+
     /**
      * Returns all log entries matching the given filter.<p>
      *
@@ -6278,6 +6324,32 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return getVfsDriver(dbc).readAliases(dbc, project, new CmsAliasFilter(null, null, structureId));
     }
 
+    /**
+     * Reads the aliases which point to any of the given structure ids.<p>
+     *
+     * The aliases are read in batches, so the number of parameters of a single query stays limited.<p>
+     *
+     * @param dbc the current database context
+     * @param project the current project
+     * @param structureIds the structure ids for which we want to read the aliases
+     *
+     * @return the list of aliases pointing to the structure ids
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsAlias> readAliasesByStructureIds(
+        CmsDbContext dbc,
+        CmsProject project,
+        Collection<CmsUUID> structureIds) throws CmsException {
+
+        List<CmsAlias> result = new ArrayList<CmsAlias>();
+        List<CmsUUID> ids = new ArrayList<CmsUUID>(structureIds);
+        for (int i = 0; i < ids.size(); i += ALIAS_READ_BATCH_SIZE) {
+            List<CmsUUID> batch = ids.subList(i, Math.min(i + ALIAS_READ_BATCH_SIZE, ids.size()));
+            result.addAll(getVfsDriver(dbc).readAliases(dbc, project, new CmsAliasFilter(batch)));
+        }
+        return result;
+    }
+
     /**
      * Reads all versions of the given resource.<br>
      *
@@ -6424,25 +6496,27 @@ public final class CmsDriverManager implements I_CmsEventListener {
         boolean getFiles,
         boolean checkPermissions) throws CmsException {
 
-        String cacheKey = null;
+        CmsCompositeCacheKey cacheKey = null;
         List<CmsResource> resourceList = null;
         if (m_monitor.isEnabled(CmsMemoryMonitor.CacheType.RESOURCE_LIST)) { // check this here to skip the complex cache key generation
-            String time = "";
+            Long time = null;
             if (checkPermissions) {
                 // ensure correct caching if site time offset is set
+                long timeOffset = 0;
                 if ((dbc.getRequestContext() != null)
                     && (OpenCms.getSiteManager().getSiteForSiteRoot(dbc.getRequestContext().getSiteRoot()) != null)) {
-                    time += OpenCms.getSiteManager().getSiteForSiteRoot(dbc.getRequestContext().getSiteRoot()).getSiteMatcher().getTimeOffset();
+                    timeOffset = OpenCms.getSiteManager().getSiteForSiteRoot(dbc.getRequestContext().getSiteRoot()).getSiteMatcher().getTimeOffset();
                 }
+                time = Long.valueOf(timeOffset);
             }
             // try to get the sub resources from the cache
             cacheKey = getCacheKey(
-                new String[] {
+                new Object[] {
                     dbc.currentUser().getName(),
                     getFolders
                     ? (getFiles ? CmsCacheKey.CACHE_KEY_SUBALL : CmsCacheKey.CACHE_KEY_SUBFOLDERS)
                     : CmsCacheKey.CACHE_KEY_SUBFILES,
-                    checkPermissions ? "+" + time : "-",
+                    time,
                     filter.getCacheId(),
                     resource.getRootPath()},
                 dbc);
@@ -6472,6 +6546,73 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return updateContextDates(dbc, resourceList, filter);
     }
 
+    /**
+     * Returns a page of the child resources of a resource, that is the resources
+     * contained in a folder.<p>
+     *
+     * The page starts after the given resource in the given order, usually the last resource of the
+     * previous page, and contains at most <code>maxResults</code> resources. Resources which are
+     * removed by the permission check or the resource filter do not count, so further pages are read
+     * from the database until the page is full or there are no more child resources.<p>
+     *
+     * Pages are not cached, since they depend on the start resource.<p>
+     *
+     * @param dbc the current database context
+     * @param resource the resource to return the child resources for
+     * @param filter the resource filter to use
+     * @param getFolders if true the child folders are included in the result
+     * @param getFiles if true the child files are included in the result
+     * @param order the order of the child resources
+     * @param startAfter the resource after which the page starts, or <code>null</code> for the first page
+     * @param maxResults the maximum number of resources to return
+     * @param checkPermissions if the resources should be filtered with the current user permissions
+     *
+     * @return a list of at most <code>maxResults</code> child resources, in the given order
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsResource> readChildResources(
+        CmsDbContext dbc,
+        CmsResource resource,
+        CmsResourceFilter filter,
+        boolean getFolders,
+        boolean getFiles,
+        CmsChildResourceOrder order,
+        CmsResource startAfter,
+        int maxResults,
+        boolean checkPermissions) throws CmsException {
+
+        List<CmsResource> result = new ArrayList<CmsResource>();
+        CmsResource pageStart = startAfter;
+        while (result.size() < maxResults) {
+            int missing = maxResults - result.size();
+            List<CmsResource> page = getVfsDriver(dbc).readChildResources(
+                dbc,
+                dbc.currentProject(),
+                resource,
+                getFolders,
+                getFiles,
+                order,
+                pageStart,
+                missing);
+            if (page.isEmpty()) {
+                break;
+            }
+            // the next page continues after the last resource read, even if it is filtered out
+            pageStart = page.get(page.size() - 1);
+            List<CmsResource> visible = page;
+            if (checkPermissions) {
+                visible = filterPermissions(dbc, visible, filter);
+            }
+            result.addAll(updateContextDates(dbc, visible, filter));
+            if (page.size() < missing) {
+                // no more child resources
+                break;
+            }
+        }
+        return result;
+    }
+
     /**
      * Returns the default file for the given folder.<p>
      *
@@ -7061,7 +7202,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         CmsUUID projectId = getProjectIdForContext(dbc);
 
         // key to cache the resources
-        String cacheKey = getCacheKey(null, false, projectId, cp);
+        CmsCompositeCacheKey cacheKey = getCacheKey(null, false, projectId, cp);
         // the current resource
         CmsResource currentResource = m_monitor.getCachedResource(cacheKey);
         if ((currentResource == null) || !dbc.getProjectId().isNullUUID()) {
@@ -7312,7 +7453,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
 
         // check if we have the result already cached
         CmsUUID projectId = getProjectIdForContext(dbc);
-        String cacheKey = getCacheKey(CACHE_ALL_PROPERTIES, search, projectId, resource.getRootPath());
+        CmsCompositeCacheKey cacheKey = getCacheKey(CACHE_ALL_PROPERTIES, search, projectId, resource.getRootPath());
 
         List<CmsProperty> properties = m_monitor.getCachedPropertyList(cacheKey);
 
@@ -7444,7 +7585,40 @@ public final class CmsDriverManager implements I_CmsEventListener {
      */
     public byte[] readPublishReportContents(CmsDbContext dbc, CmsUUID publishHistoryId) throws CmsException {
 
-        return getProjectDriver(dbc).readPublishReportContents(dbc, publishHistoryId);
+        byte[] contents = getProjectDriver(dbc).readPublishReportContents(dbc, publishHistoryId);
+        if (!CmsPublishReport.isCompressed(contents)) {
+            // report written before the reports were compressed
+            return contents;
+        }
+        try {
+            return CmsFileUtil.readFully(openPublishReportStream(contents));
+        } catch (IOException e) {
+            throw new CmsDbIoException(Messages.get().container(
+                Messages.ERR_READ_PUBLISH_REPORT_1,
+                publishHistoryId.toString()), e);
+        }
+    }
+
+    /**
+     * Reads the publish report assigned to a publish job as a stream.<p>
+     *
+     * The report is stored compressed, it is decompressed while the returned stream is read.<p>
+     *
+     * @param dbc the current database context
+     * @param publishHistoryId the history id identifying the publish job
+     * @return a stream with the content of the assigned publish report
+     * @throws CmsException if something goes wrong
+     */
+    public InputStream readPublishReportStream(CmsDbContext dbc, CmsUUID publishHistoryId) throws CmsException {
+
+        byte[] contents = getProjectDriver(dbc).readPublishReportContents(dbc, publishHistoryId);
+        try {
+            return openPublishReportStream(contents);
+        } catch (IOException e) {
+            throw new CmsDbIoException(Messages.get().container(
+                Messages.ERR_READ_PUBLISH_REPORT_1,
+                publishHistoryId.toString()), e);
+        }
     }
 
     /**
@@ -7556,10 +7730,10 @@ public final class CmsDriverManager implements I_CmsEventListener {
         boolean readTree) throws CmsException, CmsDataAccessException {
 
         // try to get the sub resources from the cache
-        String cacheKey = getCacheKey(new String[] {
+        CmsCompositeCacheKey cacheKey = getCacheKey(new Object[] {
             dbc.currentUser().getName(),
             filter.getCacheId(),
-            readTree ? "+" : "-",
+            Boolean.valueOf(readTree),
             parent.getRootPath()}, dbc);
 
         List<CmsResource> resourceList = m_monitor.getCachedResourceList(cacheKey);
@@ -7644,15 +7818,15 @@ public final class CmsDriverManager implements I_CmsEventListener {
         String value,
         CmsResourceFilter filter) throws CmsException {
 
-        String cacheKey;
+        CmsCompositeCacheKey cacheKey;
         if (value == null) {
-            cacheKey = getCacheKey(new String[] {
+            cacheKey = getCacheKey(new Object[] {
                 dbc.currentUser().getName(),
                 folder.getRootPath(),
                 propertyDefinition,
                 filter.getCacheId()}, dbc);
         } else {
-            cacheKey = getCacheKey(new String[] {
+            cacheKey = getCacheKey(new Object[] {
                 dbc.currentUser().getName(),
                 folder.getRootPath(),
                 propertyDefinition,
@@ -9878,7 +10052,10 @@ public final class CmsDriverManager implements I_CmsEventListener {
         CmsPublishReport report = (CmsPublishReport)publishJob.removePublishReport();
 
         if (report != null) {
-            getProjectDriver(dbc).writePublishReport(dbc, publishJob.getPublishHistoryId(), report.getContents());
+            getProjectDriver(dbc).writePublishReport(
+                dbc,
+                publishJob.getPublishHistoryId(),
+                report.getCompressedContents());
         }
     }
 
@@ -10666,12 +10843,12 @@ public final class CmsDriverManager implements I_CmsEventListener {
         boolean forFolder,
         int depth) throws CmsException {
 
-        String cacheKey = getCacheKey(
-            new String[] {
-                inheritedOnly ? "+" : "-",
-                forFolder ? "+" : "-",
-                Integer.toString(depth),
-                resource.getStructureId().toString()},
+        CmsCompositeCacheKey cacheKey = getCacheKey(
+            new Object[] {
+                Boolean.valueOf(inheritedOnly),
+                Boolean.valueOf(forFolder),
+                Integer.valueOf(depth),
+                resource.getStructureId()},
             dbc);
 
         CmsAccessControlList acl = m_monitor.getCachedACL(cacheKey);
@@ -10751,17 +10928,15 @@ public final class CmsDriverManager implements I_CmsEventListener {
      * @param projectId the project for which to generate the key
      * @param resource the resource for which to generate the key
      *
-     * @return String a cache key build from the provided information
+     * @return a cache key build from the provided information
      */
-    private String getCacheKey(String prefix, boolean flag, CmsUUID projectId, String resource) {
+    private CmsCompositeCacheKey getCacheKey(String prefix, boolean flag, CmsUUID projectId, String resource) {
 
-        StringBuffer b = new StringBuffer(64);
-        if (prefix != null) {
-            b.append(prefix);
-            b.append(flag ? '+' : '-');
+        int flags = CmsProject.isOnlineProject(projectId) ? CmsCompositeCacheKey.ONLINE : 0;
+        if (prefix == null) {
+            return new CmsCompositeCacheKey(null, flags, resource);
         }
-        b.append(CmsProject.isOnlineProject(projectId) ? '+' : '-');
-        return b.append(resource).toString();
+        return new CmsCompositeCacheKey(prefix, flags, Boolean.valueOf(flag), resource);
     }
 
     /**
@@ -10770,27 +10945,15 @@ public final class CmsDriverManager implements I_CmsEventListener {
      * @param keys an array of keys to generate the cache key from
      * @param dbc the database context for which to generate the key
      *
-     * @return String a cache key build from the provided information
+     * @return a cache key build from the provided information
      */
-    private String getCacheKey(String[] keys, CmsDbContext dbc) {
+    private CmsCompositeCacheKey getCacheKey(Object[] keys, CmsDbContext dbc) {
 
         if (!dbc.getProjectId().isNullUUID()) {
-            return "";
-        }
-        StringBuffer b = new StringBuffer(64);
-        int len = keys.length;
-        if (len > 0) {
-            for (int i = 0; i < len; i++) {
-                b.append(keys[i]);
-                b.append('_');
-            }
-        }
-        if (dbc.currentProject().isOnlineProject()) {
-            b.append("+");
-        } else {
-            b.append("-");
+            return CmsCompositeCacheKey.NONE;
         }
-        return b.toString();
+        int flags = dbc.currentProject().isOnlineProject() ? CmsCompositeCacheKey.ONLINE : 0;
+        return new CmsCompositeCacheKey(null, flags, keys);
     }
 
     /**
@@ -11021,6 +11184,27 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return allUsers;
     }
 
+    /**
+     * Opens a stream on the stored contents of a publish report, decompressing them if needed.<p>
+     *
+     * @param contents the stored contents of the publish report, may be <code>null</code>
+     *
+     * @return a stream with the uncompressed content of the publish report
+     *
+     * @throws IOException if the compressed contents can not be read
+     */
+    private InputStream openPublishReportStream(byte[] contents) throws IOException {
+
+        if (contents == null) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        InputStream stream = new ByteArrayInputStream(contents);
+        if (CmsPublishReport.isCompressed(contents)) {
+            stream = new GZIPInputStream(stream);
+        }
+        return stream;
+    }
+
     /**
      * Reads all resources that are inside and changed in a specified project.<p>
      *
@@ -30,8 +30,12 @@ package org.opencms.db;
 import org.opencms.main.CmsLog;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -40,6 +44,11 @@ import org.apache.commons.logging.Log;
 
 /**
  * Helper class used for matching rewrite aliases to incoming request URIs.<p>
+ * 
+ * The patterns of the aliases are compiled once when the matcher is created. To avoid testing every 
+ * pattern for every path, the aliases are indexed by the literal prefix of their pattern, so that only 
+ * those aliases whose prefix matches the beginning of the path (and the aliases without a usable prefix) 
+ * are tested. The aliases are still tested in their original order.<p>
  */
 public class CmsRewriteAliasMatcher {
 
@@ -92,9 +101,24 @@ public class CmsRewriteAliasMatcher {
     /** The logger instance for this class. */
     private static final Log LOG = CmsLog.getLog(CmsRewriteAliasMatcher.class);
 
+    /** Characters which end the literal prefix of a pattern. */
+    private static final String PATTERN_SPECIAL_CHARS = "\\[](){}.*+?^$";
+
     /** The list of rewrite aliases to use for matching. */
     private List<CmsRewriteAlias> m_aliases;
 
+    /** The compiled patterns of the aliases, <code>null</code> for invalid patterns. */
+    private Pattern[] m_patterns;
+
+    /** The indexes of the aliases, with the literal prefix of their pattern as key. */
+    private Map<String, int[]> m_prefixIndex;
+
+    /** The distinct lengths of the keys in the prefix index, in ascending order. */
+    private int[] m_prefixLengths;
+
+    /** The indexes of the aliases without a literal prefix. */
+    private int[] m_unprefixed;
+
     /**
      * Creates a new matcher instance for the given list of rewrite aliases.<p>
      * 
@@ -103,6 +127,37 @@ public class CmsRewriteAliasMatcher {
     public CmsRewriteAliasMatcher(Collection<CmsRewriteAlias> aliases) {
 
         m_aliases = new ArrayList<CmsRewriteAlias>(aliases);
+        m_patterns = new Pattern[m_aliases.size()];
+        Map<String, List<Integer>> prefixIndex = new HashMap<String, List<Integer>>();
+        List<Integer> unprefixed = new ArrayList<Integer>();
+        for (int i = 0; i < m_patterns.length; i++) {
+            String patternString = m_aliases.get(i).getPatternString();
+            try {
+                m_patterns[i] = Pattern.compile(patternString);
+            } catch (PatternSyntaxException e) {
+                LOG.warn(e.getLocalizedMessage(), e);
+                continue;
+            }
+            String prefix = getLiteralPrefix(patternString);
+            if (prefix.length() == 0) {
+                unprefixed.add(Integer.valueOf(i));
+            } else {
+                List<Integer> indexes = prefixIndex.get(prefix);
+                if (indexes == null) {
+                    indexes = new ArrayList<Integer>();
+                    prefixIndex.put(prefix, indexes);
+                }
+                indexes.add(Integer.valueOf(i));
+            }
+        }
+        m_unprefixed = toArray(unprefixed);
+        m_prefixIndex = new HashMap<String, int[]>();
+        TreeSet<Integer> prefixLengths = new TreeSet<Integer>();
+        for (Map.Entry<String, List<Integer>> entry : prefixIndex.entrySet()) {
+            m_prefixIndex.put(entry.getKey(), toArray(entry.getValue()));
+            prefixLengths.add(Integer.valueOf(entry.getKey().length()));
+        }
+        m_prefixLengths = toArray(prefixLengths);
     }
 
     /**
@@ -114,20 +169,78 @@ public class CmsRewriteAliasMatcher {
      */
     public RewriteResult match(String path) {
 
-        for (CmsRewriteAlias alias : m_aliases) {
+        int[] candidates = m_unprefixed;
+        for (int i = 0; (i < m_prefixLengths.length) && (m_prefixLengths[i] <= path.length()); i++) {
+            int[] indexes = m_prefixIndex.get(path.substring(0, m_prefixLengths[i]));
+            if (indexes != null) {
+                int[] merged = new int[candidates.length + indexes.length];
+                System.arraycopy(candidates, 0, merged, 0, candidates.length);
+                System.arraycopy(indexes, 0, merged, candidates.length, indexes.length);
+                candidates = merged;
+            }
+        }
+        if (candidates != m_unprefixed) {
+            // the first matching alias in the original order wins
+            Arrays.sort(candidates);
+        }
+        for (int i = 0; i < candidates.length; i++) {
+            CmsRewriteAlias alias = m_aliases.get(candidates[i]);
             try {
-                Pattern pattern = Pattern.compile(alias.getPatternString());
-                Matcher matcher = pattern.matcher(path);
+                Matcher matcher = m_patterns[candidates[i]].matcher(path);
                 if (matcher.matches()) {
                     String newPath = matcher.replaceFirst(alias.getReplacementString());
                     return new RewriteResult(newPath, alias);
                 }
-            } catch (PatternSyntaxException e) {
-                LOG.warn(e.getLocalizedMessage(), e);
             } catch (IndexOutOfBoundsException e) {
                 LOG.warn(e.getLocalizedMessage(), e);
             }
         }
         return null;
     }
+
+    /**
+     * Returns the literal prefix of a regular expression, that is a string with which every string 
+     * matched by the whole regular expression starts.<p>
+     * 
+     * The result is conservative: the empty string is returned for patterns containing alternatives, 
+     * and the prefix ends before the first character with a special meaning.<p>
+     * 
+     * @param patternString the regular expression
+     *  
+     * @return the literal prefix of the regular expression, may be empty
+     */
+    static String getLiteralPrefix(String patternString) {
+
+        if (patternString.indexOf('|') != -1) {
+            return "";
+        }
+        // a leading '^' has no effect since the whole path has to match
+        int start = patternString.startsWith("^") ? 1 : 0;
+        int end = start;
+        while ((end < patternString.length()) && (PATTERN_SPECIAL_CHARS.indexOf(patternString.charAt(end)) == -1)) {
+            end++;
+        }
+        if ((end < patternString.length()) && ("*+?{".indexOf(patternString.charAt(end)) != -1) && (end > start)) {
+            // the last literal character is quantified, so it may be missing or repeated
+            end--;
+        }
+        return patternString.substring(start, end);
+    }
+
+    /**
+     * Converts a collection of integers to an array.<p>
+     * 
+     * @param values the integers
+     *  
+     * @return the array
+     */
+    private static int[] toArray(Collection<Integer> values) {
+
+        int[] result = new int[values.size()];
+        int i = 0;
+        for (Integer value : values) {
+            result[i++] = value.intValue();
+        }
+        return result;
+    }
 }
@@ -823,6 +823,45 @@ public final class CmsSecurityManager {
         }
     }
 
+    /**
+     * Counts the child resources of a folder.<p>
+     *
+     * Neither permissions nor resource filters are applied to the child resources, so the result is only
+     * an upper bound for the number of child resources visible to the current user.<p>
+     *
+     * @param context the current request context
+     * @param resource the folder to count the child resources for
+     * @param getFolders if true the child folders are counted
+     * @param getFiles if true the child files are counted
+     *
+     * @return the number of child resources
+     *
+     * @throws CmsException if something goes wrong
+     * @throws CmsSecurityException if the user has insufficient permission for the given resource (read is required)
+     */
+    public int countChildResources(
+        CmsRequestContext context,
+        CmsResource resource,
+        boolean getFolders,
+        boolean getFiles) throws CmsException, CmsSecurityException {
+
+        int result = 0;
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            // check the access permissions
+            checkPermissions(dbc, resource, CmsPermissionSet.ACCESS_READ, true, CmsResourceFilter.ALL);
+            result = m_driverManager.countChildResources(dbc, resource, getFolders, getFiles);
+        } catch (Exception e) {
+            dbc.report(
+                null,
+                Messages.get().container(Messages.ERR_READ_CHILD_RESOURCES_1, context.getSitePath(resource)),
+                e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Counts the locked resources in this project.<p>
      *
@@ -2293,6 +2332,32 @@ public final class CmsSecurityManager {
         return m_lockManager;
     }
 
+    /**
+     * Returns the lock states of the given resources.<p>
+     *
+     * @param context the current request context
+     * @param resources the resources to return the lock states for
+     *
+     * @return the lock states of the given resources, in the order of the given list
+     *
+     * @throws CmsException if something goes wrong
+     *
+     * @see CmsObject#getLocks(List)
+     */
+    public List<CmsLock> getLocks(CmsRequestContext context, List<CmsResource> resources) throws CmsException {
+
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        List<CmsLock> result = null;
+        try {
+            result = m_driverManager.getLocks(dbc, resources);
+        } catch (Exception e) {
+            dbc.report(null, Messages.get().container(Messages.ERR_GET_LOCKS_1, new Integer(resources.size())), e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Returns all log entries matching the given filter.<p>
      *
@@ -3791,6 +3856,30 @@ public final class CmsSecurityManager {
 
     }
 
+    /**
+     * Reads the aliases for the resources with the given structure ids.<p>
+     *
+     * @param context the current request context
+     * @param structureIds the structure ids for which the aliases should be read
+     *
+     * @return the aliases for the structure ids
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsAlias> readAliasesByIds(CmsRequestContext context, Collection<CmsUUID> structureIds)
+    throws CmsException {
+
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            return m_driverManager.readAliasesByStructureIds(dbc, context.getCurrentProject(), structureIds);
+        } catch (Exception e) {
+            dbc.report(null, Messages.get().container(Messages.ERR_DB_OPERATION_0), e);
+            return null; // will never be executed
+        } finally {
+            dbc.clear();
+        }
+    }
+
     /**
      * Reads all historical versions of a resource.<p>
      *
@@ -4028,6 +4117,63 @@ public final class CmsSecurityManager {
         return result;
     }
 
+    /**
+     * Returns a page of the child resources of a resource, that is the resources
+     * contained in a folder.<p>
+     *
+     * The page starts after the given resource in the given order, usually the last resource of the
+     * previous page, and contains at most <code>maxResults</code> resources.<p>
+     *
+     * @param context the current request context
+     * @param resource the resource to return the child resources for
+     * @param filter the resource filter to use
+     * @param getFolders if true the child folders are included in the result
+     * @param getFiles if true the child files are included in the result
+     * @param order the order of the child resources
+     * @param startAfter the resource after which the page starts, or <code>null</code> for the first page
+     * @param maxResults the maximum number of resources to return
+     *
+     * @return a list of at most <code>maxResults</code> child resources, in the given order
+     *
+     * @throws CmsException if something goes wrong
+     * @throws CmsSecurityException if the user has insufficient permission for the given resource (read is required)
+     */
+    public List<CmsResource> readChildResources(
+        CmsRequestContext context,
+        CmsResource resource,
+        CmsResourceFilter filter,
+        boolean getFolders,
+        boolean getFiles,
+        CmsChildResourceOrder order,
+        CmsResource startAfter,
+        int maxResults) throws CmsException, CmsSecurityException {
+
+        List<CmsResource> result = null;
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            // check the access permissions
+            checkPermissions(dbc, resource, CmsPermissionSet.ACCESS_READ, true, CmsResourceFilter.ALL);
+            result = m_driverManager.readChildResources(
+                dbc,
+                resource,
+                filter,
+                getFolders,
+                getFiles,
+                order,
+                startAfter,
+                maxResults,
+                true);
+        } catch (Exception e) {
+            dbc.report(
+                null,
+                Messages.get().container(Messages.ERR_READ_CHILD_RESOURCES_1, context.getSitePath(resource)),
+                e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Returns the default file for the given folder.<p>
      *
@@ -75,6 +75,25 @@ public interface I_CmsVfsDriver {
     void addUrlNameMappingEntry(CmsDbContext dbc, boolean online, CmsUrlNameMappingEntry entry)
     throws CmsDataAccessException;
 
+    /**
+     * Counts the child-files and/or child-folders of a specified parent resource.<p>
+     *
+     * @param dbc the current database context
+     * @param currentProject the current project
+     * @param resource the parent folder
+     * @param getFolders if true the child folders of the parent folder are counted
+     * @param getFiles if true the child files of the parent folder are counted
+     *
+     * @return the number of child resources, without any permission or resource filter applied
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    int countChildResources(
+        CmsDbContext dbc,
+        CmsProject currentProject,
+        CmsResource resource,
+        boolean getFolders,
+        boolean getFiles) throws CmsDataAccessException;
+
     /**
      * Counts the number of siblings of a resource.<p>
      *
@@ -451,6 +470,35 @@ public interface I_CmsVfsDriver {
         boolean getFolders,
         boolean getFiles) throws CmsDataAccessException;
 
+    /**
+     * Reads a page of the child-files and/or child-folders of a specified parent resource.<p>
+     *
+     * The page starts after the given resource in the given order, which is usually the last resource 
+     * of the previous page. This way the database only has to deliver the requested resources, 
+     * regardless of how many pages were read before.<p>
+     *
+     * @param dbc the current database context
+     * @param currentProject the current project
+     * @param resource the parent folder
+     * @param getFolders if true the child folders of the parent folder are returned in the result set
+     * @param getFiles if true the child files of the parent folder are returned in the result set
+     * @param order the order of the child resources
+     * @param startAfter the resource after which the page starts, or <code>null</code> for the first page
+     * @param maxResults the maximum number of resources to return
+     *
+     * @return a list of at most <code>maxResults</code> sub folders or sub files, in the given order
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    List<CmsResource> readChildResources(
+        CmsDbContext dbc,
+        CmsProject currentProject,
+        CmsResource resource,
+        boolean getFolders,
+        boolean getFiles,
+        CmsChildResourceOrder order,
+        CmsResource startAfter,
+        int maxResults) throws CmsDataAccessException;
+
     /**
      * Reads the content of a file specified by it's resource ID.<p>
      *
@@ -270,6 +270,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_GET_LOCK_1 = "ERR_GET_LOCK_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_GET_LOCKS_1 = "ERR_GET_LOCKS_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_GET_ORGUNITS_1 = "ERR_GET_ORGUNITS_1";
 
@@ -519,6 +522,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_READ_PUBLISHED_RESOURCES_FOR_ID_1 = "ERR_READ_PUBLISHED_RESOURCES_FOR_ID_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_READ_PUBLISH_REPORT_1 = "ERR_READ_PUBLISH_REPORT_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_READ_RELATIONS_1 = "ERR_READ_RELATIONS_1";
 
@@ -185,9 +185,15 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
 
     }
 
+    /** Attribute name for the publish history entries which are collected to be written as a batch. */
+    public static final String DBC_ATTR_PUBLISH_HISTORY_BATCH = "DBC_ATTR_PUBLISH_HISTORY_BATCH";
+
     /** Attribute name for reading the project of a resource. */
     public static final String DBC_ATTR_READ_PROJECT_FOR_RESOURCE = "DBC_ATTR_READ_PROJECT_FOR_RESOURCE";
 
+    /** The maximum number of publish history entries written with a single batch. */
+    protected static final int PUBLISH_HISTORY_BATCH_SIZE = 500;
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(org.opencms.db.generic.CmsProjectDriver.class);
 
@@ -1602,6 +1608,12 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
         Set<CmsUUID> publishedContentIds = new HashSet<CmsUUID>();
         Set<CmsUUID> publishedIds = new HashSet<CmsUUID>();
 
+        // collect the publish history entries and write them in batches instead of one statement per resource.
+        // The structure, resource, content and ACE copies are still written per resource: each of them depends on 
+        // the online rows written before in the same run (existence checks, sibling counts, the parent id read from
+        // the already published folders), and each resource is published in its own error scope (dbc.push/pop),
+        // so a failing resource is only reported and skipped, which a shared batch could not do
+        dbc.setAttribute(DBC_ATTR_PUBLISH_HISTORY_BATCH, new ArrayList<CmsPublishedResource>());
         try {
 
             ////////////////////////////////////////////////////////////////////////////////////////
@@ -1854,6 +1866,9 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
             if (deletedFoldersSize > 0) {
                 report.println(Messages.get().container(Messages.RPT_DELETE_FOLDERS_END_0), I_CmsReport.FORMAT_HEADLINE);
             }
+
+            // write the publish history entries still pending
+            internalFlushPublishHistory(dbc, publishList.getPublishHistoryId());
         } catch (OutOfMemoryError o) {
             // clear all caches to reclaim memory
             OpenCms.fireCmsEvent(new CmsEvent(
@@ -1866,6 +1881,13 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
             }
             throw new CmsDataAccessException(message, o);
         } finally {
+            try {
+                // entries are only left here if publishing failed, keep them without hiding the original error
+                internalFlushPublishHistory(dbc, publishList.getPublishHistoryId());
+            } catch (CmsDataAccessException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+            dbc.removeAttribute(DBC_ATTR_PUBLISH_HISTORY_BATCH);
             // reset vfs driver internal info after publishing
             m_driverManager.getVfsDriver(dbc).publishVersions(dbc, null, false);
             Object[] msgArgs = new Object[] {
@@ -2733,6 +2755,50 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
         }
     }
 
+    /**
+     * Writes the publish history entries for a list of published resources with a single batch.<p>
+     *
+     * @param dbc the current database context
+     * @param publishId the id of the publish process
+     * @param resources the published resources
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     *
+     * @see #writePublishHistory(CmsDbContext, CmsUUID, CmsPublishedResource)
+     */
+    public void writePublishHistory(CmsDbContext dbc, CmsUUID publishId, List<CmsPublishedResource> resources)
+    throws CmsDataAccessException {
+
+        if (resources.isEmpty()) {
+            return;
+        }
+        Connection conn = null;
+        PreparedStatement stmt = null;
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_RESOURCES_WRITE_PUBLISH_HISTORY");
+            for (CmsPublishedResource resource : resources) {
+                stmt.setInt(1, resource.getPublishTag());
+                stmt.setString(2, resource.getStructureId().toString());
+                stmt.setString(3, resource.getResourceId().toString());
+                stmt.setString(4, resource.getRootPath());
+                stmt.setInt(5, resource.getMovedState().getState());
+                stmt.setInt(6, resource.getType());
+                stmt.setString(7, publishId.toString());
+                stmt.setInt(8, resource.getSiblingCount());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(
+                Messages.ERR_GENERIC_SQL_1,
+                CmsDbSqlException.getErrorQuery(stmt)), e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, null);
+        }
+    }
+
     /**
      * @see org.opencms.db.I_CmsProjectDriver#writePublishJob(org.opencms.db.CmsDbContext, org.opencms.publish.CmsPublishJobInfoBean)
      */
@@ -2952,7 +3018,7 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
 
         try {
             // write the resource to the publish history
-            m_driverManager.getProjectDriver(dbc).writePublishHistory(
+            internalWritePublishHistory(
                 dbc,
                 publishHistoryId,
                 new CmsPublishedResource(onlineResource, publishTag, CmsPublishedResource.STATE_MOVED_SOURCE));
@@ -3079,6 +3145,30 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
         return (CmsPublishList)oin.readObject();
     }
 
+    /**
+     * Writes the publish history entries collected in the current database context
+     * with a single batch.<p>
+     *
+     * @param dbc the current database context
+     * @param publishHistoryId the current publish process id
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected void internalFlushPublishHistory(CmsDbContext dbc, CmsUUID publishHistoryId)
+    throws CmsDataAccessException {
+
+        @SuppressWarnings("unchecked")
+        List<CmsPublishedResource> batch = (List<CmsPublishedResource>)dbc.getAttribute(DBC_ATTR_PUBLISH_HISTORY_BATCH);
+        if ((batch == null) || batch.isEmpty()) {
+            return;
+        }
+        try {
+            writePublishHistory(dbc, publishHistoryId, batch);
+        } finally {
+            batch.clear();
+        }
+    }
+
     /**
      * Creates a new {@link CmsLogEntry} object from the given result set entry.<p>
      *
@@ -3178,10 +3268,7 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
                 m_driverManager.getHistoryDriver(dbc).writeResource(dbc, resource, properties, publishTag);
             }
             // write the resource to the publish history
-            m_driverManager.getProjectDriver(dbc).writePublishHistory(
-                dbc,
-                publishHistoryId,
-                new CmsPublishedResource(resource, publishTag, state));
+            internalWritePublishHistory(dbc, publishHistoryId, new CmsPublishedResource(resource, publishTag, state));
         } catch (CmsDataAccessException e) {
             if (LOG.isErrorEnabled()) {
                 LOG.error(
@@ -3192,6 +3279,33 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
         }
     }
 
+    /**
+     * Writes a publish history entry, or adds it to the batch collected in the current
+     * database context if the project is being published.<p>
+     *
+     * @param dbc the current database context
+     * @param publishHistoryId the current publish process id
+     * @param resource the published resource
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected void internalWritePublishHistory(
+        CmsDbContext dbc,
+        CmsUUID publishHistoryId,
+        CmsPublishedResource resource) throws CmsDataAccessException {
+
+        @SuppressWarnings("unchecked")
+        List<CmsPublishedResource> batch = (List<CmsPublishedResource>)dbc.getAttribute(DBC_ATTR_PUBLISH_HISTORY_BATCH);
+        if (batch == null) {
+            m_driverManager.getProjectDriver(dbc).writePublishHistory(dbc, publishHistoryId, resource);
+            return;
+        }
+        batch.add(resource);
+        if (batch.size() >= PUBLISH_HISTORY_BATCH_SIZE) {
+            internalFlushPublishHistory(dbc, publishHistoryId);
+        }
+    }
+
     /**
      * Build the whole WHERE SQL statement part for the given log entry filter.<p>
      *
@@ -204,6 +204,26 @@ public class CmsSqlManager extends org.opencms.db.CmsSqlManager {
         return res.getBytes(attributeName);
     }
 
+    /**
+     * Retrieves the value of the designated column in the current row of this ResultSet object as 
+     * a CmsUUID.<p>
+     * 
+     * The column is expected to contain the String representation of the UUID. Overwrite this method 
+     * if another database server stores UUIDs in a different format.<p>
+     * 
+     * @param res the result set
+     * @param attributeName the name of the table attribute
+     * 
+     * @return the column value; if the value is SQL NULL, the value returned is null 
+     * 
+     * @throws SQLException if a database access error occurs
+     */
+    public CmsUUID getUUID(ResultSet res, String attributeName) throws SQLException {
+
+        String value = res.getString(attributeName);
+        return value == null ? null : new CmsUUID(value);
+    }
+
     /**
      * Returns a JDBC connection from the connection pool.<p>
      * 
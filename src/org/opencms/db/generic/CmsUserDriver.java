@@ -1043,8 +1043,13 @@ public class CmsUserDriver implements I_CmsUserDriver {
             false);
         dbc.setProjectId(dbcProjectId);
 
-        for (CmsAccessControlEntry ace : aces) {
-            m_driverManager.getUserDriver(dbc).writeAccessControlEntry(dbc, onlineProject, ace);
+        if (offlineId.equals(onlineId)) {
+            // all online entries of the resource have been removed, so the entries can be inserted at once
+            internalCreateAces(dbc, onlineProject, aces);
+        } else {
+            for (CmsAccessControlEntry ace : aces) {
+                m_driverManager.getUserDriver(dbc).writeAccessControlEntry(dbc, onlineProject, ace);
+            }
         }
     }
 
@@ -2159,6 +2164,47 @@ public class CmsUserDriver implements I_CmsUserDriver {
             res.getInt(m_sqlManager.readQuery("C_ACCESS_ACCESS_FLAGS_0")));
     }
 
+    /**
+     * Inserts a list of new access control entries with a single batch.<p>
+     * 
+     * The entries must not exist yet in the given project.<p>
+     * 
+     * @param dbc the current database context
+     * @param project the project to write the entries to
+     * @param aces the access control entries to insert
+     * 
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected void internalCreateAces(CmsDbContext dbc, CmsProject project, List<CmsAccessControlEntry> aces)
+    throws CmsDataAccessException {
+
+        if (aces.isEmpty()) {
+            return;
+        }
+        PreparedStatement stmt = null;
+        Connection conn = null;
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            stmt = m_sqlManager.getPreparedStatement(conn, project, "C_ACCESS_CREATE_5");
+            for (CmsAccessControlEntry ace : aces) {
+                stmt.setString(1, ace.getResource().toString());
+                stmt.setString(2, ace.getPrincipal().toString());
+                stmt.setInt(3, ace.getAllowedPermissions());
+                stmt.setInt(4, ace.getDeniedPermissions());
+                stmt.setInt(5, ace.getFlags());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(
+                Messages.ERR_GENERIC_SQL_1,
+                CmsDbSqlException.getErrorQuery(stmt)), e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, null);
+        }
+    }
+
     /**
      * Creates the default groups and user for the given organizational unit.<p>
      * 
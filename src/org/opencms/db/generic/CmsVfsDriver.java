@@ -31,6 +31,7 @@ import org.opencms.configuration.CmsConfigurationManager;
 import org.opencms.configuration.CmsParameterConfiguration;
 import org.opencms.db.CmsAlias;
 import org.opencms.db.CmsAliasFilter;
+import org.opencms.db.CmsChildResourceOrder;
 import org.opencms.db.CmsDbConsistencyException;
 import org.opencms.db.CmsDbContext;
 import org.opencms.db.CmsDbEntryNotFoundException;
@@ -222,6 +223,47 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         }
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#countChildResources(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, org.opencms.file.CmsResource, boolean, boolean)
+     */
+    public int countChildResources(
+        CmsDbContext dbc,
+        CmsProject currentProject,
+        CmsResource resource,
+        boolean getFolders,
+        boolean getFiles) throws CmsDataAccessException {
+
+        CmsUUID projectId = currentProject.getUuid();
+        StringBuffer query = new StringBuffer();
+        query.append(m_sqlManager.readQuery(projectId, "C_RESOURCES_COUNT_SUBRESOURCES"));
+        appendChildResourceTypeClause(query, projectId, getFolders, getFiles);
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+        int count = 0;
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            stmt = m_sqlManager.getPreparedStatementForSql(conn, query.toString());
+            stmt.setString(1, resource.getStructureId().toString());
+            res = stmt.executeQuery();
+
+            if (res.next()) {
+                count = res.getInt(1);
+                while (res.next()) {
+                    // do nothing only move through all rows because of mssql odbc driver
+                }
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(
+                Messages.ERR_GENERIC_SQL_1,
+                CmsDbSqlException.getErrorQuery(stmt)), e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+        return count;
+    }
+
     /**
      * Counts the number of siblings of a resource.<p>
      *
@@ -297,8 +339,8 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
      */
     public CmsFile createFile(ResultSet res, CmsUUID projectId) throws SQLException {
 
-        CmsUUID structureId = new CmsUUID(res.getString(m_sqlManager.readQuery("C_RESOURCES_STRUCTURE_ID")));
-        CmsUUID resourceId = new CmsUUID(res.getString(m_sqlManager.readQuery("C_RESOURCES_RESOURCE_ID")));
+        CmsUUID structureId = m_sqlManager.getUUID(res, m_sqlManager.readQuery("C_RESOURCES_STRUCTURE_ID"));
+        CmsUUID resourceId = m_sqlManager.getUUID(res, m_sqlManager.readQuery("C_RESOURCES_RESOURCE_ID"));
         int resourceType = res.getInt(m_sqlManager.readQuery("C_RESOURCES_RESOURCE_TYPE"));
         String resourcePath = res.getString(m_sqlManager.readQuery("C_RESOURCES_RESOURCE_PATH"));
         int resourceFlags = res.getInt(m_sqlManager.readQuery("C_RESOURCES_RESOURCE_FLAGS"));
@@ -309,8 +351,8 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         long dateReleased = res.getLong(m_sqlManager.readQuery("C_RESOURCES_DATE_RELEASED"));
         long dateExpired = res.getLong(m_sqlManager.readQuery("C_RESOURCES_DATE_EXPIRED"));
         int resourceSize = res.getInt(m_sqlManager.readQuery("C_RESOURCES_SIZE"));
-        CmsUUID userCreated = new CmsUUID(res.getString(m_sqlManager.readQuery("C_RESOURCES_USER_CREATED")));
-        CmsUUID userLastModified = new CmsUUID(res.getString(m_sqlManager.readQuery("C_RESOURCES_USER_LASTMODIFIED")));
+        CmsUUID userCreated = m_sqlManager.getUUID(res, m_sqlManager.readQuery("C_RESOURCES_USER_CREATED"));
+        CmsUUID userLastModified = m_sqlManager.getUUID(res, m_sqlManager.readQuery("C_RESOURCES_USER_LASTMODIFIED"));
         byte[] content = m_sqlManager.getBytes(res, m_sqlManager.readQuery("C_RESOURCES_FILE_CONTENT"));
         int siblingCount = res.getInt(m_sqlManager.readQuery("C_RESOURCES_SIBLING_COUNT"));
         long dateContent = res.getLong(m_sqlManager.readQuery("C_RESOURCES_DATE_CONTENT"));
@@ -355,8 +397,8 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
 
         CmsUUID resProjectId = null;
 
-        CmsUUID structureId = new CmsUUID(res.getString(m_sqlManager.readQuery("C_RESOURCES_STRUCTURE_ID")));
-        CmsUUID resourceId = new CmsUUID(res.getString(m_sqlManager.readQuery("C_RESOURCES_RESOURCE_ID")));
+        CmsUUID structureId = m_sqlManager.getUUID(res, m_sqlManager.readQuery("C_RESOURCES_STRUCTURE_ID"));
+        CmsUUID resourceId = m_sqlManager.getUUID(res, m_sqlManager.readQuery("C_RESOURCES_RESOURCE_ID"));
         String resourcePath = res.getString(m_sqlManager.readQuery("C_RESOURCES_RESOURCE_PATH"));
         int resourceType = res.getInt(m_sqlManager.readQuery("C_RESOURCES_RESOURCE_TYPE"));
         int resourceFlags = res.getInt(m_sqlManager.readQuery("C_RESOURCES_RESOURCE_FLAGS"));
@@ -367,9 +409,9 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         long dateReleased = res.getLong(m_sqlManager.readQuery("C_RESOURCES_DATE_RELEASED"));
         long dateExpired = res.getLong(m_sqlManager.readQuery("C_RESOURCES_DATE_EXPIRED"));
         int resourceSize = res.getInt(m_sqlManager.readQuery("C_RESOURCES_SIZE"));
-        CmsUUID userCreated = new CmsUUID(res.getString(m_sqlManager.readQuery("C_RESOURCES_USER_CREATED")));
-        CmsUUID userLastModified = new CmsUUID(res.getString(m_sqlManager.readQuery("C_RESOURCES_USER_LASTMODIFIED")));
-        CmsUUID lockedInProject = new CmsUUID(res.getString("LOCKED_IN_PROJECT"));
+        CmsUUID userCreated = m_sqlManager.getUUID(res, m_sqlManager.readQuery("C_RESOURCES_USER_CREATED"));
+        CmsUUID userLastModified = m_sqlManager.getUUID(res, m_sqlManager.readQuery("C_RESOURCES_USER_LASTMODIFIED"));
+        CmsUUID lockedInProject = m_sqlManager.getUUID(res, "LOCKED_IN_PROJECT");
         int siblingCount = res.getInt(m_sqlManager.readQuery("C_RESOURCES_SIBLING_COUNT"));
         long dateContent = res.getLong(m_sqlManager.readQuery("C_RESOURCES_DATE_CONTENT"));
         int resourceVersion = res.getInt(m_sqlManager.readQuery("C_RESOURCES_VERSION"));
@@ -412,8 +454,8 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
     public CmsFolder createFolder(ResultSet res, CmsUUID projectId, boolean hasProjectIdInResultSet)
     throws SQLException {
 
-        CmsUUID structureId = new CmsUUID(res.getString(m_sqlManager.readQuery("C_RESOURCES_STRUCTURE_ID")));
-        CmsUUID resourceId = new CmsUUID(res.getString(m_sqlManager.readQuery("C_RESOURCES_RESOURCE_ID")));
+        CmsUUID structureId = m_sqlManager.getUUID(res, m_sqlManager.readQuery("C_RESOURCES_STRUCTURE_ID"));
+        CmsUUID resourceId = m_sqlManager.getUUID(res, m_sqlManager.readQuery("C_RESOURCES_RESOURCE_ID"));
         String resourcePath = res.getString(m_sqlManager.readQuery("C_RESOURCES_RESOURCE_PATH"));
         int resourceType = res.getInt(m_sqlManager.readQuery("C_RESOURCES_RESOURCE_TYPE"));
         int resourceFlags = res.getInt(m_sqlManager.readQuery("C_RESOURCES_RESOURCE_FLAGS"));
@@ -423,9 +465,9 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         long dateLastModified = res.getLong(m_sqlManager.readQuery("C_RESOURCES_DATE_LASTMODIFIED"));
         long dateReleased = res.getLong(m_sqlManager.readQuery("C_RESOURCES_DATE_RELEASED"));
         long dateExpired = res.getLong(m_sqlManager.readQuery("C_RESOURCES_DATE_EXPIRED"));
-        CmsUUID userCreated = new CmsUUID(res.getString(m_sqlManager.readQuery("C_RESOURCES_USER_CREATED")));
-        CmsUUID userLastModified = new CmsUUID(res.getString(m_sqlManager.readQuery("C_RESOURCES_USER_LASTMODIFIED")));
-        CmsUUID resProjectId = new CmsUUID(res.getString("LOCKED_IN_PROJECT"));
+        CmsUUID userCreated = m_sqlManager.getUUID(res, m_sqlManager.readQuery("C_RESOURCES_USER_CREATED"));
+        CmsUUID userLastModified = m_sqlManager.getUUID(res, m_sqlManager.readQuery("C_RESOURCES_USER_LASTMODIFIED"));
+        CmsUUID resProjectId = m_sqlManager.getUUID(res, "LOCKED_IN_PROJECT");
         int resourceVersion = res.getInt(m_sqlManager.readQuery("C_RESOURCES_VERSION"));
         int structureVersion = res.getInt(m_sqlManager.readQuery("C_RESOURCES_STRUCTURE_VERSION"));
         int resourceSize = res.getInt(m_sqlManager.readQuery("C_RESOURCES_SIZE"));
@@ -811,13 +853,14 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
      */
     public CmsResource createResource(ResultSet res, CmsUUID projectId) throws SQLException {
 
-        CmsUUID structureId = new CmsUUID(res.getString(m_sqlManager.readQuery("C_RESOURCES_STRUCTURE_ID")));
-        CmsUUID resourceId = new CmsUUID(res.getString(m_sqlManager.readQuery("C_RESOURCES_RESOURCE_ID")));
+        CmsUUID structureId = m_sqlManager.getUUID(res, m_sqlManager.readQuery("C_RESOURCES_STRUCTURE_ID"));
+        CmsUUID resourceId = m_sqlManager.getUUID(res, m_sqlManager.readQuery("C_RESOURCES_RESOURCE_ID"));
         String resourcePath = res.getString(m_sqlManager.readQuery("C_RESOURCES_RESOURCE_PATH"));
         int resourceType = res.getInt(m_sqlManager.readQuery("C_RESOURCES_RESOURCE_TYPE"));
         int resourceFlags = res.getInt(m_sqlManager.readQuery("C_RESOURCES_RESOURCE_FLAGS"));
-        CmsUUID resourceProjectLastModified = new CmsUUID(
-            res.getString(m_sqlManager.readQuery("C_RESOURCES_PROJECT_LASTMODIFIED")));
+        CmsUUID resourceProjectLastModified = m_sqlManager.getUUID(
+            res,
+            m_sqlManager.readQuery("C_RESOURCES_PROJECT_LASTMODIFIED"));
         int resourceState = res.getInt(m_sqlManager.readQuery("C_RESOURCES_STATE"));
         int structureState = res.getInt(m_sqlManager.readQuery("C_RESOURCES_STRUCTURE_STATE"));
         long dateCreated = res.getLong(m_sqlManager.readQuery("C_RESOURCES_DATE_CREATED"));
@@ -831,8 +874,8 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
             resourcePath = CmsFileUtil.addTrailingSeparator(resourcePath);
         }
         long dateContent = isFolder ? -1 : res.getLong(m_sqlManager.readQuery("C_RESOURCES_DATE_CONTENT"));
-        CmsUUID userCreated = new CmsUUID(res.getString(m_sqlManager.readQuery("C_RESOURCES_USER_CREATED")));
-        CmsUUID userLastModified = new CmsUUID(res.getString(m_sqlManager.readQuery("C_RESOURCES_USER_LASTMODIFIED")));
+        CmsUUID userCreated = m_sqlManager.getUUID(res, m_sqlManager.readQuery("C_RESOURCES_USER_CREATED"));
+        CmsUUID userLastModified = m_sqlManager.getUUID(res, m_sqlManager.readQuery("C_RESOURCES_USER_LASTMODIFIED"));
         int siblingCount = res.getInt(m_sqlManager.readQuery("C_RESOURCES_SIBLING_COUNT"));
         int resourceVersion = res.getInt(m_sqlManager.readQuery("C_RESOURCES_VERSION"));
         int structureVersion = res.getInt(m_sqlManager.readQuery("C_RESOURCES_STRUCTURE_VERSION"));
@@ -1755,20 +1798,9 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         List<CmsResource> result = new ArrayList<CmsResource>();
         CmsUUID projectId = currentProject.getUuid();
 
-        String resourceTypeClause;
-        if (getFolders && getFiles) {
-            resourceTypeClause = null;
-        } else if (getFolders) {
-            resourceTypeClause = m_sqlManager.readQuery(projectId, "C_RESOURCES_GET_SUBRESOURCES_GET_FOLDERS");
-        } else {
-            resourceTypeClause = m_sqlManager.readQuery(projectId, "C_RESOURCES_GET_SUBRESOURCES_GET_FILES");
-        }
         StringBuffer query = new StringBuffer();
         query.append(m_sqlManager.readQuery(projectId, "C_RESOURCES_GET_SUBRESOURCES"));
-        if (resourceTypeClause != null) {
-            query.append(' ');
-            query.append(resourceTypeClause);
-        }
+        appendChildResourceTypeClause(query, projectId, getFolders, getFiles);
 
         String sizeColumn = m_sqlManager.readQuery("C_RESOURCES_SIZE");
 
@@ -1802,6 +1834,75 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return result;
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readChildResources(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, org.opencms.file.CmsResource, boolean, boolean, org.opencms.db.CmsChildResourceOrder, org.opencms.file.CmsResource, int)
+     */
+    public List<CmsResource> readChildResources(
+        CmsDbContext dbc,
+        CmsProject currentProject,
+        CmsResource resource,
+        boolean getFolders,
+        boolean getFiles,
+        CmsChildResourceOrder order,
+        CmsResource startAfter,
+        int maxResults) throws CmsDataAccessException {
+
+        List<CmsResource> result = new ArrayList<CmsResource>();
+        if (maxResults <= 0) {
+            return result;
+        }
+        CmsUUID projectId = currentProject.getUuid();
+
+        StringBuffer query = new StringBuffer();
+        query.append(m_sqlManager.readQuery(projectId, "C_RESOURCES_GET_SUBRESOURCES"));
+        appendChildResourceTypeClause(query, projectId, getFolders, getFiles);
+        if (startAfter != null) {
+            query.append(' ');
+            query.append(m_sqlManager.readQuery(projectId, "C_RESOURCES_GET_SUBRESOURCES_AFTER_" + order.name()));
+        }
+        query.append(' ');
+        query.append(m_sqlManager.readQuery(projectId, "C_RESOURCES_GET_SUBRESOURCES_ORDER_BY_" + order.name()));
+
+        String sizeColumn = m_sqlManager.readQuery("C_RESOURCES_SIZE");
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            stmt = m_sqlManager.getPreparedStatementForSql(conn, query.toString());
+            stmt.setString(1, resource.getStructureId().toString());
+            if (startAfter != null) {
+                if (order == CmsChildResourceOrder.DATE_LASTMODIFIED) {
+                    stmt.setLong(2, startAfter.getDateLastModified());
+                    stmt.setLong(3, startAfter.getDateLastModified());
+                    stmt.setString(4, startAfter.getRootPath());
+                } else {
+                    stmt.setString(2, startAfter.getRootPath());
+                }
+            }
+            // the page size is limited with the JDBC API to avoid DB dependent SQL
+            stmt.setMaxRows(maxResults);
+            res = stmt.executeQuery();
+
+            while (res.next() && (result.size() < maxResults)) {
+                long size = res.getInt(sizeColumn);
+                if (CmsFolder.isFolderSize(size)) {
+                    result.add(createFolder(res, projectId, false));
+                } else {
+                    result.add(createFile(res, projectId, false));
+                }
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(
+                Messages.ERR_GENERIC_SQL_1,
+                CmsDbSqlException.getErrorQuery(stmt)), e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+        return result;
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#readContent(org.opencms.db.CmsDbContext, CmsUUID, org.opencms.util.CmsUUID)
      */
@@ -3164,45 +3265,7 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         ? project.getUuid()
         : dbc.getProjectId();
 
-        // TODO: check if we need autocreation for link property definition types too
-        CmsPropertyDefinition propertyDefinition = null;
-        try {
-            // read the property definition
-            propertyDefinition = readPropertyDefinition(dbc, property.getName(), projectId);
-        } catch (CmsDbEntryNotFoundException e) {
-            if (property.autoCreatePropertyDefinition()) {
-                propertyDefinition = createPropertyDefinition(
-                    dbc,
-                    projectId,
-                    property.getName(),
-                    CmsPropertyDefinition.TYPE_NORMAL);
-                try {
-                    readPropertyDefinition(dbc, property.getName(), CmsProject.ONLINE_PROJECT_ID);
-                } catch (CmsDataAccessException e1) {
-                    createPropertyDefinition(
-                        dbc,
-                        CmsProject.ONLINE_PROJECT_ID,
-                        property.getName(),
-                        CmsPropertyDefinition.TYPE_NORMAL);
-                }
-                try {
-                    m_driverManager.getHistoryDriver(dbc).readPropertyDefinition(dbc, property.getName());
-                } catch (CmsDataAccessException e1) {
-                    m_driverManager.getHistoryDriver(dbc).createPropertyDefinition(
-                        dbc,
-                        property.getName(),
-                        CmsPropertyDefinition.TYPE_NORMAL);
-                }
-                OpenCms.fireCmsEvent(new CmsEvent(
-                    I_CmsEventListener.EVENT_PROPERTY_DEFINITION_CREATED,
-                    Collections.<String, Object> singletonMap("propertyDefinition", propertyDefinition)));
-
-            } else {
-                throw new CmsDbEntryNotFoundException(Messages.get().container(
-                    Messages.ERR_NO_PROPERTYDEF_WITH_NAME_1,
-                    property.getName()));
-            }
-        }
+        CmsPropertyDefinition propertyDefinition = internalReadOrCreatePropertyDefinition(dbc, projectId, property);
 
         PreparedStatement stmt = null;
         Connection conn = null;
@@ -3316,11 +3379,151 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         CmsResource resource,
         List<CmsProperty> properties) throws CmsDataAccessException {
 
-        CmsProperty property = null;
+        Set<String> propertyNames = new HashSet<String>();
+        for (CmsProperty property : properties) {
+            propertyNames.add(property.getName());
+        }
+        if ((properties.size() < 2) || (propertyNames.size() < properties.size())) {
+            // nothing to batch, or the same property is written more than once, so the order of the writes matters
+            for (CmsProperty property : properties) {
+                writePropertyObject(dbc, project, resource, property);
+            }
+            return;
+        }
+
+        CmsUUID projectId = ((dbc.getProjectId() == null) || dbc.getProjectId().isNullUUID())
+        ? project.getUuid()
+        : dbc.getProjectId();
+
+        // read all existing property values of the resource with a single query
+        Map<String, CmsProperty> existingProperties = new HashMap<String, CmsProperty>();
+        for (CmsProperty existingProperty : readPropertyObjects(dbc, project, resource)) {
+            existingProperties.put(existingProperty.getName(), existingProperty);
+        }
+        // read all property definitions with a single query
+        Map<String, CmsPropertyDefinition> propertyDefinitions = new HashMap<String, CmsPropertyDefinition>();
+        for (CmsPropertyDefinition propertyDefinition : readPropertyDefinitions(dbc, projectId)) {
+            propertyDefinitions.put(propertyDefinition.getName(), propertyDefinition);
+        }
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        PreparedStatement createStmt = null;
+        PreparedStatement updateStmt = null;
+        PreparedStatement deleteStmt = null;
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+
+            for (CmsProperty property : properties) {
+                // like in writePropertyObject, the definition is checked (or created) before comparing the values 
+                CmsPropertyDefinition propertyDefinition = propertyDefinitions.get(property.getName());
+                if (propertyDefinition == null) {
+                    propertyDefinition = internalReadOrCreatePropertyDefinition(dbc, projectId, property);
+                    propertyDefinitions.put(property.getName(), propertyDefinition);
+                }
+                CmsProperty existingProperty = existingProperties.get(property.getName());
+                if (existingProperty == null) {
+                    existingProperty = CmsProperty.getNullProperty();
+                }
+                if (existingProperty.isIdentical(property)) {
+                    // property already has the identical values set, no write required
+                    continue;
+                }
+
+                for (int i = 0; i < 2; i++) {
+                    int mappingType = -1;
+                    String value = null;
+                    CmsUUID id = null;
+                    boolean existsPropertyValue = false;
+                    boolean deletePropertyValue = false;
+
+                    // 1) take the same decisions as in writePropertyObject
+
+                    if (i == 0) {
+                        // write/delete the *structure value* on the first cycle
+                        if ((existingProperty.getStructureValue() != null) && property.isDeleteStructureValue()) {
+                            deletePropertyValue = true;
+                        } else {
+                            value = property.getStructureValue();
+                            if (CmsStringUtil.isEmptyOrWhitespaceOnly(value)) {
+                                continue;
+                            }
+                        }
+                        mappingType = CmsProperty.STRUCTURE_RECORD_MAPPING;
+                        id = resource.getStructureId();
+                        existsPropertyValue = existingProperty.getStructureValue() != null;
+                    } else {
+                        // write/delete the *resource value* on the second cycle
+                        if ((existingProperty.getResourceValue() != null) && property.isDeleteResourceValue()) {
+                            deletePropertyValue = true;
+                        } else {
+                            value = property.getResourceValue();
+                            if (CmsStringUtil.isEmptyOrWhitespaceOnly(value)) {
+                                break;
+                            }
+                        }
+                        mappingType = CmsProperty.RESOURCE_RECORD_MAPPING;
+                        id = resource.getResourceId();
+                        existsPropertyValue = existingProperty.getResourceValue() != null;
+                    }
+
+                    // 2) add the SQL statement to the batch of its kind
+                    if (!deletePropertyValue) {
+                        if (existsPropertyValue) {
+                            if (updateStmt == null) {
+                                updateStmt = m_sqlManager.getPreparedStatement(conn, projectId, "C_PROPERTIES_UPDATE");
+                            }
+                            stmt = updateStmt;
+                            stmt.setString(1, m_sqlManager.validateEmpty(value));
+                            stmt.setString(2, id.toString());
+                            stmt.setInt(3, mappingType);
+                            stmt.setString(4, propertyDefinition.getId().toString());
+                        } else {
+                            if (createStmt == null) {
+                                createStmt = m_sqlManager.getPreparedStatement(conn, projectId, "C_PROPERTIES_CREATE");
+                            }
+                            stmt = createStmt;
+                            stmt.setString(1, new CmsUUID().toString());
+                            stmt.setString(2, propertyDefinition.getId().toString());
+                            stmt.setString(3, id.toString());
+                            stmt.setInt(4, mappingType);
+                            stmt.setString(5, m_sqlManager.validateEmpty(value));
+                        }
+                    } else {
+                        if (deleteStmt == null) {
+                            deleteStmt = m_sqlManager.getPreparedStatement(conn, projectId, "C_PROPERTIES_DELETE");
+                        }
+                        stmt = deleteStmt;
+                        stmt.setString(1, propertyDefinition.getId().toString());
+                        stmt.setString(2, id.toString());
+                        stmt.setInt(3, mappingType);
+                    }
+                    stmt.addBatch();
+                }
+            }
 
-        for (int i = 0; i < properties.size(); i++) {
-            property = properties.get(i);
-            writePropertyObject(dbc, project, resource, property);
+            // each property value is touched at most once, so the batches are independent of each other
+            if (deleteStmt != null) {
+                stmt = deleteStmt;
+                stmt.executeBatch();
+            }
+            if (updateStmt != null) {
+                stmt = updateStmt;
+                stmt.executeBatch();
+            }
+            if (createStmt != null) {
+                stmt = createStmt;
+                stmt.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(
+                Messages.ERR_GENERIC_SQL_1,
+                CmsDbSqlException.getErrorQuery(stmt)), e);
+        } finally {
+            m_sqlManager.closeAll(dbc, null, deleteStmt, null);
+            m_sqlManager.closeAll(dbc, null, updateStmt, null);
+            m_sqlManager.closeAll(dbc, conn, createStmt, null);
         }
     }
 
@@ -3505,6 +3708,34 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         }
     }
 
+    /**
+     * Appends the clause restricting a child resource query to folders or files, if needed.<p>
+     *
+     * @param query the query to append the clause to
+     * @param projectId the current project id
+     * @param getFolders if true the child folders are selected
+     * @param getFiles if true the child files are selected
+     */
+    protected void appendChildResourceTypeClause(
+        StringBuffer query,
+        CmsUUID projectId,
+        boolean getFolders,
+        boolean getFiles) {
+
+        String resourceTypeClause;
+        if (getFolders && getFiles) {
+            resourceTypeClause = null;
+        } else if (getFolders) {
+            resourceTypeClause = m_sqlManager.readQuery(projectId, "C_RESOURCES_GET_SUBRESOURCES_GET_FOLDERS");
+        } else {
+            resourceTypeClause = m_sqlManager.readQuery(projectId, "C_RESOURCES_GET_SUBRESOURCES_GET_FILES");
+        }
+        if (resourceTypeClause != null) {
+            query.append(' ');
+            query.append(resourceTypeClause);
+        }
+    }
+
     /**
      * Checks that the current user has write permissions for all subresources of the given folder.<p>
      *
@@ -3754,6 +3985,64 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         }
     }
 
+    /**
+     * Reads the definition of the given property, creating it if the property allows
+     * auto creation of its definition.<p>
+     *
+     * @param dbc the current database context
+     * @param projectId the id of the project to read the definition from
+     * @param property the property to read the definition for
+     *
+     * @return the property definition
+     *
+     * @throws CmsDataAccessException if the definition is missing and may not be created, or something goes wrong
+     */
+    protected CmsPropertyDefinition internalReadOrCreatePropertyDefinition(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        CmsProperty property) throws CmsDataAccessException {
+
+        CmsPropertyDefinition propertyDefinition = null;
+        try {
+            // read the property definition
+            propertyDefinition = readPropertyDefinition(dbc, property.getName(), projectId);
+        } catch (CmsDbEntryNotFoundException e) {
+            if (property.autoCreatePropertyDefinition()) {
+                propertyDefinition = createPropertyDefinition(
+                    dbc,
+                    projectId,
+                    property.getName(),
+                    CmsPropertyDefinition.TYPE_NORMAL);
+                try {
+                    readPropertyDefinition(dbc, property.getName(), CmsProject.ONLINE_PROJECT_ID);
+                } catch (CmsDataAccessException e1) {
+                    createPropertyDefinition(
+                        dbc,
+                        CmsProject.ONLINE_PROJECT_ID,
+                        property.getName(),
+                        CmsPropertyDefinition.TYPE_NORMAL);
+                }
+                try {
+                    m_driverManager.getHistoryDriver(dbc).readPropertyDefinition(dbc, property.getName());
+                } catch (CmsDataAccessException e1) {
+                    m_driverManager.getHistoryDriver(dbc).createPropertyDefinition(
+                        dbc,
+                        property.getName(),
+                        CmsPropertyDefinition.TYPE_NORMAL);
+                }
+                OpenCms.fireCmsEvent(new CmsEvent(
+                    I_CmsEventListener.EVENT_PROPERTY_DEFINITION_CREATED,
+                    Collections.<String, Object> singletonMap("propertyDefinition", propertyDefinition)));
+
+            } else {
+                throw new CmsDbEntryNotFoundException(Messages.get().container(
+                    Messages.ERR_NO_PROPERTYDEF_WITH_NAME_1,
+                    property.getName()));
+            }
+        }
+        return propertyDefinition;
+    }
+
     /**
      * Returns the parent id of the given resource.<p>
      *
@@ -4691,6 +4980,14 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
             conditions.add("structure_id = ?");
             conditionParams.add(filter.getStructureId().toString());
         }
+        if (filter.getStructureIds() != null) {
+            List<String> placeholders = new ArrayList<String>();
+            for (CmsUUID structureId : filter.getStructureIds()) {
+                placeholders.add("?");
+                conditionParams.add(structureId.toString());
+            }
+            conditions.add("structure_id IN (" + CmsStringUtil.listAsString(placeholders, ", ") + ")");
+        }
         if (filter.getPath() != null) {
             conditions.add("path = ?");
             conditionParams.add(filter.getPath());
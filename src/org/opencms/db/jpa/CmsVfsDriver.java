@@ -31,6 +31,7 @@ import org.opencms.configuration.CmsConfigurationManager;
 import org.opencms.configuration.CmsParameterConfiguration;
 import org.opencms.db.CmsAlias;
 import org.opencms.db.CmsAliasFilter;
+import org.opencms.db.CmsChildResourceOrder;
 import org.opencms.db.CmsDbConsistencyException;
 import org.opencms.db.CmsDbContext;
 import org.opencms.db.CmsDbEntryNotFoundException;
@@ -107,6 +108,7 @@ import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -496,6 +498,19 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
 
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#countChildResources(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, org.opencms.file.CmsResource, boolean, boolean)
+     */
+    public int countChildResources(
+        CmsDbContext dbc,
+        CmsProject currentProject,
+        CmsResource resource,
+        boolean getFolders,
+        boolean getFiles) throws CmsDataAccessException {
+
+        return readChildResources(dbc, currentProject, resource, getFolders, getFiles).size();
+    }
+
     /**
      * Counts the number of siblings of a resource.<p>
      *
@@ -1940,6 +1955,45 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return result;
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readChildResources(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, org.opencms.file.CmsResource, boolean, boolean, org.opencms.db.CmsChildResourceOrder, org.opencms.file.CmsResource, int)
+     */
+    public List<CmsResource> readChildResources(
+        CmsDbContext dbc,
+        CmsProject currentProject,
+        CmsResource resource,
+        boolean getFolders,
+        boolean getFiles,
+        final CmsChildResourceOrder order,
+        CmsResource startAfter,
+        int maxResults) throws CmsDataAccessException {
+
+        // the page is selected in memory, since JPQL offers no portable way for the keyset condition
+        List<CmsResource> children = readChildResources(dbc, currentProject, resource, getFolders, getFiles);
+        Comparator<CmsResource> comparator = new Comparator<CmsResource>() {
+
+            public int compare(CmsResource first, CmsResource second) {
+
+                if ((order == CmsChildResourceOrder.DATE_LASTMODIFIED)
+                    && (first.getDateLastModified() != second.getDateLastModified())) {
+                    return first.getDateLastModified() < second.getDateLastModified() ? -1 : 1;
+                }
+                return first.getRootPath().compareTo(second.getRootPath());
+            }
+        };
+        Collections.sort(children, comparator);
+        List<CmsResource> result = new ArrayList<CmsResource>();
+        for (CmsResource child : children) {
+            if (result.size() >= maxResults) {
+                break;
+            }
+            if ((startAfter == null) || (comparator.compare(child, startAfter) > 0)) {
+                result.add(child);
+            }
+        }
+        return result;
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#readContent(org.opencms.db.CmsDbContext, CmsUUID, org.opencms.util.CmsUUID)
      */
@@ -4482,6 +4536,14 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
             conditions.add("alias.m_structureId = ?");
             conditionParams.add(filter.getStructureId().toString());
         }
+        if (filter.getStructureIds() != null) {
+            List<String> placeholders = new ArrayList<String>();
+            for (CmsUUID structureId : filter.getStructureIds()) {
+                placeholders.add("?");
+                conditionParams.add(structureId.toString());
+            }
+            conditions.add("alias.m_structureId IN (" + CmsStringUtil.listAsString(placeholders, ", ") + ")");
+        }
         if (filter.getPath() != null) {
             conditions.add("alias.m_aliasPath = ?");
             conditionParams.add(filter.getPath());
@@ -27,6 +27,7 @@
 
 package org.opencms.file;
 
+import org.opencms.db.CmsChildResourceOrder;
 import org.opencms.db.CmsDbEntryNotFoundException;
 import org.opencms.db.CmsPublishedResource;
 import org.opencms.db.CmsResourceState;
@@ -571,6 +572,25 @@ public final class CmsObject {
         copyResourceToProject(resource);
     }
 
+    /**
+     * Counts the child resources of a folder.<p>
+     *
+     * The count is done without reading the resources, so neither permissions nor resource filters are 
+     * applied. Use this as an estimate of the number of resources returned by 
+     * {@link #getResourcesInFolder(String, CmsResourceFilter)}.<p>
+     *
+     * @param resourcename the full current site relative path of the folder
+     *
+     * @return the number of child resources
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public int countResourcesInFolder(String resourcename) throws CmsException {
+
+        CmsResource resource = readResource(resourcename, CmsResourceFilter.ALL);
+        return m_securityManager.countChildResources(m_context, resource, true, true);
+    }
+
     /**
      * Counts the locked resources in a project.<p>
      *
@@ -1453,6 +1473,23 @@ public final class CmsObject {
         return m_securityManager.getLockedResourcesObjectsWithCache(m_context, resource, filter, cache);
     }
 
+    /**
+     * Returns the edition lock states for the given resources.<p>
+     *
+     * This gives the same results as calling {@link #getLock(CmsResource)} for each resource,
+     * but is considerably cheaper for long resource lists.<p>
+     *
+     * @param resources the resources to return the edition lock states for
+     *
+     * @return the edition lock states, in the order of the given list
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsLock> getLocks(List<CmsResource> resources) throws CmsException {
+
+        return m_securityManager.getLocks(m_context, resources);
+    }
+
     /**
      * Returns all log entries matching the given filter.<p>
      *
@@ -1647,6 +1684,43 @@ public final class CmsObject {
         return m_securityManager.readChildResources(m_context, resource, filter, true, true);
     }
 
+    /**
+     * Returns a page of the child resources of a resource, that is the resources
+     * contained in a folder.<p>
+     *
+     * To read the next page, pass the last resource of the previous page as <code>startAfter</code>.
+     * Only the resources of the requested page are read from the database, so paging through
+     * a large folder does not become slower with every page.<p>
+     *
+     * @param resourcename the full current site relative path of the resource to return the child resources for
+     * @param filter the resource filter to use
+     * @param order the order of the child resources
+     * @param startAfter the resource after which the page starts, or <code>null</code> for the first page
+     * @param maxResults the maximum number of resources to return
+     *
+     * @return a list of at most <code>maxResults</code> child <code>{@link CmsResource}</code>s, in the given order
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsResource> getResourcesInFolder(
+        String resourcename,
+        CmsResourceFilter filter,
+        CmsChildResourceOrder order,
+        CmsResource startAfter,
+        int maxResults) throws CmsException {
+
+        CmsResource resource = readResource(resourcename, CmsResourceFilter.ALL);
+        return m_securityManager.readChildResources(
+            m_context,
+            resource,
+            filter,
+            true,
+            true,
+            order,
+            startAfter,
+            maxResults);
+    }
+
     /**
      * Adjusts the absolute resource root path for the current site.<p>
      *
@@ -409,6 +409,27 @@ public class CmsObjectWrapper {
         return wrapped;
     }
 
+    /**
+     * Returns the child resources of a folder as they exist in the VFS, without 
+     * calling any of the configured resource wrappers.<p>
+     * 
+     * @see CmsObject#getResourcesInFolder(String, CmsResourceFilter)
+     * 
+     * @param resourcename the full path of the resource to return the child resources for
+     * @param filter the resource filter to use
+     * 
+     * @return a list of the child <code>{@link CmsResource}</code>s in the VFS, 
+     *      or an empty list if the folder does not exist in the VFS
+     */
+    public List<CmsResource> getVfsResourcesInFolder(String resourcename, CmsResourceFilter filter) {
+
+        try {
+            return m_cms.getResourcesInFolder(resourcename, filter);
+        } catch (CmsException e) {
+            return Collections.emptyList();
+        }
+    }
+
     /**
      * Delegate method for {@link CmsObject#getSitePath(CmsResource)}.<p>
      * 
@@ -40,6 +40,7 @@ import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsStringUtil;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -47,6 +48,7 @@ import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.collections.map.LRUMap;
 import org.apache.commons.logging.Log;
@@ -162,12 +164,13 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
             if ((m == null) || (m.size() == 0)) {
                 return true;
             }
-            Collection<I_CmsLruCacheObject> entries = m.values();
+            // clear the variation map first, so that the entries are not demoted to the off-heap tier
+            Collection<I_CmsLruCacheObject> entries = new ArrayList<I_CmsLruCacheObject>(m.values());
             synchronized (m_variationCache) {
+                v.m_map.clear();
                 for (I_CmsLruCacheObject e : entries) {
                     m_variationCache.remove(e);
                 }
-                v.m_map.clear();
                 v.m_map = null;
                 v.m_key = null;
             }
@@ -223,9 +226,18 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
     /** Indicates if the cache is enabled or not. */
     private boolean m_enabled;
 
+    /** The number of lookups that found an entry on the heap. */
+    private AtomicLong m_hitCount = new AtomicLong();
+
     /** Map to store the entries for fast lookup. */
     private Map<String, CmsFlexCacheVariation> m_keyCache;
 
+    /** The number of lookups that did not find an entry on the heap. */
+    private AtomicLong m_missCount = new AtomicLong();
+
+    /** The off-heap tier for entries evicted from the heap, or <code>null</code> if not configured. */
+    private CmsFlexCacheOffHeapTier m_offHeapTier;
+
     /** Counter for the size. */
     private int m_size;
 
@@ -258,6 +270,27 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
             m_keyCache = Collections.synchronizedMap(CmsCollectionsGenericWrapper.<String, CmsFlexCacheVariation> map(flexKeyMap));
             OpenCms.getMemoryMonitor().register(getClass().getName() + ".m_resourceMap", flexKeyMap);
 
+            long offHeapBytes = configuration.getOffHeapCacheBytes();
+            if (offHeapBytes > 0) {
+                String offHeapFile = configuration.getOffHeapCacheFile();
+                File file = (offHeapFile != null) ? new File(offHeapFile) : null;
+                int capacity = (int)Math.min(offHeapBytes, Integer.MAX_VALUE);
+                try {
+                    m_offHeapTier = new CmsFlexCacheOffHeapTier(capacity, file);
+                    if (LOG.isInfoEnabled()) {
+                        LOG.info(Messages.get().getBundle().key(
+                            Messages.INIT_FLEXCACHE_OFFHEAP_TIER_2,
+                            new Integer(capacity),
+                            offHeapFile));
+                    }
+                } catch (Throwable t) {
+                    // the cache still works without the off-heap tier
+                    LOG.error(Messages.get().getBundle().key(
+                        Messages.LOG_FLEXCACHE_OFFHEAP_TIER_FAILED_1,
+                        new Integer(capacity)), t);
+                }
+            }
+
             OpenCms.addCmsEventListener(this, new int[] {
                 I_CmsEventListener.EVENT_PUBLISH_PROJECT,
                 I_CmsEventListener.EVENT_CLEAR_CACHES,
@@ -438,6 +471,40 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         return m_variationCache;
     }
 
+    /**
+     * Returns the number of lookups that found an entry in the heap tier of the cache.<p>
+     * 
+     * @return the number of heap hits
+     */
+    public long getHitCount() {
+
+        return m_hitCount.get();
+    }
+
+    /**
+     * Returns the number of lookups that did not find an entry in the heap tier of the cache.<p>
+     * 
+     * Lookups for resources that are not cacheable are not counted.<p>
+     * 
+     * @return the number of heap misses
+     */
+    public long getMissCount() {
+
+        return m_missCount.get();
+    }
+
+    /**
+     * Returns the off-heap tier that stores the entries evicted from the heap.<p>
+     * 
+     * The off-heap tier keeps its own hit and miss statistics.<p>
+     * 
+     * @return the off-heap tier, or <code>null</code> if no off-heap tier is configured
+     */
+    public CmsFlexCacheOffHeapTier getOffHeapTier() {
+
+        return m_offHeapTier;
+    }
+
     /**
      * Indicates if the cache is enabled (i.e. actually
      * caching entries) or not.<p>
@@ -500,17 +567,22 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
             }
             CmsFlexCacheEntry entry = (CmsFlexCacheEntry)v.m_map.get(variation);
             if (entry == null) {
-                // no cache entry available for variation
-                return null;
+                // no cache entry available for variation on the heap, try the off-heap tier
+                m_missCount.incrementAndGet();
+                return promote(key.getResource(), variation, v);
             }
             if (entry.getDateExpires() < System.currentTimeMillis()) {
                 // cache entry avaiable but expired, remove entry
+                v.m_map.remove(variation);
                 m_variationCache.remove(entry);
+                m_missCount.incrementAndGet();
                 return null;
             }
             // return the found cache entry
+            m_hitCount.incrementAndGet();
             return entry;
         } else {
+            m_missCount.incrementAndGet();
             return null;
         }
     }
@@ -631,11 +703,15 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         }
         CmsFlexCacheVariation o = m_keyCache.get(key.getResource());
         if (o != null) {
-            I_CmsLruCacheObject old = o.m_map.get(key.getVariation());
+            // remove the entry from the variation map first, so that it is not demoted to the off-heap tier
+            I_CmsLruCacheObject old = o.m_map.remove(key.getVariation());
             if (old != null) {
                 getEntryLruCache().remove(old);
             }
         }
+        if (m_offHeapTier != null) {
+            m_offHeapTier.remove(key.getResource(), key.getVariation());
+        }
     }
 
     /**
@@ -646,10 +722,23 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         if (!isEnabled()) {
             return;
         }
+        if (m_offHeapTier != null) {
+            // clear the variation maps first, so that the entries are not demoted to the off-heap tier
+            synchronized (m_keyCache) {
+                for (CmsFlexCacheVariation v : m_keyCache.values()) {
+                    if (v.m_map != null) {
+                        v.m_map.clear();
+                    }
+                }
+            }
+        }
         m_keyCache.clear();
         m_size = 0;
 
         m_variationCache.clear();
+        if (m_offHeapTier != null) {
+            m_offHeapTier.clear();
+        }
 
         if (LOG.isInfoEnabled()) {
             LOG.info(Messages.get().getBundle().key(Messages.LOG_FLEXCACHE_CLEAR_0));
@@ -702,6 +791,9 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
                 }
             }
         }
+        if (m_offHeapTier != null) {
+            m_offHeapTier.removeAll(suffix);
+        }
         if (LOG.isInfoEnabled()) {
             LOG.info(Messages.get().getBundle().key(
                 Messages.LOG_FLEXCACHE_CLEAR_HALF_2,
@@ -740,6 +832,9 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
             v.m_map = new Hashtable<String, I_CmsLruCacheObject>(INITIAL_CAPACITY_VARIATIONS);
         }
         m_size = 0;
+        if (m_offHeapTier != null) {
+            m_offHeapTier.clear();
+        }
     }
 
     /**
@@ -820,6 +915,32 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         clearAccordingToSuffix(CACHE_ONLINESUFFIX, true);
     }
 
+    /**
+     * Promotes an entry from the off-heap tier back to the heap.<p>
+     * 
+     * @param resource the resource key of the entry
+     * @param variation the variation of the entry
+     * @param v the variation data of the resource
+     * 
+     * @return the promoted entry, or <code>null</code> if the off-heap tier contains no entry for the variation
+     */
+    private CmsFlexCacheEntry promote(String resource, String variation, CmsFlexCacheVariation v) {
+
+        if (m_offHeapTier == null) {
+            return null;
+        }
+        CmsFlexCacheEntry entry = m_offHeapTier.promote(resource, variation);
+        if (entry != null) {
+            Map<String, I_CmsLruCacheObject> m = v.m_map;
+            if ((m != null) && m_variationCache.add(entry)) {
+                entry.setVariationData(variation, m);
+                entry.setOffHeapTier(m_offHeapTier, resource);
+                m.put(variation, entry);
+            }
+        }
+        return entry;
+    }
+
     /**
      * This method purges the JSP repository dirs,
      * i.e. it deletes all JSP files that OpenCms has written to the
@@ -875,6 +996,7 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
 
             if (wasAdded) {
                 theCacheEntry.setVariationData(key.getVariation(), m);
+                theCacheEntry.setOffHeapTier(m_offHeapTier, key.getResource());
                 m.put(key.getVariation(), theCacheEntry);
             }
         } else {
@@ -885,10 +1007,15 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
 
             if (wasAdded) {
                 theCacheEntry.setVariationData(key.getVariation(), list.m_map);
+                theCacheEntry.setOffHeapTier(m_offHeapTier, key.getResource());
                 list.m_map.put(key.getVariation(), theCacheEntry);
                 m_keyCache.put(key.getResource(), list);
             }
         }
+        if (m_offHeapTier != null) {
+            // a copy demoted earlier is outdated now
+            m_offHeapTier.remove(key.getResource(), key.getVariation());
+        }
 
         if (LOG.isDebugEnabled()) {
             LOG.debug(Messages.get().getBundle().key(
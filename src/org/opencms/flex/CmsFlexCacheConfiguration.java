@@ -30,6 +30,7 @@ package org.opencms.flex;
 import org.opencms.jsp.util.CmsJspDeviceSelectorDesktopMobileTablet;
 import org.opencms.jsp.util.I_CmsJspDeviceSelector;
 import org.opencms.main.CmsLog;
+import org.opencms.util.CmsStringUtil;
 
 import org.apache.commons.logging.Log;
 
@@ -74,6 +75,12 @@ public class CmsFlexCacheConfiguration {
     /** The maximum key. */
     private int m_maxKeys;
 
+    /** The size of the off-heap tier in bytes, 0 if no off-heap tier is used. */
+    private long m_offHeapCacheBytes;
+
+    /** The file to map the off-heap tier from, <code>null</code> to use direct memory. */
+    private String m_offHeapCacheFile;
+
     /**
      * Empty public constructor for the digester.
      */
@@ -145,6 +152,26 @@ public class CmsFlexCacheConfiguration {
         return m_maxKeys;
     }
 
+    /**
+     * Returns the size of the off-heap tier in bytes.<p>
+     * 
+     * @return the size of the off-heap tier in bytes, 0 if no off-heap tier is used
+     */
+    public long getOffHeapCacheBytes() {
+
+        return m_offHeapCacheBytes;
+    }
+
+    /**
+     * Returns the file to map the off-heap tier from.<p>
+     * 
+     * @return the file to map the off-heap tier from, or <code>null</code> if direct memory is used
+     */
+    public String getOffHeapCacheFile() {
+
+        return m_offHeapCacheFile;
+    }
+
     /**
      * Initializes the flex cache configuration with required parameters.<p>
      * 
@@ -171,6 +198,37 @@ public class CmsFlexCacheConfiguration {
         setMaxKeys(Integer.parseInt(maxKeys));
     }
 
+    /**
+     * Initializes the flex cache configuration with required parameters and the optional off-heap tier.<p>
+     * 
+     * @param enabled enables or disable the flexcache
+     * @param offline enable the flexcache for the offline project
+     * @param maxCacheBytes the max bytes for cache
+     * @param avgCacheBytes the average bytes for cache
+     * @param maxEntryBytes the max bytes for entry
+     * @param maxKeys the max keys
+     * @param offHeapCacheBytes the size of the off-heap tier in bytes, may be <code>null</code>
+     * @param offHeapCacheFile the file to map the off-heap tier from, may be <code>null</code>
+     */
+    public void initialize(
+        String enabled,
+        String offline,
+        String maxCacheBytes,
+        String avgCacheBytes,
+        String maxEntryBytes,
+        String maxKeys,
+        String offHeapCacheBytes,
+        String offHeapCacheFile) {
+
+        initialize(enabled, offline, maxCacheBytes, avgCacheBytes, maxEntryBytes, maxKeys);
+        if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(offHeapCacheBytes)) {
+            setOffHeapCacheBytes(Long.parseLong(offHeapCacheBytes.trim()));
+        }
+        if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(offHeapCacheFile)) {
+            setOffHeapCacheFile(offHeapCacheFile.trim());
+        }
+    }
+
     /**
      * Checks if flexcache is enabled or not.<p>
      *
@@ -285,4 +343,24 @@ public class CmsFlexCacheConfiguration {
 
         m_maxKeys = maxKeys;
     }
+
+    /**
+     * Sets the size of the off-heap tier in bytes.<p>
+     * 
+     * @param offHeapCacheBytes the size of the off-heap tier in bytes, 0 to disable the off-heap tier
+     */
+    public void setOffHeapCacheBytes(long offHeapCacheBytes) {
+
+        m_offHeapCacheBytes = offHeapCacheBytes;
+    }
+
+    /**
+     * Sets the file to map the off-heap tier from.<p>
+     * 
+     * @param offHeapCacheFile the file to map the off-heap tier from, <code>null</code> to use direct memory
+     */
+    public void setOffHeapCacheFile(String offHeapCacheFile) {
+
+        m_offHeapCacheFile = offHeapCacheFile;
+    }
 }
@@ -98,6 +98,12 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
     /** Pointer to the next cache entry in the LRU cache. */
     private I_CmsLruCacheObject m_next;
 
+    /** The resource key under which this entry is stored in the off-heap tier. */
+    private String m_offHeapResource;
+
+    /** The off-heap tier this entry is demoted to when it is evicted from the heap, or <code>null</code>. */
+    private CmsFlexCacheOffHeapTier m_offHeapTier;
+
     /** Pointer to the previous cache entry in the LRU cache. */
     private I_CmsLruCacheObject m_previous;
 
@@ -263,6 +269,16 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
         return m_dateLastModified;
     }
 
+    /**
+     * Returns the headers of this cache entry.<p>
+     * 
+     * @return the headers of this cache entry, may be <code>null</code>
+     */
+    public Map<String, List<String>> getHeaders() {
+
+        return m_headers;
+    }
+
     /**
      * @see org.opencms.cache.I_CmsLruCacheObject#getLruCacheCosts()
      */
@@ -295,6 +311,16 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
         return m_previous;
     }
 
+    /**
+     * Returns the redirect target of this cache entry.<p>
+     * 
+     * @return the redirect target, or <code>null</code> if this entry does not describe a redirect
+     */
+    public String getRedirectTarget() {
+
+        return m_redirectTarget;
+    }
+
     /**
      * @see org.opencms.cache.I_CmsLruCacheObject#getValue()
      */
@@ -309,7 +335,10 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
     public void removeFromLruCache() {
 
         if ((m_variationMap != null) && (m_variationKey != null)) {
-            m_variationMap.remove(m_variationKey);
+            if ((m_variationMap.remove(m_variationKey) != null) && (m_offHeapTier != null)) {
+                // the entry was still referenced, so it has been evicted from the heap and not cleared
+                m_offHeapTier.demote(m_offHeapResource, m_variationKey, this);
+            }
         }
         if (LOG.isDebugEnabled()) {
             LOG.debug(Messages.get().getBundle().key(
@@ -481,6 +510,18 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
         m_previous = thePreviousEntry;
     }
 
+    /**
+     * Sets the off-heap tier this entry is demoted to when it is evicted from the heap LRU cache.<p>
+     * 
+     * @param tier the off-heap tier, or <code>null</code> if the entry should not be demoted
+     * @param resource the resource key under which the entry is stored
+     */
+    public void setOffHeapTier(CmsFlexCacheOffHeapTier tier, String resource) {
+
+        m_offHeapTier = tier;
+        m_offHeapResource = resource;
+    }
+
     /** 
      * Set a redirect target for this cache entry.<p>
      *
@@ -0,0 +1,623 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.flex;
+
+import org.opencms.i18n.CmsEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Second level tier of the FlexCache that keeps serialized cache entries outside of the Java heap.<p>
+ * 
+ * Entries evicted from the heap LRU of the FlexCache are demoted to this tier, 
+ * and promoted back to the heap on the next hit.
+ * The serialized entries are stored in a single buffer of fixed size, which is either allocated 
+ * as direct memory or mapped from a file. The buffer is used as a circular log, 
+ * i.e. new entries are always written behind the last entry, overwriting the oldest entries 
+ * if the buffer is full.<p>
+ * 
+ * Only entries whose include calls use String attributes can be demoted, 
+ * other entries are simply dropped when they are evicted from the heap.<p>
+ * 
+ * @since 9.0.0 
+ */
+public class CmsFlexCacheOffHeapTier {
+
+    /**
+     * The position of a serialized entry in the buffer.<p>
+     */
+    private static class Slot {
+
+        /** The length of the serialized entry. */
+        final int m_length;
+
+        /** The offset of the serialized entry in the buffer. */
+        final int m_offset;
+
+        /** The resource key of the entry. */
+        final String m_resource;
+
+        /**
+         * Creates a new slot.<p>
+         * 
+         * @param resource the resource key of the entry
+         * @param offset the offset of the serialized entry in the buffer
+         * @param length the length of the serialized entry
+         */
+        Slot(String resource, int offset, int length) {
+
+            m_resource = resource;
+            m_offset = offset;
+            m_length = length;
+        }
+    }
+
+    /** Element type marker for output bytes. */
+    private static final byte ELEMENT_BYTES = 0;
+
+    /** Element type marker for include calls. */
+    private static final byte ELEMENT_INCLUDE = 1;
+
+    /** Separator between resource key and variation in the keys of the slot map. */
+    private static final char KEY_SEPARATOR = '\n';
+
+    /** The buffer that holds the serialized entries. */
+    private final ByteBuffer m_buffer;
+
+    /** The number of entries that have been demoted to this tier. */
+    private long m_demotedCount;
+
+    /** The number of entries that have been overwritten because the tier was full. */
+    private long m_evictedCount;
+
+    /** The file the buffer is mapped from, or <code>null</code> if direct memory is used. */
+    private final File m_file;
+
+    /** The number of lookups that found an entry in this tier. */
+    private long m_hitCount;
+
+    /** The number of lookups that did not find an entry in this tier. */
+    private long m_missCount;
+
+    /** The position in the buffer where the next entry is written. */
+    private int m_position;
+
+    /** The slots of the stored entries, in the order they have been written to the buffer. */
+    private final Map<String, Slot> m_slots;
+
+    /** The number of bytes used by the stored entries. */
+    private long m_usedBytes;
+
+    /**
+     * Creates a new off-heap tier.<p>
+     * 
+     * @param capacity the size of the buffer in bytes
+     * @param file the file to map the buffer from, or <code>null</code> to allocate direct memory
+     * 
+     * @throws IOException if the buffer file could not be mapped
+     */
+    public CmsFlexCacheOffHeapTier(int capacity, File file) throws IOException {
+
+        if (file == null) {
+            m_buffer = ByteBuffer.allocateDirect(capacity);
+        } else {
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                raf.setLength(capacity);
+                // the mapping remains valid after the file has been closed
+                m_buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            } finally {
+                raf.close();
+            }
+            file.deleteOnExit();
+        }
+        m_file = file;
+        m_slots = new LinkedHashMap<String, Slot>();
+    }
+
+    /**
+     * Restores a cache entry from its serialized form.<p>
+     * 
+     * @param data the serialized entry
+     * 
+     * @return the restored and completed cache entry
+     * 
+     * @throws IOException if the data could not be read
+     */
+    static CmsFlexCacheEntry deserialize(byte[] data) throws IOException {
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        CmsFlexCacheEntry entry = new CmsFlexCacheEntry();
+        long dateExpires = in.readLong();
+        long dateLastModified = in.readLong();
+        String redirect = readString(in);
+        if (redirect != null) {
+            entry.setRedirect(redirect);
+        }
+        int elements = in.readInt();
+        for (int i = 0; i < elements; i++) {
+            if (in.readByte() == ELEMENT_BYTES) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                entry.add(bytes);
+            } else {
+                String resource = readString(in);
+                int paramCount = in.readInt();
+                Map<String, String[]> parameters = new HashMap<String, String[]>(paramCount);
+                for (int j = 0; j < paramCount; j++) {
+                    String name = readString(in);
+                    String[] values = new String[in.readInt()];
+                    for (int k = 0; k < values.length; k++) {
+                        values[k] = readString(in);
+                    }
+                    parameters.put(name, values);
+                }
+                int attrCount = in.readInt();
+                Map<String, Object> attrs = new HashMap<String, Object>(attrCount);
+                for (int j = 0; j < attrCount; j++) {
+                    String name = readString(in);
+                    attrs.put(name, readString(in));
+                }
+                entry.add(resource, parameters, attrs);
+            }
+        }
+        int headerCount = in.readInt();
+        if (headerCount >= 0) {
+            Map<String, List<String>> headers = new HashMap<String, List<String>>(headerCount);
+            for (int i = 0; i < headerCount; i++) {
+                String name = readString(in);
+                int valueCount = in.readInt();
+                List<String> values = new ArrayList<String>(valueCount);
+                for (int j = 0; j < valueCount; j++) {
+                    values.add(readString(in));
+                }
+                headers.put(name, values);
+            }
+            entry.addHeaders(headers);
+        }
+        entry.complete();
+        entry.setDateExpires(dateExpires);
+        entry.setDateLastModified(dateLastModified);
+        return entry;
+    }
+
+    /**
+     * Serializes a cache entry.<p>
+     * 
+     * @param entry the cache entry to serialize
+     * 
+     * @return the serialized entry, or <code>null</code> if the entry contains attributes 
+     *      which are not Strings and thus can not be serialized
+     */
+    static byte[] serialize(CmsFlexCacheEntry entry) {
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(entry.getLruCacheCosts());
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(entry.getDateExpires());
+            out.writeLong(entry.getDateLastModified());
+            writeString(out, entry.getRedirectTarget());
+            List<Object> elements = entry.elements();
+            if (elements == null) {
+                out.writeInt(0);
+            } else {
+                // an include call is stored as three elements, but serialized as one
+                int count = 0;
+                for (Object o : elements) {
+                    if (!(o instanceof Map)) {
+                        count++;
+                    }
+                }
+                out.writeInt(count);
+                Iterator<Object> i = elements.iterator();
+                while (i.hasNext()) {
+                    Object o = i.next();
+                    if (o instanceof byte[]) {
+                        byte[] data = (byte[])o;
+                        out.writeByte(ELEMENT_BYTES);
+                        out.writeInt(data.length);
+                        out.write(data);
+                    } else {
+                        out.writeByte(ELEMENT_INCLUDE);
+                        writeString(out, (String)o);
+                        @SuppressWarnings("unchecked")
+                        Map<String, String[]> parameters = (Map<String, String[]>)i.next();
+                        out.writeInt(parameters.size());
+                        for (Map.Entry<String, String[]> param : parameters.entrySet()) {
+                            writeString(out, param.getKey());
+                            String[] values = param.getValue();
+                            out.writeInt(values.length);
+                            for (int k = 0; k < values.length; k++) {
+                                writeString(out, values[k]);
+                            }
+                        }
+                        @SuppressWarnings("unchecked")
+                        Map<String, Object> attrs = (Map<String, Object>)i.next();
+                        out.writeInt(attrs.size());
+                        for (Map.Entry<String, Object> attr : attrs.entrySet()) {
+                            if (!(attr.getValue() instanceof String)) {
+                                return null;
+                            }
+                            writeString(out, attr.getKey());
+                            writeString(out, (String)attr.getValue());
+                        }
+                    }
+                }
+            }
+            Map<String, List<String>> headers = entry.getHeaders();
+            if (headers == null) {
+                out.writeInt(-1);
+            } else {
+                out.writeInt(headers.size());
+                for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                    writeString(out, header.getKey());
+                    out.writeInt(header.getValue().size());
+                    for (String value : header.getValue()) {
+                        writeString(out, value);
+                    }
+                }
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // can not happen when writing to a byte array
+            return null;
+        }
+    }
+
+    /**
+     * Reads a String written with {@link #writeString(DataOutputStream, String)}.<p>
+     * 
+     * @param in the input to read from
+     * 
+     * @return the String read, may be <code>null</code>
+     * 
+     * @throws IOException if the String could not be read
+     */
+    private static String readString(DataInputStream in) throws IOException {
+
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, CmsEncoder.ENCODING_UTF_8);
+    }
+
+    /**
+     * Writes a String in UTF-8 encoding prefixed with its length in bytes.<p>
+     * 
+     * Other than {@link DataOutputStream#writeUTF(String)} this works for Strings of any size.<p>
+     * 
+     * @param out the output to write to
+     * @param value the String to write, may be <code>null</code>
+     * 
+     * @throws IOException if the String could not be written
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(CmsEncoder.ENCODING_UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Removes all entries from this tier.<p>
+     */
+    public synchronized void clear() {
+
+        m_slots.clear();
+        m_usedBytes = 0;
+        m_position = 0;
+    }
+
+    /**
+     * Demotes a cache entry that has been evicted from the heap to this tier.<p>
+     * 
+     * Entries that are expired, that can not be serialized or that are larger 
+     * than the capacity of this tier are not stored.<p>
+     * 
+     * @param resource the resource key of the entry
+     * @param variation the variation of the entry
+     * @param entry the cache entry to demote
+     * 
+     * @return <code>true</code> if the entry was stored in this tier
+     */
+    public boolean demote(String resource, String variation, CmsFlexCacheEntry entry) {
+
+        if (entry.getDateExpires() < System.currentTimeMillis()) {
+            return false;
+        }
+        byte[] data = serialize(entry);
+        if ((data == null) || (data.length > m_buffer.capacity())) {
+            return false;
+        }
+        String key = getKey(resource, variation);
+        synchronized (this) {
+            removeSlot(m_slots.remove(key));
+            int offset = allocate(data.length);
+            ByteBuffer buffer = m_buffer.duplicate();
+            buffer.position(offset);
+            buffer.put(data);
+            m_slots.put(key, new Slot(resource, offset, data.length));
+            m_position = offset + data.length;
+            m_usedBytes += data.length;
+            m_demotedCount++;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the capacity of this tier in bytes.<p>
+     * 
+     * @return the capacity of this tier in bytes
+     */
+    public int getCapacity() {
+
+        return m_buffer.capacity();
+    }
+
+    /**
+     * Returns the number of entries that have been demoted to this tier.<p>
+     * 
+     * @return the number of entries that have been demoted to this tier
+     */
+    public synchronized long getDemotedCount() {
+
+        return m_demotedCount;
+    }
+
+    /**
+     * Returns the number of entries that have been overwritten because this tier was full.<p>
+     * 
+     * @return the number of entries that have been overwritten
+     */
+    public synchronized long getEvictedCount() {
+
+        return m_evictedCount;
+    }
+
+    /**
+     * Returns the file the buffer of this tier is mapped from.<p>
+     * 
+     * @return the file the buffer is mapped from, or <code>null</code> if direct memory is used
+     */
+    public File getFile() {
+
+        return m_file;
+    }
+
+    /**
+     * Returns the number of lookups that found an entry in this tier.<p>
+     * 
+     * @return the number of hits
+     */
+    public synchronized long getHitCount() {
+
+        return m_hitCount;
+    }
+
+    /**
+     * Returns the number of lookups that did not find an entry in this tier.<p>
+     * 
+     * @return the number of misses
+     */
+    public synchronized long getMissCount() {
+
+        return m_missCount;
+    }
+
+    /**
+     * Returns the number of bytes used by the entries stored in this tier.<p>
+     * 
+     * @return the number of bytes used
+     */
+    public synchronized long getUsedBytes() {
+
+        return m_usedBytes;
+    }
+
+    /**
+     * Looks up an entry in this tier and removes it, so that it can be promoted to the heap.<p>
+     * 
+     * @param resource the resource key of the entry
+     * @param variation the variation of the entry
+     * 
+     * @return the entry found, or <code>null</code> if this tier contains no valid entry for the given key
+     */
+    public CmsFlexCacheEntry promote(String resource, String variation) {
+
+        byte[] data;
+        synchronized (this) {
+            Slot slot = m_slots.remove(getKey(resource, variation));
+            if (slot == null) {
+                m_missCount++;
+                return null;
+            }
+            removeSlot(slot);
+            data = new byte[slot.m_length];
+            ByteBuffer buffer = m_buffer.duplicate();
+            buffer.position(slot.m_offset);
+            buffer.get(data);
+            m_hitCount++;
+        }
+        try {
+            CmsFlexCacheEntry entry = deserialize(data);
+            if (entry.getDateExpires() < System.currentTimeMillis()) {
+                return null;
+            }
+            return entry;
+        } catch (IOException e) {
+            // should not happen since the data was written by this tier
+            return null;
+        }
+    }
+
+    /**
+     * Removes an entry from this tier.<p>
+     * 
+     * @param resource the resource key of the entry
+     * @param variation the variation of the entry
+     */
+    public synchronized void remove(String resource, String variation) {
+
+        removeSlot(m_slots.remove(getKey(resource, variation)));
+    }
+
+    /**
+     * Removes all entries with a resource key that ends with the given suffix from this tier.<p>
+     * 
+     * @param suffix the suffix of the resource keys, e.g. {@link CmsFlexCache#CACHE_ONLINESUFFIX}
+     */
+    public synchronized void removeAll(String suffix) {
+
+        Iterator<Slot> i = m_slots.values().iterator();
+        while (i.hasNext()) {
+            Slot slot = i.next();
+            if (slot.m_resource.endsWith(suffix)) {
+                i.remove();
+                removeSlot(slot);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of entries stored in this tier.<p>
+     * 
+     * @return the number of entries stored in this tier
+     */
+    public synchronized int size() {
+
+        return m_slots.size();
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public synchronized String toString() {
+
+        return "CmsFlexCacheOffHeapTier [entries="
+            + m_slots.size()
+            + ", bytes="
+            + m_usedBytes
+            + "/"
+            + m_buffer.capacity()
+            + ", hits="
+            + m_hitCount
+            + ", misses="
+            + m_missCount
+            + ", demoted="
+            + m_demotedCount
+            + ", evicted="
+            + m_evictedCount
+            + "]";
+    }
+
+    /**
+     * Finds the offset for a new entry of the given length, 
+     * dropping the oldest entries until there is enough free space behind the current position.<p>
+     * 
+     * The stored entries always follow each other in the order they were written, 
+     * starting at the offset of the oldest entry and wrapping around at the end of the buffer.<p>
+     * 
+     * @param length the length of the new entry
+     * 
+     * @return the offset to write the new entry to
+     */
+    private int allocate(int length) {
+
+        int capacity = m_buffer.capacity();
+        while (!m_slots.isEmpty()) {
+            Iterator<Slot> i = m_slots.values().iterator();
+            Slot eldest = i.next();
+            if (eldest.m_offset >= m_position) {
+                // free space is between the current position and the oldest entry
+                if ((eldest.m_offset - m_position) >= length) {
+                    return m_position;
+                }
+            } else {
+                // free space is behind the current position and before the oldest entry
+                if ((capacity - m_position) >= length) {
+                    return m_position;
+                }
+                if (eldest.m_offset >= length) {
+                    return 0;
+                }
+            }
+            i.remove();
+            removeSlot(eldest);
+            m_evictedCount++;
+        }
+        return (capacity - m_position) >= length ? m_position : 0;
+    }
+
+    /**
+     * Returns the key of an entry in the slot map.<p>
+     * 
+     * @param resource the resource key of the entry
+     * @param variation the variation of the entry
+     * 
+     * @return the key of the entry in the slot map
+     */
+    private String getKey(String resource, String variation) {
+
+        return resource + KEY_SEPARATOR + variation;
+    }
+
+    /**
+     * Updates the statistics for a slot that has been removed from the slot map.<p>
+     * 
+     * @param slot the removed slot, may be <code>null</code>
+     */
+    private void removeSlot(Slot slot) {
+
+        if (slot != null) {
+            m_usedBytes -= slot.m_length;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.flex;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Output buffer that stores its content as a list of byte array segments.<p>
+ * 
+ * Bytes written with the standard <code>write</code> methods are copied into chunks owned by the buffer.
+ * Immutable byte arrays, like the output stored in a {@link CmsFlexCacheEntry}, and the content of other 
+ * buffers can be appended by reference with {@link #writeShared(byte[])} and {@link #append(CmsFlexOutputBuffer)}, 
+ * so that nested include results are not copied again on every level of the include cascade.<p>
+ * 
+ * Arrays that have been appended by reference, and arrays returned from {@link #toByteArray()}, 
+ * must never be modified afterwards.<p>
+ * 
+ * @since 9.0.0 
+ */
+public class CmsFlexOutputBuffer extends OutputStream {
+
+    /**
+     * A segment of the buffer, i.e. a part of a byte array.<p>
+     */
+    private static class Segment {
+
+        /** The byte array. */
+        final byte[] m_bytes;
+
+        /** The length of the segment. */
+        final int m_length;
+
+        /** The offset of the segment in the array. */
+        final int m_offset;
+
+        /**
+         * Creates a new segment.<p>
+         * 
+         * @param bytes the byte array
+         * @param offset the offset of the segment in the array
+         * @param length the length of the segment
+         */
+        Segment(byte[] bytes, int offset, int length) {
+
+            m_bytes = bytes;
+            m_offset = offset;
+            m_length = length;
+        }
+    }
+
+    /** The size of the first chunk allocated for written bytes. */
+    public static final int INITIAL_CHUNK_SIZE = 1024;
+
+    /** The maximum size of chunks allocated for written bytes. */
+    public static final int MAX_CHUNK_SIZE = 32 * 1024;
+
+    /** Arrays smaller than this are copied instead of being appended by reference. */
+    public static final int MIN_SHARED_SIZE = 128;
+
+    /** The chunk written bytes are copied to. */
+    private byte[] m_chunk;
+
+    /** The current write position in the chunk. */
+    private int m_chunkPos;
+
+    /** The start position of the bytes in the chunk that are not yet part of a segment. */
+    private int m_chunkStart;
+
+    /** The closed segments. */
+    private List<Segment> m_segments;
+
+    /** The total number of bytes in this buffer. */
+    private int m_size;
+
+    /**
+     * Creates a new, empty buffer.<p>
+     */
+    public CmsFlexOutputBuffer() {
+
+        m_segments = new ArrayList<Segment>();
+    }
+
+    /**
+     * Creates a new buffer that contains the given bytes, which are referenced and not copied.<p>
+     * 
+     * @param bytes the bytes the buffer should contain
+     */
+    public CmsFlexOutputBuffer(byte[] bytes) {
+
+        this();
+        addSegment(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Appends the content of the given buffer to this buffer without copying it.<p>
+     * 
+     * Later changes of the given buffer do not affect this buffer.<p>
+     * 
+     * @param buffer the buffer to append
+     */
+    public void append(CmsFlexOutputBuffer buffer) {
+
+        buffer.closeSegment();
+        closeSegment();
+        for (Segment segment : buffer.m_segments) {
+            m_segments.add(segment);
+        }
+        m_size += buffer.m_size;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the given byte at or after the given position.<p>
+     * 
+     * @param b the byte to look for
+     * @param fromIndex the position to start at
+     * 
+     * @return the index of the byte, or <code>-1</code> if it is not contained
+     */
+    public int indexOf(byte b, int fromIndex) {
+
+        closeSegment();
+        int start = 0;
+        for (Segment segment : m_segments) {
+            int end = start + segment.m_length;
+            if (fromIndex < end) {
+                int i = Math.max(fromIndex - start, 0) + segment.m_offset;
+                int last = segment.m_offset + segment.m_length;
+                for (; i < last; i++) {
+                    if (segment.m_bytes[i] == b) {
+                        return (start + i) - segment.m_offset;
+                    }
+                }
+            }
+            start = end;
+        }
+        return -1;
+    }
+
+    /**
+     * Removes all content from this buffer.<p>
+     * 
+     * Arrays that have already been handed out are not reused.<p>
+     */
+    public void reset() {
+
+        m_segments = new ArrayList<Segment>();
+        m_chunk = null;
+        m_chunkPos = 0;
+        m_chunkStart = 0;
+        m_size = 0;
+    }
+
+    /**
+     * Returns the number of bytes in this buffer.<p>
+     * 
+     * @return the number of bytes in this buffer
+     */
+    public int size() {
+
+        return m_size;
+    }
+
+    /**
+     * Returns the content of this buffer as a byte array.<p>
+     * 
+     * If the buffer consists of exactly one complete array, that array is returned without copying.<p>
+     * 
+     * @return the content of this buffer
+     */
+    public byte[] toByteArray() {
+
+        closeSegment();
+        if (m_segments.size() == 1) {
+            Segment segment = m_segments.get(0);
+            if ((segment.m_offset == 0) && (segment.m_length == segment.m_bytes.length)) {
+                return segment.m_bytes;
+            }
+        }
+        return toByteArray(0, m_size);
+    }
+
+    /**
+     * Returns a copy of the given range of this buffer.<p>
+     * 
+     * @param beginIndex the start position, inclusive
+     * @param endIndex the end position, exclusive
+     * 
+     * @return a copy of the given range
+     */
+    public byte[] toByteArray(int beginIndex, int endIndex) {
+
+        closeSegment();
+        byte[] result = new byte[endIndex - beginIndex];
+        int start = 0;
+        for (Segment segment : m_segments) {
+            int end = start + segment.m_length;
+            if (start >= endIndex) {
+                break;
+            }
+            if (beginIndex < end) {
+                int from = Math.max(beginIndex, start);
+                int to = Math.min(endIndex, end);
+                int offset = (segment.m_offset + from) - start;
+                System.arraycopy(segment.m_bytes, offset, result, from - beginIndex, to - from);
+            }
+            start = end;
+        }
+        return result;
+    }
+
+    /**
+     * @see java.io.OutputStream#write(byte[], int, int)
+     */
+    @Override
+    public void write(byte[] b, int off, int len) {
+
+        while (len > 0) {
+            if ((m_chunk == null) || (m_chunkPos == m_chunk.length)) {
+                newChunk();
+            }
+            int count = Math.min(len, m_chunk.length - m_chunkPos);
+            System.arraycopy(b, off, m_chunk, m_chunkPos, count);
+            m_chunkPos += count;
+            m_size += count;
+            off += count;
+            len -= count;
+        }
+    }
+
+    /**
+     * @see java.io.OutputStream#write(int)
+     */
+    @Override
+    public void write(int b) {
+
+        if ((m_chunk == null) || (m_chunkPos == m_chunk.length)) {
+            newChunk();
+        }
+        m_chunk[m_chunkPos++] = (byte)b;
+        m_size++;
+    }
+
+    /**
+     * Appends the given immutable byte array to this buffer.<p>
+     * 
+     * Large arrays are referenced instead of copied, so the array must not be modified afterwards.<p>
+     * 
+     * @param bytes the bytes to append
+     */
+    public void writeShared(byte[] bytes) {
+
+        if (bytes.length < MIN_SHARED_SIZE) {
+            write(bytes, 0, bytes.length);
+        } else {
+            closeSegment();
+            addSegment(bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * Writes the content of this buffer segment by segment to the given stream.<p>
+     * 
+     * @param out the stream to write to
+     * 
+     * @throws IOException if writing to the stream fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+
+        closeSegment();
+        for (Segment segment : m_segments) {
+            out.write(segment.m_bytes, segment.m_offset, segment.m_length);
+        }
+    }
+
+    /**
+     * Adds a segment at the end of this buffer.<p>
+     * 
+     * @param bytes the byte array
+     * @param offset the offset of the segment in the array
+     * @param length the length of the segment
+     */
+    private void addSegment(byte[] bytes, int offset, int length) {
+
+        if (length > 0) {
+            m_segments.add(new Segment(bytes, offset, length));
+            m_size += length;
+        }
+    }
+
+    /**
+     * Turns the bytes written to the current chunk since the last segment was closed into a segment.<p>
+     */
+    private void closeSegment() {
+
+        if (m_chunkPos > m_chunkStart) {
+            m_segments.add(new Segment(m_chunk, m_chunkStart, m_chunkPos - m_chunkStart));
+            m_chunkStart = m_chunkPos;
+        }
+    }
+
+    /**
+     * Closes the current chunk and allocates a new one, growing with the size of the buffer.<p>
+     */
+    private void newChunk() {
+
+        closeSegment();
+        m_chunk = new byte[Math.min(MAX_CHUNK_SIZE, Math.max(INITIAL_CHUNK_SIZE, m_size))];
+        m_chunkPos = 0;
+        m_chunkStart = 0;
+    }
+}
@@ -444,11 +444,12 @@ public class CmsFlexRequestDispatcher implements RequestDispatcher {
             if (f_res.hasIncludeList()) {
                 // special case: this indicates that the output was not yet displayed
                 Map<String, List<String>> headers = w_res.getHeaders();
-                byte[] result = w_res.getWriterBytes();
+                // the result is passed on to the parent without copying
+                CmsFlexOutputBuffer result = w_res.getWriterBuffer();
                 if (LOG.isDebugEnabled()) {
                     LOG.debug(Messages.get().getBundle().key(
                         Messages.LOG_FLEXREQUESTDISPATCHER_RESULT_1,
-                        new String(result)));
+                        new String(result.toByteArray())));
                 }
                 CmsFlexResponse.processHeaders(headers, f_res);
                 f_res.addToIncludeResults(result);
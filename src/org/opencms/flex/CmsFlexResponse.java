@@ -35,7 +35,6 @@ import org.opencms.util.CmsDateUtil;
 import org.opencms.util.CmsRequestUtil;
 
 import java.io.BufferedWriter;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
@@ -68,7 +67,8 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
      * Wrapped implementation of the ServletOutputStream.<p>
      * 
      * This implementation writes to an internal buffer and optionally to another 
-     * output stream at the same time.<p>
+     * output stream at the same time. Immutable byte arrays and buffers written with the 
+     * <code>writeShared</code> methods are passed on by reference where possible.<p>
      * 
      * It should be fully transparent to the standard ServletOutputStream.<p>
      */
@@ -78,7 +78,7 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
         private ServletOutputStream m_servletStream;
 
         /** The internal stream buffer. */
-        private ByteArrayOutputStream m_stream;
+        private CmsFlexOutputBuffer m_stream;
 
         /**
          * Constructor that must be used if the stream should write 
@@ -107,7 +107,7 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
          */
         public void clear() {
 
-            m_stream = new java.io.ByteArrayOutputStream(1024);
+            m_stream = new CmsFlexOutputBuffer();
         }
 
         /**
@@ -139,6 +139,16 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
             }
         }
 
+        /**
+         * Provides access to the buffer.<p>
+         *
+         * @return the buffer
+         */
+        public CmsFlexOutputBuffer getBuffer() {
+
+            return m_stream;
+        }
+
         /**
          * Provides access to the bytes cached in the buffer.<p>
          *
@@ -172,6 +182,36 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
                 m_servletStream.write(b);
             }
         }
+
+        /**
+         * Writes an immutable byte array, which is passed on by reference where possible.<p>
+         * 
+         * @param b the bytes to write
+         * 
+         * @throws IOException in case writing to the other output stream fails
+         */
+        public void writeShared(byte[] b) throws IOException {
+
+            m_stream.writeShared(b);
+            if (m_servletStream != null) {
+                CmsFlexResponse.writeShared(m_servletStream, b);
+            }
+        }
+
+        /**
+         * Writes the content of a buffer, which is passed on by reference where possible.<p>
+         * 
+         * @param buffer the buffer to write
+         * 
+         * @throws IOException in case writing to the other output stream fails
+         */
+        public void writeShared(CmsFlexOutputBuffer buffer) throws IOException {
+
+            m_stream.append(buffer);
+            if (m_servletStream != null) {
+                CmsFlexResponse.writeShared(m_servletStream, buffer);
+            }
+        }
     }
 
     /** The cache delimiter char. */
@@ -220,7 +260,7 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
     private boolean m_includeMode;
 
     /** A list of results from the inclusions, needed because of JSP buffering. */
-    private List<byte[]> m_includeResults;
+    private List<CmsFlexOutputBuffer> m_includeResults;
 
     /** Flag to indicate if this is the top level element or an included sub - element. */
     private boolean m_isTopElement;
@@ -551,6 +591,31 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
         return m_writer;
     }
 
+    /**
+     * Returns the buffer with the bytes that have been written on the current writers output stream.<p>
+     * 
+     * In contrast to {@link #getWriterBytes()}, this does not copy the output into a single array.
+     * The returned buffer must not be modified.<p>
+     *
+     * @return the buffer with the bytes that have been written on the current writers output stream
+     */
+    public CmsFlexOutputBuffer getWriterBuffer() {
+
+        if (isSuspended() || ((m_out == null) && (m_cacheBytes == null))) {
+            // no output
+            return new CmsFlexOutputBuffer();
+        }
+        if (m_cacheBytes != null) {
+            // cached "leaf" node, reference the array from the cache
+            return new CmsFlexOutputBuffer(m_cacheBytes);
+        }
+        if (m_writer != null) {
+            // Flush the writer in case something was written on it
+            m_writer.flush();
+        }
+        return m_out.getBuffer();
+    }
+
     /**
      * Returns the bytes that have been written on the current writers output stream.<p>
      *
@@ -784,12 +849,12 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
      * Should be used only in inclusion-scenarios 
      * like the JSP cms:include tag processing.<p>
      * 
-     * @param result the byte array to add
+     * @param result the buffer with the include result to add
      */
-    void addToIncludeResults(byte[] result) {
+    void addToIncludeResults(CmsFlexOutputBuffer result) {
 
         if (m_includeResults == null) {
-            m_includeResults = new ArrayList<byte[]>(10);
+            m_includeResults = new ArrayList<CmsFlexOutputBuffer>(10);
         }
         m_includeResults.add(result);
     }
@@ -998,14 +1063,14 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
                     initStream();
                 }
                 // In this case the buffer will not write to the servlet stream, but to it's internal buffer only
-                m_out.write(bytes);
+                m_out.writeShared(bytes);
             }
         } else {
             if (LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(Messages.LOG_FLEXRESPONSE_ERROR_WRITING_TO_OUTPUT_STREAM_0));
             }
             // The request is not buffered, so we can write directly to it's parents output stream 
-            m_res.getOutputStream().write(bytes);
+            writeShared(m_res.getOutputStream(), bytes);
             m_res.getOutputStream().flush();
         }
     }
@@ -1078,13 +1143,13 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
      */
     private void processIncludeList() {
 
-        byte[] result = getWriterBytes();
         if (!hasIncludeList()) {
             // no include list, so no includes and we just use the bytes as they are in one block
-            m_cachedEntry.add(result);
+            m_cachedEntry.add(getWriterBytes());
         } else {
-            // process the include list
-            int max = result.length;
+            // process the include list, the pieces are copied directly from the segments of the buffer
+            CmsFlexOutputBuffer result = getWriterBuffer();
+            int max = result.size();
             int pos = 0;
             int last = 0;
             int size = 0;
@@ -1094,21 +1159,19 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
             int i = 0;
             while ((i < m_includeList.size()) && (pos < max)) {
                 // look for the first FLEX_CACHE_DELIMITER char
-                while ((pos < max) && (result[pos] != FLEX_CACHE_DELIMITER)) {
-                    pos++;
+                pos = result.indexOf((byte)FLEX_CACHE_DELIMITER, pos);
+                if (pos < 0) {
+                    pos = max;
                 }
-                if ((pos < max) && (result[pos] == FLEX_CACHE_DELIMITER)) {
+                if (pos < max) {
                     count++;
                     // a byte value of C_FLEX_CACHE_DELIMITER in our (String) output list indicates 
                     // that the next include call must be placed here
                     size = pos - last;
                     if (size > 0) {
                         // if not (it might be 0) there would be 2 include calls back 2 back
-                        byte[] piece = new byte[size];
-                        System.arraycopy(result, last, piece, 0, size);
                         // add the byte array to the cache entry
-                        m_cachedEntry.add(piece);
-                        piece = null;
+                        m_cachedEntry.add(result.toByteArray(last, pos));
                     }
                     last = ++pos;
                     // add an include call to the cache entry
@@ -1121,11 +1184,7 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
             }
             if (pos < max) {
                 // there is content behind the last include call
-                size = max - pos;
-                byte[] piece = new byte[size];
-                System.arraycopy(result, pos, piece, 0, size);
-                m_cachedEntry.add(piece);
-                piece = null;
+                m_cachedEntry.add(result.toByteArray(pos, max));
             }
             if (i >= m_includeList.size()) {
                 // clear the include list if all include calls are handled
@@ -1168,14 +1227,16 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
         List<Object> elements = m_cachedEntry.elements();
         int count = 0;
         if (elements != null) {
+            // the cached arrays and include results are immutable, so they are passed on by reference
+            ServletOutputStream out = res.getOutputStream();
             for (int i = 0; i < elements.size(); i++) {
                 Object o = elements.get(i);
                 if (o instanceof byte[]) {
-                    res.getOutputStream().write((byte[])o);
+                    writeShared(out, (byte[])o);
                 } else {
                     if ((m_includeResults != null) && (m_includeResults.size() > count)) {
                         // make sure that we don't run behind end of list (should never happen, though)
-                        res.getOutputStream().write(m_includeResults.get(count));
+                        writeShared(out, m_includeResults.get(count));
                         count++;
                     }
                     // skip next entry, which is the parameter map for this include call
@@ -1186,4 +1247,40 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
             }
         }
     }
+
+    /**
+     * Writes an immutable byte array to the given stream, 
+     * passing it on by reference if the stream is a Flex output stream.<p>
+     * 
+     * @param out the stream to write to
+     * @param bytes the bytes to write
+     * 
+     * @throws IOException in case writing to the stream fails
+     */
+    private static void writeShared(ServletOutputStream out, byte[] bytes) throws IOException {
+
+        if (out instanceof CmsServletOutputStream) {
+            ((CmsServletOutputStream)out).writeShared(bytes);
+        } else {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Writes the content of a buffer to the given stream, 
+     * passing it on by reference if the stream is a Flex output stream.<p>
+     * 
+     * @param out the stream to write to
+     * @param buffer the buffer to write
+     * 
+     * @throws IOException in case writing to the stream fails
+     */
+    private static void writeShared(ServletOutputStream out, CmsFlexOutputBuffer buffer) throws IOException {
+
+        if (out instanceof CmsServletOutputStream) {
+            ((CmsServletOutputStream)out).writeShared(buffer);
+        } else {
+            buffer.writeTo(out);
+        }
+    }
 }
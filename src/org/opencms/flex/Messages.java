@@ -73,6 +73,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_FLEXCACHE_DEVICE_SELECTOR_SUCCESS_1 = "INIT_FLEXCACHE_DEVICE_SELECTOR_SUCCESS_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_FLEXCACHE_OFFHEAP_TIER_2 = "INIT_FLEXCACHE_OFFHEAP_TIER_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_CLASS_INIT_FAILURE_1 = "LOG_CLASS_INIT_FAILURE_1";
 
@@ -112,6 +115,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_FLEXCACHE_CLEAR_ONLINE_KEYS_AND_ENTRIES_0 = "LOG_FLEXCACHE_CLEAR_ONLINE_KEYS_AND_ENTRIES_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_FLEXCACHE_OFFHEAP_TIER_FAILED_1 = "LOG_FLEXCACHE_OFFHEAP_TIER_FAILED_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_FLEXCACHE_PURGED_JSP_REPOSITORY_0 = "LOG_FLEXCACHE_PURGED_JSP_REPOSITORY_0";
 
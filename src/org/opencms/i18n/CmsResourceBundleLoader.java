@@ -35,11 +35,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.security.AccessControlException;
-import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Resource bundle loader for property based resource bundles from OpenCms that has a flushable cache.<p>
@@ -54,6 +55,9 @@ import java.util.ResourceBundle;
  * {@link java.util.ResourceBundle#getBundle(java.lang.String, java.util.Locale)} is used to look up 
  * the resource bundle with the Java default resource bundle loading mechanism.<p>
  * 
+ * Bundles are read from the cache without locking. Flushing the cache replaces the cache maps 
+ * with new instances instead of modifying them.<p>
+ * 
  * @see java.util.ResourceBundle
  * @see java.util.PropertyResourceBundle
  * @see org.opencms.i18n.CmsPropertyResourceBundle
@@ -63,28 +67,20 @@ import java.util.ResourceBundle;
 public final class CmsResourceBundleLoader {
 
     /** 
-     * Cache key for the ResourceBundle cache.<p>
+     * Immutable cache key for the ResourceBundle cache.<p>
      * 
-     * Resource bundles are keyed by the combination of bundle name, locale, and class loader. 
+     * Resource bundles are keyed by the combination of bundle name and locale. 
      */
-    private static class BundleKey {
+    private static final class BundleKey {
 
         /** The base bundle name. */
-        private String m_baseName;
+        private final String m_baseName;
 
         /** The hash code. */
-        private int m_hashcode;
+        private final int m_hashcode;
 
         /** The locale. */
-        private Locale m_locale;
-
-        /**
-         * Create an ampty bundly key.<p>
-         */
-        BundleKey() {
-
-            // noop
-        }
+        private final Locale m_locale;
 
         /**
          * Create an initialized bundle key.<p>
@@ -94,7 +90,9 @@ public final class CmsResourceBundleLoader {
          */
         BundleKey(String s, Locale l) {
 
-            set(s, l);
+            m_baseName = s;
+            m_locale = l;
+            m_hashcode = m_baseName.hashCode() ^ m_locale.hashCode();
         }
 
         /**
@@ -139,32 +137,16 @@ public final class CmsResourceBundleLoader {
 
             return m_baseName + "_" + m_locale;
         }
-
-        /**
-         * Initialize this bundle key.<p>
-         * 
-         * @param s the base name
-         * @param l the locale
-         */
-        void set(String s, Locale l) {
-
-            m_baseName = s;
-            m_locale = l;
-            m_hashcode = m_baseName.hashCode() ^ m_locale.hashCode();
-        }
     }
 
     /**  The resource bundle cache. */
-    private static Map<BundleKey, ResourceBundle> m_bundleCache;
+    private static volatile ConcurrentMap<BundleKey, ResourceBundle> m_bundleCache = new ConcurrentHashMap<BundleKey, ResourceBundle>();
 
     /** The last default Locale we saw, if this ever changes then we have to reset our caches. */
-    private static Locale m_lastDefaultLocale;
-
-    /** Cache lookup key to avoid having to a new one for every getBundle() call. */
-    private static BundleKey m_lookupKey = new BundleKey();
+    private static volatile Locale m_lastDefaultLocale;
 
     /**  The permanent list resource bundle cache. */
-    private static Map<String, I_CmsResourceBundle> m_permanentCache;
+    private static volatile Map<String, I_CmsResourceBundle> m_permanentCache = new ConcurrentHashMap<String, I_CmsResourceBundle>();
 
     /** Singleton cache entry to represent previous failed lookups. */
     private static final ResourceBundle NULL_ENTRY = new CmsListResourceBundle();
@@ -198,7 +180,7 @@ public final class CmsResourceBundleLoader {
      */
     public static synchronized void flushBundleCache() {
 
-        m_bundleCache.clear();
+        m_bundleCache = new ConcurrentHashMap<BundleKey, ResourceBundle>();
 
         // We are not flushing the permanent cache on clear!
         // Reason: It's not 100% clear if the cache would be filled correctly from the XML after a flush.
@@ -222,7 +204,7 @@ public final class CmsResourceBundleLoader {
 
         if (baseName != null) {
             // first check and clear the bundle cache
-            HashMap<BundleKey, ResourceBundle> bundleCacheNew = new HashMap<BundleKey, ResourceBundle>(
+            ConcurrentMap<BundleKey, ResourceBundle> bundleCacheNew = new ConcurrentHashMap<BundleKey, ResourceBundle>(
                 m_bundleCache.size());
             for (Map.Entry<BundleKey, ResourceBundle> entry : m_bundleCache.entrySet()) {
                 if (!entry.getKey().isSameBase(baseName)) {
@@ -236,7 +218,7 @@ public final class CmsResourceBundleLoader {
             }
             if (flushPermanent) {
                 // now check and clear the permanent cache
-                HashMap<String, I_CmsResourceBundle> permanentCacheNew = new HashMap<String, I_CmsResourceBundle>(
+                Map<String, I_CmsResourceBundle> permanentCacheNew = new ConcurrentHashMap<String, I_CmsResourceBundle>(
                     m_permanentCache.size());
                 for (Map.Entry<String, I_CmsResourceBundle> entry : m_permanentCache.entrySet()) {
                     String key = entry.getKey();
@@ -291,26 +273,21 @@ public final class CmsResourceBundleLoader {
      * @param locale A locale
      * @return the desired resource bundle
      */
-    // This method is synchronized so that the cache is properly
-    // handled.
-    public static synchronized ResourceBundle getBundle(String baseName, Locale locale) {
+    public static ResourceBundle getBundle(String baseName, Locale locale) {
 
         // If the default locale changed since the last time we were called,
         // all cache entries are invalidated.
         Locale defaultLocale = Locale.getDefault();
         if (defaultLocale != m_lastDefaultLocale) {
-            m_bundleCache = new HashMap<BundleKey, ResourceBundle>();
-            m_lastDefaultLocale = defaultLocale;
-            if (m_permanentCache == null) {
-                // the permanent cache is not cleared after the default locale changes
-                m_permanentCache = new HashMap<String, I_CmsResourceBundle>();
-            }
+            resetBundleCache(defaultLocale);
         }
 
         // This will throw NullPointerException if any arguments are null.
-        m_lookupKey.set(baseName, locale);
+        BundleKey key = new BundleKey(baseName, locale);
 
-        Object obj = m_bundleCache.get(m_lookupKey);
+        // bundles loaded concurrently with a flush end up in the replaced cache
+        ConcurrentMap<BundleKey, ResourceBundle> bundleCache = m_bundleCache;
+        Object obj = bundleCache.get(key);
 
         if (obj instanceof ResourceBundle) {
             return (ResourceBundle)obj;
@@ -327,14 +304,13 @@ public final class CmsResourceBundleLoader {
                 bundle = tryBundle(baseName, defaultLocale, true);
             }
 
-            BundleKey key = new BundleKey(baseName, locale);
             if (bundle == null) {
                 // Cache the fact that this lookup has previously failed.
-                m_bundleCache.put(key, NULL_ENTRY);
+                bundleCache.put(key, NULL_ENTRY);
             } else {
-                // Cache the result and return it.
-                m_bundleCache.put(key, bundle);
-                return bundle;
+                // Cache the result and return it, unless another thread was faster.
+                ResourceBundle cached = bundleCache.putIfAbsent(key, bundle);
+                return ((cached == null) || (cached == NULL_ENTRY)) ? bundle : cached;
             }
         }
 
@@ -343,6 +319,20 @@ public final class CmsResourceBundleLoader {
         return ResourceBundle.getBundle(baseName, locale);
     }
 
+    /**
+     * Replaces the bundle cache after the default locale has changed.<p>
+     * 
+     * @param defaultLocale the new default locale
+     */
+    private static synchronized void resetBundleCache(Locale defaultLocale) {
+
+        if (defaultLocale != m_lastDefaultLocale) {
+            // the permanent cache is not cleared after the default locale changes
+            m_bundleCache = new ConcurrentHashMap<BundleKey, ResourceBundle>();
+            m_lastDefaultLocale = defaultLocale;
+        }
+    }
+
     /**
      * Tries to load a property file with the specified name.
      *
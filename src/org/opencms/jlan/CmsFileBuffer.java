@@ -27,28 +27,114 @@
 
 package org.opencms.jlan;
 
+import org.opencms.main.CmsLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.apache.commons.logging.Log;
+
 /**
- * Buffer class which holds file contents for JLAN file access in memory before they are written to the VFS.<p>
+ * Buffer class which holds file contents for JLAN file access before they are written to the VFS.<p>
  * 
- * This is implemented as a CmsByteBuffer instance together with a 'position' index which marks the next write position
+ * Small contents are kept in memory in a CmsByteBuffer. As soon as the contents grow larger than the spill threshold,
+ * they are moved to a temporary file which is then accessed through a FileChannel, so that large files copied to 
+ * a share do not have to be kept on the heap while they are being written. Together with the buffer,
+ * a 'position' index is kept which marks the next write position.<p>
+ * 
+ * Call {@link #close()} when the buffer is no longer needed to delete the temporary file.<p>
  */
 public class CmsFileBuffer {
 
-    /** The buffer used to store the file contents. */
+    /** The default size in bytes above which the contents are moved to a temporary file. */
+    public static final int DEFAULT_SPILL_THRESHOLD = 4 * 1024 * 1024;
+
+    /** The logger instance for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsFileBuffer.class);
+
+    /** The prefix for the names of the temporary files. */
+    private static final String TEMP_FILE_PREFIX = "opencms-jlan-";
+
+    /** The buffer used to store the file contents, or null if the contents have been moved to a temporary file. */
     CmsByteBuffer m_buffer = new CmsByteBuffer(8192);
 
     /** The current write position. */
     long m_position;
 
+    /** The channel of the temporary file, or null if the contents are kept in memory. */
+    private FileChannel m_channel;
+
+    /** The size above which the contents are moved to a temporary file. */
+    private int m_spillThreshold;
+
+    /** The temporary file, or null if the contents are kept in memory. */
+    private File m_tempFile;
+
+    /**
+     * Creates a new file buffer with the default spill threshold.<p>
+     */
+    public CmsFileBuffer() {
+
+        this(DEFAULT_SPILL_THRESHOLD);
+    }
+
+    /**
+     * Creates a new file buffer.<p>
+     * 
+     * @param spillThreshold the size in bytes above which the contents are moved to a temporary file
+     */
+    public CmsFileBuffer(int spillThreshold) {
+
+        m_spillThreshold = spillThreshold;
+    }
+
+    /**
+     * Releases the resources used by this buffer and deletes the temporary file, if there is one.<p>
+     * 
+     * The buffer is empty and can be used again afterwards.<p>
+     */
+    public void close() {
+
+        if (m_channel != null) {
+            try {
+                m_channel.close();
+            } catch (IOException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+            m_channel = null;
+        }
+        if (m_tempFile != null) {
+            if (!m_tempFile.delete()) {
+                LOG.warn("Could not delete temporary file " + m_tempFile.getAbsolutePath());
+            }
+            m_tempFile = null;
+        }
+        m_buffer = new CmsByteBuffer(8192);
+        m_position = 0;
+    }
+
     /**
      * Gets the contents of this buffer as a byte array.<p>
      * 
      * @return the file content 
+     * 
+     * @throws IOException if reading the temporary file fails 
      */
-    public byte[] getContents() {
+    public byte[] getContents() throws IOException {
 
-        byte[] contents = new byte[m_buffer.size()];
-        m_buffer.readBytes(contents, 0, 0, m_buffer.size());
+        long length = getLength();
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("File too large: " + length);
+        }
+        byte[] contents = new byte[(int)length];
+        if (m_channel == null) {
+            m_buffer.readBytes(contents, 0, 0, contents.length);
+        } else {
+            readFully(contents, 0, contents.length, 0);
+        }
         return contents;
     }
 
@@ -57,10 +143,14 @@ public class CmsFileBuffer {
      * 
      * @return the content length 
      *  
+     * @throws IOException if accessing the temporary file fails 
      */
-    public long getLength() {
+    public long getLength() throws IOException {
 
-        return m_buffer.size();
+        if (m_channel == null) {
+            return m_buffer.size();
+        }
+        return m_channel.size();
     }
 
     /** 
@@ -77,11 +167,23 @@ public class CmsFileBuffer {
      * Initializes the file content data.<p>
      * 
      * @param data the file content data 
+     * 
+     * @throws IOException if writing the temporary file fails 
      */
-    public void init(byte[] data) {
+    public void init(byte[] data) throws IOException {
 
         m_position = 0;
-        m_buffer.writeBytes(data, 0, 0, data.length);
+        writeBytes(data, 0, data.length, 0);
+    }
+
+    /**
+     * Returns true if the contents of this buffer have been moved to a temporary file.<p>
+     * 
+     * @return true if the contents of this buffer have been moved to a temporary file 
+     */
+    public boolean isSpilled() {
+
+        return m_channel != null;
     }
 
     /**
@@ -94,17 +196,24 @@ public class CmsFileBuffer {
      * @param fileOffset the start index for this instance 
      * 
      * @return the number of bytes read, or -1 if we are at the end of the file 
+     * 
+     * @throws IOException if reading the temporary file fails 
      */
-    public int read(byte[] dest, int length, int bufferOffset, int fileOffset) {
+    public int read(byte[] dest, int length, int bufferOffset, long fileOffset) throws IOException {
 
-        if (fileOffset >= m_buffer.size()) {
+        long size = getLength();
+        if (fileOffset >= size) {
             return -1;
         }
-        int readEnd = fileOffset + length;
-        if (readEnd > m_buffer.size()) {
-            length = length - (readEnd - m_buffer.size());
+        long readEnd = fileOffset + length;
+        if (readEnd > size) {
+            length = (int)(length - (readEnd - size));
+        }
+        if (m_channel == null) {
+            m_buffer.readBytes(dest, (int)fileOffset, bufferOffset, length);
+        } else {
+            readFully(dest, bufferOffset, length, fileOffset);
         }
-        m_buffer.readBytes(dest, fileOffset, bufferOffset, length);
         return length;
     }
 
@@ -122,20 +231,131 @@ public class CmsFileBuffer {
      * Changes the size of this buffer.<p>
      * 
      * @param size the new size 
+     * 
+     * @throws IOException if accessing the temporary file fails 
      */
-    public void truncate(int size) {
+    public void truncate(long size) throws IOException {
 
-        m_buffer.truncate(size);
+        if ((m_channel == null) && (size > m_spillThreshold)) {
+            spill();
+        }
+        if (m_channel == null) {
+            m_buffer.truncate((int)size);
+        } else {
+            long oldSize = m_channel.size();
+            if (size < oldSize) {
+                m_channel.truncate(size);
+            } else if (size > oldSize) {
+                // extend the file by writing its last byte
+                m_channel.write(ByteBuffer.wrap(new byte[1]), size - 1);
+            }
+        }
         m_position = Math.min(size, m_position);
     }
 
     /**
-     * Writes the data to the internal buffer.<p>
+     * Writes the data to the buffer at the current write position.<p>
      * 
      * @param data the data to write 
+     * 
+     * @throws IOException if writing the temporary file fails 
+     */
+    public void write(byte[] data) throws IOException {
+
+        write(data, 0, data.length);
+    }
+
+    /**
+     * Writes a part of a byte array to the buffer at the current write position.<p>
+     * 
+     * @param data the array containing the data to write 
+     * @param start the start index of the data in the array 
+     * @param len the number of bytes to write 
+     * 
+     * @throws IOException if writing the temporary file fails 
+     */
+    public void write(byte[] data, int start, int len) throws IOException {
+
+        writeBytes(data, start, len, m_position);
+    }
+
+    /**
+     * Reads bytes from the temporary file until the requested number of bytes has been read.<p>
+     * 
+     * @param dest the target byte array 
+     * @param destStart the start index in the target array
+     * @param len the number of bytes to read 
+     * @param fileOffset the position in the temporary file from which to read
+     *  
+     * @throws IOException if reading the temporary file fails 
+     */
+    private void readFully(byte[] dest, int destStart, int len, long fileOffset) throws IOException {
+
+        ByteBuffer target = ByteBuffer.wrap(dest, destStart, len);
+        long position = fileOffset;
+        while (target.hasRemaining()) {
+            int read = m_channel.read(target, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of temporary file " + m_tempFile.getAbsolutePath());
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Moves the contents from memory to a new temporary file.<p>
+     * 
+     * @throws IOException if creating or writing the temporary file fails 
+     */
+    private void spill() throws IOException {
+
+        m_tempFile = File.createTempFile(TEMP_FILE_PREFIX, ".tmp");
+        RandomAccessFile file = new RandomAccessFile(m_tempFile, "rw");
+        m_channel = file.getChannel();
+        byte[] contents = new byte[m_buffer.size()];
+        m_buffer.readBytes(contents, 0, 0, contents.length);
+        writeToChannel(contents, 0, contents.length, 0);
+        m_buffer = null;
+    }
+
+    /**
+     * Writes bytes to the buffer, moving the contents to a temporary file if they become too large.<p>
+     * 
+     * @param src the source array 
+     * @param srcStart the start index in the source array 
+     * @param len the number of bytes to write 
+     * @param destStart the position in the buffer to which the bytes should be written 
+     * 
+     * @throws IOException if writing the temporary file fails 
      */
-    public void write(byte[] data) {
+    private void writeBytes(byte[] src, int srcStart, int len, long destStart) throws IOException {
+
+        if ((m_channel == null) && ((destStart + len) > m_spillThreshold)) {
+            spill();
+        }
+        if (m_channel == null) {
+            m_buffer.writeBytes(src, srcStart, (int)destStart, len);
+        } else {
+            writeToChannel(src, srcStart, len, destStart);
+        }
+    }
 
-        m_buffer.writeBytes(data, 0, (int)m_position, data.length);
+    /**
+     * Writes bytes to the temporary file.<p>
+     * 
+     * @param src the source array 
+     * @param srcStart the start index in the source array 
+     * @param len the number of bytes to write 
+     * @param fileOffset the position in the temporary file to which the bytes should be written 
+     * 
+     * @throws IOException if writing the temporary file fails 
+     */
+    private void writeToChannel(byte[] src, int srcStart, int len, long fileOffset) throws IOException {
+
+        ByteBuffer source = ByteBuffer.wrap(src, srcStart, len);
+        long position = fileOffset;
+        while (source.hasRemaining()) {
+            position += m_channel.write(source, position);
+        }
     }
 }
@@ -38,7 +38,6 @@ import org.opencms.util.CmsUUID;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -97,17 +96,23 @@ public class CmsJlanNetworkFile extends NetworkFile {
     @Override
     public void closeFile() throws IOException {
 
-        if (hasDeleteOnClose()) {
-            delete();
-        } else {
-            flushFile();
-            if (getWriteCount() > 0) {
-                try {
-                    m_cms.unlockResource(m_cms.getSitePath(m_resource));
-                } catch (CmsException e) {
-                    LOG.error("Couldn't unlock file: " + m_resource.getRootPath());
+        try {
+            if (hasDeleteOnClose()) {
+                delete();
+            } else {
+                flushFile();
+                if (getWriteCount() > 0) {
+                    try {
+                        m_cms.unlockResource(m_cms.getSitePath(m_resource));
+                    } catch (CmsException e) {
+                        LOG.error("Couldn't unlock file: " + m_resource.getRootPath());
+                    }
                 }
             }
+        } finally {
+            // delete the temporary file of the buffer, if there is one 
+            m_buffer.close();
+            m_bufferInitialized = false;
         }
     }
 
@@ -245,7 +250,7 @@ public class CmsJlanNetworkFile extends NetworkFile {
 
         try {
             load(true);
-            int result = m_buffer.read(buffer, length, bufferOffset, (int)fileOffset);
+            int result = m_buffer.read(buffer, length, bufferOffset, fileOffset);
             return result;
         } catch (CmsException e) {
             throw CmsJlanDiskInterface.convertCmsException(e);
@@ -349,7 +354,7 @@ public class CmsJlanNetworkFile extends NetworkFile {
 
         try {
             load(true);
-            m_buffer.truncate((int)size);
+            m_buffer.truncate(size);
             incrementWriteCount();
         } catch (CmsException e) {
             throw CmsJlanDiskInterface.convertCmsException(e);
@@ -368,8 +373,7 @@ public class CmsJlanNetworkFile extends NetworkFile {
             }
             load(true);
             m_buffer.seek(offset);
-            byte[] dataToWrite = Arrays.copyOfRange(data, pos, pos + len);
-            m_buffer.write(dataToWrite);
+            m_buffer.write(data, pos, len);
             incrementWriteCount();
         } catch (CmsException e) {
             throw CmsJlanDiskInterface.convertCmsException(e);
@@ -436,7 +436,8 @@ public class CmsJspNavBuilder {
         boolean includeAll = visibility == Visibility.all;
         boolean includeHidden = visibility == Visibility.includeHidden;
         for (CmsResource r : resources) {
-            CmsJspNavElement element = getNavigationForResource(m_cms.getSitePath(r), resourceFilter);
+            // the resource was just read, so don't read it again for the navigation element
+            CmsJspNavElement element = getNavigationForResource(m_cms.getSitePath(r), r, resourceFilter, false);
             if ((element != null)
                 && (includeAll || (element.isInNavigation() && (includeHidden || !element.isHiddenNavigationEntry())))) {
                 result.add(element);
@@ -643,7 +644,7 @@ public class CmsJspNavBuilder {
         }
 
         for (CmsResource r : resources) {
-            CmsJspNavElement element = getNavigationForResource(m_cms.getSitePath(r), resourceFilter, shallow);
+            CmsJspNavElement element = getNavigationForResource(m_cms.getSitePath(r), r, resourceFilter, shallow);
             if ((element != null) && (includeInvisible || element.isInNavigation())) {
                 result.add(element);
             }
@@ -665,13 +666,38 @@ public class CmsJspNavBuilder {
     private CmsJspNavElement getNavigationForResource(String sitePath, CmsResourceFilter resourceFilter, boolean shallow) {
 
         CmsResource resource;
+        try {
+            resource = m_cms.readResource(sitePath, resourceFilter);
+        } catch (Exception e) {
+            // may happen if permissions are not sufficient
+            LOG.error(e.getLocalizedMessage(), e);
+            return null;
+        }
+        return getNavigationForResource(sitePath, resource, resourceFilter, shallow);
+    }
+
+    /**
+     * Returns a navigation element for the given, already read resource.<p>
+     * 
+     * @param sitePath the site path of the resource
+     * @param resource the resource to get the navigation information for
+     * @param resourceFilter the filter to use reading the resources
+     * @param shallow <code>true</code> for a shallow look up, not regarding next level resources
+     *              
+     * @return a navigation element for the given resource
+     */
+    private CmsJspNavElement getNavigationForResource(
+        String sitePath,
+        CmsResource resource,
+        CmsResourceFilter resourceFilter,
+        boolean shallow) {
+
         Map<String, String> propertiesMap;
         int level = CmsResource.getPathLevel(sitePath);
         if (sitePath.endsWith("/")) {
             level--;
         }
         try {
-            resource = m_cms.readResource(sitePath, resourceFilter);
             List<CmsProperty> properties = m_cms.readPropertyObjects(resource, false);
             propertiesMap = CmsProperty.toMap(properties);
             if (resource.isFolder()) {
@@ -232,30 +232,7 @@ public class CmsDumpLoader implements I_CmsResourceLoader {
         // make sure we have the file contents available
         CmsFile file = cms.readFile(resource);
 
-        // set response status to "200 - OK" (required for static export "on-demand")
-        res.setStatus(HttpServletResponse.SC_OK);
-        // set content length header
-        res.setContentLength(file.getContents().length);
-
-        if (CmsWorkplaceManager.isWorkplaceUser(req)) {
-            // prevent caching for Workplace users
-            res.setDateHeader(CmsRequestUtil.HEADER_LAST_MODIFIED, System.currentTimeMillis());
-            CmsRequestUtil.setNoCacheHeaders(res);
-        } else {
-            // set date last modified header
-            res.setDateHeader(CmsRequestUtil.HEADER_LAST_MODIFIED, file.getDateLastModified());
-
-            // set "Expires" only if cache control is not already set
-            if (!res.containsHeader(CmsRequestUtil.HEADER_CACHE_CONTROL)) {
-                long expireTime = resource.getDateExpired();
-                if (expireTime == CmsResource.DATE_EXPIRED_DEFAULT) {
-                    expireTime--;
-                    // flex controller will automatically reduce this to a reasonable value
-                }
-                // now set "Expires" header        
-                CmsFlexController.setDateExpiresHeader(res, expireTime, m_clientCacheMaxAge);
-            }
-        }
+        setResponseHeaders(file, file.getContents().length, req, res);
 
         service(cms, file, req, res);
     }
@@ -301,4 +278,44 @@ public class CmsDumpLoader implements I_CmsResourceLoader {
         }
         return false;
     }
+
+    /**
+     * Sets the status and the headers of the response for delivering the contents of the given resource.<p>
+     * 
+     * @param resource the resource that is delivered
+     * @param contentLength the length of the content that is delivered 
+     * @param req the current request
+     * @param res the current response
+     */
+    protected void setResponseHeaders(
+        CmsResource resource,
+        int contentLength,
+        HttpServletRequest req,
+        HttpServletResponse res) {
+
+        // set response status to "200 - OK" (required for static export "on-demand")
+        res.setStatus(HttpServletResponse.SC_OK);
+        // set content length header
+        res.setContentLength(contentLength);
+
+        if (CmsWorkplaceManager.isWorkplaceUser(req)) {
+            // prevent caching for Workplace users
+            res.setDateHeader(CmsRequestUtil.HEADER_LAST_MODIFIED, System.currentTimeMillis());
+            CmsRequestUtil.setNoCacheHeaders(res);
+        } else {
+            // set date last modified header
+            res.setDateHeader(CmsRequestUtil.HEADER_LAST_MODIFIED, resource.getDateLastModified());
+
+            // set "Expires" only if cache control is not already set
+            if (!res.containsHeader(CmsRequestUtil.HEADER_CACHE_CONTROL)) {
+                long expireTime = resource.getDateExpired();
+                if (expireTime == CmsResource.DATE_EXPIRED_DEFAULT) {
+                    expireTime--;
+                    // flex controller will automatically reduce this to a reasonable value
+                }
+                // now set "Expires" header        
+                CmsFlexController.setDateExpiresHeader(res, expireTime, m_clientCacheMaxAge);
+            }
+        }
+    }
 }
\ No newline at end of file
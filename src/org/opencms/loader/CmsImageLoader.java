@@ -27,6 +27,7 @@
 
 package org.opencms.loader;
 
+import org.opencms.cache.CmsDiskCacheIndex;
 import org.opencms.cache.CmsVfsNameBasedDiskCache;
 import org.opencms.configuration.CmsParameterConfiguration;
 import org.opencms.file.CmsFile;
@@ -38,9 +39,14 @@ import org.opencms.main.CmsLog;
 import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.OpenCms;
 import org.opencms.scheduler.jobs.CmsImageCacheCleanupJob;
+import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsStringUtil;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.util.Map;
 
 import javax.servlet.http.HttpServletRequest;
@@ -62,6 +68,9 @@ import org.apache.commons.logging.Log;
  */
 public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener {
 
+    /** The configuration parameter for the OpenCms XML configuration to set the maximum image cache size in MB. */
+    public static final String CONFIGURATION_CACHE_MAX_SIZE = "image.cache.maxsize";
+
     /** The configuration parameter for the OpenCms XML configuration to set the image down scale operation. */
     public static final String CONFIGURATION_DOWNSCALE = "image.scaling.downscale";
 
@@ -101,6 +110,9 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
     /** The disk cache to use for saving scaled image versions. */
     protected static CmsVfsNameBasedDiskCache m_vfsDiskCache;
 
+    /** The maximum size of the image cache in megabytes, or zero if the size is not limited. */
+    protected long m_cacheMaxSize;
+
     /** The name of the configured image cache repository. */
     protected String m_imageRepositoryFolder;
 
@@ -128,6 +140,16 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
         return m_downScaleParams;
     }
 
+    /**
+     * Returns the index of the files in the image cache repository.<p>
+     * 
+     * @return the index of the files in the image cache repository, or <code>null</code> if not initialized
+     */
+    public static CmsDiskCacheIndex getImageCacheIndex() {
+
+        return m_vfsDiskCache != null ? m_vfsDiskCache.getIndex() : null;
+    }
+
     /**
      * Returns the path of the image cache repository folder in the RFS,
      * which is set with the {@link #CONFIGURATION_IMAGE_FOLDER} configuration option.<p> 
@@ -197,6 +219,9 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
             if (CONFIGURATION_DOWNSCALE.equals(paramName)) {
                 m_downScaleParams = paramValue.trim();
             }
+            if (CONFIGURATION_CACHE_MAX_SIZE.equals(paramName)) {
+                m_cacheMaxSize = CmsStringUtil.getLongValue(paramValue, 0, paramName);
+            }
         }
         super.addConfigurationParameter(paramName, paramValue);
     }
@@ -240,6 +265,9 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
 
         m_enabled = false;
         m_imageRepositoryFolder = null;
+        if ((m_vfsDiskCache != null) && (m_vfsDiskCache.getIndex() != null)) {
+            m_vfsDiskCache.getIndex().save();
+        }
         m_vfsDiskCache = null;
     }
 
@@ -256,6 +284,9 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
         }
         result.put(CONFIGURATION_SCALING_ENABLED, String.valueOf(m_enabled));
         result.put(CONFIGURATION_IMAGE_FOLDER, m_imageRepositoryFolder);
+        if (m_cacheMaxSize > 0) {
+            result.put(CONFIGURATION_CACHE_MAX_SIZE, String.valueOf(m_cacheMaxSize));
+        }
         return result;
     }
 
@@ -281,7 +312,8 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
         if (m_vfsDiskCache == null) {
             m_vfsDiskCache = new CmsVfsNameBasedDiskCache(
                 OpenCms.getSystemInfo().getWebApplicationRfsPath(),
-                m_imageRepositoryFolder);
+                m_imageRepositoryFolder,
+                m_cacheMaxSize * 1024L * 1024L);
         }
         OpenCms.addCmsEventListener(this);
         // output setup information
@@ -309,6 +341,34 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
             }
             // get the scale information from the request
             CmsImageScaler scaler = new CmsImageScaler(req, m_maxScaleSize, m_maxBlurSize);
+            if (!(resource instanceof CmsFile)) {
+                // the content is not needed as a file (e.g. for the static export), so a cached image is
+                // written directly from the disk cache to the response 
+                String cacheName = m_vfsDiskCache.getCacheName(resource, scaler.isValid() ? scaler.toString() : null);
+                File cacheFile = m_vfsDiskCache.getCacheFile(cacheName);
+                FileInputStream in = null;
+                if (cacheFile != null) {
+                    try {
+                        in = new FileInputStream(cacheFile);
+                    } catch (FileNotFoundException e) {
+                        // the file has been removed from the cache in the meantime
+                    }
+                }
+                if (in != null) {
+                    try {
+                        // use the size of the opened file, the cache file may be replaced in the meantime
+                        FileChannel channel = in.getChannel();
+                        long size = channel.size();
+                        if (size <= Integer.MAX_VALUE) {
+                            setResponseHeaders(resource, (int)size, req, res);
+                            CmsFileUtil.transferFile(channel, res.getOutputStream());
+                            return;
+                        }
+                    } finally {
+                        in.close();
+                    }
+                }
+            }
             // load the file from the cache
             CmsFile file = getScaledImage(cms, resource, scaler);
             // now perform standard load operation inherited from dump loader
@@ -38,6 +38,7 @@ import org.opencms.file.CmsVfsResourceNotFoundException;
 import org.opencms.file.history.CmsHistoryResourceHandler;
 import org.opencms.flex.CmsFlexCache;
 import org.opencms.flex.CmsFlexController;
+import org.opencms.flex.CmsFlexOutputBuffer;
 import org.opencms.flex.CmsFlexRequest;
 import org.opencms.flex.CmsFlexResponse;
 import org.opencms.i18n.CmsEncoder;
@@ -121,6 +122,13 @@ import com.google.common.collect.Maps;
  * in your servlet environment, you should try to change the value here. 
  * The default <code>true</code> has been tested with Tomcat 4.1 and 5.0. 
  * Older versions of Tomcat like 4.0 require a setting of <code>false</code>.</dd>
+ * 
+ * <dt>jsp.warmup.threads</dt><dd>
+ * (Optional) The number of threads used to write and compile the JSPs of the installed modules
+ * in the background after the startup, and the published JSPs after each publish.
+ * The default is the number of available processors, but at most 4. 
+ * Set this to <code>0</code> to disable the warm-up. The warm-up after the startup can also be
+ * switched off with the <code>startup.warmup</code> parameter in <code>opencms.properties</code>.</dd>
  * </dl> 
  * 
  * @since 6.0.0 
@@ -162,6 +170,9 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
     /** Jsp repository parameter name. */
     public static final String PARAM_JSP_REPOSITORY = "jsp.repository";
 
+    /** Jsp warm-up threads parameter name. */
+    public static final String PARAM_JSP_WARMUP_THREADS = "jsp.warmup.threads";
+
     /** The id of this loader. */
     public static final int RESOURCE_LOADER_ID = 6;
 
@@ -200,6 +211,9 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
     /** A map from taglib names to their URIs. */
     private Map<String, String> m_taglibs = Maps.newHashMap();
 
+    /** The number of threads used for the JSP warm-up. */
+    private int m_warmupThreads;
+
     /**
      * The constructor of the class is empty, the initial instance will be 
      * created by the resource manager upon startup of OpenCms.<p>
@@ -345,6 +359,18 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
         return m_jspRepository;
     }
 
+    /**
+     * Returns the number of threads used to warm up the JSPs, <code>0</code> if the warm-up is disabled.<p>
+     * 
+     * @return the number of threads used to warm up the JSPs
+     * 
+     * @see CmsJspWarmup
+     */
+    public int getJspWarmupThreads() {
+
+        return m_warmupThreads;
+    }
+
     /**
      * @see org.opencms.loader.I_CmsResourceLoader#getLoaderId()
      */
@@ -423,6 +449,10 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
         // get the "error pages are committed or not" flag from the configuration
         m_errorPagesAreNotCommitted = m_configuration.getBoolean(PARAM_JSP_ERRORPAGE_COMMITTED, true);
 
+        m_warmupThreads = m_configuration.getInteger(
+            PARAM_JSP_WARMUP_THREADS,
+            Math.min(4, Runtime.getRuntime().availableProcessors()));
+
         int cacheSize = m_configuration.getInteger(PARAM_JSP_CACHE_SIZE, -1);
         if (cacheSize > 0) {
             initCaches(cacheSize);
@@ -522,7 +552,7 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
                 req.getRequestDispatcher(target).forward(controller.getCurrentRequest(), res);
             } else {
                 // Flex cache not bypassed, dispatch to internal JSP  
-                dispatchJsp(controller);
+                dispatchJsp(controller, false);
             }
 
             // remove the controller from the request if not forwarding
@@ -922,6 +952,26 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
      */
     protected byte[] dispatchJsp(CmsFlexController controller) throws ServletException, IOException {
 
+        return dispatchJsp(controller, true);
+    }
+
+    /**
+     * Dispatches the current request to the OpenCms internal JSP.<p>
+     * 
+     * If the result is not required, the output is written to the top response segment by segment
+     * without assembling it in a single byte array first.<p>
+     * 
+     * @param controller the current controller
+     * @param returnResult if the content of the processed JSP should be returned
+     * 
+     * @return the content of the processed JSP, or <code>null</code> if the result was not requested
+     * 
+     * @throws ServletException if inclusion does not work
+     * @throws IOException if inclusion does not work
+     */
+    protected byte[] dispatchJsp(CmsFlexController controller, boolean returnResult)
+    throws ServletException, IOException {
+
         // get request / response wrappers
         CmsFlexRequest f_req = controller.getCurrentRequest();
         CmsFlexResponse f_res = controller.getCurrentResponse();
@@ -962,8 +1012,11 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
                         return null;
                     }
 
-                    // get the result byte array
-                    result = f_res.getWriterBytes();
+                    // get the result buffer, the byte array is only assembled if required
+                    CmsFlexOutputBuffer buffer = f_res.getWriterBuffer();
+                    if (returnResult) {
+                        result = buffer.toByteArray();
+                    }
                     HttpServletRequest req = controller.getTopRequest();
                     if (req.getHeader(CmsRequestUtil.HEADER_OPENCMS_EXPORT) != null) {
                         // this is a non "on-demand" static export request, don't write to the response stream
@@ -972,7 +1025,7 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
                             new Long(controller.getDateLastModified()));
                     } else if (controller.isTop()) {
                         // process headers and write output if this is the "top" request/response                                  
-                        res.setContentLength(result.length);
+                        res.setContentLength(buffer.size());
                         // check for preset error code
                         Integer errorCode = (Integer)req.getAttribute(CmsRequestUtil.ATTRIBUTE_ERRORCODE);
                         if (errorCode == null) {
@@ -1002,7 +1055,7 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
                         }
                         // process the headers
                         CmsFlexResponse.processHeaders(f_res.getHeaders(), res);
-                        res.getOutputStream().write(result);
+                        buffer.writeTo(res.getOutputStream());
                         res.getOutputStream().flush();
                     }
                 }
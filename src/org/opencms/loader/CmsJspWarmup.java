@@ -0,0 +1,494 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.loader;
+
+import org.opencms.db.CmsPublishedResource;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.types.I_CmsResourceType;
+import org.opencms.flex.CmsFlexController;
+import org.opencms.i18n.CmsLocaleManager;
+import org.opencms.main.CmsEvent;
+import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
+import org.opencms.main.I_CmsEventListener;
+import org.opencms.main.OpenCms;
+import org.opencms.report.CmsLogReport;
+import org.opencms.report.I_CmsReport;
+import org.opencms.util.CmsUUID;
+import org.opencms.workplace.CmsWorkplace;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.RequestDispatcher;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Writes JSPs to the real file system and lets the servlet container compile them before they are first requested.<p>
+ *
+ * At startup, all JSPs of the installed modules (which contain the templates and formatters) are warmed up.
+ * After each publish, the published JSPs are warmed up again. The JSPs are processed in parallel in a
+ * pool with a fixed number of threads, the progress is written to a report.<p>
+ *
+ * The warm-ups after a publish are done one after the other in a single background thread.
+ * If too many of them are waiting, further publish events are skipped, the JSPs of these publish jobs
+ * are then compiled on the first request as usual.<p>
+ *
+ * Since there is no request when the warm-up runs, the JSPs are processed with a request and response
+ * which only provide default values. The compilation is triggered by forwarding to the generated JSP with the
+ * <code>jsp_precompile</code> parameter, which makes the JSP container compile the page without executing it.
+ * The parameter is part of the query string of the request itself, since the JSP container reads it from there.<p>
+ *
+ * @since 9.0.0
+ */
+public class CmsJspWarmup implements I_CmsEventListener {
+
+    /**
+     * Invocation handler for the request and response used during the warm-up.<p>
+     *
+     * Request attributes are stored, and the request carries the <code>jsp_precompile</code> parameter in its
+     * query string and parameters. All other methods return default values.<p>
+     */
+    private static class WarmupInvocationHandler implements InvocationHandler {
+
+        /** The request attributes. */
+        private Map<String, Object> m_attributes = Collections.synchronizedMap(new HashMap<String, Object>());
+
+        /**
+         * @see java.lang.reflect.InvocationHandler#invoke(java.lang.Object, java.lang.reflect.Method, java.lang.Object[])
+         */
+        public Object invoke(Object proxy, Method method, Object[] args) {
+
+            String name = method.getName();
+            Class<?> type = method.getReturnType();
+            if ("equals".equals(name)) {
+                return Boolean.valueOf(proxy == args[0]);
+            } else if ("hashCode".equals(name)) {
+                return new Integer(System.identityHashCode(proxy));
+            } else if ("getAttribute".equals(name)) {
+                return m_attributes.get(args[0]);
+            } else if ("setAttribute".equals(name)) {
+                m_attributes.put((String)args[0], args[1]);
+                return null;
+            } else if ("removeAttribute".equals(name)) {
+                m_attributes.remove(args[0]);
+                return null;
+            } else if ("getAttributeNames".equals(name)) {
+                return Collections.enumeration(new ArrayList<String>(m_attributes.keySet()));
+            } else if ("getMethod".equals(name)) {
+                return "GET";
+            } else if ("getQueryString".equals(name)) {
+                return PARAM_JSP_PRECOMPILE + "=true";
+            } else if ("getParameter".equals(name)) {
+                return PARAM_JSP_PRECOMPILE.equals(args[0]) ? "true" : null;
+            } else if ("getParameterValues".equals(name)) {
+                return PARAM_JSP_PRECOMPILE.equals(args[0]) ? new String[] {"true"} : null;
+            } else if ("getParameterNames".equals(name)) {
+                return Collections.enumeration(Collections.singletonList(PARAM_JSP_PRECOMPILE));
+            } else if ("getParameterMap".equals(name)) {
+                return Collections.singletonMap(PARAM_JSP_PRECOMPILE, new String[] {"true"});
+            } else if ("getCharacterEncoding".equals(name)) {
+                return OpenCms.getSystemInfo().getDefaultEncoding();
+            } else if ("getLocale".equals(name)) {
+                return CmsLocaleManager.getDefaultLocale();
+            } else if ("getWriter".equals(name)) {
+                return new PrintWriter(new StringWriter());
+            } else if ("getOutputStream".equals(name)) {
+                return new ServletOutputStream() {
+
+                    @Override
+                    public void write(int b) {
+
+                        // the output of the warm-up is discarded
+                    }
+                };
+            } else if (type == Boolean.TYPE) {
+                return Boolean.FALSE;
+            } else if (type == Integer.TYPE) {
+                return new Integer(0);
+            } else if (type == Long.TYPE) {
+                return new Long(-1);
+            } else if (type == Map.class) {
+                return Collections.emptyMap();
+            } else if (type == Enumeration.class) {
+                return Collections.enumeration(Collections.emptyList());
+            } else if (type == String.class) {
+                return "toString".equals(name) ? getClass().getName() : null;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Thread factory for the daemon threads used by the warm-up.<p>
+     */
+    private static class WarmupThreadFactory implements ThreadFactory {
+
+        /** The name of the threads. */
+        private String m_name;
+
+        /** The number of threads created so far. */
+        private AtomicInteger m_threadCount = new AtomicInteger();
+
+        /**
+         * Creates a new thread factory.<p>
+         *
+         * @param name the name of the threads
+         */
+        WarmupThreadFactory(String name) {
+
+            m_name = name;
+        }
+
+        /**
+         * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+         */
+        public Thread newThread(Runnable r) {
+
+            Thread thread = new Thread(r, m_name + " #" + m_threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /** Request parameter which makes the JSP container compile a JSP without executing it. */
+    public static final String PARAM_JSP_PRECOMPILE = "jsp_precompile";
+
+    /** The folder below which the JSPs are warmed up at startup. */
+    public static final String WARMUP_FOLDER = CmsWorkplace.VFS_PATH_MODULES;
+
+    /** The time in seconds after which idle warm-up threads are stopped. */
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsJspWarmup.class);
+
+    /** The maximum number of publish jobs waiting for their warm-up. */
+    private static final int PUBLISH_QUEUE_SIZE = 8;
+
+    /** The Admin context in the Online project used to read the JSPs. */
+    private CmsObject m_cms;
+
+    /** The servlet context used to compile the JSPs, may be <code>null</code>. */
+    private ServletContext m_context;
+
+    /** The pool used to warm up the JSPs. */
+    private ThreadPoolExecutor m_executor;
+
+    /** The JSP loader. */
+    private CmsJspLoader m_loader;
+
+    /** The single thread executor used to start the warm-up after a publish. */
+    private ThreadPoolExecutor m_publishExecutor;
+
+    /**
+     * Creates a new JSP warm-up and registers it for publish events.<p>
+     *
+     * @param loader the JSP loader
+     * @param cms an Admin context in the Online project
+     * @param context the servlet context used to compile the JSPs, or <code>null</code> to only write the JSPs
+     * @param threads the number of threads to use
+     */
+    public CmsJspWarmup(CmsJspLoader loader, CmsObject cms, ServletContext context, int threads) {
+
+        m_loader = loader;
+        m_cms = cms;
+        m_context = context;
+        int poolSize = Math.max(1, threads);
+        m_executor = new ThreadPoolExecutor(
+            poolSize,
+            poolSize,
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            new WarmupThreadFactory("OpenCms: JSP warm-up"));
+        m_executor.allowCoreThreadTimeOut(true);
+        m_publishExecutor = new ThreadPoolExecutor(
+            1,
+            1,
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<Runnable>(PUBLISH_QUEUE_SIZE),
+            new WarmupThreadFactory("OpenCms: JSP warm-up after publish"));
+        m_publishExecutor.allowCoreThreadTimeOut(true);
+        OpenCms.addCmsEventListener(this, new int[] {EVENT_PUBLISH_PROJECT});
+    }
+
+    /**
+     * Queues the warm-up of the published JSPs after a publish.<p>
+     *
+     * @see org.opencms.main.I_CmsEventListener#cmsEvent(org.opencms.main.CmsEvent)
+     */
+    public void cmsEvent(CmsEvent event) {
+
+        if (event.getType() != EVENT_PUBLISH_PROJECT) {
+            return;
+        }
+        String publishId = (String)event.getData().get(I_CmsEventListener.KEY_PUBLISHID);
+        if (publishId == null) {
+            return;
+        }
+        final CmsUUID publishHistoryId = new CmsUUID(publishId);
+        try {
+            m_publishExecutor.execute(new Runnable() {
+
+                public void run() {
+
+                    try {
+                        List<CmsResource> jsps = readPublishedJsps(publishHistoryId);
+                        if (!jsps.isEmpty()) {
+                            warmup(jsps, new CmsLogReport(CmsLocaleManager.getDefaultLocale(), CmsJspWarmup.class));
+                        }
+                    } catch (Throwable t) {
+                        LOG.error(t.getLocalizedMessage(), t);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // too many warm-ups are waiting or the warm-up has been shut down
+            LOG.warn(Messages.get().getBundle().key(Messages.LOG_JSP_WARMUP_SKIPPED_1, publishId));
+        }
+    }
+
+    /**
+     * Reads all JSPs below the {@link #WARMUP_FOLDER}.<p>
+     *
+     * @return the JSPs to warm up
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsResource> readJsps() throws CmsException {
+
+        List<CmsResource> result = new ArrayList<CmsResource>();
+        if (!m_cms.existsResource(WARMUP_FOLDER)) {
+            return result;
+        }
+        for (I_CmsResourceType type : OpenCms.getResourceManager().getResourceTypes()) {
+            if (type.getLoaderId() == CmsJspLoader.RESOURCE_LOADER_ID) {
+                result.addAll(m_cms.readResources(
+                    WARMUP_FOLDER,
+                    CmsResourceFilter.DEFAULT_FILES.addRequireType(type.getTypeId()),
+                    true));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads the JSPs which have been published with the given publish job.<p>
+     *
+     * @param publishHistoryId the publish history id
+     *
+     * @return the published JSPs which have not been deleted
+     *
+     * @throws CmsException if the published resources could not be read
+     */
+    public List<CmsResource> readPublishedJsps(CmsUUID publishHistoryId) throws CmsException {
+
+        List<CmsResource> result = new ArrayList<CmsResource>();
+        for (CmsPublishedResource pubRes : m_cms.readPublishedResources(publishHistoryId)) {
+            if (pubRes.getState().isDeleted() || !isJsp(pubRes.getType())) {
+                continue;
+            }
+            try {
+                result.add(m_cms.readResource(pubRes.getStructureId(), CmsResourceFilter.DEFAULT_FILES));
+            } catch (CmsException e) {
+                // the resource may have been deleted in the meantime
+                LOG.debug(e.getLocalizedMessage(), e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stops the warm-up threads and removes the warm-up from the event listeners.<p>
+     */
+    public void shutDown() {
+
+        OpenCms.removeCmsEventListener(this);
+        m_publishExecutor.shutdownNow();
+        m_executor.shutdownNow();
+    }
+
+    /**
+     * Writes the given JSPs to the real file system and compiles them, using the configured number of threads.<p>
+     *
+     * The JSPs are processed in parallel but reported in their original order.<p>
+     *
+     * @param jsps the JSPs to warm up
+     * @param report the report to write the progress to
+     *
+     * @return the number of JSPs for which the warm-up failed
+     */
+    public int warmup(List<CmsResource> jsps, I_CmsReport report) {
+
+        long start = System.currentTimeMillis();
+        int size = jsps.size();
+        int errors = 0;
+        List<Future<String>> results = new ArrayList<Future<String>>(size);
+        try {
+            for (final CmsResource jsp : jsps) {
+                results.add(m_executor.submit(new Callable<String>() {
+
+                    public String call() throws Exception {
+
+                        return warmupJsp(jsp);
+                    }
+                }));
+            }
+            for (int i = 0; i < size; i++) {
+                String rootPath = jsps.get(i).getRootPath();
+                report.print(
+                    org.opencms.report.Messages.get().container(
+                        org.opencms.report.Messages.RPT_SUCCESSION_2,
+                        new Integer(i + 1),
+                        new Integer(size)),
+                    I_CmsReport.FORMAT_NOTE);
+                report.print(Messages.get().container(Messages.RPT_JSP_WARMUP_0), I_CmsReport.FORMAT_NOTE);
+                report.print(org.opencms.report.Messages.get().container(
+                    org.opencms.report.Messages.RPT_ARGUMENT_1,
+                    rootPath));
+                report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+                try {
+                    results.get(i).get();
+                    report.println(
+                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+                        I_CmsReport.FORMAT_OK);
+                } catch (ExecutionException e) {
+                    errors++;
+                    report.println(
+                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_FAILED_0),
+                        I_CmsReport.FORMAT_ERROR);
+                    LOG.warn(Messages.get().getBundle().key(Messages.LOG_JSP_WARMUP_FAILED_1, rootPath), e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RejectedExecutionException e) {
+            // the warm-up has been shut down
+            LOG.debug(e.getLocalizedMessage(), e);
+        } finally {
+            // the pool is shared, so only the JSPs of this warm-up are cancelled
+            for (Future<String> result : results) {
+                result.cancel(true);
+            }
+        }
+        if (LOG.isInfoEnabled()) {
+            LOG.info(Messages.get().getBundle().key(
+                Messages.LOG_JSP_WARMUP_FINISHED_3,
+                new Integer(size),
+                new Long(System.currentTimeMillis() - start),
+                new Integer(errors)));
+        }
+        return errors;
+    }
+
+    /**
+     * Writes a single JSP (and the JSPs it includes) to the real file system and compiles it.<p>
+     *
+     * @param jsp the JSP to warm up
+     *
+     * @return the name of the JSP in the real file system, relative to the web application
+     *
+     * @throws Exception if something goes wrong
+     */
+    protected String warmupJsp(CmsResource jsp) throws Exception {
+
+        CmsObject cms = OpenCms.initCmsObject(m_cms);
+        HttpServletRequest req = (HttpServletRequest)createProxy(HttpServletRequest.class);
+        HttpServletResponse res = (HttpServletResponse)createProxy(HttpServletResponse.class);
+        CmsFlexController controller = m_loader.getController(cms, jsp, req, res, false, true);
+        String target = m_loader.updateJsp(jsp, controller, new HashSet<String>(8));
+        if (m_context != null) {
+            RequestDispatcher dispatcher = m_context.getRequestDispatcher(target + "?" + PARAM_JSP_PRECOMPILE + "=true");
+            if (dispatcher != null) {
+                // with an include, the container would read the query string of the outer request only
+                dispatcher.forward(req, res);
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Creates a proxy for the given request or response interface which only provides default values.<p>
+     *
+     * @param type the interface to implement
+     *
+     * @return the proxy
+     */
+    private Object createProxy(Class<?> type) {
+
+        return Proxy.newProxyInstance(
+            CmsJspWarmup.class.getClassLoader(),
+            new Class<?>[] {type},
+            new WarmupInvocationHandler());
+    }
+
+    /**
+     * Checks if the resource type with the given id is loaded by the JSP loader.<p>
+     *
+     * @param typeId the resource type id
+     *
+     * @return <code>true</code> if resources of the type are JSPs
+     */
+    private boolean isJsp(int typeId) {
+
+        try {
+            return OpenCms.getResourceManager().getResourceType(typeId).getLoaderId() == CmsJspLoader.RESOURCE_LOADER_ID;
+        } catch (CmsException e) {
+            return false;
+        }
+    }
+}
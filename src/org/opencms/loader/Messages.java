@@ -226,6 +226,15 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_JSP_PERMCHECK_4 = "LOG_JSP_PERMCHECK_4";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_JSP_WARMUP_FAILED_1 = "LOG_JSP_WARMUP_FAILED_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_JSP_WARMUP_FINISHED_3 = "LOG_JSP_WARMUP_FINISHED_3";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_JSP_WARMUP_SKIPPED_1 = "LOG_JSP_WARMUP_SKIPPED_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_NAME_REAL_FS_1 = "LOG_NAME_REAL_FS_1";
 
@@ -250,6 +259,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_X_DIRECTIVE_DETECTED_1 = "LOG_X_DIRECTIVE_DETECTED_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_JSP_WARMUP_0 = "RPT_JSP_WARMUP_0";
+
     /** Name of the used resource bundle. */
     private static final String BUNDLE_NAME = "org.opencms.loader.messages";
 
@@ -344,6 +344,28 @@ public final class CmsLockManager {
         return lockedResources;
     }
 
+    /**
+     * Returns the lock states of the given resources, in the order of the given list.<p>
+     * 
+     * This is the bulk variant of {@link #getLock(CmsDbContext, CmsResource)} for rendering resource lists.
+     * Siblings are only read for resources that actually have siblings.<p>
+     * 
+     * @param dbc the current database context
+     * @param resources the resources to return the lock states for
+     * 
+     * @return the lock states of the given resources
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsLock> getLocks(CmsDbContext dbc, List<CmsResource> resources) throws CmsException {
+
+        List<CmsLock> locks = new ArrayList<CmsLock>(resources.size());
+        for (CmsResource resource : resources) {
+            locks.add(getLock(dbc, resource, resource.getSiblingCount() > 1));
+        }
+        return locks;
+    }
+
     /**
      * Returns all exclusive locked resources matching the given resource name and filter.<p>
      * 
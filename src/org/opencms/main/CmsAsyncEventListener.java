@@ -0,0 +1,506 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.main;
+
+import org.opencms.file.CmsResource;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Event listener wrapper that delivers events asynchronously to another listener.<p>
+ * 
+ * Events are put in a bounded queue and delivered by a single worker thread, so the wrapped listener 
+ * sees events in the order they were fired. If the queue is full, the firing thread waits until there 
+ * is space in the queue, so no event is ever dropped and the wrapped listener is never called concurrently.
+ * Only events fired by the wrapped listener itself are delivered directly if the queue is full, 
+ * since the worker thread can not wait for itself.<p>
+ * 
+ * Events of the same type for the same resource (and the same change type) that are fired 
+ * within the coalescing window are merged, the wrapped listener will only receive the latest of them.
+ * Events without a single resource in their data are never coalesced.
+ * Coalescing changes the order of the events: the merged event is delivered at the position of the 
+ * first of the merged events, so it can be delivered before other events that have been fired earlier. 
+ * Listeners that depend on the order of events for different resources must use a coalescing window 
+ * of <code>0</code>.<p>
+ * 
+ * When the listener is shut down, the worker thread first delivers all queued events, including the events 
+ * fired while shutting down. Only after that, events are delivered on the firing thread.<p>
+ * 
+ * Instances are created with {@link CmsEventManager#addAsyncCmsEventListener(I_CmsEventListener, int[], int, long)}.
+ * They also collect statistics about queue depth and delivery latency.<p>
+ * 
+ * @since 9.0.0
+ */
+public class CmsAsyncEventListener implements I_CmsEventListener {
+
+    /**
+     * An event waiting in the queue.<p>
+     */
+    private static class QueuedEvent {
+
+        /** The latest event for the coalescing key. */
+        CmsEvent m_event;
+
+        /** The coalescing key, or <code>null</code> if the event is not coalesced. */
+        final String m_key;
+
+        /** The time the first event was queued, in nanoseconds. */
+        final long m_time;
+
+        /**
+         * Creates a new queued event.<p>
+         * 
+         * @param event the event
+         * @param key the coalescing key
+         */
+        QueuedEvent(CmsEvent event, String key) {
+
+            m_event = event;
+            m_key = key;
+            m_time = System.nanoTime();
+        }
+    }
+
+    /** The default coalescing window in milliseconds. */
+    public static final long DEFAULT_COALESCE_WINDOW = 100;
+
+    /** The default queue size. */
+    public static final int DEFAULT_QUEUE_SIZE = 1000;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsAsyncEventListener.class);
+
+    /** The time in milliseconds after which a warning is logged while waiting for space in a full queue. */
+    private static final long OVERFLOW_WARN_TIME = 5000;
+
+    /** The element which tells the worker thread to stop. */
+    private static final QueuedEvent SHUTDOWN = new QueuedEvent(null, null);
+
+    /** The coalescing window in nanoseconds. */
+    private final long m_coalesceWindow;
+
+    /** The number of events that have been merged with an already queued event. */
+    private final AtomicLong m_coalescedCount = new AtomicLong();
+
+    /** The number of events delivered to the wrapped listener. */
+    private final AtomicLong m_deliveredCount = new AtomicLong();
+
+    /** The wrapped listener. */
+    private final I_CmsEventListener m_listener;
+
+    /** The maximum delivery latency in nanoseconds. */
+    private final AtomicLong m_maxLatency = new AtomicLong();
+
+    /** The number of events for which the firing thread had to wait because the queue was full. */
+    private final AtomicLong m_overflowCount = new AtomicLong();
+
+    /** The queued events that can still be coalesced, by coalescing key. */
+    private final Map<String, QueuedEvent> m_pending;
+
+    /** The event queue. */
+    private final BlockingQueue<QueuedEvent> m_queue;
+
+    /** Released when this listener is shut down, the queued events are then delivered without further waiting. */
+    private final CountDownLatch m_shutDown = new CountDownLatch(1);
+
+    /** Set once the worker thread has delivered all queued events after shut down, guarded by the coalescing map. */
+    private boolean m_synchronous;
+
+    /** The total delivery latency in nanoseconds. */
+    private final AtomicLong m_totalLatency = new AtomicLong();
+
+    /** The worker thread. */
+    private final Thread m_worker;
+
+    /**
+     * Creates a new asynchronous listener and starts its worker thread.<p>
+     * 
+     * @param listener the listener to deliver the events to
+     * @param queueSize the maximum number of queued events
+     * @param coalesceWindow the coalescing window in milliseconds, <code>0</code> disables coalescing
+     */
+    public CmsAsyncEventListener(I_CmsEventListener listener, int queueSize, long coalesceWindow) {
+
+        m_listener = listener;
+        m_queue = new ArrayBlockingQueue<QueuedEvent>(queueSize);
+        m_pending = new HashMap<String, QueuedEvent>();
+        m_coalesceWindow = TimeUnit.MILLISECONDS.toNanos(coalesceWindow);
+        m_worker = new Thread("OpenCms: Event delivery for " + listener.getClass().getName()) {
+
+            @Override
+            public void run() {
+
+                deliverQueuedEvents();
+            }
+        };
+        m_worker.setDaemon(true);
+        m_worker.start();
+    }
+
+    /**
+     * Returns the coalescing key for the given event.<p>
+     * 
+     * @param event the event
+     * 
+     * @return the coalescing key, or <code>null</code> if the event must not be coalesced
+     */
+    public static String getCoalescingKey(CmsEvent event) {
+
+        Map<String, Object> data = event.getData();
+        if (data == null) {
+            return null;
+        }
+        Object resource = data.get(I_CmsEventListener.KEY_RESOURCE);
+        if (!(resource instanceof CmsResource)) {
+            return null;
+        }
+        StringBuffer key = new StringBuffer(128);
+        key.append(event.getType());
+        key.append('|');
+        key.append(((CmsResource)resource).getRootPath());
+        key.append('|');
+        key.append(data.get(I_CmsEventListener.KEY_CHANGE));
+        return key.toString();
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsEventListener#cmsEvent(org.opencms.main.CmsEvent)
+     */
+    public void cmsEvent(CmsEvent event) {
+
+        String key = (m_coalesceWindow > 0) ? getCoalescingKey(event) : null;
+        // the worker can not wait for free space if the wrapped listener itself fires an event
+        boolean firedByWorker = Thread.currentThread() == m_worker;
+        boolean synchronous;
+        QueuedEvent queued = null;
+        synchronized (m_pending) {
+            synchronous = m_synchronous;
+            if (!synchronous) {
+                queued = queueEvent(event, key, firedByWorker);
+            }
+        }
+        if (synchronous) {
+            // the worker thread has delivered all queued events and is gone, deliver on the current thread
+            deliver(event, System.nanoTime());
+            return;
+        }
+        if (queued == null) {
+            // the event has been queued or merged with a queued event
+            return;
+        }
+        m_overflowCount.incrementAndGet();
+        if (firedByWorker) {
+            deliver(event, queued.m_time);
+            return;
+        }
+        // wait outside of the lock, since the worker needs the lock for delivering
+        boolean interrupted = false;
+        boolean queuedEvent = false;
+        while (!queuedEvent) {
+            try {
+                queuedEvent = m_queue.offer(queued, OVERFLOW_WARN_TIME, TimeUnit.MILLISECONDS);
+                if (!queuedEvent) {
+                    LOG.warn(Messages.get().getBundle().key(
+                        Messages.LOG_ASYNC_EVENT_QUEUE_FULL_2,
+                        m_listener,
+                        Long.valueOf(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queued.m_time))));
+                }
+            } catch (InterruptedException e) {
+                // the event must not be dropped, keep waiting and restore the interrupt afterwards
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        boolean missed;
+        synchronized (m_pending) {
+            // the worker thread may have finished after the space in the queue was freed
+            missed = m_synchronous && m_queue.remove(queued);
+        }
+        if (missed) {
+            deliverQueued(queued);
+        }
+    }
+
+    /**
+     * Returns the average delivery latency, i.e. the time from firing an event 
+     * until the wrapped listener has processed it, in microseconds.<p>
+     * 
+     * @return the average delivery latency in microseconds
+     */
+    public long getAverageLatency() {
+
+
+        long delivered = m_deliveredCount.get();
+        return (delivered == 0) ? 0 : TimeUnit.NANOSECONDS.toMicros(m_totalLatency.get() / delivered);
+    }
+
+    /**
+     * Returns the number of events that have been merged with an already queued event.<p>
+     * 
+     * @return the number of coalesced events
+     */
+    public long getCoalescedCount() {
+
+        return m_coalescedCount.get();
+    }
+
+    /**
+     * Returns the number of events delivered to the wrapped listener.<p>
+     * 
+     * @return the number of delivered events
+     */
+    public long getDeliveredCount() {
+
+        return m_deliveredCount.get();
+    }
+
+    /**
+     * Returns the wrapped listener.<p>
+     * 
+     * @return the wrapped listener
+     */
+    public I_CmsEventListener getListener() {
+
+        return m_listener;
+    }
+
+    /**
+     * Returns the maximum delivery latency in microseconds.<p>
+     * 
+     * @return the maximum delivery latency in microseconds
+     */
+    public long getMaxLatency() {
+
+        return TimeUnit.NANOSECONDS.toMicros(m_maxLatency.get());
+    }
+
+    /**
+     * Returns the number of events for which the firing thread had to wait because the queue was full.<p>
+     * 
+     * @return the number of overflow events
+     */
+    public long getOverflowCount() {
+
+        return m_overflowCount.get();
+    }
+
+    /**
+     * Returns the number of events currently waiting in the queue.<p>
+     * 
+     * @return the queue depth
+     */
+    public int getQueueSize() {
+
+        return m_queue.size();
+    }
+
+    /**
+     * Stops the worker thread after delivering all queued events.<p>
+     * 
+     * The queued events are delivered without waiting for their coalescing window. Events fired 
+     * while the queue is drained are still queued, so the wrapped listener receives them in order and 
+     * is never called concurrently. Only after the queue is empty, events are delivered on the firing thread.<p>
+     */
+    public void shutDown() {
+
+        if (isShutDown()) {
+            return;
+        }
+        m_shutDown.countDown();
+        try {
+            m_queue.put(SHUTDOWN);
+            m_worker.join(TimeUnit.NANOSECONDS.toMillis(m_coalesceWindow) + 1000);
+        } catch (InterruptedException e) {
+            // ignore
+        }
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        return getClass().getName()
+            + " ["
+            + m_listener
+            + ", queued: "
+            + getQueueSize()
+            + ", delivered: "
+            + getDeliveredCount()
+            + ", coalesced: "
+            + getCoalescedCount()
+            + ", overflow: "
+            + getOverflowCount()
+            + ", latency avg/max: "
+            + getAverageLatency()
+            + "/"
+            + getMaxLatency()
+            + " us]";
+    }
+
+    /**
+     * Delivers an event to the wrapped listener and updates the statistics.<p>
+     * 
+     * @param event the event
+     * @param startTime the time the event was fired, in nanoseconds
+     */
+    private void deliver(CmsEvent event, long startTime) {
+
+        try {
+            m_listener.cmsEvent(event);
+        } catch (Throwable t) {
+            LOG.error(Messages.get().getBundle().key(Messages.LOG_ERROR_ASYNC_EVENT_2, event, m_listener), t);
+        }
+        long latency = System.nanoTime() - startTime;
+        m_deliveredCount.incrementAndGet();
+        m_totalLatency.addAndGet(latency);
+        long max = m_maxLatency.get();
+        while ((latency > max) && !m_maxLatency.compareAndSet(max, latency)) {
+            max = m_maxLatency.get();
+        }
+    }
+
+    /**
+     * Removes a queued event from the coalescing map and delivers its latest event.<p>
+     * 
+     * @param queued the queued event
+     */
+    private void deliverQueued(QueuedEvent queued) {
+
+        CmsEvent event;
+        synchronized (m_pending) {
+            if (queued.m_key != null) {
+                m_pending.remove(queued.m_key);
+            }
+            event = queued.m_event;
+        }
+        deliver(event, queued.m_time);
+    }
+
+    /**
+     * Delivers the queued events until this listener is shut down.<p>
+     */
+    private void deliverQueuedEvents() {
+
+        while (true) {
+            QueuedEvent queued;
+            try {
+                queued = m_queue.take();
+            } catch (InterruptedException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+                break;
+            }
+            if (queued == SHUTDOWN) {
+                break;
+            }
+            if (queued.m_key != null) {
+                // wait until the coalescing window of this event has passed, or until shut down
+                long wait = (queued.m_time + m_coalesceWindow) - System.nanoTime();
+                if (wait > 0) {
+                    try {
+                        m_shutDown.await(wait, TimeUnit.NANOSECONDS);
+                    } catch (InterruptedException e) {
+                        // deliver the event without further waiting
+                    }
+                }
+            }
+            deliverQueued(queued);
+        }
+        // deliver everything that has been queued while shutting down, then switch to synchronous delivery
+        while (true) {
+            QueuedEvent queued;
+            synchronized (m_pending) {
+                queued = m_queue.poll();
+                if (queued == null) {
+                    m_synchronous = true;
+                    return;
+                }
+            }
+            deliverQueued(queued);
+        }
+    }
+
+    /**
+     * Checks if this listener has been shut down.<p>
+     * 
+     * @return <code>true</code> if this listener has been shut down
+     */
+    private boolean isShutDown() {
+
+        return m_shutDown.getCount() == 0;
+    }
+
+    /**
+     * Queues an event, or merges it with a queued event for the same coalescing key.<p>
+     * 
+     * Must be called while holding the lock of the coalescing map.<p>
+     * 
+     * @param event the event
+     * @param key the coalescing key, or <code>null</code> if the event must not be coalesced
+     * @param firedByWorker if the event has been fired by the worker thread
+     * 
+     * @return <code>null</code> if the event has been queued or merged, or the event to queue 
+     *      once there is space if the queue is full
+     */
+    private QueuedEvent queueEvent(CmsEvent event, String key, boolean firedByWorker) {
+
+        if (key != null) {
+            QueuedEvent pending = m_pending.get(key);
+            if (pending != null) {
+                // an event for the same resource is still waiting, just replace it
+                pending.m_event = event;
+                m_coalescedCount.incrementAndGet();
+                return null;
+            }
+        }
+        QueuedEvent queued = new QueuedEvent(event, key);
+        if (m_queue.offer(queued)) {
+            if (key != null) {
+                m_pending.put(key, queued);
+            }
+            return null;
+        }
+        if (!firedByWorker && (key != null)) {
+            // register the event before waiting, so the worker can not miss removing it 
+            m_pending.put(key, queued);
+        }
+        return queued;
+    }
+}
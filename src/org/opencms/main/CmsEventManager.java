@@ -30,8 +30,12 @@ package org.opencms.main;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.commons.logging.Log;
 
@@ -44,6 +48,10 @@ import org.apache.commons.logging.Log;
  * Events can be used in OpenCms to notify custom event listeners that certain system events have happened.
  * Event listeners have to implement the interface {@link org.opencms.main.I_CmsEventListener}.<p>
  * 
+ * The listener registry is copy-on-write, so firing an event never blocks and never copies the listener list.
+ * Listeners are called on the thread that fires the event, unless they have been registered with 
+ * {@link #addAsyncCmsEventListener(I_CmsEventListener, int[], int, long)}.<p>
+ * 
  * @since 7.0.0
  * 
  * @see org.opencms.main.CmsEvent
@@ -57,7 +65,7 @@ public class CmsEventManager {
     /** The static log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsEventManager.class);
 
-    /** Stores the active event listeners. */
+    /** Stores the active event listeners, the lists are copy-on-write and can be read without locking. */
     private Map<Integer, List<I_CmsEventListener>> m_eventListeners;
 
     /**
@@ -65,7 +73,34 @@ public class CmsEventManager {
      */
     public CmsEventManager() {
 
-        m_eventListeners = new HashMap<Integer, List<I_CmsEventListener>>();
+        m_eventListeners = new ConcurrentHashMap<Integer, List<I_CmsEventListener>>();
+    }
+
+    /**
+     * Add an OpenCms event listener that receives its events asynchronously.<p>
+     * 
+     * The events are delivered in order by a worker thread with its own bounded queue.
+     * Events of the same type for the same resource fired within the coalescing window are merged,
+     * the merged event takes the place of the first of them, so it can overtake other events.
+     * Only listeners that do not need to see the effects of an event before the firing 
+     * operation continues should be registered this way.<p>
+     * 
+     * @param listener the listener to add
+     * @param eventTypes the events to listen for, or <code>null</code> for all events
+     * @param queueSize the maximum number of queued events, if the queue is full the firing thread waits for space
+     * @param coalesceWindow the coalescing window in milliseconds, <code>0</code> disables coalescing
+     * 
+     * @return the asynchronous wrapper of the listener, which provides the delivery statistics
+     */
+    public CmsAsyncEventListener addAsyncCmsEventListener(
+        I_CmsEventListener listener,
+        int[] eventTypes,
+        int queueSize,
+        long coalesceWindow) {
+
+        CmsAsyncEventListener asyncListener = new CmsAsyncEventListener(listener, queueSize, coalesceWindow);
+        addCmsEventListener(asyncListener, eventTypes);
+        return asyncListener;
     }
 
     /**
@@ -96,7 +131,7 @@ public class CmsEventManager {
                 Integer eventType = new Integer(eventTypes[i]);
                 List<I_CmsEventListener> listeners = m_eventListeners.get(eventType);
                 if (listeners == null) {
-                    listeners = new ArrayList<I_CmsEventListener>();
+                    listeners = new CopyOnWriteArrayList<I_CmsEventListener>();
                     m_eventListeners.put(eventType, listeners);
                 }
                 if (!listeners.contains(listener)) {
@@ -139,20 +174,63 @@ public class CmsEventManager {
         fireEvent(new CmsEvent(type, data));
     }
 
+    /**
+     * Returns the asynchronous event listeners, which provide delivery statistics like latency and queue depth.<p>
+     * 
+     * @return the asynchronous event listeners
+     */
+    public List<CmsAsyncEventListener> getAsyncEventListeners() {
+
+        Set<CmsAsyncEventListener> result = new LinkedHashSet<CmsAsyncEventListener>();
+        for (List<I_CmsEventListener> listeners : m_eventListeners.values()) {
+            for (I_CmsEventListener listener : listeners) {
+                if (listener instanceof CmsAsyncEventListener) {
+                    result.add((CmsAsyncEventListener)listener);
+                }
+            }
+        }
+        return new ArrayList<CmsAsyncEventListener>(result);
+    }
+
     /**
      * Removes a cms event listener.<p>
+     * 
+     * If the listener was registered for asynchronous delivery, its worker thread is stopped.<p>
      *
      * @param listener the listener to remove
      */
     public void removeCmsEventListener(I_CmsEventListener listener) {
 
+        Set<CmsAsyncEventListener> removed = new LinkedHashSet<CmsAsyncEventListener>();
         synchronized (m_eventListeners) {
             Iterator<Integer> it = m_eventListeners.keySet().iterator();
             while (it.hasNext()) {
                 List<I_CmsEventListener> listeners = m_eventListeners.get(it.next());
+                for (I_CmsEventListener registered : listeners) {
+                    if (registered instanceof CmsAsyncEventListener) {
+                        CmsAsyncEventListener asyncListener = (CmsAsyncEventListener)registered;
+                        if ((asyncListener == listener) || (asyncListener.getListener() == listener)) {
+                            removed.add(asyncListener);
+                            listeners.remove(asyncListener);
+                        }
+                    }
+                }
                 listeners.remove(listener);
             }
         }
+        for (CmsAsyncEventListener asyncListener : removed) {
+            asyncListener.shutDown();
+        }
+    }
+
+    /**
+     * Stops the worker threads of all asynchronous event listeners after they have delivered their queued events.<p>
+     */
+    public void shutDown() {
+
+        for (CmsAsyncEventListener asyncListener : getAsyncEventListeners()) {
+            asyncListener.shutDown();
+        }
     }
 
     /**
@@ -172,7 +250,11 @@ public class CmsEventManager {
      */
     protected void initialize(CmsEventManager base) {
 
-        m_eventListeners = new HashMap<Integer, List<I_CmsEventListener>>(base.getEventListeners());
+        Map<Integer, List<I_CmsEventListener>> listeners = new ConcurrentHashMap<Integer, List<I_CmsEventListener>>();
+        for (Map.Entry<Integer, List<I_CmsEventListener>> entry : base.getEventListeners().entrySet()) {
+            listeners.put(entry.getKey(), new CopyOnWriteArrayList<I_CmsEventListener>(entry.getValue()));
+        }
+        m_eventListeners = listeners;
     }
 
     /**
@@ -185,13 +267,11 @@ public class CmsEventManager {
 
         if (!LOG.isDebugEnabled()) {
             // no logging required            
-            if ((listeners != null) && (listeners.size() > 0)) {
-                // handle all event listeners that listen to this event type
-                I_CmsEventListener[] list = listeners.toArray(EVENT_LIST);
-                // loop through all registered event listeners
-                for (int i = 0; i < list.length; i++) {
+            if (listeners != null) {
+                // loop through all registered event listeners, the iterator works on a snapshot of the list
+                for (I_CmsEventListener listener : listeners) {
                     // fire the event
-                    list[i].cmsEvent(event);
+                    listener.cmsEvent(event);
                 }
             }
         } else {
@@ -0,0 +1,303 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the initialization steps of the OpenCms managers in the order given by their dependencies.<p>
+ *
+ * A step may only depend on steps that have been added before it, so the order in which the steps
+ * are added is always a valid sequential order. If more than one thread is used, every step is started
+ * as soon as all steps it depends on are finished, so independent steps run in parallel.<p>
+ *
+ * The time used by each step is recorded and can be written to the initialization log.<p>
+ */
+public class CmsStartupStepGraph {
+
+    /**
+     * A single initialization step.<p>
+     */
+    private static class Step implements Callable<Step> {
+
+        /** The names of the steps this step depends on. */
+        private String[] m_dependencies;
+
+        /** The time in milliseconds this step needed. */
+        private volatile long m_duration;
+
+        /** The name of this step. */
+        private String m_name;
+
+        /** The start time of the graph, used to calculate the offset of this step. */
+        private long m_origin;
+
+        /** The time in milliseconds after the start of the graph when this step was started. */
+        private volatile long m_startOffset;
+
+        /** The initialization code of this step. */
+        private Callable<?> m_task;
+
+        /**
+         * Creates a new step.<p>
+         *
+         * @param name the name of the step
+         * @param task the initialization code
+         * @param dependencies the names of the steps this step depends on
+         */
+        Step(String name, Callable<?> task, String[] dependencies) {
+
+            m_name = name;
+            m_task = task;
+            m_dependencies = dependencies;
+        }
+
+        /**
+         * @see java.util.concurrent.Callable#call()
+         */
+        public Step call() throws Exception {
+
+            long start = System.currentTimeMillis();
+            m_startOffset = start - m_origin;
+            try {
+                m_task.call();
+            } finally {
+                m_duration = System.currentTimeMillis() - start;
+            }
+            return this;
+        }
+    }
+
+    /** The time in milliseconds the last run of this graph needed. */
+    private long m_duration;
+
+    /** The steps of this graph, in the order they were added. */
+    private Map<String, Step> m_steps = new LinkedHashMap<String, Step>();
+
+    /** The number of threads used in the last run of this graph. */
+    private int m_threads;
+
+    /**
+     * Adds a step to this graph.<p>
+     *
+     * @param name the name of the step
+     * @param task the initialization code of the step
+     * @param dependencies the names of the steps which must be finished before this step can be started
+     */
+    public void addStep(String name, Callable<?> task, String... dependencies) {
+
+        if (m_steps.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate startup step: " + name);
+        }
+        for (String dependency : dependencies) {
+            if (!m_steps.containsKey(dependency)) {
+                throw new IllegalArgumentException("Startup step "
+                    + name
+                    + " depends on the unknown step "
+                    + dependency
+                    + ", dependencies must be added first");
+            }
+        }
+        m_steps.put(name, new Step(name, task, dependencies));
+    }
+
+    /**
+     * Returns the time in milliseconds the given step needed in the last run.<p>
+     *
+     * @param name the name of the step
+     *
+     * @return the time in milliseconds the step needed
+     */
+    public long getDuration(String name) {
+
+        return m_steps.get(name).m_duration;
+    }
+
+    /**
+     * Returns the time in milliseconds after the start of the last run at which the given step was started.<p>
+     *
+     * @param name the name of the step
+     *
+     * @return the start offset of the step in milliseconds
+     */
+    public long getStartOffset(String name) {
+
+        return m_steps.get(name).m_startOffset;
+    }
+
+    /**
+     * Returns the names of all steps in the order they were added.<p>
+     *
+     * @return the names of all steps
+     */
+    public List<String> getStepNames() {
+
+        return Collections.unmodifiableList(new ArrayList<String>(m_steps.keySet()));
+    }
+
+    /**
+     * Writes the time used by each step of the last run to the initialization log.<p>
+     */
+    public void logTimings() {
+
+        if (CmsLog.INIT.isInfoEnabled()) {
+            for (Step step : m_steps.values()) {
+                CmsLog.INIT.info(Messages.get().getBundle().key(
+                    Messages.INIT_STARTUP_STEP_3,
+                    step.m_name,
+                    new Long(step.m_duration),
+                    new Long(step.m_startOffset)));
+            }
+            CmsLog.INIT.info(Messages.get().getBundle().key(
+                Messages.INIT_STARTUP_STEPS_3,
+                new Integer(m_steps.size()),
+                new Integer(m_threads),
+                new Long(m_duration)));
+        }
+    }
+
+    /**
+     * Runs all steps of this graph.<p>
+     *
+     * With a single thread, the steps are executed one after another in the order they were added,
+     * in the calling thread. Otherwise each step is started in a pool of the given size as soon as
+     * all of its dependencies have finished.<p>
+     *
+     * If a step fails, no further steps are started and the exception of the failed step is thrown.<p>
+     *
+     * @param threads the number of threads to use
+     *
+     * @throws Exception the exception thrown by the first failed step
+     */
+    public void run(int threads) throws Exception {
+
+        m_threads = Math.max(1, Math.min(threads, m_steps.size()));
+        long start = System.currentTimeMillis();
+        for (Step step : m_steps.values()) {
+            step.m_origin = start;
+            step.m_duration = 0;
+            step.m_startOffset = 0;
+        }
+        try {
+            if (m_threads == 1) {
+                for (Step step : m_steps.values()) {
+                    step.call();
+                }
+            } else {
+                runParallel();
+            }
+        } finally {
+            m_duration = System.currentTimeMillis() - start;
+        }
+    }
+
+    /**
+     * Runs the steps in a thread pool, starting each step when all its dependencies are finished.<p>
+     *
+     * @throws Exception the exception thrown by the first failed step
+     */
+    private void runParallel() throws Exception {
+
+        Map<String, Integer> pending = new HashMap<String, Integer>();
+        Map<String, List<Step>> dependents = new HashMap<String, List<Step>>();
+        for (Step step : m_steps.values()) {
+            pending.put(step.m_name, new Integer(step.m_dependencies.length));
+            for (String dependency : step.m_dependencies) {
+                List<Step> list = dependents.get(dependency);
+                if (list == null) {
+                    list = new ArrayList<Step>();
+                    dependents.put(dependency, list);
+                }
+                list.add(step);
+            }
+        }
+
+        final AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(m_threads, new ThreadFactory() {
+
+            public Thread newThread(Runnable r) {
+
+                Thread thread = new Thread(r, "OpenCms: Startup #" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            CompletionService<Step> completion = new ExecutorCompletionService<Step>(executor);
+            int running = 0;
+            for (Step step : m_steps.values()) {
+                if (step.m_dependencies.length == 0) {
+                    completion.submit(step);
+                    running++;
+                }
+            }
+            while (running > 0) {
+                Step finished;
+                try {
+                    finished = completion.take().get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Exception) {
+                        throw (Exception)cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error)cause;
+                    }
+                    throw e;
+                }
+                running--;
+                List<Step> waiting = dependents.get(finished.m_name);
+                if (waiting != null) {
+                    for (Step step : waiting) {
+                        int count = pending.get(step.m_name).intValue() - 1;
+                        pending.put(step.m_name, new Integer(count));
+                        if (count == 0) {
+                            completion.submit(step);
+                            running++;
+                        }
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
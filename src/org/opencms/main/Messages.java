@@ -330,9 +330,18 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_SHUTDOWN_TIME_1 = "INIT_SHUTDOWN_TIME_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_STARTUP_STEP_3 = "INIT_STARTUP_STEP_3";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_STARTUP_STEPS_3 = "INIT_STARTUP_STEPS_3";
+
     /** Message constant for key in the resource bundle. */
     public static final String INIT_STARTUP_TIME_1 = "INIT_STARTUP_TIME_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_STARTUP_WARMUP_2 = "INIT_STARTUP_WARMUP_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String INIT_SYSTEM_RUNNING_1 = "INIT_SYSTEM_RUNNING_1";
 
@@ -342,6 +351,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_WEBINF_PATH_1 = "INIT_WEBINF_PATH_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_ASYNC_EVENT_QUEUE_FULL_2 = "LOG_ASYNC_EVENT_QUEUE_FULL_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_CONSOLE_TOTAL_RUNTIME_1 = "LOG_CONSOLE_TOTAL_RUNTIME_1";
 
@@ -375,9 +387,15 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_ERROR_ADE_MANAGER_SHUTDOWN_1 = "LOG_ERROR_ADE_MANAGER_SHUTDOWN_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_ERROR_ASYNC_EVENT_2 = "LOG_ERROR_ASYNC_EVENT_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_ERROR_DERIGISTERING_JDBC_DRIVER_1 = "LOG_ERROR_DERIGISTERING_JDBC_DRIVER_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_ERROR_EVENT_MANAGER_SHUTDOWN_1 = "LOG_ERROR_EVENT_MANAGER_SHUTDOWN_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_ERROR_EXPORT_1 = "LOG_ERROR_EXPORT_1";
 
@@ -390,6 +408,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_ERROR_GWTSERVICE_SHUTDOWN_2 = "LOG_ERROR_GWTSERVICE_SHUTDOWN_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_ERROR_INIT_JSP_WARMUP_0 = "LOG_ERROR_INIT_JSP_WARMUP_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_ERROR_JSP_WARMUP_SHUTDOWN_1 = "LOG_ERROR_JSP_WARMUP_SHUTDOWN_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_ERROR_MEMORY_MONITOR_SHUTDOWN_1 = "LOG_ERROR_MEMORY_MONITOR_SHUTDOWN_1";
 
@@ -420,6 +444,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_ERROR_SITEMAP_MANAGER_SHUTDOWN_1 = "LOG_ERROR_SITEMAP_MANAGER_SHUTDOWN_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_ERROR_STARTUP_WARMUP_1 = "LOG_ERROR_STARTUP_WARMUP_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_ERROR_THREAD_SHUTDOWN_1 = "LOG_ERROR_THREAD_SHUTDOWN_1";
 
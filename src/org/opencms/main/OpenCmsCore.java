@@ -66,6 +66,8 @@ import org.opencms.i18n.CmsMessageContainer;
 import org.opencms.i18n.CmsVfsBundleManager;
 import org.opencms.importexport.CmsImportExportManager;
 import org.opencms.jsp.util.CmsErrorBean;
+import org.opencms.loader.CmsJspLoader;
+import org.opencms.loader.CmsJspWarmup;
 import org.opencms.loader.CmsResourceManager;
 import org.opencms.loader.CmsTemplateContextManager;
 import org.opencms.loader.I_CmsFlexCacheEnabledLoader;
@@ -76,6 +78,7 @@ import org.opencms.monitor.CmsMemoryMonitor;
 import org.opencms.monitor.CmsMemoryMonitorConfiguration;
 import org.opencms.publish.CmsPublishEngine;
 import org.opencms.publish.CmsPublishManager;
+import org.opencms.report.CmsLogReport;
 import org.opencms.repository.CmsRepositoryManager;
 import org.opencms.scheduler.CmsScheduleManager;
 import org.opencms.search.CmsSearchManager;
@@ -116,6 +119,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 
 import javax.servlet.ServletConfig;
@@ -156,12 +160,21 @@ import cryptix.jce.provider.CryptixCrypto;
  */
 public final class OpenCmsCore {
 
+    /** The default number of threads used to initialize the managers. */
+    private static final int DEFAULT_STARTUP_THREADS = 4;
+
     /** Lock object for synchronization. */
     private static final Object LOCK = new Object();
 
     /** The static log object for this class. */
     private static final Log LOG = CmsLog.getLog(OpenCmsCore.class);
 
+    /** Configuration parameter for the number of threads used to initialize the managers. */
+    private static final String PARAM_STARTUP_THREADS = "startup.threads";
+
+    /** Configuration parameter to enable or disable the background warm-up of caches after the startup. */
+    private static final String PARAM_STARTUP_WARMUP = "startup.warmup";
+
     /** Indicates if the configuration was successfully finished or not. */
     private static CmsMessageContainer m_errorCondition;
 
@@ -204,6 +217,9 @@ public final class OpenCmsCore {
     /** The site manager contains information about the Cms import/export. */
     private CmsImportExportManager m_importExportManager;
 
+    /** The warm-up of the published JSPs, <code>null</code> if the JSP warm-up is disabled. */
+    private CmsJspWarmup m_jspWarmup;
+
     /** The link manager to resolve links in &lt;cms:link&gt; tags. */
     private CmsLinkManager m_linkManager;
 
@@ -267,6 +283,9 @@ public final class OpenCmsCore {
     /** The site manager contains information about all configured sites. */
     private CmsSiteManagerImpl m_siteManager;
 
+    /** Indicates if caches should be warmed up in the background once the servlet is available. */
+    private boolean m_startupWarmup;
+
     /** The static export manager. */
     private CmsStaticExportManager m_staticExportManager;
 
@@ -1325,67 +1344,17 @@ public final class OpenCmsCore {
         }
 
         m_repositoryManager.initializeCms(adminCms);
-        // now initialize the other managers
+        m_startupWarmup = configuration.getBoolean(PARAM_STARTUP_WARMUP, true);
+        // now initialize the other managers, independent managers are initialized in parallel
+        CmsStartupStepGraph startup = createStartupSteps(adminCms, systemConfiguration, sessionStorageProvider);
         try {
-            // initialize the scheduler
-            m_scheduleManager.initialize(initCmsObject(adminCms));
-
-            // initialize the locale manager
-            m_localeManager = systemConfiguration.getLocaleManager();
-            m_localeManager.initialize(initCmsObject(adminCms));
-
-            // initialize the site manager
-            m_siteManager.initialize(initCmsObject(adminCms));
-
-            // initialize the static export manager
-            m_staticExportManager.initialize(initCmsObject(adminCms));
-
-            // initialize the XML content type manager
-            m_xmlContentTypeManager.initialize(initCmsObject(adminCms));
-
-            // initialize the module manager
-            m_moduleManager.initialize(initCmsObject(adminCms), m_configurationManager);
-
-            // initialize the resource manager
-            m_resourceManager.initialize(initCmsObject(adminCms));
-
-            // initialize the publish manager
-            m_publishManager.setPublishEngine(m_publishEngine);
-            m_publishManager.setSecurityManager(m_securityManager);
-            m_publishManager.setPublishListRemoveMode(systemConfiguration.getPublishListRemoveMode());
-            m_publishManager.initialize(initCmsObject(adminCms));
-
-            // initialize the search manager
-            m_searchManager.initialize(initCmsObject(adminCms));
-
-            CmsVfsBundleManager vfsBundleManager = new CmsVfsBundleManager(adminCms);
-            vfsBundleManager.reload(true);
-
-            // initialize the workplace manager
-            m_workplaceManager.initialize(initCmsObject(adminCms));
-
-            // initialize the session manager
-            m_sessionManager.initialize(sessionStorageProvider);
-            m_sessionManager.setUserSessionMode(systemConfiguration.getUserSessionMode(true));
-
-            // initialize the subscription manager
-            m_subscriptionManager.setSecurityManager(m_securityManager);
-            m_subscriptionManager.initialize(adminCms);
-
-            // initialize ade manager
-            // initialize the formatter configuration
-            CmsFormatterConfiguration.initialize(adminCms);
-            //m_adeManager = new CmsADEManager(initCmsObject(adminCms), m_memoryMonitor, systemConfiguration);
-            m_adeManager = new CmsADEManager(adminCms, m_memoryMonitor, systemConfiguration);
-            m_templateContextManager = new CmsTemplateContextManager(adminCms);
-            m_workflowManager = systemConfiguration.getWorkflowManager();
-            if (m_workflowManager == null) {
-                m_workflowManager = new CmsDefaultWorkflowManager();
-                m_workflowManager.setParameters(new HashMap<String, String>());
-            }
-            m_workflowManager.initialize(adminCms);
-        } catch (CmsException e) {
+            startup.run(configuration.getInteger(PARAM_STARTUP_THREADS, DEFAULT_STARTUP_THREADS));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
             throw new CmsInitException(Messages.get().container(Messages.ERR_CRITICAL_INIT_MANAGERS_0), e);
+        } finally {
+            startup.logTimings();
         }
 
         try {
@@ -1757,6 +1726,15 @@ public final class OpenCmsCore {
                         Messages.get().getBundle().key(Messages.LOG_ERROR_PUBLISH_SHUTDOWN_1, e.getMessage()),
                         e);
                 }
+                try {
+                    if (m_jspWarmup != null) {
+                        m_jspWarmup.shutDown();
+                    }
+                } catch (Throwable e) {
+                    CmsLog.INIT.error(
+                        Messages.get().getBundle().key(Messages.LOG_ERROR_JSP_WARMUP_SHUTDOWN_1, e.getMessage()),
+                        e);
+                }
                 try {
                     // search manager must be shut down early since there may be background indexing still ongoing
                     if (m_searchManager != null) {
@@ -1785,6 +1763,16 @@ public final class OpenCmsCore {
                         Messages.get().getBundle().key(Messages.LOG_ERROR_MODULE_SHUTDOWN_1, e.getMessage()),
                         e);
                 }
+                try {
+                    // deliver the events still queued for asynchronous listeners
+                    if (m_eventManager != null) {
+                        m_eventManager.shutDown();
+                    }
+                } catch (Throwable e) {
+                    CmsLog.INIT.error(
+                        Messages.get().getBundle().key(Messages.LOG_ERROR_EVENT_MANAGER_SHUTDOWN_1, e.getMessage()),
+                        e);
+                }
 
                 try {
                     if (m_executor != null) {
@@ -1996,6 +1984,10 @@ public final class OpenCmsCore {
             setRunLevel(OpenCms.RUNLEVEL_4_SERVLET_ACCESS);
 
             afterUpgradeRunlevel();
+            m_instance.initJspWarmup(context);
+            if (m_instance.m_startupWarmup) {
+                m_instance.startBackgroundWarmup(context);
+            }
 
             return m_instance;
         }
@@ -2083,6 +2075,178 @@ public final class OpenCmsCore {
         return errorBean.toHtml();
     }
 
+    /**
+     * Creates the graph of initialization steps for the OpenCms managers.<p>
+     *
+     * Each step only declares the steps it really depends on, so independent managers can be initialized
+     * in parallel. The steps which share the Admin context instead of using a copy of it are chained.<p>
+     *
+     * @param adminCms the Admin CMS context
+     * @param systemConfiguration the system configuration
+     * @param sessionStorageProvider the session storage provider
+     *
+     * @return the graph of initialization steps
+     */
+    private CmsStartupStepGraph createStartupSteps(
+        final CmsObject adminCms,
+        final CmsSystemConfiguration systemConfiguration,
+        final I_CmsSessionStorageProvider sessionStorageProvider) {
+
+        CmsStartupStepGraph startup = new CmsStartupStepGraph();
+        startup.addStep("scheduler", new Callable<Void>() {
+
+            public Void call() throws CmsException {
+
+                m_scheduleManager.initialize(initCmsObject(adminCms));
+                return null;
+            }
+        });
+
+        startup.addStep("locales", new Callable<Void>() {
+
+            public Void call() throws CmsException {
+
+                m_localeManager = systemConfiguration.getLocaleManager();
+                m_localeManager.initialize(initCmsObject(adminCms));
+                return null;
+            }
+        });
+
+        startup.addStep("sites", new Callable<Void>() {
+
+            public Void call() throws CmsException {
+
+                m_siteManager.initialize(initCmsObject(adminCms));
+                return null;
+            }
+        }, "locales");
+
+        startup.addStep("static export", new Callable<Void>() {
+
+            public Void call() throws CmsException {
+
+                m_staticExportManager.initialize(initCmsObject(adminCms));
+                return null;
+            }
+        }, "sites");
+
+        startup.addStep("XML content types", new Callable<Void>() {
+
+            public Void call() throws CmsException {
+
+                m_xmlContentTypeManager.initialize(initCmsObject(adminCms));
+                return null;
+            }
+        }, "locales");
+
+        startup.addStep("modules", new Callable<Void>() {
+
+            public Void call() throws CmsException {
+
+                // module action classes may access any of the managers initialized before
+                m_moduleManager.initialize(initCmsObject(adminCms), m_configurationManager);
+                return null;
+            }
+        }, "scheduler", "static export", "XML content types");
+
+        startup.addStep("resources", new Callable<Void>() {
+
+            public Void call() throws CmsException {
+
+                m_resourceManager.initialize(initCmsObject(adminCms));
+                return null;
+            }
+        }, "modules");
+
+        startup.addStep("publish", new Callable<Void>() {
+
+            public Void call() throws CmsException {
+
+                m_publishManager.setPublishEngine(m_publishEngine);
+                m_publishManager.setSecurityManager(m_securityManager);
+                m_publishManager.setPublishListRemoveMode(systemConfiguration.getPublishListRemoveMode());
+                m_publishManager.initialize(initCmsObject(adminCms));
+                return null;
+            }
+        }, "resources");
+
+        startup.addStep("search", new Callable<Void>() {
+
+            public Void call() throws CmsException {
+
+                m_searchManager.initialize(initCmsObject(adminCms));
+                return null;
+            }
+        }, "resources");
+
+        startup.addStep("VFS bundles", new Callable<Void>() {
+
+            public Void call() throws CmsException {
+
+                // runs in parallel with the ADE steps, which use the shared admin context 
+                CmsVfsBundleManager vfsBundleManager = new CmsVfsBundleManager(initCmsObject(adminCms));
+                vfsBundleManager.reload(true);
+                return null;
+            }
+        }, "resources");
+
+        startup.addStep("workplace", new Callable<Void>() {
+
+            public Void call() throws CmsException {
+
+                m_workplaceManager.initialize(initCmsObject(adminCms));
+                return null;
+            }
+        }, "resources");
+
+        startup.addStep("sessions", new Callable<Void>() {
+
+            public Void call() throws CmsException {
+
+                m_sessionManager.initialize(sessionStorageProvider);
+                m_sessionManager.setUserSessionMode(systemConfiguration.getUserSessionMode(true));
+                return null;
+            }
+        });
+
+        startup.addStep("ADE", new Callable<Void>() {
+
+            public Void call() throws CmsException {
+
+                // the ADE configuration itself is read lazily or by the background warm-up
+                CmsFormatterConfiguration.initialize(adminCms);
+                m_adeManager = new CmsADEManager(adminCms, m_memoryMonitor, systemConfiguration);
+                m_templateContextManager = new CmsTemplateContextManager(adminCms);
+                return null;
+            }
+        }, "resources");
+
+        startup.addStep("subscriptions", new Callable<Void>() {
+
+            public Void call() throws CmsException {
+
+                m_subscriptionManager.setSecurityManager(m_securityManager);
+                m_subscriptionManager.initialize(adminCms);
+                return null;
+            }
+        }, "ADE");
+
+        startup.addStep("workflow", new Callable<Void>() {
+
+            public Void call() throws CmsException {
+
+                m_workflowManager = systemConfiguration.getWorkflowManager();
+                if (m_workflowManager == null) {
+                    m_workflowManager = new CmsDefaultWorkflowManager();
+                    m_workflowManager.setParameters(new HashMap<String, String>());
+                }
+                m_workflowManager.initialize(adminCms);
+                return null;
+            }
+        }, "publish", "subscriptions");
+        return startup;
+    }
+
     /**
      * This method performs the error handling for OpenCms.<p>
      *
@@ -2678,6 +2842,28 @@ public final class OpenCmsCore {
         return cms;
     }
 
+    /**
+     * Initializes the warm-up of the published JSPs if the JSP loader has warm-up threads configured.<p>
+     *
+     * This is independent of the startup warm-up, which only decides if all JSPs are warmed up at startup.<p>
+     *
+     * @param context the servlet context used to compile the JSPs
+     */
+    private void initJspWarmup(ServletContext context) {
+
+        I_CmsResourceLoader loader = m_resourceManager.getLoader(CmsJspLoader.RESOURCE_LOADER_ID);
+        if (!(loader instanceof CmsJspLoader) || (((CmsJspLoader)loader).getJspWarmupThreads() <= 0)) {
+            return;
+        }
+        CmsJspLoader jspLoader = (CmsJspLoader)loader;
+        try {
+            CmsObject cms = initCmsObject(null, null, getDefaultUsers().getUserAdmin(), (String)null, (String)null);
+            m_jspWarmup = new CmsJspWarmup(jspLoader, cms, context, jspLoader.getJspWarmupThreads());
+        } catch (CmsException e) {
+            LOG.error(Messages.get().getBundle().key(Messages.LOG_ERROR_INIT_JSP_WARMUP_0), e);
+        }
+    }
+
     /**
      * Sets the init level of this OpenCmsCore object instance.<p>
      *
@@ -2702,4 +2888,55 @@ public final class OpenCmsCore {
         }
     }
 
+    /**
+     * Warms up expensive caches in a background thread, so that the first requests do not have to wait for them.<p>
+     *
+     * First the ADE configuration is read, then the JSPs of the installed modules are written to the
+     * real file system and compiled.<p>
+     *
+     * @param context the servlet context used to compile the JSPs
+     */
+    private void startBackgroundWarmup(final ServletContext context) {
+
+        Thread thread = new Thread("OpenCms: Background warm-up") {
+
+            @Override
+            public void run() {
+
+                long start = System.currentTimeMillis();
+                try {
+                    // reads the sitemap, formatter and detail name configurations
+                    m_adeManager.initialize();
+                    if (CmsLog.INIT.isInfoEnabled()) {
+                        CmsLog.INIT.info(Messages.get().getBundle().key(
+                            Messages.INIT_STARTUP_WARMUP_2,
+                            "ADE",
+                            new Long(System.currentTimeMillis() - start)));
+                    }
+                } catch (Throwable t) {
+                    LOG.error(Messages.get().getBundle().key(Messages.LOG_ERROR_STARTUP_WARMUP_1, "ADE"), t);
+                }
+                start = System.currentTimeMillis();
+                try {
+                    if (m_jspWarmup != null) {
+                        m_jspWarmup.warmup(
+                            m_jspWarmup.readJsps(),
+                            new CmsLogReport(CmsLocaleManager.getDefaultLocale(), CmsJspWarmup.class));
+                        if (CmsLog.INIT.isInfoEnabled()) {
+                            CmsLog.INIT.info(Messages.get().getBundle().key(
+                                Messages.INIT_STARTUP_WARMUP_2,
+                                "JSPs",
+                                new Long(System.currentTimeMillis() - start)));
+                        }
+                    }
+                } catch (Throwable t) {
+                    LOG.error(Messages.get().getBundle().key(Messages.LOG_ERROR_STARTUP_WARMUP_1, "JSPs"), t);
+                }
+            }
+        };
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
 }
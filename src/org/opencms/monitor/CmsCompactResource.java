@@ -0,0 +1,305 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import org.opencms.db.CmsResourceState;
+import org.opencms.file.CmsFolder;
+import org.opencms.file.CmsResource;
+import org.opencms.util.CmsUUID;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Compact representation of a {@link CmsResource} for the resource cache of the memory monitor.<p>
+ *
+ * All ids, dates and numeric attributes are packed into a single <code>long</code> array, and the parent
+ * folder path is shared between all compact resources in the same folder. A new {@link CmsResource}
+ * (or {@link CmsFolder}) instance is created every time the resource is read from the cache.<p>
+ *
+ * Only plain resources and folders can be packed, see {@link #pack(CmsResource)}.<p>
+ *
+ * @since 9.0.0
+ */
+public final class CmsCompactResource implements I_CmsMemoryMonitorable {
+
+    /** Bit in the flags slot marking a folder. */
+    private static final long BIT_FOLDER = 1L;
+
+    /** Bit in the flags slot marking a resource which was created as {@link CmsFolder}. */
+    private static final long BIT_FOLDER_CLASS = 2L;
+
+    /** Index of the content date. */
+    private static final int IDX_DATE_CONTENT = 14;
+
+    /** Index of the creation date. */
+    private static final int IDX_DATE_CREATED = 10;
+
+    /** Index of the expiration date. */
+    private static final int IDX_DATE_EXPIRED = 13;
+
+    /** Index of the last modification date. */
+    private static final int IDX_DATE_LAST_MODIFIED = 11;
+
+    /** Index of the release date. */
+    private static final int IDX_DATE_RELEASED = 12;
+
+    /** Index of the resource length and the sibling count. */
+    private static final int IDX_LENGTH_SIBLINGS = 16;
+
+    /** Index of the project id. */
+    private static final int IDX_PROJECT = 4;
+
+    /** Index of the resource id. */
+    private static final int IDX_RESOURCE_ID = 2;
+
+    /** Index of the version, the state and the folder bits. */
+    private static final int IDX_STATE = 17;
+
+    /** Index of the structure id. */
+    private static final int IDX_STRUCTURE_ID = 0;
+
+    /** Index of the type id and the flags. */
+    private static final int IDX_TYPE_FLAGS = 15;
+
+    /** Index of the id of the user who created the resource. */
+    private static final int IDX_USER_CREATED = 6;
+
+    /** Index of the id of the user who last modified the resource. */
+    private static final int IDX_USER_LAST_MODIFIED = 8;
+
+    /** Shares the parent folder paths of the compact resources. */
+    private static final Interner<String> PARENT_PATHS = Interners.newWeakInterner();
+
+    /** The number of slots in the data array. */
+    private static final int SIZE = 18;
+
+    /** The packed ids, dates and attributes. */
+    private final long[] m_data;
+
+    /** The name of the resource, including a trailing slash for folders. */
+    private final String m_name;
+
+    /** The shared root path of the parent folder. */
+    private final String m_parentPath;
+
+    /**
+     * Creates a new compact resource.<p>
+     *
+     * @param data the packed ids, dates and attributes
+     * @param parentPath the root path of the parent folder
+     * @param name the name of the resource
+     */
+    private CmsCompactResource(long[] data, String parentPath, String name) {
+
+        m_data = data;
+        m_parentPath = parentPath;
+        m_name = name;
+    }
+
+    /**
+     * Packs the given resource.<p>
+     *
+     * Returns <code>null</code> if the resource can't be packed without losing information, that is if it is
+     * an instance of a subclass other than {@link CmsFolder} (like a {@link org.opencms.file.CmsFile} with
+     * content), if it has been touched, or if one of its ids is <code>null</code>.<p>
+     *
+     * @param resource the resource to pack
+     *
+     * @return the compact resource, or <code>null</code>
+     */
+    public static CmsCompactResource pack(CmsResource resource) {
+
+        Class<?> resourceClass = resource.getClass();
+        boolean isFolderClass = resourceClass == CmsFolder.class;
+        if ((!isFolderClass && (resourceClass != CmsResource.class)) || resource.isTouched()) {
+            return null;
+        }
+        long[] data = new long[SIZE];
+        if (!packId(data, IDX_STRUCTURE_ID, resource.getStructureId())
+            || !packId(data, IDX_RESOURCE_ID, resource.getResourceId())
+            || !packId(data, IDX_PROJECT, resource.getProjectLastModified())
+            || !packId(data, IDX_USER_CREATED, resource.getUserCreated())
+            || !packId(data, IDX_USER_LAST_MODIFIED, resource.getUserLastModified())
+            || (resource.getState() == null)
+            || (resource.getRootPath() == null)) {
+            return null;
+        }
+        data[IDX_DATE_CREATED] = resource.getDateCreated();
+        data[IDX_DATE_LAST_MODIFIED] = resource.getDateLastModified();
+        data[IDX_DATE_RELEASED] = resource.getDateReleased();
+        data[IDX_DATE_EXPIRED] = resource.getDateExpired();
+        data[IDX_DATE_CONTENT] = resource.getDateContent();
+        data[IDX_TYPE_FLAGS] = pair(resource.getTypeId(), resource.getFlags());
+        data[IDX_LENGTH_SIBLINGS] = pair(resource.getLength(), resource.getSiblingCount());
+        long bits = (resource.isFolder() ? BIT_FOLDER : 0) | (isFolderClass ? BIT_FOLDER_CLASS : 0);
+        data[IDX_STATE] = pair(resource.getVersion(), (resource.getState().getState() << 2) | (int)bits);
+
+        String rootPath = resource.getRootPath();
+        // the name of a folder ends with a slash, so look for the last slash before that one
+        int separator = rootPath.lastIndexOf('/', rootPath.length() - 2);
+        String parentPath = PARENT_PATHS.intern(rootPath.substring(0, separator + 1));
+        return new CmsCompactResource(data, parentPath, rootPath.substring(separator + 1));
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsMemoryMonitorable#getMemorySize()
+     */
+    public int getMemorySize() {
+
+        // object header and fields, the long array, and the name (the parent path is shared)
+        return 24 + 16 + (SIZE * 8) + CmsMemoryMonitor.getMemorySize(m_name);
+    }
+
+    /**
+     * Returns the root path of the packed resource.<p>
+     *
+     * @return the root path of the packed resource
+     */
+    public String getRootPath() {
+
+        return m_parentPath.concat(m_name);
+    }
+
+    /**
+     * Creates a new resource instance from the packed data.<p>
+     *
+     * @return the resource
+     */
+    public CmsResource toResource() {
+
+        long[] data = m_data;
+        long stateSlot = data[IDX_STATE];
+        int bits = low(stateSlot);
+        CmsResourceState state = CmsResourceState.valueOf(bits >>> 2);
+        if ((bits & BIT_FOLDER_CLASS) != 0) {
+            return new CmsFolder(
+                unpackId(IDX_STRUCTURE_ID),
+                unpackId(IDX_RESOURCE_ID),
+                getRootPath(),
+                high(data[IDX_TYPE_FLAGS]),
+                low(data[IDX_TYPE_FLAGS]),
+                unpackId(IDX_PROJECT),
+                state,
+                data[IDX_DATE_CREATED],
+                unpackId(IDX_USER_CREATED),
+                data[IDX_DATE_LAST_MODIFIED],
+                unpackId(IDX_USER_LAST_MODIFIED),
+                data[IDX_DATE_RELEASED],
+                data[IDX_DATE_EXPIRED],
+                high(stateSlot));
+        }
+        return new CmsResource(
+            unpackId(IDX_STRUCTURE_ID),
+            unpackId(IDX_RESOURCE_ID),
+            getRootPath(),
+            high(data[IDX_TYPE_FLAGS]),
+            (bits & BIT_FOLDER) != 0,
+            low(data[IDX_TYPE_FLAGS]),
+            unpackId(IDX_PROJECT),
+            state,
+            data[IDX_DATE_CREATED],
+            unpackId(IDX_USER_CREATED),
+            data[IDX_DATE_LAST_MODIFIED],
+            unpackId(IDX_USER_LAST_MODIFIED),
+            data[IDX_DATE_RELEASED],
+            data[IDX_DATE_EXPIRED],
+            low(data[IDX_LENGTH_SIBLINGS]),
+            high(data[IDX_LENGTH_SIBLINGS]),
+            data[IDX_DATE_CONTENT],
+            high(stateSlot));
+    }
+
+    /**
+     * Returns the high 32 bits of a slot.<p>
+     *
+     * @param value the slot value
+     *
+     * @return the high 32 bits
+     */
+    private static int high(long value) {
+
+        return (int)(value >>> 32);
+    }
+
+    /**
+     * Returns the low 32 bits of a slot.<p>
+     *
+     * @param value the slot value
+     *
+     * @return the low 32 bits
+     */
+    private static int low(long value) {
+
+        return (int)value;
+    }
+
+    /**
+     * Packs a UUID into two slots.<p>
+     *
+     * @param data the data array
+     * @param index the index of the first slot
+     * @param id the id to pack
+     *
+     * @return <code>false</code> if the id is <code>null</code>
+     */
+    private static boolean packId(long[] data, int index, CmsUUID id) {
+
+        if (id == null) {
+            return false;
+        }
+        data[index] = id.getMostSignificantBits();
+        data[index + 1] = id.getLeastSignificantBits();
+        return true;
+    }
+
+    /**
+     * Packs two ints into one slot.<p>
+     *
+     * @param high the value for the high 32 bits
+     * @param low the value for the low 32 bits
+     *
+     * @return the slot value
+     */
+    private static long pair(int high, int low) {
+
+        return ((long)high << 32) | (low & 0xffffffffL);
+    }
+
+    /**
+     * Unpacks the UUID stored in two slots.<p>
+     *
+     * @param index the index of the first slot
+     *
+     * @return the UUID
+     */
+    private CmsUUID unpackId(int index) {
+
+        return new CmsUUID(m_data[index], m_data[index + 1]);
+    }
+}
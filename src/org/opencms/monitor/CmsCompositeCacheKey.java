@@ -0,0 +1,157 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import java.util.Arrays;
+
+/**
+ * Immutable composite key for the caches of the memory monitor.<p>
+ *
+ * A key consists of an optional type, a set of flag bits and a list of key parts, which are usually
+ * strings or ids that already exist when the key is built. Unlike a concatenated String key, no character
+ * data is copied, and the hash code is calculated only once when the key is created.<p>
+ *
+ * Two keys are equal if their types, flags and parts are equal.<p>
+ *
+ * @since 9.0.0
+ */
+public final class CmsCompositeCacheKey implements I_CmsMemoryMonitorable {
+
+    /** Key used for lookups which must never find a cached value, e.g. in a temporary project context. */
+    public static final CmsCompositeCacheKey NONE = new CmsCompositeCacheKey(null, 0);
+
+    /** Flag bit set if the key has been created for the Online project. */
+    public static final int ONLINE = 1;
+
+    /** The flag bits. */
+    private final int m_flags;
+
+    /** The precalculated hash code. */
+    private final int m_hashCode;
+
+    /** The key parts. */
+    private final Object[] m_parts;
+
+    /** The type of the key. */
+    private final String m_type;
+
+    /**
+     * Creates a new composite cache key.<p>
+     *
+     * The parts are used as they are, so the caller must not modify the array afterwards.<p>
+     *
+     * @param type the type of the key, used to distinguish keys with the same parts, may be <code>null</code>
+     * @param flags the flag bits of the key
+     * @param parts the key parts, single parts may be <code>null</code>
+     */
+    public CmsCompositeCacheKey(String type, int flags, Object... parts) {
+
+        m_type = type;
+        m_flags = flags;
+        m_parts = parts;
+        int hash = (type == null) ? 0 : type.hashCode();
+        hash = (31 * hash) + flags;
+        m_hashCode = (31 * hash) + Arrays.hashCode(parts);
+    }
+
+    /**
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof CmsCompositeCacheKey)) {
+            return false;
+        }
+        CmsCompositeCacheKey other = (CmsCompositeCacheKey)obj;
+        return (m_hashCode == other.m_hashCode)
+            && (m_flags == other.m_flags)
+            && ((m_type == null) ? (other.m_type == null) : m_type.equals(other.m_type))
+            && Arrays.equals(m_parts, other.m_parts);
+    }
+
+    /**
+     * Returns the flag bits of this key.<p>
+     *
+     * @return the flag bits of this key
+     */
+    public int getFlags() {
+
+        return m_flags;
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsMemoryMonitorable#getMemorySize()
+     */
+    public int getMemorySize() {
+
+        // the parts themselves are shared with the cached objects, so only count the key and the array
+        return 40 + (4 * m_parts.length);
+    }
+
+    /**
+     * Returns the type of this key.<p>
+     *
+     * @return the type of this key, may be <code>null</code>
+     */
+    public String getType() {
+
+        return m_type;
+    }
+
+    /**
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+
+        return m_hashCode;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        StringBuffer result = new StringBuffer(64);
+        if (m_type != null) {
+            result.append(m_type);
+            result.append('_');
+        }
+        result.append(Integer.toHexString(m_flags));
+        for (int i = 0; i < m_parts.length; i++) {
+            result.append('_');
+            result.append(m_parts[i]);
+        }
+        return result.toString();
+    }
+}
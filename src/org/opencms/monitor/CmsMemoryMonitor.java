@@ -70,6 +70,7 @@ import org.opencms.util.CmsUUID;
 import org.opencms.util.PrintfFormat;
 import org.opencms.xml.CmsXmlContentDefinition;
 import org.opencms.xml.CmsXmlEntityResolver;
+import org.opencms.xml.CmsXmlSchemaRegistry;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -164,10 +165,10 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     private static final int MAX_DEPTH = 5;
 
     /** Cache for access control lists. */
-    private Map<String, CmsAccessControlList> m_cacheAccessControlList;
+    private Map<Object, CmsAccessControlList> m_cacheAccessControlList;
 
-    /** A temporary cache for XML content definitions. */
-    private Map<String, CmsXmlContentDefinition> m_cacheContentDefinitions;
+    /** Cache for resources in compact form, only used if configured instead of the resource cache. */
+    private Map<Object, CmsCompactResource> m_cacheCompactResource;
 
     /** Cache for groups. */
     private Map<String, CmsGroup> m_cacheGroup;
@@ -188,7 +189,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     private Map<String, CmsOrganizationalUnit> m_cacheOrgUnit;
 
     /** Cache for permission checks. */
-    private Map<String, I_CmsPermissionHandler.CmsPermissionCheckResult> m_cachePermission;
+    private Map<Object, I_CmsPermissionHandler.CmsPermissionCheckResult> m_cachePermission;
 
     /** Cache for offline projects. */
     private Map<String, CmsProject> m_cacheProject;
@@ -197,19 +198,19 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     private Map<String, List<CmsResource>> m_cacheProjectResources;
 
     /** Cache for properties. */
-    private Map<String, CmsProperty> m_cacheProperty;
+    private Map<Object, CmsProperty> m_cacheProperty;
 
     /** Cache for property lists. */
-    private Map<String, List<CmsProperty>> m_cachePropertyList;
+    private Map<Object, List<CmsProperty>> m_cachePropertyList;
 
     /** Cache for published resources. */
     private Map<String, List<CmsPublishedResource>> m_cachePublishedResources;
 
     /** Cache for resources. */
-    private Map<String, CmsResource> m_cacheResource;
+    private Map<Object, CmsResource> m_cacheResource;
 
     /** Cache for resource lists. */
-    private Map<String, List<CmsResource>> m_cacheResourceList;
+    private Map<Object, List<CmsResource>> m_cacheResourceList;
 
     /** Cache for role lists. */
     private Map<String, List<CmsRole>> m_cacheRoleLists;
@@ -528,7 +529,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      * @param key the cache key
      * @param acl the acl to cache
      */
-    public void cacheACL(String key, CmsAccessControlList acl) {
+    public void cacheACL(Object key, CmsAccessControlList acl) {
 
         if (m_disabled.get(CacheType.ACL) != null) {
             return;
@@ -536,6 +537,21 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_cacheAccessControlList.put(key, acl);
     }
 
+    /**
+     * Caches the given acl under the given cache key.<p>
+     * 
+     * Kept for compatibility, String keys are cached like any other key object.<p>
+     * 
+     * @param key the cache key
+     * @param acl the acl to cache
+     * 
+     * @see #cacheACL(Object, CmsAccessControlList)
+     */
+    public void cacheACL(String key, CmsAccessControlList acl) {
+
+        cacheACL((Object)key, acl);
+    }
+
     /**
      * Caches the given content definition under the given cache key.<p>
      * 
@@ -547,7 +563,8 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         if (m_disabled.get(CacheType.CONTENT_DEFINITION) != null) {
             return;
         }
-        m_cacheContentDefinitions.put(key, contentDefinition);
+        CmsXmlSchemaRegistry registry = CmsXmlEntityResolver.getSchemaRegistry();
+        registry.cacheDefinition(key, contentDefinition, Collections.<String> emptySet(), registry.getVersion());
     }
 
     /**
@@ -630,7 +647,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      * @param key the cache key
      * @param permission the permission check result to cache
      */
-    public void cachePermission(String key, I_CmsPermissionHandler.CmsPermissionCheckResult permission) {
+    public void cachePermission(Object key, I_CmsPermissionHandler.CmsPermissionCheckResult permission) {
 
         if (m_disabled.get(CacheType.PERMISSION) != null) {
             return;
@@ -638,6 +655,21 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_cachePermission.put(key, permission);
     }
 
+    /**
+     * Caches the given permission check result under the given cache key.<p>
+     * 
+     * Kept for compatibility, String keys are cached like any other key object.<p>
+     * 
+     * @param key the cache key
+     * @param permission the permission check result to cache
+     * 
+     * @see #cachePermission(Object, I_CmsPermissionHandler.CmsPermissionCheckResult)
+     */
+    public void cachePermission(String key, I_CmsPermissionHandler.CmsPermissionCheckResult permission) {
+
+        cachePermission((Object)key, permission);
+    }
+
     /**
      * Caches the given project under its id AND the fully qualified name.<p>
      * 
@@ -672,7 +704,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      * @param key the cache key
      * @param property the property to cache
      */
-    public void cacheProperty(String key, CmsProperty property) {
+    public void cacheProperty(Object key, CmsProperty property) {
 
         if (m_disabled.get(CacheType.PROPERTY) != null) {
             return;
@@ -680,13 +712,28 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_cacheProperty.put(key, property);
     }
 
+    /**
+     * Caches the given property under the given cache key.<p>
+     * 
+     * Kept for compatibility, String keys are cached like any other key object.<p>
+     * 
+     * @param key the cache key
+     * @param property the property to cache
+     * 
+     * @see #cacheProperty(Object, CmsProperty)
+     */
+    public void cacheProperty(String key, CmsProperty property) {
+
+        cacheProperty((Object)key, property);
+    }
+
     /**
      * Caches the given property list under the given cache key.<p>
      * 
      * @param key the cache key
      * @param propertyList the property list to cache
      */
-    public void cachePropertyList(String key, List<CmsProperty> propertyList) {
+    public void cachePropertyList(Object key, List<CmsProperty> propertyList) {
 
         if (m_disabled.get(CacheType.PROPERTY_LIST) != null) {
             return;
@@ -694,6 +741,21 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_cachePropertyList.put(key, propertyList);
     }
 
+    /**
+     * Caches the given property list under the given cache key.<p>
+     * 
+     * Kept for compatibility, String keys are cached like any other key object.<p>
+     * 
+     * @param key the cache key
+     * @param propertyList the property list to cache
+     * 
+     * @see #cachePropertyList(Object, List)
+     */
+    public void cachePropertyList(String key, List<CmsProperty> propertyList) {
+
+        cachePropertyList((Object)key, propertyList);
+    }
+
     /**
      * Caches the given published resources list under the given cache key.<p>
      * 
@@ -742,21 +804,46 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      * @param key the cache key
      * @param resource the resource to cache
      */
-    public void cacheResource(String key, CmsResource resource) {
+    public void cacheResource(Object key, CmsResource resource) {
 
         if (m_disabled.get(CacheType.RESOURCE) != null) {
             return;
         }
+        if (m_cacheCompactResource != null) {
+            CmsCompactResource compactResource = CmsCompactResource.pack(resource);
+            if (compactResource != null) {
+                m_cacheCompactResource.put(key, compactResource);
+            } else {
+                // resources that can't be packed are not cached, but an older version must not survive
+                m_cacheCompactResource.remove(key);
+            }
+            return;
+        }
         m_cacheResource.put(key, resource);
     }
 
+    /**
+     * Caches the given resource under the given cache key.<p>
+     * 
+     * Kept for compatibility, String keys are cached like any other key object.<p>
+     * 
+     * @param key the cache key
+     * @param resource the resource to cache
+     * 
+     * @see #cacheResource(Object, CmsResource)
+     */
+    public void cacheResource(String key, CmsResource resource) {
+
+        cacheResource((Object)key, resource);
+    }
+
     /**
      * Caches the given resource list under the given cache key.<p>
      * 
      * @param key the cache key
      * @param resourceList the resource list to cache
      */
-    public void cacheResourceList(String key, List<CmsResource> resourceList) {
+    public void cacheResourceList(Object key, List<CmsResource> resourceList) {
 
         if (m_disabled.get(CacheType.RESOURCE_LIST) != null) {
             return;
@@ -764,6 +851,21 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_cacheResourceList.put(key, resourceList);
     }
 
+    /**
+     * Caches the given resource list under the given cache key.<p>
+     * 
+     * Kept for compatibility, String keys are cached like any other key object.<p>
+     * 
+     * @param key the cache key
+     * @param resourceList the resource list to cache
+     * 
+     * @see #cacheResourceList(Object, List)
+     */
+    public void cacheResourceList(String key, List<CmsResource> resourceList) {
+
+        cacheResourceList((Object)key, resourceList);
+    }
+
     /**
      * Caches the given value under the given cache key.<p>
      * 
@@ -999,7 +1101,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
                     m_cacheAccessControlList.clear();
                     break;
                 case CONTENT_DEFINITION:
-                    m_cacheContentDefinitions.clear();
+                    CmsXmlEntityResolver.getSchemaRegistry().clearDefinitions();
                     break;
                 case GROUP:
                     m_cacheGroup.clear();
@@ -1044,7 +1146,11 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
                     m_publishQueue.clear();
                     break;
                 case RESOURCE:
-                    m_cacheResource.clear();
+                    if (m_cacheCompactResource != null) {
+                        m_cacheCompactResource.clear();
+                    } else {
+                        m_cacheResource.clear();
+                    }
                     break;
                 case RESOURCE_LIST:
                     m_cacheResourceList.clear();
@@ -1391,11 +1497,26 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      * 
      * @return the ACL cached with the given cache key
      */
-    public CmsAccessControlList getCachedACL(String key) {
+    public CmsAccessControlList getCachedACL(Object key) {
 
         return m_cacheAccessControlList.get(key);
     }
 
+    /**
+     * Returns the ACL cached with the given cache key or <code>null</code> if not found.<p>
+     * 
+     * Kept for compatibility, String keys are cached like any other key object.<p>
+     * 
+     * @param key the cache key to look for
+     * @return the ACL cached with the given cache key
+     * 
+     * @see #getCachedACL(Object)
+     */
+    public CmsAccessControlList getCachedACL(String key) {
+
+        return getCachedACL((Object)key);
+    }
+
     /**
      * Returns the xml content definition cached with the given cache key or <code>null</code> if not found.<p>
      * 
@@ -1405,7 +1526,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsXmlContentDefinition getCachedContentDefinition(String key) {
 
-        return m_cacheContentDefinitions.get(key);
+        return CmsXmlEntityResolver.getSchemaRegistry().getDefinition(key);
     }
 
     /**
@@ -1479,11 +1600,26 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      * 
      * @return the permission check result cached with the given cache key
      */
-    public I_CmsPermissionHandler.CmsPermissionCheckResult getCachedPermission(String key) {
+    public I_CmsPermissionHandler.CmsPermissionCheckResult getCachedPermission(Object key) {
 
         return m_cachePermission.get(key);
     }
 
+    /**
+     * Returns the permission check result cached with the given cache key or <code>null</code> if not found.<p>
+     * 
+     * Kept for compatibility, String keys are cached like any other key object.<p>
+     * 
+     * @param key the cache key to look for
+     * @return the permission check result cached with the given cache key
+     * 
+     * @see #getCachedPermission(Object)
+     */
+    public I_CmsPermissionHandler.CmsPermissionCheckResult getCachedPermission(String key) {
+
+        return getCachedPermission((Object)key);
+    }
+
     /**
      * Returns the project cached with the given cache key or <code>null</code> if not found.<p>
      * 
@@ -1515,11 +1651,26 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      * 
      * @return the property cached with the given cache key
      */
-    public CmsProperty getCachedProperty(String key) {
+    public CmsProperty getCachedProperty(Object key) {
 
         return m_cacheProperty.get(key);
     }
 
+    /**
+     * Returns the property cached with the given cache key or <code>null</code> if not found.<p>
+     * 
+     * Kept for compatibility, String keys are cached like any other key object.<p>
+     * 
+     * @param key the cache key to look for
+     * @return the property cached with the given cache key
+     * 
+     * @see #getCachedProperty(Object)
+     */
+    public CmsProperty getCachedProperty(String key) {
+
+        return getCachedProperty((Object)key);
+    }
+
     /**
      * Returns the property list cached with the given cache key or <code>null</code> if not found.<p>
      * 
@@ -1527,11 +1678,26 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      * 
      * @return the property list cached with the given cache key
      */
-    public List<CmsProperty> getCachedPropertyList(String key) {
+    public List<CmsProperty> getCachedPropertyList(Object key) {
 
         return m_cachePropertyList.get(key);
     }
 
+    /**
+     * Returns the property list cached with the given cache key or <code>null</code> if not found.<p>
+     * 
+     * Kept for compatibility, String keys are cached like any other key object.<p>
+     * 
+     * @param key the cache key to look for
+     * @return the property list cached with the given cache key
+     * 
+     * @see #getCachedPropertyList(Object)
+     */
+    public List<CmsProperty> getCachedPropertyList(String key) {
+
+        return getCachedPropertyList((Object)key);
+    }
+
     /**
      * Returns the published resources list cached with the given cache key or <code>null</code> if not found.<p>
      * 
@@ -1592,11 +1758,30 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      * 
      * @return the resource cached with the given cache key
      */
-    public CmsResource getCachedResource(String key) {
+    public CmsResource getCachedResource(Object key) {
 
+        if (m_cacheCompactResource != null) {
+            CmsCompactResource compactResource = m_cacheCompactResource.get(key);
+            return compactResource != null ? compactResource.toResource() : null;
+        }
         return m_cacheResource.get(key);
     }
 
+    /**
+     * Returns the resource cached with the given cache key or <code>null</code> if not found.<p>
+     * 
+     * Kept for compatibility, String keys are cached like any other key object.<p>
+     * 
+     * @param key the cache key to look for
+     * @return the resource cached with the given cache key
+     * 
+     * @see #getCachedResource(Object)
+     */
+    public CmsResource getCachedResource(String key) {
+
+        return getCachedResource((Object)key);
+    }
+
     /**
      * Returns the resource list cached with the given cache key or <code>null</code> if not found.<p>
      * 
@@ -1604,11 +1789,26 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      * 
      * @return the resource list cached with the given cache key
      */
-    public List<CmsResource> getCachedResourceList(String key) {
+    public List<CmsResource> getCachedResourceList(Object key) {
 
         return m_cacheResourceList.get(key);
     }
 
+    /**
+     * Returns the resource list cached with the given cache key or <code>null</code> if not found.<p>
+     * 
+     * Kept for compatibility, String keys are cached like any other key object.<p>
+     * 
+     * @param key the cache key to look for
+     * @return the resource list cached with the given cache key
+     * 
+     * @see #getCachedResourceList(Object)
+     */
+    public List<CmsResource> getCachedResourceList(String key) {
+
+        return getCachedResourceList((Object)key);
+    }
+
     /**
      * Returns the value cached with the given cache key or <code>null</code> if not found.<p>
      * 
@@ -1832,10 +2032,13 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_cacheXmlPermanentEntity = Collections.synchronizedMap(xmlPermanentCache);
         register(CmsXmlEntityResolver.class.getName() + ".xmlEntityPermanentCache", m_cacheXmlPermanentEntity);
 
-        // xml content definitions cache
-        Map<String, CmsXmlContentDefinition> contentDefinitionsCache = CmsCollectionsGenericWrapper.createLRUMap(64);
-        m_cacheContentDefinitions = Collections.synchronizedMap(contentDefinitionsCache);
-        register(CmsXmlEntityResolver.class.getName() + ".contentDefinitionsCache", m_cacheContentDefinitions);
+        // xml schemas and content definitions are kept in the schema registry of the entity resolver
+        register(
+            CmsXmlEntityResolver.class.getName() + ".schemaRegistry",
+            CmsXmlEntityResolver.getSchemaRegistry().getSchemas());
+        register(
+            CmsXmlEntityResolver.class.getName() + ".contentDefinitionsCache",
+            CmsXmlEntityResolver.getSchemaRegistry().getDefinitions());
 
         // lock cache
         Map<String, CmsLock> lockCache = new HashMap<String, CmsLock>();
@@ -1848,7 +2051,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         register(CmsLocaleManager.class.getName(), map);
 
         // permissions cache
-        Map<String, I_CmsPermissionHandler.CmsPermissionCheckResult> lruPermissions = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getPermissionCacheSize());
+        Map<Object, I_CmsPermissionHandler.CmsPermissionCheckResult> lruPermissions = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getPermissionCacheSize());
         m_cachePermission = Collections.synchronizedMap(lruPermissions);
         register(CmsSecurityManager.class.getName(), lruPermissions);
 
@@ -1899,9 +2102,17 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         register(CmsPublishQueue.class.getName() + ".publishQueue", buffer);
 
         // resource cache
-        Map<String, CmsResource> lruResources = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getResourceCacheSize());
-        m_cacheResource = Collections.synchronizedMap(lruResources);
-        register(CmsDriverManager.class.getName() + ".resourceCache", lruResources);
+        if (cacheSettings.isCompactResourceCache()) {
+            Map<Object, CmsCompactResource> lruCompactResources = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getResourceCacheSize());
+            m_cacheCompactResource = Collections.synchronizedMap(lruCompactResources);
+            m_cacheResource = null;
+            register(CmsDriverManager.class.getName() + ".resourceCache", lruCompactResources);
+        } else {
+            Map<Object, CmsResource> lruResources = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getResourceCacheSize());
+            m_cacheResource = Collections.synchronizedMap(lruResources);
+            m_cacheCompactResource = null;
+            register(CmsDriverManager.class.getName() + ".resourceCache", lruResources);
+        }
 
         // roles cache
         Map<String, Boolean> lruHasRoles = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getRolesCacheSize());
@@ -1914,17 +2125,17 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         register(CmsDriverManager.class.getName() + ".roleListsCache", lruRoleLists);
 
         // resource list cache
-        Map<String, List<CmsResource>> lruResourceList = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getResourcelistCacheSize());
+        Map<Object, List<CmsResource>> lruResourceList = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getResourcelistCacheSize());
         m_cacheResourceList = Collections.synchronizedMap(lruResourceList);
         register(CmsDriverManager.class.getName() + ".resourceListCache", lruResourceList);
 
         // property cache
-        Map<String, CmsProperty> lruProperty = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getPropertyCacheSize());
+        Map<Object, CmsProperty> lruProperty = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getPropertyCacheSize());
         m_cacheProperty = Collections.synchronizedMap(lruProperty);
         register(CmsDriverManager.class.getName() + ".propertyCache", lruProperty);
 
         // property list cache
-        Map<String, List<CmsProperty>> lruPropertyList = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getPropertyListsCacheSize());
+        Map<Object, List<CmsProperty>> lruPropertyList = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getPropertyListsCacheSize());
         m_cachePropertyList = Collections.synchronizedMap(lruPropertyList);
         register(CmsDriverManager.class.getName() + ".propertyListCache", lruPropertyList);
 
@@ -1934,7 +2145,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         register(CmsDriverManager.class.getName() + ".publishedResourcesCache", lruPublishedResources);
 
         // acl cache
-        Map<String, CmsAccessControlList> lruAcl = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getAclCacheSize());
+        Map<Object, CmsAccessControlList> lruAcl = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getAclCacheSize());
         m_cacheAccessControlList = Collections.synchronizedMap(lruAcl);
         register(CmsDriverManager.class.getName() + ".accessControlListCache", lruAcl);
 
@@ -2198,7 +2409,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public void uncacheContentDefinition(String key) {
 
-        m_cacheContentDefinitions.remove(key);
+        CmsXmlEntityResolver.getSchemaRegistry().uncache(key);
     }
 
     /**
@@ -2369,7 +2580,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /**
      * Returns the total size of key strings within a monitored map.<p>
      * 
-     * The keys must be of type {@link String}.<p>
+     * The keys must be of type {@link String} or {@link I_CmsMemoryMonitorable}.<p>
      * 
      * @param map the map
      * @param depth the max recursion depth for calculation the size
@@ -2400,6 +2611,8 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
                 if (obj instanceof String) {
                     String st = (String)obj;
                     keySize += (st.length() * 2);
+                } else if (obj instanceof I_CmsMemoryMonitorable) {
+                    keySize += ((I_CmsMemoryMonitorable)obj).getMemorySize();
                 }
             }
         } catch (ConcurrentModificationException e) {
@@ -0,0 +1,327 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.pdftools;
+
+import org.opencms.main.CmsLog;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Bounded thread pool for rendering PDFs and PDF thumbnails.<p>
+ *
+ * Rendering jobs are identified by a key, usually the name of the cache file the result is written to.
+ * While a job for a key is running or waiting in the queue, further requests for the same key don't start
+ * a new job, but wait for the result of the existing one.<p>
+ *
+ * If the queue is full, jobs requested with {@link #render(String, Callable)} are executed in the calling
+ * thread, while jobs requested with {@link #prerender(String, Callable)} are dropped.<p>
+ */
+public class CmsPdfRenderPool {
+
+    /**
+     * Rendering job which removes itself from the pending jobs when it completes.<p>
+     *
+     * The job is removed before its result is published, so a caller which has received the result
+     * never finds the completed job among the pending jobs.<p>
+     */
+    private class PendingTask extends FutureTask<byte[]> {
+
+        /** The job key. */
+        private String m_key;
+
+        /**
+         * Creates a new instance.<p>
+         *
+         * @param key the job key
+         * @param job the rendering job
+         */
+        PendingTask(String key, Callable<byte[]> job) {
+
+            super(job);
+            m_key = key;
+        }
+
+        /**
+         * @see java.util.concurrent.FutureTask#set(java.lang.Object)
+         */
+        @Override
+        protected void set(byte[] result) {
+
+            m_pending.remove(m_key, this);
+            super.set(result);
+        }
+
+        /**
+         * @see java.util.concurrent.FutureTask#setException(java.lang.Throwable)
+         */
+        @Override
+        protected void setException(Throwable t) {
+
+            m_pending.remove(m_key, this);
+            super.setException(t);
+        }
+    }
+
+    /** The default number of queued jobs. */
+    public static final int DEFAULT_QUEUE_SIZE = 100;
+
+    /** The logger instance for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsPdfRenderPool.class);
+
+    /** The shared instance. */
+    private static CmsPdfRenderPool m_instance;
+
+    /** The number of requests which were served by an already running job. */
+    private AtomicLong m_coalescedCount = new AtomicLong();
+
+    /** The executor which runs the rendering jobs. */
+    private ThreadPoolExecutor m_executor;
+
+    /** The jobs which are currently queued or running, by key. */
+    private ConcurrentHashMap<String, FutureTask<byte[]>> m_pending = new ConcurrentHashMap<String, FutureTask<byte[]>>();
+
+    /** The number of jobs which were rejected because the queue was full. */
+    private AtomicLong m_rejectedCount = new AtomicLong();
+
+    /**
+     * Creates a new rendering pool.<p>
+     *
+     * @param threads the maximum number of rendering threads
+     * @param queueSize the maximum number of queued jobs
+     */
+    public CmsPdfRenderPool(int threads, int queueSize) {
+
+        // threads are only created when something is rendered, and they are discarded when idle
+        m_executor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            60,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<Runnable>(queueSize),
+            new ThreadFactory() {
+
+                /** The number of threads created so far. */
+                private AtomicInteger m_threadCount = new AtomicInteger();
+
+                /**
+                 * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+                 */
+                public Thread newThread(Runnable runnable) {
+
+                    Thread thread = new Thread(runnable, "OpenCms: PDF Renderer #" + m_threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        m_executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns the shared rendering pool.<p>
+     *
+     * The shared pool uses half of the available processors, so that rendering bursts can't starve
+     * the request threads.<p>
+     *
+     * @return the shared rendering pool
+     */
+    public static synchronized CmsPdfRenderPool getInstance() {
+
+        if (m_instance == null) {
+            int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            m_instance = new CmsPdfRenderPool(threads, DEFAULT_QUEUE_SIZE);
+        }
+        return m_instance;
+    }
+
+    /**
+     * Returns the number of threads which are currently rendering.<p>
+     *
+     * @return the number of active rendering threads
+     */
+    public int getActiveCount() {
+
+        return m_executor.getActiveCount();
+    }
+
+    /**
+     * Returns the number of requests which were served by waiting for an already queued or running job.<p>
+     *
+     * @return the number of coalesced requests
+     */
+    public long getCoalescedCount() {
+
+        return m_coalescedCount.get();
+    }
+
+    /**
+     * Returns the number of jobs which have been completed by the pool threads.<p>
+     *
+     * @return the number of completed jobs
+     */
+    public long getCompletedCount() {
+
+        return m_executor.getCompletedTaskCount();
+    }
+
+    /**
+     * Returns the job for the given key if it is currently queued or running.<p>
+     *
+     * @param key the job key
+     *
+     * @return the pending job, or <code>null</code>
+     */
+    public Future<byte[]> getPending(String key) {
+
+        return m_pending.get(key);
+    }
+
+    /**
+     * Returns the number of jobs which are currently queued or running.<p>
+     *
+     * @return the number of pending jobs
+     */
+    public int getPendingCount() {
+
+        return m_pending.size();
+    }
+
+    /**
+     * Returns the number of jobs waiting in the queue.<p>
+     *
+     * @return the queue size
+     */
+    public int getQueueSize() {
+
+        return m_executor.getQueue().size();
+    }
+
+    /**
+     * Returns the number of jobs which could not be queued because the queue was full.<p>
+     *
+     * @return the number of rejected jobs
+     */
+    public long getRejectedCount() {
+
+        return m_rejectedCount.get();
+    }
+
+    /**
+     * Queues a rendering job without waiting for its result.<p>
+     *
+     * Nothing is queued if a job for the same key is already pending or if the queue is full.<p>
+     *
+     * @param key the job key
+     * @param job the rendering job
+     *
+     * @return <code>true</code> if the job was queued
+     */
+    public boolean prerender(String key, Callable<byte[]> job) {
+
+        PendingTask task = new PendingTask(key, job);
+        if (m_pending.putIfAbsent(key, task) != null) {
+            return false;
+        }
+        try {
+            m_executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            m_pending.remove(key, task);
+            m_rejectedCount.incrementAndGet();
+            LOG.debug("PDF render queue full, skipping pre-rendering of " + key);
+            return false;
+        }
+    }
+
+    /**
+     * Renders the result for the given key in the pool and waits for it.<p>
+     *
+     * If a job for the same key is already pending, its result is returned instead. If the queue is full,
+     * the job is executed in the calling thread.<p>
+     *
+     * @param key the job key
+     * @param job the rendering job
+     *
+     * @return the rendering result
+     *
+     * @throws Exception if the rendering job fails
+     */
+    public byte[] render(String key, Callable<byte[]> job) throws Exception {
+
+        PendingTask task = new PendingTask(key, job);
+        FutureTask<byte[]> existing = m_pending.putIfAbsent(key, task);
+        if (existing != null) {
+            m_coalescedCount.incrementAndGet();
+            return waitFor(existing);
+        }
+        try {
+            m_executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            m_rejectedCount.incrementAndGet();
+            task.run();
+        }
+        return waitFor(task);
+    }
+
+    /**
+     * Waits for the result of a rendering job.<p>
+     *
+     * @param future the rendering job
+     *
+     * @return the rendering result
+     *
+     * @throws Exception the exception thrown by the rendering job
+     */
+    public byte[] waitFor(Future<byte[]> future) throws Exception {
+
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception)cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw e;
+        }
+    }
+}
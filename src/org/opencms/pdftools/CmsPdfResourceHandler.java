@@ -27,24 +27,35 @@
 
 package org.opencms.pdftools;
 
+import org.opencms.db.CmsPublishedResource;
 import org.opencms.file.CmsFile;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
 import org.opencms.file.wrapper.CmsWrappedResource;
+import org.opencms.main.CmsEvent;
 import org.opencms.main.CmsLog;
 import org.opencms.main.CmsResourceInitException;
 import org.opencms.main.CmsRuntimeException;
+import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.I_CmsResourceInit;
 import org.opencms.main.Messages;
 import org.opencms.main.OpenCms;
 import org.opencms.security.CmsSecurityException;
+import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsStringUtil;
+import org.opencms.util.CmsUUID;
 import org.opencms.workplace.CmsWorkplace;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -58,8 +69,12 @@ import org.apache.commons.logging.Log;
  *
  * In Online mode, the generated PDFs are cached on the real file system, while in Offline mode, the PDF data is always
  * generated on-the-fly.<p>
+ *
+ * The PDF conversion and the thumbnail generation run in the shared {@link CmsPdfRenderPool}, so concurrent
+ * requests for the same PDF or thumbnail are only rendered once. After publishing, the thumbnails of published
+ * PDF files are pre-rendered in all variants that have been requested since the last startup.<p>
  */
-public class CmsPdfResourceHandler implements I_CmsResourceInit {
+public class CmsPdfResourceHandler implements I_CmsResourceInit, I_CmsEventListener {
 
     /** Mime type data for different file extensions. */
     public static final String IMAGE_MIMETYPECONFIG = "png:image/png|gif:image/gif|jpg:image/jpeg";
@@ -70,23 +85,75 @@ public class CmsPdfResourceHandler implements I_CmsResourceInit {
         "|",
         ":"));
 
+    /** The maximum number of thumbnail variants remembered for pre-rendering. */
+    public static final int MAX_THUMBNAIL_VARIANTS = 20;
+
     /** The logger instance for this class. */
     private static final Log LOG = CmsLog.getLog(CmsPdfResourceHandler.class);
+
     /** The cache for the generated PDFs. */
     private CmsPdfCache m_pdfCache;
 
     /** The converter used to generate the PDFs. */
     private CmsPdfConverter m_pdfConverter = new CmsPdfConverter();
 
+    /** The pool used for rendering PDFs and thumbnails. */
+    private CmsPdfRenderPool m_renderPool;
+
     /** Cache for thumbnails. */
     private CmsPdfThumbnailCache m_thumbnailCache = new CmsPdfThumbnailCache();
 
+    /** The requested thumbnail variants, as option string and image format separated by ';'. */
+    private Set<String> m_thumbnailVariants = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
     /**
      * Creates a new instance.<p>
      */
     public CmsPdfResourceHandler() {
 
         m_pdfCache = new CmsPdfCache();
+        m_renderPool = CmsPdfRenderPool.getInstance();
+        OpenCms.addCmsEventListener(this, new int[] {I_CmsEventListener.EVENT_PUBLISH_PROJECT});
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsEventListener#cmsEvent(org.opencms.main.CmsEvent)
+     */
+    public void cmsEvent(CmsEvent event) {
+
+        if ((event.getType() != I_CmsEventListener.EVENT_PUBLISH_PROJECT) || m_thumbnailVariants.isEmpty()) {
+            return;
+        }
+        String publishIdStr = (String)event.getData().get(I_CmsEventListener.KEY_PUBLISHID);
+        if (publishIdStr == null) {
+            return;
+        }
+        try {
+            // only pre-render what everybody may read, everything else is still rendered on demand
+            CmsObject cms = OpenCms.initCmsObject(OpenCms.getDefaultUsers().getUserGuest());
+            List<CmsPublishedResource> publishedResources = cms.readPublishedResources(new CmsUUID(publishIdStr));
+            int queued = 0;
+            for (CmsPublishedResource published : publishedResources) {
+                if (published.isFolder()
+                    || published.getState().isDeleted()
+                    || !published.getRootPath().toLowerCase().endsWith(".pdf")) {
+                    continue;
+                }
+                for (String variant : m_thumbnailVariants) {
+                    if (prerenderThumbnail(cms, published.getStructureId(), variant)) {
+                        queued += 1;
+                    }
+                }
+            }
+            if (queued > 0) {
+                LOG.info("Queued "
+                    + queued
+                    + " PDF thumbnails for pre-rendering, render queue size="
+                    + m_renderPool.getQueueSize());
+            }
+        } catch (Exception e) {
+            LOG.error(e.getLocalizedMessage(), e);
+        }
     }
 
     /**
@@ -141,6 +208,91 @@ public class CmsPdfResourceHandler implements I_CmsResourceInit {
         }
     }
 
+    /**
+     * Creates the job which converts XHTML to PDF and saves the PDF in the cache.<p>
+     *
+     * @param cms the CMS context used for resolving resources referenced by the XHTML
+     * @param xhtmlData the XHTML data
+     * @param uri the uri to use for error messages
+     * @param cacheName the RFS name of the cache file
+     *
+     * @return the PDF rendering job
+     */
+    protected Callable<byte[]> createPdfJob(
+        final CmsObject cms,
+        final byte[] xhtmlData,
+        final String uri,
+        final String cacheName) {
+
+        return new Callable<byte[]>() {
+
+            /**
+             * @see java.util.concurrent.Callable#call()
+             */
+            public byte[] call() throws Exception {
+
+                byte[] pdfData = m_pdfConverter.convertXhtmlToPdf(cms, xhtmlData, uri);
+                LOG.info("Converted XHTML to PDF, size=" + pdfData.length);
+                m_pdfCache.saveCacheFile(cacheName, pdfData);
+                return pdfData;
+            }
+        };
+    }
+
+    /**
+     * Creates the job which renders a PDF thumbnail and saves it in the cache.<p>
+     *
+     * @param cms the CMS context used for reading the PDF
+     * @param linkObj the thumbnail link
+     * @param cacheName the RFS name of the cache file
+     *
+     * @return the thumbnail rendering job
+     */
+    protected Callable<byte[]> createThumbnailJob(
+        final CmsObject cms,
+        final CmsPdfThumbnailLink linkObj,
+        final String cacheName) {
+
+        return new Callable<byte[]>() {
+
+            /**
+             * @see java.util.concurrent.Callable#call()
+             */
+            public byte[] call() throws Exception {
+
+                CmsFile pdfFile = cms.readFile(linkObj.getPdfResource());
+                CmsPdfThumbnailGenerator thumbnailGenerator = new CmsPdfThumbnailGenerator();
+                byte[] imageData = thumbnailGenerator.generateThumbnail(
+                    new ByteArrayInputStream(pdfFile.getContents()),
+                    linkObj.getWidth(),
+                    linkObj.getHeight(),
+                    linkObj.getFormat(),
+                    linkObj.getPage());
+                m_thumbnailCache.saveCacheFile(cacheName, imageData);
+                return imageData;
+            }
+        };
+    }
+
+    /**
+     * Returns the RFS name of the cache file for a thumbnail.<p>
+     *
+     * @param linkObj the thumbnail link
+     * @param options the thumbnail options
+     *
+     * @return the RFS name of the cache file
+     */
+    protected String getThumbnailCacheName(CmsPdfThumbnailLink linkObj, String options) {
+
+        // use a wrapped resource because we want the cache to store files with the correct (image file) extensions
+        CmsResource pdf = linkObj.getPdfResource();
+        CmsWrappedResource wrapperWithImageExtension = new CmsWrappedResource(pdf);
+        wrapperWithImageExtension.setRootPath(pdf.getRootPath() + "." + linkObj.getFormat());
+        return m_thumbnailCache.getCacheName(wrapperWithImageExtension.getResource(), options
+            + ";"
+            + linkObj.getFormat());
+    }
+
     /**
      * Handles a link for generating a PDF.<p>
      *
@@ -166,26 +318,34 @@ public class CmsPdfResourceHandler implements I_CmsResourceInit {
         byte[] result = null;
         String cacheParams = formatter.getStructureId() + ";" + formatter.getDateLastModified() + ";" + locale;
         String cacheName = m_pdfCache.getCacheName(content, cacheParams);
+        File cacheFile = null;
         if (cms.getRequestContext().getCurrentProject().isOnlineProject()) {
-            result = m_pdfCache.getCacheContent(cacheName);
+            cacheFile = m_pdfCache.getCacheFile(cacheName);
         }
-        if (result == null) {
-            cmsForJspExecution.getRequestContext().setUri(content.getRootPath());
-            byte[] xhtmlData = CmsPdfFormatterUtils.executeJsp(
-                cmsForJspExecution,
-                request,
-                response,
-                formatter,
-                content);
-
-            LOG.info("Rendered XHTML from " + content.getRootPath() + " using " + formatter.getRootPath());
-            if (LOG.isDebugEnabled()) {
-                logXhtmlOutput(formatter, content, xhtmlData);
+        if (cacheFile == null) {
+            Future<byte[]> pending = m_renderPool.getPending(cacheName);
+            if (pending != null) {
+                // somebody else is already rendering this PDF, so we don't need to execute the formatter again
+                LOG.info("Waiting for pending PDF rendering of " + content.getRootPath());
+                result = m_renderPool.waitFor(pending);
+            } else {
+                cmsForJspExecution.getRequestContext().setUri(content.getRootPath());
+                byte[] xhtmlData = CmsPdfFormatterUtils.executeJsp(
+                    cmsForJspExecution,
+                    request,
+                    response,
+                    formatter,
+                    content);
+
+                LOG.info("Rendered XHTML from " + content.getRootPath() + " using " + formatter.getRootPath());
+                if (LOG.isDebugEnabled()) {
+                    logXhtmlOutput(formatter, content, xhtmlData);
+                }
+                // Use the same CmsObject we used for executing the JSP, because the same site root is needed to resolve external resources like images
+                result = m_renderPool.render(
+                    cacheName,
+                    createPdfJob(cmsForJspExecution, xhtmlData, "opencms://" + uri, cacheName));
             }
-            // Use the same CmsObject we used for executing the JSP, because the same site root is needed to resolve external resources like images
-            result = m_pdfConverter.convertXhtmlToPdf(cmsForJspExecution, xhtmlData, "opencms://" + uri);
-            LOG.info("Converted XHTML to PDF, size=" + result.length);
-            m_pdfCache.saveCacheFile(cacheName, result);
         } else {
             LOG.info("Retrieved PDF data from cache for content "
                 + content.getRootPath()
@@ -193,7 +353,12 @@ public class CmsPdfResourceHandler implements I_CmsResourceInit {
                 + formatter.getRootPath());
         }
         response.setContentType("application/pdf");
-        response.getOutputStream().write(result);
+        if (cacheFile != null) {
+            // write the cached PDF without reading it into memory 
+            CmsFileUtil.transferFile(cacheFile, response.getOutputStream());
+        } else {
+            response.getOutputStream().write(result);
+        }
         CmsResourceInitException initEx = new CmsResourceInitException(CmsPdfResourceHandler.class);
         initEx.setClearErrors(true);
         throw initEx;
@@ -221,6 +386,39 @@ public class CmsPdfResourceHandler implements I_CmsResourceInit {
         }
     }
 
+    /**
+     * Queues a thumbnail for pre-rendering, unless it is already cached.<p>
+     *
+     * @param cms the CMS context used for reading the PDF
+     * @param pdfId the structure id of the PDF
+     * @param variant the thumbnail variant, as option string and image format separated by ';'
+     *
+     * @return <code>true</code> if the thumbnail was queued
+     */
+    protected boolean prerenderThumbnail(CmsObject cms, CmsUUID pdfId, String variant) {
+
+        int separatorPos = variant.lastIndexOf(';');
+        String options = variant.substring(0, separatorPos);
+        String format = variant.substring(separatorPos + 1);
+        try {
+            CmsPdfThumbnailLink linkObj = new CmsPdfThumbnailLink(cms, "/"
+                + CmsPdfThumbnailLink.MARKER
+                + "/"
+                + pdfId
+                + "."
+                + format, options);
+            String cacheName = getThumbnailCacheName(linkObj, options);
+            if (new File(cacheName).exists()) {
+                return false;
+            }
+            return m_renderPool.prerender(cacheName, createThumbnailJob(cms, linkObj, cacheName));
+        } catch (Exception e) {
+            // e.g. the PDF can't be read by the guest user
+            LOG.debug(e.getLocalizedMessage(), e);
+            return false;
+        }
+    }
+
     /**
      * Handles a request for a PDF thumbnail.<p>
      *
@@ -239,27 +437,18 @@ public class CmsPdfResourceHandler implements I_CmsResourceInit {
             options = "w:64";
         }
         CmsPdfThumbnailLink linkObj = new CmsPdfThumbnailLink(cms, uri, options);
-        CmsResource pdf = linkObj.getPdfResource();
-        CmsFile pdfFile = cms.readFile(pdf);
-        CmsPdfThumbnailGenerator thumbnailGenerator = new CmsPdfThumbnailGenerator();
-        // use a wrapped resource because we want the cache to store files with the correct (image file) extensions
-        CmsWrappedResource wrapperWithImageExtension = new CmsWrappedResource(pdfFile);
-        wrapperWithImageExtension.setRootPath(pdfFile.getRootPath() + "." + linkObj.getFormat());
-        String cacheName = m_thumbnailCache.getCacheName(wrapperWithImageExtension.getResource(), options
-            + ";"
-            + linkObj.getFormat());
-        byte[] imageData = m_thumbnailCache.getCacheContent(cacheName);
-        if (imageData == null) {
-            imageData = thumbnailGenerator.generateThumbnail(
-                new ByteArrayInputStream(pdfFile.getContents()),
-                linkObj.getWidth(),
-                linkObj.getHeight(),
-                linkObj.getFormat(),
-                linkObj.getPage());
-            m_thumbnailCache.saveCacheFile(cacheName, imageData);
+        if (m_thumbnailVariants.size() < MAX_THUMBNAIL_VARIANTS) {
+            m_thumbnailVariants.add(options + ";" + linkObj.getFormat());
         }
+        String cacheName = getThumbnailCacheName(linkObj, options);
+        File cacheFile = m_thumbnailCache.getCacheFile(cacheName);
         response.setContentType(IMAGE_MIMETYPES.get(linkObj.getFormat()));
-        response.getOutputStream().write(imageData);
+        if (cacheFile != null) {
+            CmsFileUtil.transferFile(cacheFile, response.getOutputStream());
+        } else {
+            byte[] imageData = m_renderPool.render(cacheName, createThumbnailJob(cms, linkObj, cacheName));
+            response.getOutputStream().write(imageData);
+        }
         CmsResourceInitException initEx = new CmsResourceInitException(CmsPdfResourceHandler.class);
         initEx.setClearErrors(true);
         throw initEx;
@@ -50,6 +50,7 @@ import org.opencms.security.CmsAuthentificationException;
 import org.opencms.security.CmsRole;
 import org.opencms.util.CmsUUID;
 
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -536,6 +537,30 @@ public final class CmsPublishEngine {
         return result;
     }
 
+    /**
+     * Returns a stream with the content of the publish report assigned to the given publish job.<p>
+     * 
+     * @param publishJob the published job
+     * @return a stream with the content of the assigned publish report
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    protected InputStream getReportStream(CmsPublishJobFinished publishJob) throws CmsException {
+
+        InputStream result = null;
+        CmsDbContext dbc = m_dbContextFactory.getDbContext();
+        try {
+            result = m_driverManager.readPublishReportStream(dbc, publishJob.getPublishHistoryId());
+        } catch (CmsException e) {
+            dbc.rollback();
+            LOG.error(e.getLocalizedMessage(), e);
+            throw e;
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Returns the user identified by the given id.<p>
      * 
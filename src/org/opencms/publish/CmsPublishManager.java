@@ -44,6 +44,7 @@ import org.opencms.security.CmsRole;
 import org.opencms.security.CmsSecurityException;
 import org.opencms.util.CmsUUID;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
@@ -431,6 +432,22 @@ public class CmsPublishManager {
         return m_publishEngine.getReportContents(publishJob);
     }
 
+    /**
+     * Returns a stream with the content of the publish report assigned to the given publish job.<p>
+     *
+     * Use this instead of {@link #getReportContents(CmsPublishJobFinished)} to avoid holding
+     * the whole uncompressed report in memory.<p>
+     *
+     * @param publishJob the published job
+     * @return a stream with the content of the assigned publish report
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public InputStream getReportStream(CmsPublishJobFinished publishJob) throws CmsException {
+
+        return m_publishEngine.getReportStream(publishJob);
+    }
+
     /**
      * Returns the current user's publish list.<p>
      *
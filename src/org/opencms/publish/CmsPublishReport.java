@@ -28,32 +28,41 @@
 package org.opencms.publish;
 
 import org.opencms.i18n.CmsMessageContainer;
+import org.opencms.main.CmsRuntimeException;
 import org.opencms.report.CmsHtmlReport;
 import org.opencms.report.CmsPrintStreamReport;
 import org.opencms.report.I_CmsReport;
+import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsStringUtil;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.List;
 import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Report class used for the publish operations.<p>
  * 
- * It stores nothing. It just prints everything to a temporary file.<p>
+ * It stores nothing. It just prints everything gzip compressed to a memory buffer,
+ * which is written to the database as it is.<p>
  * 
  * @since 6.5.5 
  */
 public class CmsPublishReport extends CmsPrintStreamReport {
 
-    /** The output stream. */
+    /** The output stream, containing the compressed report. */
     protected ByteArrayOutputStream m_outputStream;
 
     /** The busy flag to prevent duplicated output. */
     private boolean m_busy;
 
+    /** The compressing stream writing to the output stream. */
+    private GZIPOutputStream m_compressingStream;
+
     /** The original report. */
     private I_CmsReport m_report;
 
@@ -77,10 +86,23 @@ public class CmsPublishReport extends CmsPrintStreamReport {
      */
     private CmsPublishReport(ByteArrayOutputStream outputStream, Locale locale) {
 
-        super(new PrintStream(outputStream), locale, true);
+        this(outputStream, createCompressingStream(outputStream), locale);
+    }
+
+    /**
+     * Constructs a new publish report using the provided locale for the output language.<p>
+     *  
+     * @param outputStream the underlying byte array output stream
+     * @param compressingStream the compressing stream writing to the output stream
+     * @param locale the locale to use for the output language
+     */
+    private CmsPublishReport(ByteArrayOutputStream outputStream, GZIPOutputStream compressingStream, Locale locale) {
+
+        super(new PrintStream(compressingStream), locale, true);
         init(locale, null);
 
         m_outputStream = outputStream;
+        m_compressingStream = compressingStream;
     }
 
     /**
@@ -95,7 +117,7 @@ public class CmsPublishReport extends CmsPrintStreamReport {
         if (report instanceof CmsHtmlReport) {
             if (((CmsHtmlReport)report).isWriteHtml()) {
                 try {
-                    m_outputStream.write(CmsStringUtil.substitute(getReportUpdate(), "\\n", "").getBytes());
+                    m_compressingStream.write(CmsStringUtil.substitute(getReportUpdate(), "\\n", "").getBytes());
                 } catch (IOException e) {
                     // ignore
                 }
@@ -103,6 +125,38 @@ public class CmsPublishReport extends CmsPrintStreamReport {
         }
     }
 
+    /**
+     * Checks if the given report contents are gzip compressed.<p>
+     * 
+     * @param contents the report contents
+     * 
+     * @return <code>true</code> if the given report contents are gzip compressed
+     */
+    public static boolean isCompressed(byte[] contents) {
+
+        return (contents != null)
+            && (contents.length > 1)
+            && (contents[0] == (byte)GZIPInputStream.GZIP_MAGIC)
+            && (contents[1] == (byte)(GZIPInputStream.GZIP_MAGIC >> 8));
+    }
+
+    /**
+     * Creates the compressing stream for the report output.<p>
+     * 
+     * @param outputStream the stream to write the compressed output to
+     * 
+     * @return the compressing stream
+     */
+    private static GZIPOutputStream createCompressingStream(ByteArrayOutputStream outputStream) {
+
+        try {
+            return new GZIPOutputStream(outputStream);
+        } catch (IOException e) {
+            // should never happen when writing to memory
+            throw new CmsRuntimeException(Messages.get().container(Messages.ERR_PUBLISH_REPORT_COMPRESSION_0), e);
+        }
+    }
+
     /**
      * Returns a publish report instance that writes to the given report as well as 
      * to the given temporary file.<p> 
@@ -144,14 +198,34 @@ public class CmsPublishReport extends CmsPrintStreamReport {
         m_busy = false;
     }
 
+    /**
+     * Returns the gzip compressed contents of the publish report as byte array.<p>
+     * 
+     * The report is closed by this call, if not already done.<p>
+     * 
+     * @return the compressed contents of the publish report
+     */
+    public byte[] getCompressedContents() {
+
+        close();
+        return m_outputStream.toByteArray();
+    }
+
     /**
      * Returns the contents of the publish report as byte array.<p>
      * 
+     * The report is closed by this call, if not already done.<p>
+     * 
      * @return the contents of the publish report
      */
     public byte[] getContents() {
 
-        return m_outputStream.toByteArray();
+        try {
+            return CmsFileUtil.readFully(new GZIPInputStream(new ByteArrayInputStream(getCompressedContents())));
+        } catch (IOException e) {
+            // should never happen when reading from memory
+            return new byte[0];
+        }
     }
 
     /**
@@ -302,6 +376,17 @@ public class CmsPublishReport extends CmsPrintStreamReport {
         m_busy = false;
     }
 
+    /**
+     * Releases the resources held by the decorated report, 
+     * for example the temporary file of a {@link CmsHtmlReport}.<p>
+     */
+    public void release() {
+
+        if (m_report instanceof CmsHtmlReport) {
+            ((CmsHtmlReport)m_report).release();
+        }
+    }
+
     /**
      * @see org.opencms.report.A_CmsReport#resetRuntime()
      */
@@ -124,6 +124,19 @@ import org.apache.commons.logging.Log;
         return m_abort;
     }
 
+    /**
+     * @see org.opencms.report.A_CmsReportThread#releaseReport()
+     */
+    @Override
+    public void releaseReport() {
+
+        if (getReport() instanceof CmsPublishReport) {
+            ((CmsPublishReport)getReport()).release();
+        } else {
+            super.releaseReport();
+        }
+    }
+
     /**
      * @see java.lang.Runnable#run()
      */
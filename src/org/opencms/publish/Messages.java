@@ -91,6 +91,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_PUBLISH_JOB_START_ERROR_1 = "ERR_PUBLISH_JOB_START_ERROR_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_PUBLISH_REPORT_COMPRESSION_0 = "ERR_PUBLISH_REPORT_COMPRESSION_0";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_PUBLISH_REPORT_PATH_FAILED_0 = "ERR_PUBLISH_REPORT_PATH_FAILED_0";
 
@@ -203,6 +203,19 @@ public abstract class A_CmsReportThread extends Thread implements I_CmsReportThr
         return false;
     }
 
+    /**
+     * Releases the resources held by the report of this Thread, 
+     * for example the temporary file of a {@link CmsHtmlReport}.<p>
+     * 
+     * The not yet fetched output of the report is discarded.<p>
+     */
+    public void releaseReport() {
+
+        if (getReport() instanceof CmsHtmlReport) {
+            ((CmsHtmlReport)getReport()).release();
+        }
+    }
+
     /**
      * Returns the OpenCms context object this Thread is initialized with.<p>
      * 
@@ -243,6 +256,6 @@ public abstract class A_CmsReportThread extends Thread implements I_CmsReportThr
      */
     protected void initOldHtmlReport(Locale locale) {
 
-        m_report = new CmsHtmlReport(locale, m_cms.getRequestContext().getSiteRoot(), true, false);
+        m_report = new CmsHtmlReport(locale, m_cms.getRequestContext().getSiteRoot(), true);
     }
 }
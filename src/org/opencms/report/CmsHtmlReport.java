@@ -29,17 +29,33 @@ package org.opencms.report;
 
 import org.opencms.i18n.CmsEncoder;
 import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
 import org.opencms.util.CmsStringUtil;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.StringTokenizer;
 
+import org.apache.commons.logging.Log;
+
 /**
  * HTML report output to be used for import / export / publish operations 
  * in the entire OpenCms system.<p>
  * 
+ * Only the output not yet fetched with {@link #getReportUpdate()} is kept, and at most
+ * {@link #MAX_CONTENT_SIZE} entries of it are kept in memory. If nobody fetches the updates
+ * for a longer time, the older output is moved to a temporary file until it is fetched. 
+ * In this case every update returns at most about {@link #MAX_UPDATE_LENGTH} characters 
+ * of the output from the temporary file, the rest is returned by the following updates.
+ * Call {@link #release()} if the report is abandoned before all output has been fetched.<p>
+ * 
  * @since 6.0.0 
  */
 public class CmsHtmlReport extends A_CmsReport {
@@ -53,20 +69,29 @@ public class CmsHtmlReport extends A_CmsReport {
      */
     protected static final String LINEBREAK_TRADITIONAL = "<br>\\n";
 
-    /** The list of report objects e.g. String, CmsPageLink, Exception ... */
-    private List<Object> m_content;
+    /** The maximum number of not yet reported objects kept in memory. */
+    protected static final int MAX_CONTENT_SIZE = 2048;
 
-    /**
-     * Counter to remember what is already shown,
-     * indicates the next index of the m_content list that has to be reported.
-     */
-    private int m_indexNext;
+    /** The maximum number of characters read from the temporary file for one report update. */
+    protected static final int MAX_UPDATE_LENGTH = 256 * 1024;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsHtmlReport.class);
+
+    /** The list of not yet reported objects e.g. String, CmsPageLink, Exception ... */
+    private List<Object> m_content;
 
     /** Flag to indicate if an exception should be displayed long or short. */
     private boolean m_showExceptionStackTrace;
 
-    /** If set to <code>true</code> nothing is kept in memory. */
-    private boolean m_transient;
+    /** The temporary file containing the oldest not yet reported output, or <code>null</code>. */
+    private File m_spillFile;
+
+    /** The stream used to write the reported objects to the temporary file, one length prefixed entry each. */
+    private DataOutputStream m_spillOut;
+
+    /** The position in the temporary file up to which the output has already been reported. */
+    private long m_spillReadPos;
 
     /** Boolean flag indicating whether this report should generate HTML or JavaScript output. */
     private boolean m_writeHtml;
@@ -79,7 +104,7 @@ public class CmsHtmlReport extends A_CmsReport {
      */
     public CmsHtmlReport(Locale locale, String siteRoot) {
 
-        this(locale, siteRoot, false, false);
+        this(locale, siteRoot, false);
     }
 
     /**
@@ -88,15 +113,30 @@ public class CmsHtmlReport extends A_CmsReport {
      * @param locale the locale to use for the output language
      * @param siteRoot the site root of the user who started this report (may be <code>null</code>)
      * @param writeHtml if <code>true</code>, this report should generate HTML instead of JavaScript output
-     * @param isTransient If set to <code>true</code> nothing is kept in memory
      */
-    public CmsHtmlReport(Locale locale, String siteRoot, boolean writeHtml, boolean isTransient) {
+    public CmsHtmlReport(Locale locale, String siteRoot, boolean writeHtml) {
 
         init(locale, siteRoot);
         m_content = new ArrayList<Object>(256);
         m_showExceptionStackTrace = true;
         m_writeHtml = writeHtml;
-        m_transient = isTransient;
+    }
+
+    /**
+     * Constructs a new report using the provided locale for the output language.<p>
+     *  
+     * @param locale the locale to use for the output language
+     * @param siteRoot the site root of the user who started this report (may be <code>null</code>)
+     * @param writeHtml if <code>true</code>, this report should generate HTML instead of JavaScript output
+     * @param isTransient ignored, the reported output is never kept in memory
+     * 
+     * @deprecated use {@link #CmsHtmlReport(Locale, String, boolean)} instead, 
+     *      the reported output is now always removed once it has been fetched with {@link #getReportUpdate()}
+     */
+    @Deprecated
+    public CmsHtmlReport(Locale locale, String siteRoot, boolean writeHtml, boolean isTransient) {
+
+        this(locale, siteRoot, writeHtml);
     }
 
     /**
@@ -105,20 +145,19 @@ public class CmsHtmlReport extends A_CmsReport {
     public synchronized String getReportUpdate() {
 
         StringBuffer result = new StringBuffer();
-        int indexEnd = m_content.size();
-        for (int i = m_indexNext; i < indexEnd; i++) {
-            int pos = m_transient ? 0 : i;
-            Object obj = m_content.get(pos);
-            if ((obj instanceof String) || (obj instanceof StringBuffer)) {
-                result.append(obj);
-            } else if (obj instanceof Throwable) {
-                result.append(getExceptionElement((Throwable)obj));
-            }
-            if (m_transient) {
-                m_content.remove(m_indexNext);
+        if (m_spillFile != null) {
+            // the oldest output has been moved to a temporary file
+            try {
+                if (readSpillFile(result)) {
+                    // the rest of the temporary file and the newer output in memory are returned later
+                    return result.toString();
+                }
+            } catch (IOException e) {
+                LOG.error(e.getLocalizedMessage(), e);
             }
+            deleteSpillFile();
         }
-        m_indexNext = m_transient ? 0 : indexEnd;
+        appendContent(result);
         return result.toString();
     }
 
@@ -188,7 +227,7 @@ public class CmsHtmlReport extends A_CmsReport {
             if (value.trim().endsWith(getLineBreak())) {
                 buf.append("aB(); ");
             }
-            m_content.add(buf.toString());
+            addContent(buf.toString());
         } else {
             switch (format) {
                 case FORMAT_HEADLINE:
@@ -230,7 +269,7 @@ public class CmsHtmlReport extends A_CmsReport {
             if (value.trim().endsWith(getLineBreak())) {
                 buf.append("\n");
             }
-            m_content.add(buf.toString());
+            addContent(buf.toString());
         }
         setLastEntryTime(System.currentTimeMillis());
     }
@@ -249,10 +288,22 @@ public class CmsHtmlReport extends A_CmsReport {
     public synchronized void println(Throwable t) {
 
         addError(t.getMessage());
-        m_content.add(t);
+        addContent(t);
         setLastEntryTime(System.currentTimeMillis());
     }
 
+    /**
+     * Discards the not yet reported output and deletes the temporary file, if there is one.<p>
+     * 
+     * Must be called once the report is no longer used, since otherwise the temporary file 
+     * is only deleted after all output has been fetched with {@link #getReportUpdate()}.<p>
+     */
+    public synchronized void release() {
+
+        deleteSpillFile();
+        m_content.clear();
+    }
+
     /**
      * Returns the correct line break notation depending on the output style of this report.
      * 
@@ -263,6 +314,103 @@ public class CmsHtmlReport extends A_CmsReport {
         return m_writeHtml ? LINEBREAK_TRADITIONAL : LINEBREAK;
     }
 
+    /**
+     * Adds an object to the not yet reported content, moving the content to the temporary file
+     * if it has grown too large.<p>
+     * 
+     * @param obj the object to add
+     */
+    private void addContent(Object obj) {
+
+        m_content.add(obj);
+        if (m_content.size() <= MAX_CONTENT_SIZE) {
+            return;
+        }
+        // formatting an exception may add new content, so the entries are formatted first
+        int indexEnd = m_content.size();
+        List<String> entries = new ArrayList<String>(indexEnd);
+        for (int i = 0; i < indexEnd; i++) {
+            String entry = formatContent(m_content.get(i));
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        m_content.subList(0, indexEnd).clear();
+        int written = 0;
+        try {
+            if (m_spillFile == null) {
+                File spillFile = File.createTempFile("opencms-report-", ".tmp");
+                m_spillOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(spillFile)));
+                m_spillReadPos = 0;
+                m_spillFile = spillFile;
+            }
+            for (String entry : entries) {
+                byte[] data = entry.getBytes(CmsEncoder.ENCODING_UTF_8);
+                m_spillOut.writeInt(data.length);
+                m_spillOut.write(data);
+                written++;
+            }
+        } catch (IOException e) {
+            // keep the formatted content that has not been written in memory
+            LOG.error(e.getLocalizedMessage(), e);
+            m_content.addAll(0, entries.subList(written, entries.size()));
+        }
+    }
+
+    /**
+     * Appends the formatted content kept in memory to the given buffer and removes it from memory.<p>
+     * 
+     * @param result the buffer to append the content to
+     */
+    private void appendContent(StringBuffer result) {
+
+        int indexEnd = m_content.size();
+        for (int i = 0; i < indexEnd; i++) {
+            String entry = formatContent(m_content.get(i));
+            if (entry != null) {
+                result.append(entry);
+            }
+        }
+        // formatting an exception may have added new content
+        m_content.subList(0, indexEnd).clear();
+    }
+
+    /**
+     * Closes and deletes the temporary file for the not yet reported output.<p>
+     */
+    private void deleteSpillFile() {
+
+        if (m_spillFile == null) {
+            return;
+        }
+        try {
+            m_spillOut.close();
+        } catch (IOException e) {
+            // ignore
+        }
+        m_spillFile.delete();
+        m_spillFile = null;
+        m_spillOut = null;
+        m_spillReadPos = 0;
+    }
+
+    /**
+     * Formats a not yet reported object.<p>
+     * 
+     * @param obj the object to format
+     * 
+     * @return the formatted object, or <code>null</code> if the object is not reported
+     */
+    private String formatContent(Object obj) {
+
+        if ((obj instanceof String) || (obj instanceof StringBuffer)) {
+            return obj.toString();
+        } else if (obj instanceof Throwable) {
+            return getExceptionElement((Throwable)obj).toString();
+        }
+        return null;
+    }
+
     /**
      * Output helper method to format a reported {@link Throwable} element.<p>
      * 
@@ -324,4 +472,33 @@ public class CmsHtmlReport extends A_CmsReport {
         }
         return buf;
     }
-}
\ No newline at end of file
+
+    /**
+     * Appends the next entries from the temporary file to the given buffer, 
+     * until about {@link #MAX_UPDATE_LENGTH} characters have been appended.<p>
+     * 
+     * @param result the buffer to append the entries to
+     * 
+     * @return <code>true</code> if there are more entries left in the temporary file
+     * 
+     * @throws IOException if reading the temporary file fails
+     */
+    private boolean readSpillFile(StringBuffer result) throws IOException {
+
+        m_spillOut.flush();
+        RandomAccessFile in = new RandomAccessFile(m_spillFile, "r");
+        try {
+            long length = in.length();
+            in.seek(m_spillReadPos);
+            while ((m_spillReadPos < length) && (result.length() < MAX_UPDATE_LENGTH)) {
+                byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+                result.append(new String(data, CmsEncoder.ENCODING_UTF_8));
+                m_spillReadPos += 4 + data.length;
+            }
+            return m_spillReadPos < length;
+        } finally {
+            in.close();
+        }
+    }
+}
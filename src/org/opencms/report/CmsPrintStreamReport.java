@@ -59,7 +59,7 @@ public class CmsPrintStreamReport extends CmsHtmlReport {
      */
     public CmsPrintStreamReport(PrintStream printStream, Locale locale, boolean writeHtml) {
 
-        super(locale, null, true, true);
+        super(locale, null, true);
         m_printStream = printStream;
         m_writeHtml = writeHtml;
     }
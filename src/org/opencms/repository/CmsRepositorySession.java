@@ -41,12 +41,15 @@ import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
 import org.opencms.security.CmsSecurityException;
 import org.opencms.util.CmsFileUtil;
+import org.opencms.util.CmsUUID;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.logging.Log;
 
@@ -266,6 +269,14 @@ public class CmsRepositorySession extends A_CmsRepositorySession {
         }
 
         List<CmsResource> resources = m_cms.getResourcesInFolder(path, CmsResourceFilter.DEFAULT);
+
+        // the original resources of most children are the VFS resources of the folder, 
+        // so they can be looked up without reading every single resource again
+        Map<CmsUUID, CmsResource> originals = new HashMap<CmsUUID, CmsResource>();
+        for (CmsResource vfsResource : m_cms.getVfsResourcesInFolder(path, CmsResourceFilter.DEFAULT)) {
+            originals.put(vfsResource.getStructureId(), vfsResource);
+        }
+
         Iterator<CmsResource> iter = resources.iterator();
         while (iter.hasNext()) {
             CmsResource res = iter.next();
@@ -276,7 +287,10 @@ public class CmsRepositorySession extends A_CmsRepositorySession {
                 // which the virtual resource is based on)
                 // this filters e.g. property files for resources that are filtered out and thus
                 // should not be displayed
-                CmsResource org = m_cms.readResource(res.getStructureId(), CmsResourceFilter.DEFAULT);
+                CmsResource org = originals.get(res.getStructureId());
+                if (org == null) {
+                    org = m_cms.readResource(res.getStructureId(), CmsResourceFilter.DEFAULT);
+                }
                 if (!isFiltered(m_cms.getRequestContext().removeSiteRoot(org.getRootPath()))) {
                     ret.add(new CmsRepositoryItem(res, m_cms));
                 }
@@ -27,6 +27,7 @@
 
 package org.opencms.scheduler.jobs;
 
+import org.opencms.cache.CmsDiskCacheIndex;
 import org.opencms.file.CmsObject;
 import org.opencms.loader.CmsImageLoader;
 import org.opencms.main.CmsLog;
@@ -61,7 +62,8 @@ public class CmsImageCacheCleanupJob implements I_CmsScheduledJob {
     /**
      * Removes all expired image cache entries from the RFS cache.<p>
      * 
-     * Empty directories are removed as well.<p>
+     * If the image cache is indexed, only the expired entries of the index are visited. 
+     * Otherwise the whole image cache folder is read, and empty directories are removed as well.<p>
      * 
      * @param maxAge the maximum age of the image cache files in hours (or fractions of hours)
      * 
@@ -71,6 +73,12 @@ public class CmsImageCacheCleanupJob implements I_CmsScheduledJob {
 
         // calculate oldest possible date for the cache files
         long expireDate = System.currentTimeMillis() - (long)(maxAge * 60f * 60f * 1000f);
+        CmsDiskCacheIndex index = CmsImageLoader.getImageCacheIndex();
+        if (index != null) {
+            int count = index.removeUnusedSince(expireDate);
+            index.save();
+            return count;
+        }
         File basedir = new File(CmsImageLoader.getImageRepositoryPath());
         // perform the cache cleanup
         return cleanImageCache(expireDate, basedir);
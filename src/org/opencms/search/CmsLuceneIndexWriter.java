@@ -140,6 +140,16 @@ public class CmsLuceneIndexWriter implements I_CmsIndexWriter {
         m_indexWriter.deleteDocuments(term);
     }
 
+    /**
+     * Returns the wrapped Lucene index writer.<p>
+     * 
+     * @return the wrapped Lucene index writer
+     */
+    public IndexWriter getIndexWriter() {
+
+        return m_indexWriter;
+    }
+
     /**
      * @see org.opencms.search.I_CmsIndexWriter#optimize()
      * 
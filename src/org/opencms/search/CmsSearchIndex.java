@@ -66,11 +66,13 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.document.DateTools;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.index.AtomicReaderContext;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.IndexReader;
@@ -90,11 +92,14 @@ import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.MultiTermQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.similarities.Similarity;
+import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 import org.apache.lucene.store.IOContext;
@@ -105,6 +110,25 @@ import org.apache.lucene.util.Version;
  */
 public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
 
+    /**
+     * Searcher factory that applies the OpenCms similarity to new index searchers and warms 
+     * the cached display filters before the searcher manager publishes a new searcher.<p>
+     */
+    protected class CmsSearcherFactory extends SearcherFactory {
+
+        /**
+         * @see org.apache.lucene.search.SearcherFactory#newSearcher(org.apache.lucene.index.IndexReader)
+         */
+        @Override
+        public IndexSearcher newSearcher(IndexReader reader) throws IOException {
+
+            IndexSearcher searcher = new IndexSearcher(reader);
+            searcher.setSimilarity(m_sim);
+            warmDisplayFilters(reader);
+            return searcher;
+        }
+    }
+
     /** A constant for the full qualified name of the CmsSearchIndex class. */
     public static final String A_PARAM_PREFIX = "org.opencms.search.CmsSearchIndex";
 
@@ -268,8 +292,6 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      */
     private boolean m_ignoreExpiration;
 
-    /** The Lucene index searcher to use. */
-    private IndexSearcher m_indexSearcher;
 
     /** The index writer to use. */
     private I_CmsIndexWriter m_indexWriter;
@@ -304,6 +326,12 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
     /** Controls if a resource requires view permission to be displayed in the result list. */
     private boolean m_requireViewPermission;
 
+    /** The factory used by the searcher manager to create and warm new index searchers. */
+    private final SearcherFactory m_searcherFactory = new CmsSearcherFactory();
+
+    /** The Lucene searcher manager that provides reference counted index searchers. */
+    private volatile SearcherManager m_searcherManager;
+
     /** The cms specific Similarity implementation. */
     private final Similarity m_sim = new CmsSearchSimilarity();
 
@@ -323,6 +351,7 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
 
         m_sourceNames = new ArrayList<String>();
         m_documenttypes = new HashMap<String, List<String>>();
+        m_displayFilters = new ConcurrentHashMap<String, Filter>();
         m_enabled = true;
         m_checkPermissions = true;
         m_extractContent = true;
@@ -488,6 +517,39 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
         return result;
     }
 
+    /**
+     * Acquires a reference counted Lucene index searcher for this index.<p>
+     * 
+     * The returned searcher, and the index reader it uses, is guaranteed to stay open until 
+     * it is given back with {@link #releaseSearcher(IndexSearcher)}, even if the index is 
+     * reopened in the meantime. Callers must therefore always release the searcher in a 
+     * <code>finally</code> block.<p>
+     * 
+     * @return the acquired index searcher, or <code>null</code> if no searcher is available for this index
+     * 
+     * @see #releaseSearcher(IndexSearcher)
+     */
+    public IndexSearcher acquireSearcher() {
+
+        SearcherManager manager = m_searcherManager;
+        while (manager != null) {
+            try {
+                return manager.acquire();
+            } catch (AlreadyClosedException e) {
+                if (manager == m_searcherManager) {
+                    // the searcher manager has been closed and not been replaced
+                    return null;
+                }
+                // the searcher manager has been replaced concurrently, try again with the new one
+                manager = m_searcherManager;
+            } catch (IOException e) {
+                LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_1, getName()), e);
+                return null;
+            }
+        }
+        return null;
+    }
+
     /**
      * Adds a parameter.<p>
      * 
@@ -678,11 +740,15 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      */
     public I_CmsSearchDocument getDocument(int docId) {
 
-        try {
-            IndexSearcher searcher = getSearcher();
-            return new CmsLuceneDocument(searcher.doc(docId));
-        } catch (IOException e) {
-            // ignore, return null and assume document was not found
+        IndexSearcher searcher = acquireSearcher();
+        if (searcher != null) {
+            try {
+                return new CmsLuceneDocument(searcher.doc(docId));
+            } catch (IOException e) {
+                // ignore, return null and assume document was not found
+            } finally {
+                releaseSearcher(searcher);
+            }
         }
         return null;
     }
@@ -715,10 +781,10 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      * 
      * @return the first document where the given term matches the selected index field
      */
-    public synchronized I_CmsSearchDocument getDocument(String field, String term) {
+    public I_CmsSearchDocument getDocument(String field, String term) {
 
         Document result = null;
-        IndexSearcher searcher = getSearcher();
+        IndexSearcher searcher = acquireSearcher();
         if (searcher != null) {
             // search for an exact match on the selected field
             Term resultTerm = new Term(field, term);
@@ -729,6 +795,8 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
                 }
             } catch (IOException e) {
                 // ignore, return null and assume document was not found
+            } finally {
+                releaseSearcher(searcher);
             }
         }
         if (result != null) {
@@ -829,6 +897,10 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
 
         if (!create) {
             m_indexWriter = indexWriter;
+            if (REBUILD_MODE_OFFLINE.equals(getRebuildMode()) && (indexWriter instanceof CmsLuceneIndexWriter)) {
+                // offline indexes are updated very often, so reopen the searcher near-real-time from the writer
+                indexSearcherOpen(((CmsLuceneIndexWriter)indexWriter).getIndexWriter());
+            }
         }
 
         return indexWriter;
@@ -951,11 +1023,19 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
     /**
      * Returns the Lucene index searcher used for this search index.<p>
      *
+     * The returned searcher is not reference counted, so the underlying index reader 
+     * may be closed at any time if the index is reopened.<p>
+     *
      * @return the Lucene index searcher used for this search index
+     * 
+     * @deprecated use {@link #acquireSearcher()} and {@link #releaseSearcher(IndexSearcher)} instead
      */
+    @Deprecated
     public IndexSearcher getSearcher() {
 
-        return m_indexSearcher;
+        IndexSearcher searcher = acquireSearcher();
+        releaseSearcher(searcher);
+        return searcher;
     }
 
     /**
@@ -1219,6 +1299,25 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
         return m_indexWriter != null;
     }
 
+    /**
+     * Releases an index searcher that has been obtained from {@link #acquireSearcher()}.<p>
+     * 
+     * The searcher must not be used anymore after it has been released.<p>
+     * 
+     * @param searcher the searcher to release, may be <code>null</code>
+     */
+    public void releaseSearcher(IndexSearcher searcher) {
+
+        if (searcher != null) {
+            try {
+                // the searcher manager would do just the same, but the manager may have been replaced in the meantime
+                searcher.getIndexReader().decRef();
+            } catch (IOException e) {
+                LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_RELEASE_1, getName()), e);
+            }
+        }
+    }
+
     /**
      * Removes an index source from this search index.<p>
      * 
@@ -1242,7 +1341,7 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      * 
      * @throws CmsSearchException if something goes wrong
      */
-    public synchronized CmsSearchResultList search(CmsObject cms, CmsSearchParameters params) throws CmsSearchException {
+    public CmsSearchResultList search(CmsObject cms, CmsSearchParameters params) throws CmsSearchException {
 
         long timeTotal = -System.currentTimeMillis();
         long timeLucene;
@@ -1260,6 +1359,9 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
 
         int previousPriority = Thread.currentThread().getPriority();
 
+        // the searcher is reference counted, so it stays valid even if the index is reopened during the search
+        IndexSearcher searcher = acquireSearcher();
+
         try {
             // copy the user OpenCms context
             CmsObject searchCms = OpenCms.initCmsObject(cms);
@@ -1296,10 +1398,6 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
             // store separate fields query for excerpt highlighting  
             Query fieldsQuery = null;
 
-            // get an index searcher that is certainly up to date
-            indexSearcherUpdate();
-            IndexSearcher searcher = getSearcher();
-
             if (!params.isIgnoreQuery()) {
                 // since OpenCms 8 the query can be empty in which case only filters are used for the result
                 if (params.getParsedQuery() != null) {
@@ -1471,6 +1569,7 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
 
             // re-set thread to previous priority
             Thread.currentThread().setPriority(previousPriority);
+            releaseSearcher(searcher);
         }
 
         if (LOG.isDebugEnabled()) {
@@ -2096,7 +2195,8 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
             }
             termsStr = buf.toString();
         }
-        Filter result = m_displayFilters.get((new StringBuffer(64)).append(field).append('|').append(termsStr).toString());
+        String key = (new StringBuffer(64)).append(field).append('|').append(termsStr).toString();
+        Filter result = m_displayFilters.get(key);
         if (result == null) {
             List<Term> terms = new ArrayList<Term>();
             if (termsList == null) {
@@ -2106,7 +2206,7 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
                 terms.add(new Term(field, termsList.get(i)));
             }
             result = new CachingWrapperFilter(new TermsFilter(terms));
-            m_displayFilters.put(field + termsStr, result);
+            m_displayFilters.put(key, result);
         }
         return result;
     }
@@ -2176,30 +2276,56 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
     /**
      * Closes the index searcher for this index.<p>
      * 
+     * Searches that are still running keep their searcher until they release it.<p>
+     * 
      * @see #indexSearcherOpen(String)
      */
     protected synchronized void indexSearcherClose() {
 
-        indexSearcherClose(m_indexSearcher);
+        SearcherManager manager = m_searcherManager;
+        m_searcherManager = null;
+        indexSearcherClose(manager);
     }
 
     /**
-     * Closes the given Lucene index searcher.<p>
+     * Closes the given Lucene searcher manager.<p>
+     * 
+     * The index reader of the current searcher is closed as soon as all 
+     * searches that have acquired it have released it.<p>
      * 
-     * @param searcher the searcher to close
+     * @param manager the searcher manager to close
      */
-    protected synchronized void indexSearcherClose(IndexSearcher searcher) {
+    protected synchronized void indexSearcherClose(SearcherManager manager) {
 
-        // in case there is an index searcher available close it
-        if ((searcher != null) && (searcher.getIndexReader() != null)) {
+        // in case there is a searcher manager available close it
+        if (manager != null) {
             try {
-                searcher.getIndexReader().close();
+                manager.close();
             } catch (Exception e) {
                 LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_CLOSE_1, getName()), e);
             }
         }
     }
 
+    /**
+     * Initializes the index searcher for this index from a Lucene index writer.<p>
+     * 
+     * The searcher is reopened near-real-time from the writer, which means changes 
+     * made by the writer become visible to searches without the need to commit them first.<p>
+     * 
+     * @param writer the Lucene index writer to open the searcher from
+     * 
+     * @see #indexSearcherOpen(String)
+     */
+    protected synchronized void indexSearcherOpen(IndexWriter writer) {
+
+        try {
+            indexSearcherReplace(new SearcherManager(writer, true, m_searcherFactory));
+        } catch (IOException e) {
+            LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_1, getName()), e);
+        }
+    }
+
     /**
      * Initializes the index searcher for this index.<p>
      * 
@@ -2213,47 +2339,48 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      */
     protected synchronized void indexSearcherOpen(String path) {
 
-        IndexSearcher oldSearcher = null;
         try {
             Directory indexDirectory = FSDirectory.open(new File(path));
             if (DirectoryReader.indexExists(indexDirectory)) {
-                IndexReader reader = DirectoryReader.open(indexDirectory);
-                if (m_indexSearcher != null) {
-                    // store old searcher instance to close it later
-                    oldSearcher = m_indexSearcher;
-                }
-                m_indexSearcher = new IndexSearcher(reader);
-                m_indexSearcher.setSimilarity(m_sim);
-                m_displayFilters = new HashMap<String, Filter>();
+                indexSearcherReplace(new SearcherManager(indexDirectory, m_searcherFactory));
             }
         } catch (IOException e) {
             LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_1, getName()), e);
         }
-        if (oldSearcher != null) {
-            // close the old searcher if required
-            indexSearcherClose(oldSearcher);
-        }
+    }
+
+    /**
+     * Replaces the current searcher manager of this index with the given one.<p>
+     * 
+     * The old searcher manager is closed, searches that still use it 
+     * keep their searcher until they release it.<p>
+     * 
+     * @param manager the new searcher manager to use
+     */
+    protected synchronized void indexSearcherReplace(SearcherManager manager) {
+
+        SearcherManager oldManager = m_searcherManager;
+        m_searcherManager = manager;
+        indexSearcherClose(oldManager);
     }
 
     /**
      * Reopens the index search reader for this index, required after the index has been changed.<p>
      * 
+     * The new searcher is created and warmed up while searches continue to use the previous searcher. 
+     * It is published only when it is ready, so searches are never blocked by the reopen.<p>
+     * 
      * @see #indexSearcherOpen(String)
      */
     protected synchronized void indexSearcherUpdate() {
 
-        IndexSearcher oldSearcher = m_indexSearcher;
-        if ((oldSearcher != null) && (oldSearcher.getIndexReader() != null)) {
-            // in case there is an index searcher available close it
+        SearcherManager manager = m_searcherManager;
+        if (manager != null) {
             try {
-                if (oldSearcher.getIndexReader() instanceof DirectoryReader) {
-                    IndexReader newReader = DirectoryReader.openIfChanged((DirectoryReader)oldSearcher.getIndexReader());
-                    if (newReader != null) {
-                        m_indexSearcher = new IndexSearcher(newReader);
-                        m_indexSearcher.setSimilarity(m_sim);
-                        indexSearcherClose(oldSearcher);
-                    }
-                }
+                manager.maybeRefreshBlocking();
+            } catch (AlreadyClosedException e) {
+                // the index writer of a near-real-time searcher has been closed, read the index from the directory again
+                indexSearcherOpen(getPath());
             } catch (Exception e) {
                 LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_REOPEN_1, getName()), e);
             }
@@ -2444,4 +2571,26 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
         m_indexWriter = writer;
     }
 
+    /**
+     * Warms the cached display filters of this index for the given index reader.<p>
+     * 
+     * The display filters cache their results per index segment, so after an incremental 
+     * update only the new segments have to be calculated. This is done here before the 
+     * reader is used for searches, instead of during the first searches on the new reader.<p>
+     * 
+     * @param reader the index reader to warm the display filters for
+     */
+    protected void warmDisplayFilters(IndexReader reader) {
+
+        for (Filter filter : m_displayFilters.values()) {
+            try {
+                for (AtomicReaderContext context : reader.leaves()) {
+                    filter.getDocIdSet(context, context.reader().getLiveDocs());
+                }
+            } catch (IOException e) {
+                LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_WARM_1, getName()), e);
+            }
+        }
+    }
+
 }
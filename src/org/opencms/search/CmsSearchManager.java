@@ -50,6 +50,7 @@ import org.opencms.main.OpenCms;
 import org.opencms.main.OpenCmsSolrHandler;
 import org.opencms.relations.CmsRelation;
 import org.opencms.relations.CmsRelationFilter;
+import org.opencms.report.A_CmsReport;
 import org.opencms.report.CmsLogReport;
 import org.opencms.report.I_CmsReport;
 import org.opencms.scheduler.I_CmsScheduledJob;
@@ -88,6 +89,16 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.logging.Log;
 import org.apache.lucene.analysis.Analyzer;
@@ -107,6 +118,104 @@ import org.apache.solr.core.SolrCore;
  */
 public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
 
+    /**
+     * Report that records the output of an index update, so that it can be written 
+     * to the actual report as one block with its original formatting.<p>
+     */
+    private static class CmsIndexUpdateReport extends A_CmsReport {
+
+        /** The recorded formats, one for each recorded value. */
+        private List<Integer> m_formats = new ArrayList<Integer>();
+
+        /** The recorded values, a <code>null</code> value stands for a line break. */
+        private List<Object> m_values = new ArrayList<Object>();
+
+        /**
+         * Creates a new index update report.<p>
+         * 
+         * @param locale the locale of the report
+         */
+        CmsIndexUpdateReport(Locale locale) {
+
+            init(locale, null);
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#getReportUpdate()
+         */
+        public String getReportUpdate() {
+
+            return "";
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#println()
+         */
+        public void println() {
+
+            record(null, FORMAT_DEFAULT);
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#println(java.lang.Throwable)
+         */
+        public void println(Throwable t) {
+
+            record(t, FORMAT_DEFAULT);
+        }
+
+        /**
+         * Writes the recorded output, errors and warnings to the given report.<p>
+         * 
+         * @param target the report to write to
+         */
+        public void writeTo(I_CmsReport target) {
+
+            synchronized (target) {
+                for (int i = 0; i < m_values.size(); i++) {
+                    Object value = m_values.get(i);
+                    if (value == null) {
+                        target.println();
+                    } else if (value instanceof Throwable) {
+                        target.println((Throwable)value);
+                    } else {
+                        target.print(
+                            Messages.get().container(Messages.RPT_SEARCH_INDEXING_OUTPUT_1, value),
+                            m_formats.get(i).intValue());
+                    }
+                }
+                for (Object error : getErrors()) {
+                    target.addError(error);
+                }
+                for (Object warning : getWarnings()) {
+                    target.addWarning(warning);
+                }
+            }
+        }
+
+        /**
+         * @see org.opencms.report.A_CmsReport#print(java.lang.String, int)
+         */
+        @Override
+        protected void print(String value, int format) {
+
+            record(value, format);
+        }
+
+        /**
+         * Records the given value.<p>
+         * 
+         * @param value the value to record
+         * @param format the format of the value
+         */
+        private synchronized void record(Object value, int format) {
+
+            m_values.add(value);
+            m_formats.add(Integer.valueOf(format));
+            setLastEntryTime(System.currentTimeMillis());
+        }
+    }
+
     /**
      *  Enumeration class for force unlock types.<p>
      */
@@ -676,9 +785,15 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
     /** Seconds to wait for an index lock. */
     private int m_indexLockMaxWaitSeconds = 10;
 
+    /** The locks that make sure a search index is updated by only one thread at a time, keyed by index name. */
+    private ConcurrentHashMap<String, ReentrantLock> m_indexLocks;
+
     /** Configured index sources. */
     private Map<String, CmsSearchIndexSource> m_indexSources;
 
+    /** The executor used to update independent search indexes concurrently. */
+    private ThreadPoolExecutor m_indexUpdateExecutor;
+
     /** The max. char. length of the excerpt in the search result. */
     private int m_maxExcerptLength;
 
@@ -688,6 +803,9 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
     /** The offline index search handler. */
     private CmsSearchOfflineHandler m_offlineHandler;
 
+    /** The lock used to change the rebuild mode of an index together with the list of offline indexes. */
+    private final Object m_offlineIndexesLock = new Object();
+
     /** The update frequency of the offline indexer in milliseconds. */
     private long m_offlineUpdateFrequency;
 
@@ -710,12 +828,40 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         m_analyzers = new HashMap<Locale, CmsSearchAnalyzer>();
         m_indexes = new ArrayList<CmsSearchIndex>();
         m_indexSources = new TreeMap<String, CmsSearchIndexSource>();
+        m_indexLocks = new ConcurrentHashMap<String, ReentrantLock>();
         m_offlineHandler = new CmsSearchOfflineHandler();
         m_extractionCacheMaxAge = DEFAULT_EXTRACTION_CACHE_MAX_AGE;
         m_maxExcerptLength = DEFAULT_EXCERPT_LENGTH;
         m_offlineUpdateFrequency = DEFAULT_OFFLINE_UPDATE_FREQNENCY;
         m_maxModificationsBeforeCommit = DEFAULT_MAX_MODIFICATIONS_BEFORE_COMMIT;
 
+        // threads are only created when indexes are actually updated, and they are discarded when idle
+        int updateThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        m_indexUpdateExecutor = new ThreadPoolExecutor(
+            updateThreads,
+            updateThreads,
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            new ThreadFactory() {
+
+                /** The number of threads created so far. */
+                private AtomicInteger m_threadCount = new AtomicInteger();
+
+                /**
+                 * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+                 */
+                public Thread newThread(Runnable runnable) {
+
+                    Thread thread = new Thread(runnable, "OpenCms: Search Index Updater #"
+                        + m_threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+        m_indexUpdateExecutor.allowCoreThreadTimeOut(true);
+
         m_fieldConfigurations = new HashMap<String, CmsSearchFieldConfiguration>();
         // make sure we have a "standard" field configuration
         addFieldConfiguration(CmsLuceneFieldConfiguration.DEFAULT_STANDARD);
@@ -1544,19 +1690,20 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
      */
     public void initOfflineIndexes() {
 
-        // check which indexes are configured as offline indexes
-        List<CmsSearchIndex> offlineIndexes = new ArrayList<CmsSearchIndex>();
-        Iterator<CmsSearchIndex> i = m_indexes.iterator();
-        while (i.hasNext()) {
-            CmsSearchIndex index = i.next();
-            if (CmsSearchIndex.REBUILD_MODE_OFFLINE.equals(index.getRebuildMode())) {
-                // this is an offline index
-                offlineIndexes.add(index);
+        synchronized (m_offlineIndexesLock) {
+            // check which indexes are configured as offline indexes
+            List<CmsSearchIndex> offlineIndexes = new ArrayList<CmsSearchIndex>();
+            Iterator<CmsSearchIndex> i = m_indexes.iterator();
+            while (i.hasNext()) {
+                CmsSearchIndex index = i.next();
+                if (CmsSearchIndex.REBUILD_MODE_OFFLINE.equals(index.getRebuildMode())) {
+                    // this is an offline index
+                    offlineIndexes.add(index);
+                }
             }
+            m_offlineIndexes = offlineIndexes;
+            m_offlineHandler.initialize();
         }
-        m_offlineIndexes = offlineIndexes;
-        m_offlineHandler.initialize();
-
     }
 
     /**
@@ -1652,7 +1799,7 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
      * 
      * @throws CmsException if something goes wrong
      */
-    public synchronized void rebuildAllIndexes(I_CmsReport report) throws CmsException {
+    public void rebuildAllIndexes(I_CmsReport report) throws CmsException {
 
         CmsMessageContainer container = null;
         for (int i = 0, n = m_indexes.size(); i < n; i++) {
@@ -1685,7 +1832,7 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
      * 
      * @throws CmsException if something goes wrong
      */
-    public synchronized void rebuildIndex(String indexName, I_CmsReport report) throws CmsException {
+    public void rebuildIndex(String indexName, I_CmsReport report) throws CmsException {
 
         // get the search index by name
         CmsSearchIndex index = getIndex(indexName);
@@ -1703,7 +1850,7 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
      * 
      * @throws CmsException if something goes wrong
      */
-    public synchronized void rebuildIndexes(List<String> indexNames, I_CmsReport report) throws CmsException {
+    public void rebuildIndexes(List<String> indexNames, I_CmsReport report) throws CmsException {
 
         Iterator<String> i = indexNames.iterator();
         while (i.hasNext()) {
@@ -2212,6 +2359,8 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
             OpenCms.removeCmsEventListener(m_offlineHandler);
         }
 
+        m_indexUpdateExecutor.shutdown();
+
         Iterator<CmsSearchIndex> i = m_indexes.iterator();
         while (i.hasNext()) {
             CmsSearchIndex index = i.next();
@@ -2371,6 +2520,26 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         return result;
     }
 
+    /**
+     * Returns the lock that makes sure the given index is updated by only one thread at a time.<p>
+     * 
+     * @param index the index to get the lock for
+     * 
+     * @return the lock for the given index
+     */
+    protected ReentrantLock getIndexLock(CmsSearchIndex index) {
+
+        ReentrantLock lock = m_indexLocks.get(index.getName());
+        if (lock == null) {
+            ReentrantLock newLock = new ReentrantLock();
+            lock = m_indexLocks.putIfAbsent(index.getName(), newLock);
+            if (lock == null) {
+                lock = newLock;
+            }
+        }
+        return lock;
+    }
+
     /** 
      * Returns a new thread manager for the indexing threads.<p>
      * 
@@ -2504,7 +2673,7 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
      * @param publishHistoryId the history ID of the published project 
      * @param report the report to write the output to
      */
-    protected synchronized void updateAllIndexes(CmsObject adminCms, CmsUUID publishHistoryId, I_CmsReport report) {
+    protected void updateAllIndexes(CmsObject adminCms, CmsUUID publishHistoryId, I_CmsReport report) {
 
         int oldPriority = Thread.currentThread().getPriority();
         try {
@@ -2584,20 +2753,16 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
                 // sort the resource to update
                 Collections.sort(updateResources);
                 // only update the indexes if the list of remaining published resources is not empty
+                List<CmsSearchIndex> autoIndexes = new ArrayList<CmsSearchIndex>();
                 Iterator<CmsSearchIndex> i = m_indexes.iterator();
                 while (i.hasNext()) {
                     CmsSearchIndex index = i.next();
                     if (CmsSearchIndex.REBUILD_MODE_AUTO.equals(index.getRebuildMode())) {
                         // only update indexes which have the rebuild mode set to "auto"
-                        try {
-                            updateIndex(index, report, updateResources);
-                        } catch (CmsException e) {
-                            LOG.error(
-                                Messages.get().getBundle().key(Messages.LOG_UPDATE_INDEX_FAILED_1, index.getName()),
-                                e);
-                        }
+                        autoIndexes.add(index);
                     }
                 }
+                updateIndexes(autoIndexes, report, updateResources);
             }
             // clean up the extraction result cache
             cleanExtractionCache();
@@ -2619,154 +2784,251 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
      * 
      * @throws CmsException if something goes wrong
      */
-    protected synchronized void updateIndex(
+    protected void updateIndex(
         CmsSearchIndex index,
         I_CmsReport report,
         List<CmsPublishedResource> resourcesToIndex) throws CmsException {
 
-        // copy the stored admin context for the indexing
-        CmsObject cms = OpenCms.initCmsObject(m_adminCms);
-        // make sure a report is available
-        if (report == null) {
-            report = new CmsLogReport(cms.getRequestContext().getLocale(), CmsSearchManager.class);
-        }
-
-        // check if the index has been configured correctly
-        if (!index.checkConfiguration(cms)) {
-            // the index is disabled
-            return;
-        }
-
-        // set site root and project for this index
-        cms.getRequestContext().setSiteRoot("/");
-        // switch to the index project
-        cms.getRequestContext().setCurrentProject(cms.readProject(index.getProject()));
-
-        if ((resourcesToIndex == null) || resourcesToIndex.isEmpty()) {
-            // rebuild the complete index
-
-            // create a new thread manager for the indexing threads
-            CmsIndexingThreadManager threadManager = getThreadManager();
+        // make sure this index is updated by only one thread at a time, other indexes are not blocked
+        ReentrantLock lock = getIndexLock(index);
+        lock.lock();
+        try {
+            // copy the stored admin context for the indexing
+            CmsObject cms = OpenCms.initCmsObject(m_adminCms);
+            // make sure a report is available
+            if (report == null) {
+                report = new CmsLogReport(cms.getRequestContext().getLocale(), CmsSearchManager.class);
+            }
 
-            boolean isOfflineIndex = false;
-            if (CmsSearchIndex.REBUILD_MODE_OFFLINE.equals(index.getRebuildMode())) {
-                // disable offline indexing while the complete index is rebuild
-                isOfflineIndex = true;
-                index.setRebuildMode(CmsSearchIndex.REBUILD_MODE_MANUAL);
-                // re-initialize the offline indexes, this will disable this offline index
-                initOfflineIndexes();
+            // check if the index has been configured correctly
+            if (!index.checkConfiguration(cms)) {
+                // the index is disabled
+                return;
             }
 
-            I_CmsIndexWriter writer = null;
-            try {
-                // create a backup of the existing index
-                String backup = index.createIndexBackup();
-                if (backup != null) {
-                    index.indexSearcherOpen(backup);
+            // set site root and project for this index
+            cms.getRequestContext().setSiteRoot("/");
+            // switch to the index project
+            cms.getRequestContext().setCurrentProject(cms.readProject(index.getProject()));
+
+            if ((resourcesToIndex == null) || resourcesToIndex.isEmpty()) {
+                // rebuild the complete index
+
+                // create a new thread manager for the indexing threads
+                CmsIndexingThreadManager threadManager = getThreadManager();
+
+                boolean isOfflineIndex = false;
+                if (CmsSearchIndex.REBUILD_MODE_OFFLINE.equals(index.getRebuildMode())) {
+                    // disable offline indexing while the complete index is rebuild
+                    isOfflineIndex = true;
+                    // indexes may be rebuilt concurrently, so change the mode and the offline indexes together
+                    synchronized (m_offlineIndexesLock) {
+                        index.setRebuildMode(CmsSearchIndex.REBUILD_MODE_MANUAL);
+                        // re-initialize the offline indexes, this will disable this offline index
+                        initOfflineIndexes();
+                    }
                 }
 
-                // create a new index writer
-                writer = index.getIndexWriter(report, true);
-                if (writer instanceof CmsSolrIndexWriter) {
-                    try {
-                        ((CmsSolrIndexWriter)writer).deleteAllDocuments();
-                    } catch (IOException e) {
-                        LOG.error(e.getMessage(), e);
+                I_CmsIndexWriter writer = null;
+                try {
+                    // create a backup of the existing index
+                    String backup = index.createIndexBackup();
+                    if (backup != null) {
+                        index.indexSearcherOpen(backup);
                     }
-                }
 
-                // output start information on the report
-                report.println(
-                    Messages.get().container(Messages.RPT_SEARCH_INDEXING_REBUILD_BEGIN_1, index.getName()),
-                    I_CmsReport.FORMAT_HEADLINE);
+                    // create a new index writer
+                    writer = index.getIndexWriter(report, true);
+                    if (writer instanceof CmsSolrIndexWriter) {
+                        try {
+                            ((CmsSolrIndexWriter)writer).deleteAllDocuments();
+                        } catch (IOException e) {
+                            LOG.error(e.getMessage(), e);
+                        }
+                    }
+
+                    // output start information on the report
+                    report.println(
+                        Messages.get().container(Messages.RPT_SEARCH_INDEXING_REBUILD_BEGIN_1, index.getName()),
+                        I_CmsReport.FORMAT_HEADLINE);
+
+                    // iterate all configured index sources of this index
+                    Iterator<CmsSearchIndexSource> sources = index.getSources().iterator();
+                    while (sources.hasNext()) {
+                        // get the next index source
+                        CmsSearchIndexSource source = sources.next();
+                        // create the indexer
+                        I_CmsIndexer indexer = source.getIndexer().newInstance(cms, report, index);
+                        // new index creation, use all resources from the index source
+                        indexer.rebuildIndex(writer, threadManager, source);
+
+                        // wait for indexing threads to finish
+                        while (threadManager.isRunning()) {
+                            try {
+                                Thread.sleep(500);
+                            } catch (InterruptedException e) {
+                                // just continue with the loop after interruption
+                            }
+                        }
 
-                // iterate all configured index sources of this index
-                Iterator<CmsSearchIndexSource> sources = index.getSources().iterator();
-                while (sources.hasNext()) {
-                    // get the next index source
-                    CmsSearchIndexSource source = sources.next();
-                    // create the indexer
-                    I_CmsIndexer indexer = source.getIndexer().newInstance(cms, report, index);
-                    // new index creation, use all resources from the index source
-                    indexer.rebuildIndex(writer, threadManager, source);
-
-                    // wait for indexing threads to finish
-                    while (threadManager.isRunning()) {
+                        // commit and optimize the index after each index source has been finished
                         try {
-                            Thread.sleep(500);
-                        } catch (InterruptedException e) {
-                            // just continue with the loop after interruption
+                            writer.commit();
+                        } catch (IOException e) {
+                            if (LOG.isWarnEnabled()) {
+                                LOG.warn(
+                                    Messages.get().getBundle().key(
+                                        Messages.LOG_IO_INDEX_WRITER_COMMIT_2,
+                                        index.getName(),
+                                        index.getPath()),
+                                    e);
+                            }
+                        }
+                        try {
+                            writer.optimize();
+                        } catch (IOException e) {
+                            if (LOG.isWarnEnabled()) {
+                                LOG.warn(
+                                    Messages.get().getBundle().key(
+                                        Messages.LOG_IO_INDEX_WRITER_OPTIMIZE_2,
+                                        index.getName(),
+                                        index.getPath()),
+                                    e);
+                            }
                         }
                     }
 
-                    // commit and optimize the index after each index source has been finished
-                    try {
-                        writer.commit();
-                    } catch (IOException e) {
-                        if (LOG.isWarnEnabled()) {
-                            LOG.warn(
-                                Messages.get().getBundle().key(
-                                    Messages.LOG_IO_INDEX_WRITER_COMMIT_2,
-                                    index.getName(),
-                                    index.getPath()),
-                                e);
+                    if (backup != null) {
+                        // remove the backup after the files have been re-indexed
+                        index.indexSearcherClose();
+                        index.removeIndexBackup(backup);
+                    }
+
+                    // output finish information on the report
+                    report.println(
+                        Messages.get().container(Messages.RPT_SEARCH_INDEXING_REBUILD_END_1, index.getName()),
+                        I_CmsReport.FORMAT_HEADLINE);
+
+                } finally {
+                    if (writer != null) {
+                        try {
+                            writer.close();
+                        } catch (IOException e) {
+                            if (LOG.isWarnEnabled()) {
+                                LOG.warn(
+                                    Messages.get().getBundle().key(
+                                        Messages.LOG_IO_INDEX_WRITER_CLOSE_2,
+                                        index.getPath(),
+                                        index.getName()),
+                                    e);
+                            }
                         }
                     }
-                    try {
-                        writer.optimize();
-                    } catch (IOException e) {
-                        if (LOG.isWarnEnabled()) {
-                            LOG.warn(
-                                Messages.get().getBundle().key(
-                                    Messages.LOG_IO_INDEX_WRITER_OPTIMIZE_2,
-                                    index.getName(),
-                                    index.getPath()),
-                                e);
+                    if (isOfflineIndex) {
+                        synchronized (m_offlineIndexesLock) {
+                            // reset the mode of the offline index
+                            index.setRebuildMode(CmsSearchIndex.REBUILD_MODE_OFFLINE);
+                            // re-initialize the offline indexes, this will re-enable this index
+                            initOfflineIndexes();
                         }
                     }
+                    // index has changed - initialize the index searcher instance
+                    index.indexSearcherOpen(index.getPath());
                 }
 
-                if (backup != null) {
-                    // remove the backup after the files have been re-indexed
-                    index.indexSearcherClose();
-                    index.removeIndexBackup(backup);
-                }
+                // show information about indexing runtime
+                threadManager.reportStatistics(report);
 
-                // output finish information on the report
-                report.println(
-                    Messages.get().container(Messages.RPT_SEARCH_INDEXING_REBUILD_END_1, index.getName()),
-                    I_CmsReport.FORMAT_HEADLINE);
+            } else {
+                updateIndexIncremental(cms, index, report, resourcesToIndex);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
 
-            } finally {
-                if (writer != null) {
-                    try {
-                        writer.close();
-                    } catch (IOException e) {
-                        if (LOG.isWarnEnabled()) {
-                            LOG.warn(
-                                Messages.get().getBundle().key(
-                                    Messages.LOG_IO_INDEX_WRITER_CLOSE_2,
-                                    index.getPath(),
-                                    index.getName()),
-                                e);
+    /**
+     * Incrementally updates the given indexes with the given list of resources.<p>
+     * 
+     * The indexes are updated concurrently, since they are independent of each other. 
+     * While this is done, the text extraction results are shared between the indexes 
+     * through the extraction result cache, so a resource is usually extracted only once.<p>
+     * 
+     * Every index is updated with its own report, the output is copied to the given report 
+     * as one block when the update of the index has finished.<p>
+     * 
+     * Errors are written to the log, so an error in one index does not affect the update of the other indexes.<p> 
+     * 
+     * @param indexes the indexes to update
+     * @param report the report to write output messages to 
+     * @param resourcesToIndex a list of <code>{@link CmsPublishedResource}</code> objects to update in the indexes
+     */
+    protected void updateIndexes(
+        List<CmsSearchIndex> indexes,
+        final I_CmsReport report,
+        final List<CmsPublishedResource> resourcesToIndex) {
+
+        if (indexes.size() < 2) {
+            // nothing to do in parallel
+            for (CmsSearchIndex index : indexes) {
+                try {
+                    updateIndex(index, report, resourcesToIndex);
+                } catch (CmsException e) {
+                    LOG.error(Messages.get().getBundle().key(Messages.LOG_UPDATE_INDEX_FAILED_1, index.getName()), e);
+                }
+            }
+            return;
+        }
+
+        for (CmsSearchIndex index : indexes) {
+            m_extractionResultCache.beginSharingResults(index.getName());
+        }
+        try {
+            List<Future<Void>> updates = new ArrayList<Future<Void>>(indexes.size());
+            for (final CmsSearchIndex index : indexes) {
+                updates.add(m_indexUpdateExecutor.submit(new Callable<Void>() {
+
+                    /**
+                     * @see java.util.concurrent.Callable#call()
+                     */
+                    public Void call() throws Exception {
+
+                        if (report == null) {
+                            updateIndex(index, null, resourcesToIndex);
+                            return null;
+                        }
+                        // use a separate report so the output of the concurrent updates is not interleaved
+                        CmsIndexUpdateReport indexReport = new CmsIndexUpdateReport(report.getLocale());
+                        try {
+                            updateIndex(index, indexReport, resourcesToIndex);
+                        } finally {
+                            indexReport.writeTo(report);
                         }
+                        return null;
+                    }
+                }));
+            }
+            // wait for all indexes to be updated
+            for (int i = 0; i < updates.size(); i++) {
+                boolean finished = false;
+                while (!finished) {
+                    try {
+                        updates.get(i).get();
+                        finished = true;
+                    } catch (InterruptedException e) {
+                        // just continue waiting after interruption
+                    } catch (ExecutionException e) {
+                        LOG.error(Messages.get().getBundle().key(
+                            Messages.LOG_UPDATE_INDEX_FAILED_1,
+                            indexes.get(i).getName()), e.getCause());
+                        finished = true;
                     }
                 }
-                if (isOfflineIndex) {
-                    // reset the mode of the offline index
-                    index.setRebuildMode(CmsSearchIndex.REBUILD_MODE_OFFLINE);
-                    // re-initialize the offline indexes, this will re-enable this index
-                    initOfflineIndexes();
-                }
-                // index has changed - initialize the index searcher instance
-                index.indexSearcherOpen(index.getPath());
             }
-
-            // show information about indexing runtime
-            threadManager.reportStatistics(report);
-
-        } else {
-            updateIndexIncremental(cms, index, report, resourcesToIndex);
+        } finally {
+            for (CmsSearchIndex index : indexes) {
+                m_extractionResultCache.endSharingResults(index.getName());
+            }
         }
     }
 
@@ -2780,106 +3042,113 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
      * 
      * @throws CmsException if something goes wrong
      */
-    protected synchronized void updateIndexIncremental(
+    protected void updateIndexIncremental(
         CmsObject cms,
         CmsSearchIndex index,
         I_CmsReport report,
         List<CmsPublishedResource> resourcesToIndex) throws CmsException {
 
-        // update the existing index
-        List<CmsSearchIndexUpdateData> updateCollections = new ArrayList<CmsSearchIndexUpdateData>();
-
-        boolean hasResourcesToDelete = false;
-        boolean hasResourcesToUpdate = false;
-
-        // iterate all configured index sources of this index
-        Iterator<CmsSearchIndexSource> sources = index.getSources().iterator();
-        while (sources.hasNext()) {
-            // get the next index source
-            CmsSearchIndexSource source = sources.next();
-            // create the indexer
-            I_CmsIndexer indexer = source.getIndexer().newInstance(cms, report, index);
-            // collect the resources to update
-            CmsSearchIndexUpdateData updateData = indexer.getUpdateData(source, resourcesToIndex);
-            if (!updateData.isEmpty()) {
-                // add the update collection to the internal pipeline
-                updateCollections.add(updateData);
-                hasResourcesToDelete = hasResourcesToDelete | updateData.hasResourcesToDelete();
-                hasResourcesToUpdate = hasResourcesToUpdate | updateData.hasResourceToUpdate();
-            }
-        }
-
-        // only start index modification if required
-        if (hasResourcesToDelete || hasResourcesToUpdate) {
-            // output start information on the report
-            report.println(
-                Messages.get().container(Messages.RPT_SEARCH_INDEXING_UPDATE_BEGIN_1, index.getName()),
-                I_CmsReport.FORMAT_HEADLINE);
-
-            I_CmsIndexWriter writer = null;
-            try {
-                // obtain an index writer that updates the current index
-                writer = index.getIndexWriter(report, false);
-
-                if (hasResourcesToDelete) {
-                    // delete the resource from the index
-                    Iterator<CmsSearchIndexUpdateData> i = updateCollections.iterator();
-                    while (i.hasNext()) {
-                        CmsSearchIndexUpdateData updateCollection = i.next();
-                        if (updateCollection.hasResourcesToDelete()) {
-                            updateCollection.getIndexer().deleteResources(
-                                writer,
-                                updateCollection.getResourcesToDelete());
-                        }
-                    }
+        // make sure this index is updated by only one thread at a time, other indexes are not blocked
+        ReentrantLock lock = getIndexLock(index);
+        lock.lock();
+        try {
+            // update the existing index
+            List<CmsSearchIndexUpdateData> updateCollections = new ArrayList<CmsSearchIndexUpdateData>();
+
+            boolean hasResourcesToDelete = false;
+            boolean hasResourcesToUpdate = false;
+
+            // iterate all configured index sources of this index
+            Iterator<CmsSearchIndexSource> sources = index.getSources().iterator();
+            while (sources.hasNext()) {
+                // get the next index source
+                CmsSearchIndexSource source = sources.next();
+                // create the indexer
+                I_CmsIndexer indexer = source.getIndexer().newInstance(cms, report, index);
+                // collect the resources to update
+                CmsSearchIndexUpdateData updateData = indexer.getUpdateData(source, resourcesToIndex);
+                if (!updateData.isEmpty()) {
+                    // add the update collection to the internal pipeline
+                    updateCollections.add(updateData);
+                    hasResourcesToDelete = hasResourcesToDelete | updateData.hasResourcesToDelete();
+                    hasResourcesToUpdate = hasResourcesToUpdate | updateData.hasResourceToUpdate();
                 }
+            }
 
-                if (hasResourcesToUpdate) {
-                    // create a new thread manager
-                    CmsIndexingThreadManager threadManager = getThreadManager();
-
-                    Iterator<CmsSearchIndexUpdateData> i = updateCollections.iterator();
-                    while (i.hasNext()) {
-                        CmsSearchIndexUpdateData updateCollection = i.next();
-                        if (updateCollection.hasResourceToUpdate()) {
-                            updateCollection.getIndexer().updateResources(
-                                writer,
-                                threadManager,
-                                updateCollection.getResourcesToUpdate());
+            // only start index modification if required
+            if (hasResourcesToDelete || hasResourcesToUpdate) {
+                // output start information on the report
+                report.println(
+                    Messages.get().container(Messages.RPT_SEARCH_INDEXING_UPDATE_BEGIN_1, index.getName()),
+                    I_CmsReport.FORMAT_HEADLINE);
+
+                I_CmsIndexWriter writer = null;
+                try {
+                    // obtain an index writer that updates the current index
+                    writer = index.getIndexWriter(report, false);
+
+                    if (hasResourcesToDelete) {
+                        // delete the resource from the index
+                        Iterator<CmsSearchIndexUpdateData> i = updateCollections.iterator();
+                        while (i.hasNext()) {
+                            CmsSearchIndexUpdateData updateCollection = i.next();
+                            if (updateCollection.hasResourcesToDelete()) {
+                                updateCollection.getIndexer().deleteResources(
+                                    writer,
+                                    updateCollection.getResourcesToDelete());
+                            }
                         }
                     }
 
-                    // wait for indexing threads to finish
-                    while (threadManager.isRunning()) {
-                        try {
-                            Thread.sleep(500);
-                        } catch (InterruptedException e) {
-                            // just continue with the loop after interruption
+                    if (hasResourcesToUpdate) {
+                        // create a new thread manager
+                        CmsIndexingThreadManager threadManager = getThreadManager();
+
+                        Iterator<CmsSearchIndexUpdateData> i = updateCollections.iterator();
+                        while (i.hasNext()) {
+                            CmsSearchIndexUpdateData updateCollection = i.next();
+                            if (updateCollection.hasResourceToUpdate()) {
+                                updateCollection.getIndexer().updateResources(
+                                    writer,
+                                    threadManager,
+                                    updateCollection.getResourcesToUpdate());
+                            }
+                        }
+
+                        // wait for indexing threads to finish
+                        while (threadManager.isRunning()) {
+                            try {
+                                Thread.sleep(500);
+                            } catch (InterruptedException e) {
+                                // just continue with the loop after interruption
+                            }
                         }
                     }
-                }
-            } finally {
-                // close the index writer
-                if (writer != null) {
-                    try {
-                        writer.commit();
-                    } catch (IOException e) {
-                        LOG.error(
-                            Messages.get().getBundle().key(
-                                Messages.LOG_IO_INDEX_WRITER_COMMIT_2,
-                                index.getName(),
-                                index.getPath()),
-                            e);
+                } finally {
+                    // close the index writer
+                    if (writer != null) {
+                        try {
+                            writer.commit();
+                        } catch (IOException e) {
+                            LOG.error(
+                                Messages.get().getBundle().key(
+                                    Messages.LOG_IO_INDEX_WRITER_COMMIT_2,
+                                    index.getName(),
+                                    index.getPath()),
+                                e);
+                        }
                     }
+                    // index has changed - initialize the index searcher instance
+                    index.indexSearcherUpdate();
                 }
-                // index has changed - initialize the index searcher instance
-                index.indexSearcherUpdate();
-            }
 
-            // output finish information on the report
-            report.println(
-                Messages.get().container(Messages.RPT_SEARCH_INDEXING_UPDATE_END_1, index.getName()),
-                I_CmsReport.FORMAT_HEADLINE);
+                // output finish information on the report
+                report.println(
+                    Messages.get().container(Messages.RPT_SEARCH_INDEXING_UPDATE_END_1, index.getName()),
+                    I_CmsReport.FORMAT_HEADLINE);
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
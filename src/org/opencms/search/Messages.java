@@ -103,9 +103,15 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_INDEX_SEARCHER_CLOSE_1 = "ERR_INDEX_SEARCHER_CLOSE_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_INDEX_SEARCHER_RELEASE_1 = "ERR_INDEX_SEARCHER_RELEASE_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_INDEX_SEARCHER_REOPEN_1 = "ERR_INDEX_SEARCHER_REOPEN_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_INDEX_SEARCHER_WARM_1 = "ERR_INDEX_SEARCHER_WARM_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_INDEX_SHUTDOWN_1 = "ERR_INDEX_SHUTDOWN_1";
 
@@ -451,6 +457,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_SEARCH_INDEXING_LOCK_WAIT_2 = "RPT_SEARCH_INDEXING_LOCK_WAIT_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_SEARCH_INDEXING_OUTPUT_1 = "RPT_SEARCH_INDEXING_OUTPUT_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_SEARCH_INDEXING_REBUILD_BEGIN_1 = "RPT_SEARCH_INDEXING_REBUILD_BEGIN_1";
 
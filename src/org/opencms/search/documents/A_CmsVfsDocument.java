@@ -43,6 +43,7 @@ import org.opencms.search.fields.CmsSearchField;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import org.apache.commons.logging.Log;
 
@@ -116,50 +117,17 @@ public abstract class A_CmsVfsDocument implements I_CmsDocumentFactory {
             // check if caching is enabled for this document type
             CmsExtractionResultCache cache = getCache();
             String cacheName = null;
-            if ((cache != null) && (resource.getSiblingCount() > 1)) {
+            if ((cache != null) && ((resource.getSiblingCount() > 1) || cache.isSharingResults(index.getName()))) {
                 // hard drive based caching only makes sense for resources that have siblings, 
-                // because the index will also store the content as a blob
+                // because the index will also store the content as a blob, 
+                // or if several indexes are updated with the same resources at the same time
                 cacheName = cache.getCacheName(
                     resource,
                     isLocaleDependend() ? index.getLocaleForResource(cms, resource, null) : null,
                     getName());
-                content = cache.getCacheObject(cacheName);
             }
 
-            if (content == null) {
-                // extraction result has not been found in the cache
-                // compare "date of last modification of content" from Lucene index and OpenCms VFS
-                // if this is identical, then the data from the Lucene index can be re-used 
-                I_CmsSearchDocument oldDoc = index.getDocument(CmsSearchField.FIELD_PATH, resource.getRootPath());
-                // first check if the document is already in the index
-                if ((oldDoc != null) && (oldDoc.getFieldValueAsDate(CmsSearchField.FIELD_DATE_CONTENT) != null)) {
-                    long contentDateIndex = oldDoc.getFieldValueAsDate(CmsSearchField.FIELD_DATE_CONTENT).getTime();
-                    // now compare the date with the date stored in the resource
-                    if (contentDateIndex == resource.getDateContent()) {
-                        // extract stored content blob from index
-                        content = CmsExtractionResult.fromBytes(oldDoc.getContentBlob());
-                    }
-                }
-            }
-
-            if (content == null) {
-                // extraction result has not been attached to the resource
-                try {
-                    content = extractContent(cms, resource, index);
-                    if ((cache != null) && (resource.getSiblingCount() > 1)) {
-                        // save extracted content to the cache
-                        cache.saveCacheObject(cacheName, content);
-                    }
-                } catch (CmsIndexNoContentException e) {
-                    // there was no content found for the resource 
-                    LOG.info(Messages.get().getBundle().key(Messages.ERR_TEXT_EXTRACTION_1, resource.getRootPath())
-                        + " "
-                        + e.getMessage());
-                } catch (Exception e) {
-                    // text extraction failed for document - continue indexing meta information only
-                    LOG.error(Messages.get().getBundle().key(Messages.ERR_TEXT_EXTRACTION_1, resource.getRootPath()), e);
-                }
-            }
+            content = getExtractionResult(cms, resource, index, cache, cacheName);
         }
 
         // create the Lucene document according to the index field configuration
@@ -261,4 +229,72 @@ public abstract class A_CmsVfsDocument implements I_CmsDocumentFactory {
         }
         return file;
     }
+
+    /**
+     * Returns the extraction result for the given resource, either from the cache, 
+     * from the existing index document or by extracting the content.<p>
+     * 
+     * @param cms the OpenCms user context used to access the resource
+     * @param resource the resource to get the extraction result for
+     * @param index the search index the document is created for
+     * @param cache the extraction result cache
+     * @param cacheName the name of the resource in the cache, or <code>null</code> if the cache is not used
+     * 
+     * @return the extraction result for the given resource, or <code>null</code> if no content could be extracted
+     */
+    private I_CmsExtractionResult getExtractionResult(
+        final CmsObject cms,
+        final CmsResource resource,
+        final CmsSearchIndex index,
+        CmsExtractionResultCache cache,
+        String cacheName) {
+
+        I_CmsExtractionResult content = null;
+        if (cacheName != null) {
+            content = cache.getCacheObject(cacheName);
+        }
+
+        if (content == null) {
+            // extraction result has not been found in the cache
+            // compare "date of last modification of content" from Lucene index and OpenCms VFS
+            // if this is identical, then the data from the Lucene index can be re-used 
+            I_CmsSearchDocument oldDoc = index.getDocument(CmsSearchField.FIELD_PATH, resource.getRootPath());
+            // first check if the document is already in the index
+            if ((oldDoc != null) && (oldDoc.getFieldValueAsDate(CmsSearchField.FIELD_DATE_CONTENT) != null)) {
+                long contentDateIndex = oldDoc.getFieldValueAsDate(CmsSearchField.FIELD_DATE_CONTENT).getTime();
+                // now compare the date with the date stored in the resource
+                if (contentDateIndex == resource.getDateContent()) {
+                    // extract stored content blob from index
+                    content = CmsExtractionResult.fromBytes(oldDoc.getContentBlob());
+                }
+            }
+        }
+
+        if (content == null) {
+            // extraction result has not been attached to the resource
+            try {
+                if (cacheName != null) {
+                    // the cache makes sure the resource is extracted only once if several indexes need it at once
+                    content = cache.extractCacheObject(cacheName, new Callable<I_CmsExtractionResult>() {
+
+                        public I_CmsExtractionResult call() throws Exception {
+
+                            return extractContent(cms, resource, index);
+                        }
+                    });
+                } else {
+                    content = extractContent(cms, resource, index);
+                }
+            } catch (CmsIndexNoContentException e) {
+                // there was no content found for the resource 
+                LOG.info(Messages.get().getBundle().key(Messages.ERR_TEXT_EXTRACTION_1, resource.getRootPath())
+                    + " "
+                    + e.getMessage());
+            } catch (Exception e) {
+                // text extraction failed for document - continue indexing meta information only
+                LOG.error(Messages.get().getBundle().key(Messages.ERR_TEXT_EXTRACTION_1, resource.getRootPath()), e);
+            }
+        }
+        return content;
+    }
 }
@@ -37,6 +37,12 @@ import org.opencms.util.CmsFileUtil;
 import java.io.File;
 import java.io.IOException;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import org.apache.commons.logging.Log;
 
@@ -64,9 +70,15 @@ public class CmsExtractionResultCache {
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsExtractionResultCache.class);
 
+    /** The extractions which are currently running, by the RFS name of their result in the cache. */
+    private final ConcurrentMap<String, FutureTask<I_CmsExtractionResult>> m_extractions;
+
     /** The name of the cache base repository folder in the RFS. */
     private String m_rfsRepository;
 
+    /** The number of running updates that share their extraction results through this cache, by index name. */
+    private final Map<String, Integer> m_sharingIndexes;
+
     /**
      * Creates a new disk cache.<p>
      * 
@@ -77,6 +89,25 @@ public class CmsExtractionResultCache {
 
         // normalize the given folder name 
         m_rfsRepository = CmsFileUtil.normalizePath(basepath + foldername + File.separatorChar);
+        m_sharingIndexes = new ConcurrentHashMap<String, Integer>();
+        m_extractions = new ConcurrentHashMap<String, FutureTask<I_CmsExtractionResult>>();
+    }
+
+    /**
+     * Starts sharing the extraction results of all resources indexed for the given index through this cache.<p>
+     * 
+     * This is used while several indexes are updated with the same resources at the same time, 
+     * e.g. after a publish. In this case the results are stored in the cache for the other indexes, 
+     * not only for resources with siblings. Updates of other indexes are not affected.<p>
+     * 
+     * Every call of this method must be followed by a call of {@link #endSharingResults(String)}.<p>
+     * 
+     * @param indexName the name of the index 
+     */
+    public synchronized void beginSharingResults(String indexName) {
+
+        Integer count = m_sharingIndexes.get(indexName);
+        m_sharingIndexes.put(indexName, Integer.valueOf(count == null ? 1 : count.intValue() + 1));
     }
 
     /**
@@ -120,6 +151,81 @@ public class CmsExtractionResultCache {
         return count;
     }
 
+    /**
+     * Stops sharing the extraction results of all resources indexed for the given index through this cache.<p>
+     * 
+     * @param indexName the name of the index 
+     * 
+     * @see #beginSharingResults(String)
+     */
+    public synchronized void endSharingResults(String indexName) {
+
+        Integer count = m_sharingIndexes.get(indexName);
+        if ((count == null) || (count.intValue() <= 1)) {
+            m_sharingIndexes.remove(indexName);
+        } else {
+            m_sharingIndexes.put(indexName, Integer.valueOf(count.intValue() - 1));
+        }
+    }
+
+    /**
+     * Returns the extraction result stored in the disk cache, or extracts and stores it if it is not cached yet.<p>
+     * 
+     * If the same result is requested several times at once, e.g. by several indexes that are updated 
+     * at the same time, the extraction is done only once. The other callers wait for the running extraction 
+     * and get its result, or the exception it has thrown.<p>
+     * 
+     * @param rfsName the RFS name of the extraction result in the cache
+     * @param extractor extracts the content if it is not cached yet
+     * 
+     * @return the extraction result
+     * 
+     * @throws Exception if the extraction or storing its result fails
+     */
+    public I_CmsExtractionResult extractCacheObject(
+        final String rfsName,
+        final Callable<I_CmsExtractionResult> extractor) throws Exception {
+
+        I_CmsExtractionResult content = getCacheObject(rfsName);
+        if (content != null) {
+            return content;
+        }
+        FutureTask<I_CmsExtractionResult> task = new FutureTask<I_CmsExtractionResult>(
+            new Callable<I_CmsExtractionResult>() {
+
+                public I_CmsExtractionResult call() throws Exception {
+
+                    // another extraction may have stored the result since the cache was checked
+                    I_CmsExtractionResult result = getCacheObject(rfsName);
+                    if (result == null) {
+                        result = extractor.call();
+                        if (result != null) {
+                            saveCacheObject(rfsName, result);
+                        }
+                    }
+                    return result;
+                }
+            });
+        FutureTask<I_CmsExtractionResult> running = m_extractions.putIfAbsent(rfsName, task);
+        if (running == null) {
+            running = task;
+            try {
+                task.run();
+            } finally {
+                m_extractions.remove(rfsName, task);
+            }
+        }
+        try {
+            return running.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw (Exception)cause;
+        }
+    }
+
     /**
      * Returns the RFS name used for caching an the text extraction result
      * based on the given VFS resource and locale.<p>  
@@ -197,6 +303,21 @@ public class CmsExtractionResultCache {
         return m_rfsRepository;
     }
 
+    /**
+     * Returns <code>true</code> if the extraction results of all resources indexed for the given index 
+     * are currently shared through this cache.<p>
+     * 
+     * @param indexName the name of the index 
+     * 
+     * @return <code>true</code> if the extraction results for the given index are currently shared
+     * 
+     * @see #beginSharingResults(String)
+     */
+    public boolean isSharingResults(String indexName) {
+
+        return m_sharingIndexes.containsKey(indexName);
+    }
+
     /**
      * Serializes the given extraction result and saves it in the disk cache.<p> 
      * 
@@ -28,6 +28,7 @@
 package org.opencms.security;
 
 import org.opencms.configuration.CmsSystemConfiguration;
+import org.opencms.db.CmsCacheKey;
 import org.opencms.db.CmsCacheSettings;
 import org.opencms.db.CmsDbContext;
 import org.opencms.db.CmsDriverManager;
@@ -43,6 +44,7 @@ import org.opencms.main.CmsException;
 import org.opencms.main.CmsInitException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
+import org.opencms.monitor.CmsCompositeCacheKey;
 
 import java.util.Iterator;
 
@@ -64,9 +66,15 @@ public class CmsDefaultPermissionHandler implements I_CmsPermissionHandler {
     /** Security Manager instance. */
     protected CmsSecurityManager m_securityManager;
 
+    /** The type of the composite permission cache keys. */
+    private static final String CACHE_KEY_PERMISSION = "permission";
+
     /** The class used for cache key generation. */
     private I_CmsCacheKey m_keyGenerator;
 
+    /** Indicates if the default key generator is used, so that composite cache keys can be used instead. */
+    private boolean m_useCompositeKeys;
+
     /**
      * @see org.opencms.security.I_CmsPermissionHandler#hasPermissions(org.opencms.db.CmsDbContext, org.opencms.file.CmsResource, org.opencms.security.CmsPermissionSet, boolean, org.opencms.file.CmsResourceFilter)
      */
@@ -85,13 +93,18 @@ public class CmsDefaultPermissionHandler implements I_CmsPermissionHandler {
 
         // checking the filter is less cost intensive then checking the cache,
         // this is why basic filter results are not cached
-        String cacheKey = m_keyGenerator.getCacheKeyForUserPermissions(
-            filter.requireVisible() && checkLock ? "11" : (!filter.requireVisible() && checkLock
-            ? "01"
-            : (filter.requireVisible() && !checkLock ? "10" : "00")),
-            dbc,
-            resource,
-            requiredPermissions);
+        Object cacheKey;
+        if (m_useCompositeKeys) {
+            cacheKey = getCacheKey(dbc, resource, requiredPermissions, checkLock, filter);
+        } else {
+            cacheKey = m_keyGenerator.getCacheKeyForUserPermissions(
+                filter.requireVisible() && checkLock ? "11" : (!filter.requireVisible() && checkLock
+                ? "01"
+                : (filter.requireVisible() && !checkLock ? "10" : "00")),
+                dbc,
+                resource,
+                requiredPermissions);
+        }
         CmsPermissionCheckResult cacheResult = OpenCms.getMemoryMonitor().getCachedPermission(cacheKey);
         if (cacheResult != null) {
             return cacheResult;
@@ -232,10 +245,46 @@ public class CmsDefaultPermissionHandler implements I_CmsPermissionHandler {
         try {
             // initialize the key generator
             m_keyGenerator = (I_CmsCacheKey)Class.forName(className).newInstance();
+            m_useCompositeKeys = m_keyGenerator.getClass() == CmsCacheKey.class;
         } catch (Exception e) {
             throw new CmsInitException(org.opencms.main.Messages.get().container(
                 org.opencms.main.Messages.ERR_CRITICAL_CLASS_CREATION_1,
                 className), e);
         }
     }
+
+    /**
+     * Returns the composite permission cache key for the given parameters.<p>
+     * 
+     * The key contains the same information as the key created by {@link CmsCacheKey}, 
+     * but without building a String for every permission check.<p>
+     * 
+     * @param dbc the current database context
+     * @param resource the resource to check the permissions for
+     * @param requiredPermissions the set of permissions to check
+     * @param checkLock if <code>true</code> the lock status of the resource is checked
+     * @param filter the resource filter
+     * 
+     * @return the permission cache key
+     */
+    private CmsCompositeCacheKey getCacheKey(
+        CmsDbContext dbc,
+        CmsResource resource,
+        CmsPermissionSet requiredPermissions,
+        boolean checkLock,
+        CmsResourceFilter filter) {
+
+        if (!dbc.getProjectId().isNullUUID()) {
+            return CmsCompositeCacheKey.NONE;
+        }
+        int flags = dbc.currentProject().isOnlineProject() ? CmsCompositeCacheKey.ONLINE : 0;
+        flags |= (filter.requireVisible() ? 2 : 0) | (checkLock ? 4 : 0);
+        return new CmsCompositeCacheKey(
+            CACHE_KEY_PERMISSION,
+            flags,
+            dbc.currentUser().getName(),
+            Integer.valueOf(requiredPermissions.getAllowedPermissions()),
+            Integer.valueOf(requiredPermissions.getDeniedPermissions()),
+            resource.getStructureId());
+    }
 }
@@ -57,6 +57,13 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletResponse;
@@ -74,6 +81,9 @@ import org.apache.commons.logging.Log;
  */
 public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler {
 
+    /** The maximum number of threads used to export non template resources. */
+    private static final int EXPORT_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
     /** Header field set-cookie constant. */
     private static final String HEADER_FIELD_SET_COOKIE = "Set-Cookie";
 
@@ -305,7 +315,7 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
                 new Integer(publishedResources.size())));
         }
 
-        CmsStaticExportManager manager = OpenCms.getStaticExportManager();
+        final CmsStaticExportManager manager = OpenCms.getStaticExportManager();
         List<CmsStaticExportData> resourcesToExport = new ArrayList<CmsStaticExportData>();
         boolean templatesFound = readNonTemplateResourcesToExport(cms, publishedResources, resourcesToExport);
 
@@ -314,48 +324,62 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
         if (LOG.isDebugEnabled()) {
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_NUM_EXPORT_1, new Integer(size)));
         }
-        // now do the export
-        Iterator<CmsStaticExportData> i = resourcesToExport.iterator();
-        while (i.hasNext()) {
-            CmsStaticExportData exportData = i.next();
-            if (LOG.isDebugEnabled()) {
-                LOG.debug(Messages.get().getBundle().key(
-                    Messages.LOG_EXPORT_FILE_2,
-                    exportData.getVfsName(),
-                    exportData.getRfsName()));
+        // now do the export, the resources are exported in parallel but reported in their original order
+        final CmsObject exportCms = cms;
+        ExecutorService executor = createExportExecutor();
+        List<Future<Integer>> results = new ArrayList<Future<Integer>>(size);
+        try {
+            for (final CmsStaticExportData exportData : resourcesToExport) {
+                results.add(executor.submit(new Callable<Integer>() {
+
+                    public Integer call() throws Exception {
+
+                        return new Integer(manager.export(null, null, exportCms, exportData));
+                    }
+                }));
             }
+            for (int j = 0; j < size; j++) {
+                CmsStaticExportData exportData = resourcesToExport.get(j);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(Messages.get().getBundle().key(
+                        Messages.LOG_EXPORT_FILE_2,
+                        exportData.getVfsName(),
+                        exportData.getRfsName()));
+                }
 
-            report.print(
-                org.opencms.report.Messages.get().container(
-                    org.opencms.report.Messages.RPT_SUCCESSION_2,
-                    new Integer(count++),
-                    new Integer(size)),
-                I_CmsReport.FORMAT_NOTE);
-            report.print(Messages.get().container(Messages.RPT_EXPORTING_0), I_CmsReport.FORMAT_NOTE);
-            report.print(org.opencms.report.Messages.get().container(
-                org.opencms.report.Messages.RPT_ARGUMENT_1,
-                exportData.getVfsName()));
-            report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-            int status = manager.export(null, null, cms, exportData);
-            if (status == HttpServletResponse.SC_OK) {
-                report.println(
-                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-                    I_CmsReport.FORMAT_OK);
-            } else {
-                report.println(
-                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_IGNORED_0),
+                report.print(
+                    org.opencms.report.Messages.get().container(
+                        org.opencms.report.Messages.RPT_SUCCESSION_2,
+                        new Integer(count++),
+                        new Integer(size)),
                     I_CmsReport.FORMAT_NOTE);
-            }
+                report.print(Messages.get().container(Messages.RPT_EXPORTING_0), I_CmsReport.FORMAT_NOTE);
+                report.print(org.opencms.report.Messages.get().container(
+                    org.opencms.report.Messages.RPT_ARGUMENT_1,
+                    exportData.getVfsName()));
+                report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+                int status = getExportStatus(results.get(j));
+                if (status == HttpServletResponse.SC_OK) {
+                    report.println(
+                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+                        I_CmsReport.FORMAT_OK);
+                } else {
+                    report.println(
+                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_IGNORED_0),
+                        I_CmsReport.FORMAT_NOTE);
+                }
 
-            if (LOG.isInfoEnabled()) {
-                Object[] arguments = new Object[] {
-                    exportData.getVfsName(),
-                    exportData.getRfsName(),
-                    new Integer(status)};
-                LOG.info(Messages.get().getBundle().key(Messages.LOG_EXPORT_FILE_STATUS_3, arguments));
+                if (LOG.isInfoEnabled()) {
+                    Object[] arguments = new Object[] {
+                        exportData.getVfsName(),
+                        exportData.getRfsName(),
+                        new Integer(status)};
+                    LOG.info(Messages.get().getBundle().key(Messages.LOG_EXPORT_FILE_STATUS_3, arguments));
+                }
             }
-            //don't lock up the CPU exclusively - allow other Threads to run as well 
-            Thread.yield();
+        } finally {
+            // cancels the remaining exports in case of an error
+            executor.shutdownNow();
         }
 
         resourcesToExport = null;
@@ -890,4 +914,58 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
 
         return templatesFound;
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates the executor used to export the non template resources.<p>
+     * 
+     * @return the executor used to export the non template resources
+     */
+    private ExecutorService createExportExecutor() {
+
+        final AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(EXPORT_THREADS, new ThreadFactory() {
+
+            public Thread newThread(Runnable r) {
+
+                Thread thread = new Thread(r, "OpenCms: Static Export #" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Waits for the export of a resource to finish and returns its status.<p>
+     * 
+     * @param result the pending export result
+     * 
+     * @return the status of the export
+     * 
+     * @throws CmsException in case of errors accessing the VFS
+     * @throws IOException in case of errors writing to the export output stream
+     * @throws ServletException in case of errors accessing the servlet 
+     */
+    private int getExportStatus(Future<Integer> result) throws CmsException, IOException, ServletException {
+
+        try {
+            return result.get().intValue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CmsStaticExportException(Messages.get().container(Messages.ERR_EXPORT_NOT_SUCCESSFUL_0), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CmsException) {
+                throw (CmsException)cause;
+            } else if (cause instanceof IOException) {
+                throw (IOException)cause;
+            } else if (cause instanceof ServletException) {
+                throw (ServletException)cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new CmsStaticExportException(Messages.get().container(Messages.ERR_EXPORT_NOT_SUCCESSFUL_0), cause);
+        }
+    }
+}
@@ -172,6 +172,9 @@ public class CmsStaticExportManager implements I_CmsEventListener {
     /** The additional http headers for the static export. */
     private List<String> m_exportHeaders;
 
+    /** The content hashes of the exported files. */
+    private CmsStaticExportManifest m_exportManifest;
+
     /** List of all resources that have the "exportname" property set: &lt;system-wide unique export name, root path&gt;. */
     private Map<String, String> m_exportnameResources;
 
@@ -282,6 +285,7 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         m_exportTmpRule = new CmsStaticExportExportRule("", "");
         m_rfsTmpRule = new CmsStaticExportRfsRule("", "", "", "", "", "", null, null);
         m_fullStaticExport = false;
+        m_exportManifest = new CmsStaticExportManifest();
     }
 
     /**
@@ -703,6 +707,7 @@ public class CmsStaticExportManager implements I_CmsEventListener {
             OpenCms.fireCmsEvent(clearCacheEvent);
 
             scrubExportFolders(report);
+            m_exportManifest.clear();
             // this will always use the root site
             CmsObject cms = OpenCms.initCmsObject(OpenCms.getDefaultUsers().getUserExport());
             cms.deleteAllStaticExportPublishedResources(EXPORT_LINK_WITHOUT_PARAMETER);
@@ -2747,6 +2752,10 @@ public class CmsStaticExportManager implements I_CmsEventListener {
     /**
       * Writes a resource to the given export path with the given rfs name and the given content.<p>
       * 
+      * If the file already exists with the same content, it is not written again. Otherwise the content 
+      * is written to a temporary file first, which then replaces the export file, so that the web server 
+      * never delivers a partially written file.<p>
+      * 
       * @param req the current request
       * @param exportPath the path to export the resource
       * @param rfsName the rfs name
@@ -2766,26 +2775,52 @@ public class CmsStaticExportManager implements I_CmsEventListener {
 
         // make sure all required parent folder exist
         createExportFolder(exportPath, rfsName);
-        // generate export file instance and output stream
+        // generate export file instance
         File exportFile = new File(exportFileName);
-        // write new exported file content
-        try {
-            FileOutputStream exportStream = new FileOutputStream(exportFile);
-            exportStream.write(content);
-            exportStream.close();
-
-            // log export success 
-            if (LOG.isInfoEnabled()) {
-                LOG.info(Messages.get().getBundle().key(
-                    Messages.LOG_STATIC_EXPORTED_2,
+        byte[] hash = CmsStaticExportManifest.getHash(content);
+        if (m_exportManifest.isUnchanged(exportFile, content.length, hash)) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(Messages.get().getBundle().key(
+                    Messages.LOG_STATIC_EXPORT_UNCHANGED_2,
                     resource.getRootPath(),
                     exportFileName));
             }
+        } else {
+            // write new exported file content
+            File tempFile = null;
+            try {
+                tempFile = File.createTempFile(".export", ".tmp", exportFile.getParentFile());
+                FileOutputStream exportStream = new FileOutputStream(tempFile);
+                try {
+                    exportStream.write(content);
+                } finally {
+                    exportStream.close();
+                }
+                if (!tempFile.renameTo(exportFile)) {
+                    // some platforms don't allow to rename a file to an existing file name
+                    exportFile.delete();
+                    if (!tempFile.renameTo(exportFile)) {
+                        throw new IOException(tempFile.getAbsolutePath());
+                    }
+                }
+
+                // log export success 
+                if (LOG.isInfoEnabled()) {
+                    LOG.info(Messages.get().getBundle().key(
+                        Messages.LOG_STATIC_EXPORTED_2,
+                        resource.getRootPath(),
+                        exportFileName));
+                }
 
-        } catch (Throwable t) {
-            throw new CmsStaticExportException(
-                Messages.get().container(Messages.ERR_OUTPUT_STREAM_1, exportFileName),
-                t);
+            } catch (Throwable t) {
+                throw new CmsStaticExportException(
+                    Messages.get().container(Messages.ERR_OUTPUT_STREAM_1, exportFileName),
+                    t);
+            } finally {
+                if ((tempFile != null) && tempFile.exists()) {
+                    tempFile.delete();
+                }
+            }
         }
         // update the file with the modification date from the server
         if (req != null) {
@@ -2803,6 +2838,7 @@ public class CmsStaticExportManager implements I_CmsEventListener {
             // otherwise take the last modification date form the OpenCms resource
             exportFile.setLastModified((resource.getDateLastModified() / 1000) * 1000);
         }
+        m_exportManifest.update(exportFile, hash);
     }
 
     /**
@@ -0,0 +1,193 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.staticexport;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the content hashes of the files written by the static export.<p>
+ *
+ * Before the static export writes a file, it asks the manifest if the file in the RFS already has the
+ * new content. An entry is only trusted as long as the length and the modification date of the file
+ * match the values recorded when the entry was written. If there is no (valid) entry, the hash of the
+ * existing file is calculated from disk, which is still cheaper than rewriting it.<p>
+ *
+ * @since 9.0.0
+ */
+public class CmsStaticExportManifest {
+
+    /**
+     * A manifest entry.<p>
+     */
+    private static final class CmsManifestEntry {
+
+        /** The content hash. */
+        final byte[] m_hash;
+
+        /** The modification date of the file. */
+        final long m_lastModified;
+
+        /** The length of the file. */
+        final long m_length;
+
+        /**
+         * Creates a new manifest entry.<p>
+         *
+         * @param hash the content hash
+         * @param length the length of the file
+         * @param lastModified the modification date of the file
+         */
+        CmsManifestEntry(byte[] hash, long length, long lastModified) {
+
+            m_hash = hash;
+            m_length = length;
+            m_lastModified = lastModified;
+        }
+    }
+
+    /** The hash algorithm. */
+    private static final String HASH_ALGORITHM = "MD5";
+
+    /** The entries, with the absolute file name as key. */
+    private Map<String, CmsManifestEntry> m_entries;
+
+    /**
+     * Creates a new, empty manifest.<p>
+     */
+    public CmsStaticExportManifest() {
+
+        m_entries = new ConcurrentHashMap<String, CmsManifestEntry>();
+    }
+
+    /**
+     * Calculates the content hash for the given content.<p>
+     *
+     * @param content the content
+     *
+     * @return the content hash
+     */
+    public static byte[] getHash(byte[] content) {
+
+        return createDigest().digest(content);
+    }
+
+    /**
+     * Removes all entries from the manifest.<p>
+     */
+    public void clear() {
+
+        m_entries.clear();
+    }
+
+    /**
+     * Checks if the given file exists and has the content with the given hash.<p>
+     *
+     * @param file the file to check
+     * @param length the length of the new content
+     * @param hash the hash of the new content
+     *
+     * @return <code>true</code> if the file does not have to be written again
+     */
+    public boolean isUnchanged(File file, long length, byte[] hash) {
+
+        if (!file.isFile() || (file.length() != length)) {
+            return false;
+        }
+        CmsManifestEntry entry = m_entries.get(file.getAbsolutePath());
+        if ((entry != null) && (entry.m_length == length) && (entry.m_lastModified == file.lastModified())) {
+            return Arrays.equals(entry.m_hash, hash);
+        }
+        try {
+            return Arrays.equals(readHash(file), hash);
+        } catch (IOException e) {
+            // treat unreadable files as changed
+            return false;
+        }
+    }
+
+    /**
+     * Records the hash of a file that has just been written.<p>
+     *
+     * Call this method after the modification date of the file has been set.<p>
+     *
+     * @param file the file
+     * @param hash the hash of the file content
+     */
+    public void update(File file, byte[] hash) {
+
+        m_entries.put(file.getAbsolutePath(), new CmsManifestEntry(hash, file.length(), file.lastModified()));
+    }
+
+    /**
+     * Creates a new message digest.<p>
+     *
+     * @return the message digest
+     */
+    private static MessageDigest createDigest() {
+
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // MD5 is available in every Java runtime
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Calculates the content hash of a file.<p>
+     *
+     * @param file the file
+     *
+     * @return the content hash
+     *
+     * @throws IOException if the file could not be read
+     */
+    private byte[] readHash(File file) throws IOException {
+
+        MessageDigest digest = createDigest();
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } finally {
+            in.close();
+        }
+        return digest.digest();
+    }
+}
@@ -283,6 +283,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_STATIC_EXPORTED_2 = "LOG_STATIC_EXPORTED_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_STATIC_EXPORT_UNCHANGED_2 = "LOG_STATIC_EXPORT_UNCHANGED_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_STATICEXPORT_COOKIES_1 = "LOG_STATICEXPORT_COOKIES_1";
 
@@ -46,8 +46,12 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
@@ -858,6 +862,61 @@ public final class CmsFileUtil {
         return webInfFolder;
     }
 
+    /**
+     * Writes the contents of a file channel to an output stream.<p>
+     * 
+     * The contents are transferred up to the size the channel has when this method is called. 
+     * If the file gets shorter during the transfer, the transfer stops at its new end. 
+     * The channel and the output stream are not closed.<p>
+     * 
+     * @param channel the channel of the file to transfer
+     * @param out the output stream to write the file contents to
+     * 
+     * @return the number of bytes written
+     * 
+     * @throws IOException in case of file access or output errors
+     */
+    public static long transferFile(FileChannel channel, OutputStream out) throws IOException {
+
+        WritableByteChannel target = Channels.newChannel(out);
+        long size = channel.size();
+        long position = 0;
+        while (position < size) {
+            long count = channel.transferTo(position, size - position, target);
+            if (count <= 0) {
+                // the file has been truncated
+                break;
+            }
+            position += count;
+        }
+        return position;
+    }
+
+    /**
+     * Writes the contents of a file to an output stream.<p>
+     * 
+     * The file is transferred through its file channel, so its contents are never read into a byte array 
+     * as a whole. The output stream is not closed.<p>
+     * 
+     * @param file the file to transfer
+     * @param out the output stream to write the file contents to
+     * 
+     * @return the number of bytes written
+     * 
+     * @throws IOException in case of file access or output errors
+     * 
+     * @see #transferFile(FileChannel, OutputStream)
+     */
+    public static long transferFile(File file, OutputStream out) throws IOException {
+
+        FileInputStream in = new FileInputStream(file);
+        try {
+            return transferFile(in.getChannel(), out);
+        } finally {
+            in.close();
+        }
+    }
+
     /**
      * Traverses the file system starting from a base folder and executes a callback for every directory found.<p>
      * 
@@ -56,7 +56,10 @@ import org.safehaus.uuid.UUIDGenerator;
  * (without using JNI), the MAC address has to be provided first 
  * by using the static {@link #init(String)} method.<p>
  * 
- * This class is just a facade wrapper for the "real" UUID implementation.<p> 
+ * The UUID generation is delegated to the "real" UUID implementation, but the UUID itself is stored
+ * in two <code>long</code> values, and parsing, formatting, hashing and comparing don't create
+ * any intermediate objects. The ordering and hash codes are the same as the ones of the generator's
+ * UUID implementation.<p> 
  * 
  * @since 6.0.0 
  */
@@ -65,6 +68,12 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
     /** A regular expression for matching UUIDs. */
     public static final String UUID_REGEX = "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}";
 
+    /** The rotation distances used for calculating the hash code. */
+    private static final int[] HASH_SHIFTS = {3, 7, 17, 21, 29, 4, 9};
+
+    /** The characters used for formatting UUIDs. */
+    private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsUUID.class);
 
@@ -77,13 +86,22 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
         "www.opencms.org");
 
     /** Constant for the null UUID. */
-    private static final CmsUUID NULL_UUID = new CmsUUID(UUID.getNullUUID());
+    private static final CmsUUID NULL_UUID = new CmsUUID(0L, 0L);
 
     /** Serial version UID required for safe serialization. */
     private static final long serialVersionUID = 1736324454709298676L;
 
-    /** Internal UUID implementation. */
-    private transient UUID m_uuid;
+    /** The cached hash code, 0 if not yet calculated. */
+    private transient int m_hashCode;
+
+    /** The lower 64 bits of the UUID. */
+    private transient long m_leastSigBits;
+
+    /** The upper 64 bits of the UUID. */
+    private transient long m_mostSigBits;
+
+    /** The cached String representation. */
+    private transient String m_string;
 
     /**
      * Creates a new UUID.<p>
@@ -99,7 +117,7 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
             // since the empty constructor is called when the de-serialization takes place
             init(CmsStringUtil.getEthernetAddress());
         }
-        m_uuid = UUIDGenerator.getInstance().generateTimeBasedUUID(m_ethernetAddress);
+        setBytes(UUIDGenerator.getInstance().generateTimeBasedUUID(m_ethernetAddress).asByteArray());
     }
 
     /**
@@ -109,7 +127,19 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
      */
     public CmsUUID(byte[] data) {
 
-        m_uuid = new UUID(data);
+        setBytes(data);
+    }
+
+    /**
+     * Create a UUID from its upper and lower 64 bits.<p>
+     * 
+     * @param mostSigBits the upper 64 bits of the UUID
+     * @param leastSigBits the lower 64 bits of the UUID
+     */
+    public CmsUUID(long mostSigBits, long leastSigBits) {
+
+        m_mostSigBits = mostSigBits;
+        m_leastSigBits = leastSigBits;
     }
 
     /**
@@ -121,17 +151,17 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
     public CmsUUID(String uuid)
     throws NumberFormatException {
 
-        m_uuid = new UUID(uuid);
+        parse(uuid);
     }
 
     /**
-     * Create a new UUID based on another one (used internal for cloning).<p>
+     * Create a new UUID based on a UUID of the generator implementation.<p>
      * 
-     * @param uuid the UUID to clone
+     * @param uuid the generated UUID
      */
     private CmsUUID(UUID uuid) {
 
-        m_uuid = uuid;
+        setBytes(uuid.asByteArray());
     }
 
     /**
@@ -225,12 +255,20 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
      */
     public static boolean isValidUUID(String uuid) {
 
-        try {
-            return (null != uuid) && (null != UUID.valueOf(uuid));
-        } catch (NumberFormatException e) {
-            // return false
+        if ((uuid == null) || (uuid.length() != 36)) {
+            return false;
         }
-        return false;
+        for (int i = 0; i < 36; i++) {
+            char c = uuid.charAt(i);
+            if ((i == 8) || (i == 13) || (i == 18) || (i == 23)) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (hexValue(c) < 0) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -244,7 +282,7 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
      */
     public static CmsUUID valueOf(String uuid) throws NumberFormatException {
 
-        return new CmsUUID(UUID.valueOf(uuid));
+        return new CmsUUID(uuid);
     }
 
     /**
@@ -258,15 +296,34 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
         if (this == NULL_UUID) {
             return NULL_UUID;
         }
-        return new CmsUUID((UUID)m_uuid.clone());
+        return new CmsUUID(m_mostSigBits, m_leastSigBits);
     }
 
     /**
+     * Compares the UUIDs by type first, then time based UUIDs by their time stamp and all other UUIDs 
+     * by their bytes.<p>
+     * 
      * @see java.lang.Comparable#compareTo(Object)
      */
     public int compareTo(CmsUUID obj) {
 
-        return m_uuid.compareTo(obj.m_uuid);
+        int type = getType();
+        int otherType = obj.getType();
+        if (type != otherType) {
+            return type > otherType ? 1 : -1;
+        }
+        long most = m_mostSigBits;
+        long otherMost = obj.m_mostSigBits;
+        if (type == 1) {
+            // time based UUIDs are ordered by the time stamp: time_hi, time_mid, time_low
+            most = (most << 48) | ((most & 0xffff0000L) << 16) | (most >>> 32);
+            otherMost = (otherMost << 48) | ((otherMost & 0xffff0000L) << 16) | (otherMost >>> 32);
+        }
+        int result = compareUnsigned(most, otherMost);
+        if (result == 0) {
+            result = compareUnsigned(m_leastSigBits, obj.m_leastSigBits);
+        }
+        return result;
     }
 
     /**
@@ -279,11 +336,32 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
             return true;
         }
         if (obj instanceof CmsUUID) {
-            return ((CmsUUID)obj).m_uuid.equals(m_uuid);
+            CmsUUID other = (CmsUUID)obj;
+            return (other.m_mostSigBits == m_mostSigBits) && (other.m_leastSigBits == m_leastSigBits);
         }
         return false;
     }
 
+    /**
+     * Returns the lower 64 bits of this UUID.<p>
+     * 
+     * @return the lower 64 bits of this UUID
+     */
+    public long getLeastSignificantBits() {
+
+        return m_leastSigBits;
+    }
+
+    /**
+     * Returns the upper 64 bits of this UUID.<p>
+     * 
+     * @return the upper 64 bits of this UUID
+     */
+    public long getMostSignificantBits() {
+
+        return m_mostSigBits;
+    }
+
     /**
      * Returns the String representation of this UUID, same as {@link #toString()}.<p>
      * 
@@ -304,7 +382,31 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
     @Override
     public int hashCode() {
 
-        return m_uuid.hashCode();
+        int hash = m_hashCode;
+        if (hash == 0) {
+            // same algorithm as in the generator's UUID implementation, applied to the bytes of the UUID
+            hash = byteAt(0);
+            hash |= (hash << 16);
+            hash |= (hash << 8);
+            for (int i = 1; i < 15; i += 2) {
+                int value = (byteAt(i) << 8) | byteAt(i + 1);
+                int shift = HASH_SHIFTS[i >> 1];
+                if (shift > 16) {
+                    hash ^= (value << shift) | (value >>> (32 - shift));
+                } else {
+                    hash ^= (value << shift);
+                }
+            }
+            int last = byteAt(15);
+            hash ^= (last << 3);
+            hash ^= (last << 13);
+            hash ^= (last << 27);
+            if (hash == 0) {
+                hash = -1;
+            }
+            m_hashCode = hash;
+        }
+        return hash;
     }
 
     /**
@@ -314,10 +416,7 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
      */
     public boolean isNullUUID() {
 
-        if (this == NULL_UUID) {
-            return true;
-        }
-        return m_uuid.equals(UUID.getNullUUID());
+        return (m_mostSigBits == 0) && (m_leastSigBits == 0);
     }
 
     /**
@@ -347,15 +446,17 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
             if (LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(Messages.LOG_READ_UUID_1, o));
             }
-            m_uuid = new UUID((String)o);
+            try {
+                parse((String)o);
+                return;
+            } catch (NumberFormatException e) {
+                // handled below
+            }
         }
 
         // log an error if the uuid could not be deserialized
-        if (m_uuid == null) {
-            // UUID cannot be deserialized
-            if (LOG.isDebugEnabled()) {
-                LOG.debug(Messages.get().getBundle().key(Messages.LOG_ERR_READ_UUID_0));
-            }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(Messages.get().getBundle().key(Messages.LOG_ERR_READ_UUID_0));
         }
     }
 
@@ -366,7 +467,11 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
      */
     public byte[] toByteArray() {
 
-        return m_uuid.toByteArray();
+        byte[] result = new byte[16];
+        for (int i = 0; i < 16; i++) {
+            result[i] = (byte)byteAt(i);
+        }
+        return result;
     }
 
     /**
@@ -375,7 +480,22 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
     @Override
     public String toString() {
 
-        return m_uuid.toString();
+        String result = m_string;
+        if (result == null) {
+            char[] chars = new char[36];
+            formatHex(chars, 0, m_mostSigBits >>> 32, 8);
+            chars[8] = '-';
+            formatHex(chars, 9, m_mostSigBits >>> 16, 4);
+            chars[13] = '-';
+            formatHex(chars, 14, m_mostSigBits, 4);
+            chars[18] = '-';
+            formatHex(chars, 19, m_leastSigBits >>> 48, 4);
+            chars[23] = '-';
+            formatHex(chars, 24, m_leastSigBits, 12);
+            result = new String(chars);
+            m_string = result;
+        }
+        return result;
     }
 
     /**
@@ -389,4 +509,138 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
         }
         out.writeObject(toString());
     }
-}
\ No newline at end of file
+
+    /**
+     * Compares two long values as unsigned numbers.<p>
+     * 
+     * @param a the first value
+     * @param b the second value
+     * 
+     * @return a negative number, zero or a positive number if a is less than, equal to or greater than b
+     */
+    private static int compareUnsigned(long a, long b) {
+
+        if (a == b) {
+            return 0;
+        }
+        return (a ^ Long.MIN_VALUE) < (b ^ Long.MIN_VALUE) ? -1 : 1;
+    }
+
+    /**
+     * Writes the lowest digits of a value as hex digits.<p>
+     * 
+     * @param chars the target array
+     * @param offset the position of the first digit in the target array
+     * @param value the value
+     * @param digits the number of digits to write
+     */
+    private static void formatHex(char[] chars, int offset, long value, int digits) {
+
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            chars[i] = HEX_CHARS[(int)value & 0xf];
+            value >>>= 4;
+        }
+    }
+
+    /**
+     * Returns the value of a hex digit.<p>
+     * 
+     * @param c the hex digit, upper or lower case
+     * 
+     * @return the value of the hex digit, or -1 if the character is no hex digit
+     */
+    private static int hexValue(char c) {
+
+        if ((c >= '0') && (c <= '9')) {
+            return c - '0';
+        }
+        if ((c >= 'a') && (c <= 'f')) {
+            return (c - 'a') + 10;
+        }
+        if ((c >= 'A') && (c <= 'F')) {
+            return (c - 'A') + 10;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a byte of this UUID in network byte order.<p>
+     * 
+     * @param index the index of the byte, between 0 and 15
+     * 
+     * @return the unsigned byte value
+     */
+    private int byteAt(int index) {
+
+        long bits = index < 8 ? m_mostSigBits : m_leastSigBits;
+        return (int)(bits >>> ((7 - (index & 7)) * 8)) & 0xff;
+    }
+
+    /**
+     * Returns the type of this UUID, which is stored in the upper 4 bits of byte 6.<p>
+     * 
+     * @return the type of this UUID
+     */
+    private int getType() {
+
+        return (int)(m_mostSigBits >>> 12) & 0xf;
+    }
+
+    /**
+     * Sets the bits of this UUID from the standard 36 character String representation.<p>
+     * 
+     * @param uuid the String representation
+     * 
+     * @throws NumberFormatException if the String is not a valid UUID
+     */
+    private void parse(String uuid) throws NumberFormatException {
+
+        if (uuid.length() != 36) {
+            throw new NumberFormatException("UUID has to be represented by the standard 36-char representation");
+        }
+        long most = 0;
+        long least = 0;
+        boolean upperCase = false;
+        for (int i = 0; i < 36; i++) {
+            char c = uuid.charAt(i);
+            if ((i == 8) || (i == 13) || (i == 18) || (i == 23)) {
+                if (c != '-') {
+                    throw new NumberFormatException("No hyphen at position " + i + " in UUID '" + uuid + "'");
+                }
+                continue;
+            }
+            int value = hexValue(c);
+            if (value < 0) {
+                throw new NumberFormatException("Non-hex character '" + c + "' in UUID '" + uuid + "'");
+            }
+            upperCase |= (c >= 'A') && (c <= 'F');
+            if (i < 19) {
+                most = (most << 4) | value;
+            } else {
+                least = (least << 4) | value;
+            }
+        }
+        m_mostSigBits = most;
+        m_leastSigBits = least;
+        m_hashCode = 0;
+        // keep the String for toString(), but only if it is already in the canonical lower case form 
+        m_string = upperCase ? null : uuid;
+    }
+
+    /**
+     * Sets the bits of this UUID from the first 16 bytes of a byte array.<p>
+     * 
+     * @param data the bytes in network byte order
+     */
+    private void setBytes(byte[] data) {
+
+        long most = 0;
+        long least = 0;
+        for (int i = 0; i < 8; i++) {
+            most = (most << 8) | (data[i] & 0xff);
+            least = (least << 8) | (data[i + 8] & 0xff);
+        }
+        m_mostSigBits = most;
+        m_leastSigBits = least;
+    }
+}
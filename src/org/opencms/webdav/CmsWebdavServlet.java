@@ -83,11 +83,11 @@ import java.util.BitSet;
 import java.util.Date;
 import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Stack;
 import java.util.StringTokenizer;
 import java.util.TimeZone;
 import java.util.Vector;
@@ -98,11 +98,18 @@ import javax.servlet.UnavailableException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.codec.net.URLCodec;
 import org.apache.commons.logging.Log;
 
+import org.dom4j.CDATA;
 import org.dom4j.Document;
 import org.dom4j.DocumentException;
 import org.dom4j.DocumentHelper;
@@ -110,6 +117,7 @@ import org.dom4j.Element;
 import org.dom4j.Namespace;
 import org.dom4j.Node;
 import org.dom4j.QName;
+import org.dom4j.Text;
 import org.dom4j.io.SAXReader;
 import org.xml.sax.InputSource;
 
@@ -129,6 +137,15 @@ public class CmsWebdavServlet extends HttpServlet {
     /** Credentials separator constant. */
     public static final String SEPARATOR_CREDENTIALS = ":";
 
+    /** PROPFIND - Display all properties. */
+    protected static final int FIND_ALL_PROP = 1;
+
+    /** PROPFIND - Specify a property mask. */
+    protected static final int FIND_BY_PROPERTY = 0;
+
+    /** PROPFIND - Return property names. */
+    protected static final int FIND_PROPERTY_NAMES = 2;
+
     /** Date format for the last modified date. */
     protected static final DateFormat HTTP_DATE_FORMAT;
 
@@ -198,18 +215,12 @@ public class CmsWebdavServlet extends HttpServlet {
     /** Default namespace. */
     private static final String DEFAULT_NAMESPACE = "DAV:";
 
+    /** The default for the maximum number of items returned by a single PROPFIND request. */
+    private static final int DEFAULT_PROPFIND_MAXITEMS = 10000;
+
     /** The text to send if the depth is inifinity. */
     private static final String DEPTH_INFINITY = "Infinity";
 
-    /** PROPFIND - Display all properties. */
-    private static final int FIND_ALL_PROP = 1;
-
-    /** PROPFIND - Specify a property mask. */
-    private static final int FIND_BY_PROPERTY = 0;
-
-    /** PROPFIND - Return property names. */
-    private static final int FIND_PROPERTY_NAMES = 2;
-
     /** Full range marker. */
     private static ArrayList<CmsWebdavRange> FULL_RANGE = new ArrayList<CmsWebdavRange>();
 
@@ -252,6 +263,12 @@ public class CmsWebdavServlet extends HttpServlet {
     /** The name of the init parameter in the web.xml to allow listing. */
     private static final String INIT_PARAM_LIST = "listings";
 
+    /** The name of the init parameter in the web.xml for the depth used for PROPFIND requests with depth "infinity". */
+    private static final String INIT_PARAM_PROPFIND_MAXDEPTH = "propfind-maxdepth";
+
+    /** The name of the init parameter in the web.xml for the maximum number of items returned by PROPFIND. */
+    private static final String INIT_PARAM_PROPFIND_MAXITEMS = "propfind-maxitems";
+
     /** The name of the init parameter in the web.xml to set read only. */
     private static final String INIT_PARAM_READONLY = "readonly";
 
@@ -276,6 +293,9 @@ public class CmsWebdavServlet extends HttpServlet {
     /** The name of the tag "activelock" in the WebDAV protocol. */
     private static final String TAG_ACTIVELOCK = "activelock";
 
+    /** Tag name for element: allprop. */
+    private static final String TAG_ALLPROP = "allprop";
+
     /** The name of the tag "collection" in the WebDAV protocol. */
     private static final String TAG_COLLECTION = "collection";
 
@@ -330,6 +350,9 @@ public class CmsWebdavServlet extends HttpServlet {
     /** The name of the tag "prop" in the WebDAV protocol. */
     private static final String TAG_PROP = "prop";
 
+    /** Tag name for element: propname. */
+    private static final String TAG_PROPNAME = "propname";
+
     /** The name of the tag "propstat" in the WebDAV protocol. */
     private static final String TAG_PROPSTAT = "propstat";
 
@@ -363,6 +386,12 @@ public class CmsWebdavServlet extends HttpServlet {
     /** Should we generate directory listings? */
     private boolean m_listings;
 
+    /** The depth used for PROPFIND requests with depth "infinity". */
+    private int m_propfindMaxDepth = CmsRepositoryLockInfo.DEPTH_INFINITY_VALUE;
+
+    /** The maximum number of items returned by a single PROPFIND request. */
+    private int m_propfindMaxItems = DEFAULT_PROPFIND_MAXITEMS;
+
     /** Read only flag. By default, it's set to true. */
     private boolean m_readOnly = true;
 
@@ -408,6 +437,73 @@ public class CmsWebdavServlet extends HttpServlet {
         return parent.addElement(new QName(name, Namespace.get("D", DEFAULT_NAMESPACE)));
     }
 
+    /**
+     * Parses the body of a PROPFIND request.<p>
+     * 
+     * The body is read as a stream of XML events, so it is never kept in memory as a whole. 
+     * The elements are matched by their local name only. An empty or malformed body is treated 
+     * like a request for all properties, as is a body without any of the elements 
+     * <code>prop</code>, <code>propname</code> or <code>allprop</code>.<p>
+     * 
+     * @param in the stream to read the request body from
+     * @param properties the list to add the local names of the requested properties to, 
+     *          only used if the properties are requested by name
+     * 
+     * @return the PROPFIND type, one of {@link #FIND_ALL_PROP}, {@link #FIND_BY_PROPERTY} 
+     *          and {@link #FIND_PROPERTY_NAMES}
+     */
+    protected static int parsePropfindRequest(InputStream in, List<String> properties) {
+
+        int type = FIND_ALL_PROP;
+        List<String> propertyNames = new ArrayList<String>();
+        try {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            // the request body must not load any external content
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            try {
+                int depth = 0;
+                boolean inProp = false;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        depth++;
+                        String name = reader.getLocalName();
+                        if (depth == 2) {
+                            // the children of the propfind element
+                            if (name.equals(TAG_PROP)) {
+                                type = FIND_BY_PROPERTY;
+                                propertyNames.clear();
+                                inProp = true;
+                            } else if (name.equals(TAG_PROPNAME)) {
+                                type = FIND_PROPERTY_NAMES;
+                            } else if (name.equals(TAG_ALLPROP)) {
+                                type = FIND_ALL_PROP;
+                            }
+                        } else if ((depth == 3) && inProp) {
+                            propertyNames.add(name);
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        if (depth == 2) {
+                            inProp = false;
+                        }
+                        depth--;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            // most likely there was no content, so the defaults are used
+            return FIND_ALL_PROP;
+        }
+        if (type == FIND_BY_PROPERTY) {
+            properties.addAll(propertyNames);
+        }
+        return type;
+    }
+
     /**
      * Initialize this servlet.<p>
      * 
@@ -464,6 +560,9 @@ public class CmsWebdavServlet extends HttpServlet {
                 Boolean.valueOf(m_readOnly)));
         }
 
+        m_propfindMaxDepth = readIntInitParameter(INIT_PARAM_PROPFIND_MAXDEPTH, m_propfindMaxDepth);
+        m_propfindMaxItems = readIntInitParameter(INIT_PARAM_PROPFIND_MAXITEMS, m_propfindMaxItems);
+
         // Load the MD5 helper used to calculate signatures.
         try {
             m_md5Helper = MessageDigest.getInstance("MD5");
@@ -1798,87 +1897,23 @@ public class CmsWebdavServlet extends HttpServlet {
         List<String> properties = new Vector<String>();
 
         // Propfind depth
-        int depth = CmsRepositoryLockInfo.DEPTH_INFINITY_VALUE;
-
-        // Propfind type
-        int type = FIND_ALL_PROP;
+        int depth = m_propfindMaxDepth;
 
         String depthStr = req.getHeader(HEADER_DEPTH);
 
         if (depthStr == null) {
-            depth = CmsRepositoryLockInfo.DEPTH_INFINITY_VALUE;
+            depth = m_propfindMaxDepth;
         } else {
             if (depthStr.equals("0")) {
                 depth = 0;
             } else if (depthStr.equals("1")) {
                 depth = 1;
             } else if (depthStr.equalsIgnoreCase(DEPTH_INFINITY)) {
-                depth = CmsRepositoryLockInfo.DEPTH_INFINITY_VALUE;
+                depth = m_propfindMaxDepth;
             }
         }
 
-        Element propNode = null;
-
-        try {
-            SAXReader saxReader = new SAXReader();
-            Document document = saxReader.read(req.getInputStream());
-
-            // Get the root element of the document
-            Element rootElement = document.getRootElement();
-            @SuppressWarnings("unchecked")
-            Iterator<Element> iter = rootElement.elementIterator();
-
-            while (iter.hasNext()) {
-                Element currentElem = iter.next();
-                switch (currentElem.getNodeType()) {
-                    case Node.TEXT_NODE:
-                        break;
-                    case Node.ELEMENT_NODE:
-                        if (currentElem.getName().endsWith("prop")) {
-                            type = FIND_BY_PROPERTY;
-                            propNode = currentElem;
-                        }
-                        if (currentElem.getName().endsWith("propname")) {
-                            type = FIND_PROPERTY_NAMES;
-                        }
-                        if (currentElem.getName().endsWith("allprop")) {
-                            type = FIND_ALL_PROP;
-                        }
-                        break;
-                    default:
-                        break;
-                }
-            }
-        } catch (Exception e) {
-            // Most likely there was no content : we use the defaults.
-        }
-
-        if (propNode != null) {
-            if (type == FIND_BY_PROPERTY) {
-                @SuppressWarnings("unchecked")
-                Iterator<Element> iter = propNode.elementIterator();
-                while (iter.hasNext()) {
-                    Element currentElem = iter.next();
-                    switch (currentElem.getNodeType()) {
-                        case Node.TEXT_NODE:
-                            break;
-                        case Node.ELEMENT_NODE:
-                            String nodeName = currentElem.getName();
-                            String propertyName = null;
-                            if (nodeName.indexOf(':') != -1) {
-                                propertyName = nodeName.substring(nodeName.indexOf(':') + 1);
-                            } else {
-                                propertyName = nodeName;
-                            }
-                            // href is a live property which is handled differently
-                            properties.add(propertyName);
-                            break;
-                        default:
-                            break;
-                    }
-                }
-            }
-        }
+        int type = parsePropfindRequest(req.getInputStream(), properties);
 
         boolean exists = m_session.exists(path);
         if (!exists) {
@@ -1903,59 +1938,82 @@ public class CmsWebdavServlet extends HttpServlet {
         resp.setStatus(CmsWebdavStatus.SC_MULTI_STATUS);
         resp.setContentType("text/xml; charset=UTF-8");
 
-        // Create multistatus object
-        Document doc = DocumentHelper.createDocument();
-        Element multiStatusElem = doc.addElement(new QName(TAG_MULTISTATUS, Namespace.get("D", DEFAULT_NAMESPACE)));
-
-        if (depth == 0) {
-            parseProperties(req, multiStatusElem, item, type, properties);
-        } else {
-            // The stack always contains the object of the current level
-            Stack<I_CmsRepositoryItem> stack = new Stack<I_CmsRepositoryItem>();
-            stack.push(item);
-
-            // Stack of the objects one level below
-            Stack<I_CmsRepositoryItem> stackBelow = new Stack<I_CmsRepositoryItem>();
-
-            while ((!stack.isEmpty()) && (depth >= 0)) {
-
-                I_CmsRepositoryItem currentItem = stack.pop();
-                parseProperties(req, multiStatusElem, currentItem, type, properties);
-
+        // the response elements are written as soon as they are generated, so the multistatus
+        // response is never kept in memory as a whole
+        Writer writer = resp.getWriter();
+        try {
+            XMLStreamWriter xmlWriter = XMLOutputFactory.newInstance().createXMLStreamWriter(writer);
+            xmlWriter.writeStartDocument("UTF-8", "1.0");
+            xmlWriter.writeStartElement("D", TAG_MULTISTATUS, DEFAULT_NAMESPACE);
+            xmlWriter.writeNamespace("D", DEFAULT_NAMESPACE);
+
+            // the items of the current level, followed by the items one level below
+            LinkedList<I_CmsRepositoryItem> queue = new LinkedList<I_CmsRepositoryItem>();
+            queue.add(item);
+            int levelSize = 1;
+            // the number of items written or queued, which is never more than the maximum
+            int count = 1;
+            boolean truncated = false;
+            while (!queue.isEmpty()) {
+
+                I_CmsRepositoryItem currentItem = queue.removeFirst();
+                levelSize--;
+
+                // the children are listed before the item is written, so an item gets exactly one response
+                int status = HttpServletResponse.SC_OK;
                 if ((currentItem.isCollection()) && (depth > 0)) {
-
-                    try {
-                        List<I_CmsRepositoryItem> list = m_session.list(currentItem.getName());
-                        Iterator<I_CmsRepositoryItem> iter = list.iterator();
-                        while (iter.hasNext()) {
-                            I_CmsRepositoryItem element = iter.next();
-                            stackBelow.push(element);
-                        }
-
-                    } catch (CmsException e) {
-
-                        resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-
-                        if (LOG.isErrorEnabled()) {
-                            LOG.error(
-                                Messages.get().getBundle().key(Messages.LOG_LIST_ITEMS_ERROR_1, currentItem.getName()),
-                                e);
+                    if (truncated) {
+                        // the members of this collection are not listed any more
+                        status = CmsWebdavStatus.SC_INSUFFICIENT_STORAGE;
+                    } else {
+                        try {
+                            List<I_CmsRepositoryItem> children = m_session.list(currentItem.getName());
+                            int free = m_propfindMaxItems - count;
+                            if (children.size() > free) {
+                                // list as many members as allowed, tell the client the result is incomplete
+                                children = children.subList(0, Math.max(free, 0));
+                                status = CmsWebdavStatus.SC_INSUFFICIENT_STORAGE;
+                                truncated = true;
+                                if (LOG.isWarnEnabled()) {
+                                    LOG.warn(Messages.get().getBundle().key(
+                                        Messages.LOG_PROPFIND_MAX_ITEMS_2,
+                                        path,
+                                        new Integer(m_propfindMaxItems)));
+                                }
+                            }
+                            queue.addAll(children);
+                            count += children.size();
+                        } catch (CmsException e) {
+                            status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+                            if (LOG.isErrorEnabled()) {
+                                LOG.error(
+                                    Messages.get().getBundle().key(
+                                        Messages.LOG_LIST_ITEMS_ERROR_1,
+                                        currentItem.getName()),
+                                    e);
+                            }
                         }
-
-                        return;
                     }
                 }
 
-                if (stack.isEmpty()) {
+                if (status == HttpServletResponse.SC_OK) {
+                    writePropfindResponse(xmlWriter, req, currentItem, type, properties);
+                } else {
+                    writeStatusResponse(xmlWriter, req, currentItem, status);
+                }
+
+                if (levelSize == 0) {
                     depth--;
-                    stack = stackBelow;
-                    stackBelow = new Stack<I_CmsRepositoryItem>();
+                    levelSize = queue.size();
                 }
             }
-        }
 
-        Writer writer = resp.getWriter();
-        doc.write(writer);
+            xmlWriter.writeEndElement();
+            xmlWriter.writeEndDocument();
+            xmlWriter.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
         writer.close();
     }
 
@@ -3555,6 +3613,34 @@ public class CmsWebdavServlet extends HttpServlet {
         }
     }
 
+    /**
+     * Reads an integer init parameter of this servlet.<p>
+     * 
+     * @param name the name of the init parameter
+     * @param defaultValue the value to use if the init parameter is not set or invalid
+     * 
+     * @return the value of the init parameter
+     */
+    private int readIntInitParameter(String name, int defaultValue) {
+
+        int result = defaultValue;
+        String value = getServletConfig().getInitParameter(name);
+        if (value != null) {
+            try {
+                result = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                if (LOG.isErrorEnabled()) {
+                    LOG.error(Messages.get().getBundle().key(Messages.LOG_READ_INIT_PARAM_ERROR_2, name, value), e);
+                }
+            }
+        }
+
+        if (LOG.isInfoEnabled()) {
+            LOG.info(Messages.get().getBundle().key(Messages.LOG_READ_INIT_PARAM_2, name, new Integer(result)));
+        }
+        return result;
+    }
+
     /**
      * Sends a response back to authenticate the user.<p>
      * 
@@ -3612,4 +3698,99 @@ public class CmsWebdavServlet extends HttpServlet {
         doc.write(writer);
         writer.close();
     }
+
+    /**
+     * Writes a dom4j element and its content to the given XML stream.<p>
+     * 
+     * @param xmlWriter the XML stream to write to
+     * @param elem the element to write
+     * 
+     * @throws XMLStreamException if writing to the XML stream fails
+     */
+    private void writeElement(XMLStreamWriter xmlWriter, Element elem) throws XMLStreamException {
+
+        xmlWriter.writeStartElement("D", elem.getName(), DEFAULT_NAMESPACE);
+        @SuppressWarnings("unchecked")
+        Iterator<Node> iter = elem.nodeIterator();
+        while (iter.hasNext()) {
+            Node node = iter.next();
+            if (node instanceof Element) {
+                writeElement(xmlWriter, (Element)node);
+            } else if (node instanceof CDATA) {
+                xmlWriter.writeCData(node.getText());
+            } else if (node instanceof Text) {
+                xmlWriter.writeCharacters(node.getText());
+            }
+        }
+        xmlWriter.writeEndElement();
+    }
+
+    /**
+     * Writes the PROPFIND response element for a single item to the given XML stream.<p>
+     * 
+     * @param xmlWriter the XML stream to write to
+     * @param req the servlet request
+     * @param item the current item where to parse the properties
+     * @param type the propfind type
+     * @param properties if the propfind type is find properties by name, then this list contains those properties
+     * 
+     * @throws XMLStreamException if writing to the XML stream fails
+     */
+    private void writePropfindResponse(
+        XMLStreamWriter xmlWriter,
+        HttpServletRequest req,
+        I_CmsRepositoryItem item,
+        int type,
+        List<String> properties) throws XMLStreamException {
+
+        Element parent = DocumentHelper.createElement(new QName(
+            TAG_MULTISTATUS,
+            Namespace.get("D", DEFAULT_NAMESPACE)));
+        parseProperties(req, parent, item, type, properties);
+        @SuppressWarnings("unchecked")
+        Iterator<Element> iter = parent.elementIterator();
+        while (iter.hasNext()) {
+            writeElement(xmlWriter, iter.next());
+        }
+    }
+
+    /**
+     * Writes a response element with only a status for the given item to the given XML stream.<p>
+     * 
+     * @param xmlWriter the XML stream to write to
+     * @param req the servlet request
+     * @param item the item the status is for
+     * @param status the status code
+     * 
+     * @throws XMLStreamException if writing to the XML stream fails
+     */
+    private void writeStatusResponse(
+        XMLStreamWriter xmlWriter,
+        HttpServletRequest req,
+        I_CmsRepositoryItem item,
+        int status) throws XMLStreamException {
+
+        String href = req.getContextPath() + req.getServletPath();
+        String path = item.getName();
+        if ((href.endsWith("/")) && (path.startsWith("/"))) {
+            href += path.substring(1);
+        } else {
+            href += path;
+        }
+        if ((item.isCollection()) && (!href.endsWith("/"))) {
+            href += "/";
+        }
+
+        Element responseElem = DocumentHelper.createElement(new QName(
+            TAG_RESPONSE,
+            Namespace.get("D", DEFAULT_NAMESPACE)));
+        try {
+            addElement(responseElem, TAG_HREF).addText(rewriteUrl(href));
+        } catch (UnsupportedEncodingException e) {
+            addElement(responseElem, TAG_HREF).addText(href);
+        }
+        addElement(responseElem, TAG_STATUS).addText(
+            "HTTP/1.1 " + status + " " + CmsWebdavStatus.getStatusText(status));
+        writeElement(xmlWriter, responseElem);
+    }
 }
\ No newline at end of file
@@ -142,6 +142,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_PARSE_DEST_HEADER_0 = "LOG_PARSE_DEST_HEADER_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_PROPFIND_MAX_ITEMS_2 = "LOG_PROPFIND_MAX_ITEMS_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_READ_INIT_PARAM_2 = "LOG_READ_INIT_PARAM_2";
 
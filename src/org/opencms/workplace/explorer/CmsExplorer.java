@@ -305,6 +305,8 @@ public class CmsExplorer extends CmsWorkplace {
 
         CmsResourceUtil resUtil = new CmsResourceUtil(getCms());
         resUtil.setReferenceProject(referenceProject);
+        // read the locks and properties of the displayed page at once
+        resUtil.prefetch(resources.subList(startat, stopat), showTitle || showNavText);
 
         for (int i = startat; i < stopat; i++) {
             CmsResource res = resources.get(i);
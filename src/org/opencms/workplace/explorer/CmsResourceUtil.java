@@ -31,6 +31,7 @@ import org.opencms.db.CmsDbEntryNotFoundException;
 import org.opencms.db.CmsResourceState;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsProject;
+import org.opencms.file.CmsProperty;
 import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsRequestContext;
 import org.opencms.file.CmsResource;
@@ -54,8 +55,10 @@ import org.opencms.workplace.CmsWorkplace;
 import org.opencms.workplace.commons.CmsTouch;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import org.apache.commons.logging.Log;
 
@@ -202,6 +205,18 @@ public final class CmsResourceUtil {
     /** The message bundle for formatting dates, depends on the request locale. */
     private CmsMessages m_messages;
 
+    /** The locks read by {@link #prefetch(List, boolean)}, by root path. */
+    private Map<String, CmsLock> m_prefetchedLocks;
+
+    /** The properties read by {@link #prefetch(List, boolean)}, by root path. */
+    private Map<String, List<CmsProperty>> m_prefetchedProperties;
+
+    /** The cached display names of principals, only used after {@link #prefetch(List, boolean)}. */
+    private Map<CmsUUID, String> m_principalNames;
+
+    /** The cached display names of projects, only used after {@link #prefetch(List, boolean)}. */
+    private Map<CmsUUID, String> m_projectNames;
+
     /** Reference project resources cache. */
     private List<String> m_projectResources;
 
@@ -461,6 +476,9 @@ public final class CmsResourceUtil {
      */
     public CmsLock getLock() {
 
+        if ((m_lock == null) && (m_prefetchedLocks != null)) {
+            m_lock = m_prefetchedLocks.get(m_resource.getRootPath());
+        }
         if (m_lock == null) {
             try {
                 m_lock = getCms().getLock(m_resource);
@@ -484,9 +502,7 @@ public final class CmsResourceUtil {
             // user
             lockedBy = getLock().getUserId().toString();
             try {
-                lockedBy = getCurrentOuRelativeName(CmsPrincipal.readPrincipalIncludingHistory(
-                    getCms(),
-                    getLock().getUserId()).getName());
+                lockedBy = readPrincipalName(getLock().getUserId());
             } catch (Throwable e) {
                 lockedBy = e.getMessage();
             }
@@ -528,11 +544,7 @@ public final class CmsResourceUtil {
                 // the resource is unlocked and unchanged
                 return "";
             }
-            try {
-                return getCurrentOuRelativeName(getCms().readProject(pId).getName());
-            } catch (CmsDbEntryNotFoundException e) {
-                return getCurrentOuRelativeName(getCms().readHistoryProject(pId).getName());
-            }
+            return readProjectName(pId);
         } catch (Throwable e) {
             LOG.error(e.getLocalizedMessage(), e);
             return "";
@@ -570,7 +582,11 @@ public final class CmsResourceUtil {
      */
     public String getNavText() {
 
-        String navText = "";
+        String navText = getPrefetchedPropertyValue(CmsPropertyDefinition.PROPERTY_NAVTEXT);
+        if (navText != null) {
+            return navText;
+        }
+        navText = "";
         try {
             navText = getCms().readPropertyObject(
                 getCms().getSitePath(m_resource),
@@ -1060,7 +1076,11 @@ public final class CmsResourceUtil {
      */
     public String getTitle() {
 
-        String title = "";
+        String title = getPrefetchedPropertyValue(CmsPropertyDefinition.PROPERTY_TITLE);
+        if (title != null) {
+            return title;
+        }
+        title = "";
         try {
             title = getCms().readPropertyObject(
                 getCms().getSitePath(m_resource),
@@ -1098,9 +1118,7 @@ public final class CmsResourceUtil {
 
         String user = m_resource.getUserCreated().toString();
         try {
-            user = getCurrentOuRelativeName(CmsPrincipal.readPrincipalIncludingHistory(
-                getCms(),
-                m_resource.getUserCreated()).getName());
+            user = readPrincipalName(m_resource.getUserCreated());
         } catch (Throwable e) {
             LOG.info(e.getLocalizedMessage());
         }
@@ -1116,9 +1134,7 @@ public final class CmsResourceUtil {
 
         String user = m_resource.getUserLastModified().toString();
         try {
-            user = getCurrentOuRelativeName(CmsPrincipal.readPrincipalIncludingHistory(
-                getCms(),
-                m_resource.getUserLastModified()).getName());
+            user = readPrincipalName(m_resource.getUserLastModified());
         } catch (Throwable e) {
             LOG.info(e.getLocalizedMessage());
         }
@@ -1188,6 +1204,48 @@ public final class CmsResourceUtil {
         return m_resource.isReleasedAndNotExpired(requestTime);
     }
 
+    /**
+     * Prepares the row data for a list of resources that will be rendered one after another.<p>
+     *
+     * The locks of all given resources are read in one call, and if required the properties
+     * of each resource are read once instead of once per displayed property. Additionally, 
+     * the names of users and projects are resolved only once per id until this method 
+     * or {@link #setCms(CmsObject)} is called again.<p>
+     *
+     * @param resources the resources that will be set with {@link #setResource(CmsResource)}
+     * @param readProperties if the title and navigation text properties should be read
+     */
+    public void prefetch(List<CmsResource> resources, boolean readProperties) {
+
+        m_prefetchedLocks = new HashMap<String, CmsLock>();
+        m_prefetchedProperties = null;
+        m_principalNames = new HashMap<CmsUUID, String>();
+        m_projectNames = new HashMap<CmsUUID, String>();
+        m_lock = null;
+        try {
+            List<CmsLock> locks = getCms().getLocks(resources);
+            for (int i = 0; i < resources.size(); i++) {
+                m_prefetchedLocks.put(resources.get(i).getRootPath(), locks.get(i));
+            }
+        } catch (Throwable e) {
+            // the locks will be read for each resource
+            LOG.error(e.getLocalizedMessage(), e);
+        }
+        if (readProperties) {
+            m_prefetchedProperties = new HashMap<String, List<CmsProperty>>();
+            for (CmsResource resource : resources) {
+                try {
+                    m_prefetchedProperties.put(resource.getRootPath(), getCms().readPropertyObjects(resource, false));
+                } catch (Throwable e) {
+                    // the properties of this resource will be read on demand
+                    if (LOG.isInfoEnabled()) {
+                        LOG.info(e.getLocalizedMessage(), e);
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Sets the path abbreviation length.<p>
      *
@@ -1214,6 +1272,10 @@ public final class CmsResourceUtil {
         m_referenceProject = null;
         m_projectResources = null;
         m_messages = null;
+        m_prefetchedLocks = null;
+        m_prefetchedProperties = null;
+        m_principalNames = null;
+        m_projectNames = null;
     }
 
     /**
@@ -1309,6 +1371,27 @@ public final class CmsResourceUtil {
         return m_messages;
     }
 
+    /**
+     * Returns the value of the given property from the prefetched properties of the current resource.<p>
+     * 
+     * @param property the name of the property
+     * 
+     * @return the property value, an empty String if not set, 
+     *      or <code>null</code> if the properties were not prefetched
+     */
+    private String getPrefetchedPropertyValue(String property) {
+
+        if (m_prefetchedProperties == null) {
+            return null;
+        }
+        List<CmsProperty> properties = m_prefetchedProperties.get(m_resource.getRootPath());
+        if (properties == null) {
+            return null;
+        }
+        String value = CmsProperty.get(property, properties).getValue();
+        return value == null ? "" : value;
+    }
+
     /**
      * Returns the reference project resources.<p>
      * 
@@ -1327,4 +1410,52 @@ public final class CmsResourceUtil {
         }
         return m_projectResources;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the display name of the principal with the given id.<p>
+     * 
+     * @param principalId the id of the principal
+     * 
+     * @return the display name of the principal
+     * 
+     * @throws CmsException if the principal could not be read
+     */
+    private String readPrincipalName(CmsUUID principalId) throws CmsException {
+
+        String name = (m_principalNames != null) ? m_principalNames.get(principalId) : null;
+        if (name == null) {
+            name = getCurrentOuRelativeName(CmsPrincipal.readPrincipalIncludingHistory(
+                getCms(),
+                principalId).getName());
+            if (m_principalNames != null) {
+                m_principalNames.put(principalId, name);
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Returns the display name of the project with the given id, which may also be a historical project.<p>
+     * 
+     * @param projectId the id of the project
+     * 
+     * @return the display name of the project
+     * 
+     * @throws CmsException if the project could not be read
+     */
+    private String readProjectName(CmsUUID projectId) throws CmsException {
+
+        String name = (m_projectNames != null) ? m_projectNames.get(projectId) : null;
+        if (name == null) {
+            try {
+                name = getCurrentOuRelativeName(getCms().readProject(projectId).getName());
+            } catch (CmsDbEntryNotFoundException e) {
+                name = getCurrentOuRelativeName(getCms().readHistoryProject(projectId).getName());
+            }
+            if (m_projectNames != null) {
+                m_projectNames.put(projectId, name);
+            }
+        }
+        return name;
+    }
+}
@@ -371,6 +371,19 @@ public abstract class A_CmsXmlDocument implements I_CmsXmlDocument {
         return null;
     }
 
+    /**
+     * @see org.opencms.xml.I_CmsXmlDocument#getCompiledPath(java.lang.String)
+     */
+    public CmsXmlCompiledPath getCompiledPath(String path) {
+
+        CmsXmlContentDefinition contentDefinition = getContentDefinition();
+        if (contentDefinition != null) {
+            // the compiled paths are cached in the content definition shared by all documents of the same type
+            return contentDefinition.getCompiledPath(path);
+        }
+        return CmsXmlCompiledPath.compile(path);
+    }
+
     /**
      * @see org.opencms.xml.I_CmsXmlDocument#getConversion()
      */
@@ -426,7 +439,7 @@ public abstract class A_CmsXmlDocument implements I_CmsXmlDocument {
      */
     public List<Locale> getLocales(String path) {
 
-        Set<Locale> locales = m_elementLocales.get(CmsXmlUtils.createXpath(path, 1));
+        Set<Locale> locales = m_elementLocales.get(getCompiledPath(path).getXpath());
         if (locales != null) {
             return new ArrayList<Locale>(locales);
         }
@@ -450,7 +463,7 @@ public abstract class A_CmsXmlDocument implements I_CmsXmlDocument {
      */
     public String getStringValue(CmsObject cms, String path, Locale locale) {
 
-        I_CmsXmlContentValue value = getValueInternal(CmsXmlUtils.createXpath(path, 1), locale);
+        I_CmsXmlContentValue value = getValue(getCompiledPath(path), locale);
         if (value != null) {
             return value.getStringValue(cms);
         }
@@ -462,9 +475,8 @@ public abstract class A_CmsXmlDocument implements I_CmsXmlDocument {
      */
     public String getStringValue(CmsObject cms, String path, Locale locale, int index) {
 
-        // directly calling getValueInternal() is more efficient then calling getStringValue(CmsObject, String, Locale)
-        // since the most costs are generated in resolving the xpath name
-        I_CmsXmlContentValue value = getValueInternal(CmsXmlUtils.createXpath(path, index + 1), locale);
+        // the compiled path is cached, so only the bookmark name for the index has to be generated
+        I_CmsXmlContentValue value = getBookmark(getCompiledPath(path).getBookmarkName(locale, index + 1));
         if (value != null) {
             return value.getStringValue(cms);
         }
@@ -477,7 +489,7 @@ public abstract class A_CmsXmlDocument implements I_CmsXmlDocument {
     public List<I_CmsXmlContentValue> getSubValues(String path, Locale locale) {
 
         List<I_CmsXmlContentValue> result = new ArrayList<I_CmsXmlContentValue>();
-        String bookmark = getBookmarkName(CmsXmlUtils.createXpath(path, 1), locale);
+        String bookmark = getCompiledPath(path).getBookmarkName(locale);
         I_CmsXmlContentValue value = getBookmark(bookmark);
         if ((value != null) && !value.isSimpleType()) {
             // calculate level of current bookmark
@@ -494,12 +506,20 @@ public abstract class A_CmsXmlDocument implements I_CmsXmlDocument {
         return result;
     }
 
+    /**
+     * @see org.opencms.xml.I_CmsXmlDocument#getValue(org.opencms.xml.CmsXmlCompiledPath, java.util.Locale)
+     */
+    public I_CmsXmlContentValue getValue(CmsXmlCompiledPath path, Locale locale) {
+
+        return getBookmark(path.getBookmarkName(locale));
+    }
+
     /**
      * @see org.opencms.xml.I_CmsXmlDocument#getValue(java.lang.String, java.util.Locale)
      */
     public I_CmsXmlContentValue getValue(String path, Locale locale) {
 
-        return getValueInternal(CmsXmlUtils.createXpath(path, 1), locale);
+        return getValue(getCompiledPath(path), locale);
     }
 
     /**
@@ -507,7 +527,7 @@ public abstract class A_CmsXmlDocument implements I_CmsXmlDocument {
      */
     public I_CmsXmlContentValue getValue(String path, Locale locale, int index) {
 
-        return getValueInternal(CmsXmlUtils.createXpath(path, index + 1), locale);
+        return getBookmark(getCompiledPath(path).getBookmarkName(locale, index + 1));
     }
 
     /**
@@ -541,7 +561,8 @@ public abstract class A_CmsXmlDocument implements I_CmsXmlDocument {
     public List<I_CmsXmlContentValue> getValues(String path, Locale locale) {
 
         List<I_CmsXmlContentValue> result = new ArrayList<I_CmsXmlContentValue>();
-        String bookmark = getBookmarkName(CmsXmlUtils.createXpath(CmsXmlUtils.removeXpathIndex(path), 1), locale);
+        CmsXmlCompiledPath compiledPath = getCompiledPath(CmsXmlUtils.removeXpathIndex(path));
+        String bookmark = compiledPath.getBookmarkName(locale);
         I_CmsXmlContentValue value = getBookmark(bookmark);
         if (value != null) {
             if (value.getContentDefinition().getChoiceMaxOccurs() > 1) {
@@ -558,7 +579,7 @@ public abstract class A_CmsXmlDocument implements I_CmsXmlDocument {
             } else {
                 // selected value belongs to a xsd:sequence
                 int index = 1;
-                String bm = CmsXmlUtils.removeXpathIndex(bookmark);
+                String bm = compiledPath.getBaseBookmarkName(locale);
                 while (value != null) {
                     result.add(value);
                     index++;
@@ -582,12 +603,20 @@ public abstract class A_CmsXmlDocument implements I_CmsXmlDocument {
         return m_locales.contains(locale);
     }
 
+    /**
+     * @see org.opencms.xml.I_CmsXmlDocument#hasValue(org.opencms.xml.CmsXmlCompiledPath, java.util.Locale)
+     */
+    public boolean hasValue(CmsXmlCompiledPath path, Locale locale) {
+
+        return null != getBookmark(path.getBookmarkName(locale));
+    }
+
     /**
      * @see org.opencms.xml.I_CmsXmlDocument#hasValue(java.lang.String, java.util.Locale)
      */
     public boolean hasValue(String path, Locale locale) {
 
-        return null != getBookmark(CmsXmlUtils.createXpath(path, 1), locale);
+        return hasValue(getCompiledPath(path), locale);
     }
 
     /**
@@ -595,7 +624,7 @@ public abstract class A_CmsXmlDocument implements I_CmsXmlDocument {
      */
     public boolean hasValue(String path, Locale locale, int index) {
 
-        return null != getBookmark(CmsXmlUtils.createXpath(path, index + 1), locale);
+        return null != getBookmark(getCompiledPath(path).getBookmarkName(locale, index + 1));
     }
 
     /**
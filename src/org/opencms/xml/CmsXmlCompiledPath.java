@@ -0,0 +1,318 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.xml;
+
+import org.opencms.util.CmsStringUtil;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A simplified Xpath that has been normalized once, for repeated value lookups in XML documents.<p>
+ * 
+ * Looking up a value by a path like <code>Teaser/Title</code> requires to normalize the path to 
+ * <code>Teaser[1]/Title[1]</code> with {@link CmsXmlUtils#createXpath(String, int)} and to 
+ * combine it with the locale to the bookmark name used by the document. A compiled path does 
+ * this work only once, and caches the bookmark names for every locale it was used with.
+ * Compiled paths are immutable and may be shared across documents and threads.<p>
+ * 
+ * Use {@link CmsXmlContentDefinition#getCompiledPath(String)} or {@link I_CmsXmlDocument#getCompiledPath(String)}
+ * to obtain cached instances.<p>
+ * 
+ * @since 9.0.0 
+ */
+public final class CmsXmlCompiledPath {
+
+    /** The normalized Xpath without an index for the last element, e.g. <code>Teaser[1]/Title</code>. */
+    private String m_base;
+
+    /** The bookmark names for the path, by locale: first the bookmark name, then the base bookmark name. */
+    private Map<Locale, String[]> m_bookmarkNames;
+
+    /** Indicates if the path contains an Xpath index for the last element. */
+    private boolean m_indexed;
+
+    /** The Xpath indexes of the elements, starting with 1. */
+    private int[] m_indexes;
+
+    /** The element names, without the Xpath indexes. */
+    private String[] m_names;
+
+    /** The path this instance was compiled from. */
+    private String m_path;
+
+    /** The normalized Xpath, e.g. <code>Teaser[1]/Title[1]</code>. */
+    private String m_xpath;
+
+    /**
+     * Creates a new compiled path.<p>
+     * 
+     * @param path the path to compile
+     */
+    private CmsXmlCompiledPath(String path) {
+
+        m_path = path;
+        List<String> elements = CmsStringUtil.splitAsList(path, '/');
+        int end = elements.size() - 1;
+        m_names = new String[elements.size()];
+        m_indexes = new int[elements.size()];
+        StringBuffer base = new StringBuffer(path.length() + 32);
+        for (int i = 0; i <= end; i++) {
+            String element = elements.get(i);
+            int pos = element.indexOf('[');
+            boolean indexed = element.charAt(element.length() - 1) == ']';
+            if (indexed && (pos > 0)) {
+                m_names[i] = element.substring(0, pos);
+                try {
+                    m_indexes[i] = Integer.parseInt(element.substring(pos + 1, element.length() - 1));
+                } catch (NumberFormatException e) {
+                    // not a numeric index, keep the element as it is
+                    m_indexes[i] = 1;
+                }
+            } else {
+                m_names[i] = element;
+                m_indexes[i] = 1;
+            }
+            if (i < end) {
+                // same as CmsXmlUtils.createXpathElementCheck(element, 1)
+                base.append(indexed ? element : CmsXmlUtils.createXpathElement(element, 1));
+                base.append('/');
+            } else if (indexed) {
+                m_indexed = true;
+                m_xpath = base.toString() + element;
+                base.append(m_names[i]);
+            } else {
+                base.append(element);
+            }
+        }
+        m_base = base.toString();
+        if (m_xpath == null) {
+            m_xpath = CmsXmlUtils.createXpathElement(m_base, 1);
+        }
+        m_bookmarkNames = new ConcurrentHashMap<Locale, String[]>(4);
+    }
+
+    /**
+     * Compiles the given simplified Xpath.<p>
+     * 
+     * The result is not cached, use {@link CmsXmlContentDefinition#getCompiledPath(String)} 
+     * for paths that are used more than once.<p>
+     * 
+     * @param path the path to compile, for example <code>Teaser/Title</code> or <code>Teaser[2]/Title</code>
+     * 
+     * @return the compiled path
+     */
+    public static CmsXmlCompiledPath compile(String path) {
+
+        return new CmsXmlCompiledPath(path);
+    }
+
+    /**
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+
+        if (obj == this) {
+            return true;
+        }
+        if (obj instanceof CmsXmlCompiledPath) {
+            return m_path.equals(((CmsXmlCompiledPath)obj).m_path);
+        }
+        return false;
+    }
+
+    /**
+     * Returns the bookmark name for the last element without an Xpath index, 
+     * which is the common prefix of all values in the sequence of the last element.<p>
+     * 
+     * This is the same as <code>CmsXmlUtils.removeXpathIndex(getBookmarkName(locale))</code>.<p>
+     * 
+     * @param locale the locale to get the bookmark name for
+     * 
+     * @return the bookmark name for the last element without an Xpath index
+     */
+    public String getBaseBookmarkName(Locale locale) {
+
+        return getBookmarkNames(locale)[1];
+    }
+
+    /**
+     * Returns the bookmark name of this path for the given locale.<p>
+     * 
+     * @param locale the locale to get the bookmark name for
+     * 
+     * @return the bookmark name of this path for the given locale
+     */
+    public String getBookmarkName(Locale locale) {
+
+        return getBookmarkNames(locale)[0];
+    }
+
+    /**
+     * Returns the bookmark name of this path for the given locale and Xpath index.<p>
+     * 
+     * As with {@link CmsXmlUtils#createXpath(String, int)}, the index is ignored if the 
+     * path already contains an index for the last element.<p>
+     * 
+     * @param locale the locale to get the bookmark name for
+     * @param index the Xpath index for the last element, starting with 1
+     * 
+     * @return the bookmark name of this path for the given locale and Xpath index
+     */
+    public String getBookmarkName(Locale locale, int index) {
+
+        String[] names = getBookmarkNames(locale);
+        if ((index == 1) || m_indexed) {
+            return names[0];
+        }
+        return CmsXmlUtils.createXpathElement(names[1], index);
+    }
+
+    /**
+     * Returns the number of elements in this path.<p>
+     * 
+     * @return the number of elements in this path
+     */
+    public int getElementCount() {
+
+        return m_names.length;
+    }
+
+    /**
+     * Returns the Xpath index of the element at the given position, starting with 1.<p>
+     * 
+     * If the path contains no index for the element, 1 is returned.<p>
+     * 
+     * @param position the position of the element in the path, starting with 0
+     * 
+     * @return the Xpath index of the element at the given position
+     */
+    public int getElementIndex(int position) {
+
+        return m_indexes[position];
+    }
+
+    /**
+     * Returns the name of the element at the given position, without the Xpath index.<p>
+     * 
+     * @param position the position of the element in the path, starting with 0
+     * 
+     * @return the name of the element at the given position
+     */
+    public String getElementName(int position) {
+
+        return m_names[position];
+    }
+
+    /**
+     * Returns the path this instance was compiled from.<p>
+     * 
+     * @return the path this instance was compiled from
+     */
+    public String getPath() {
+
+        return m_path;
+    }
+
+    /**
+     * Returns the normalized Xpath, which is the same as <code>CmsXmlUtils.createXpath(getPath(), 1)</code>.<p>
+     * 
+     * @return the normalized Xpath
+     */
+    public String getXpath() {
+
+        return m_xpath;
+    }
+
+    /**
+     * Returns the normalized Xpath for the given index, 
+     * which is the same as <code>CmsXmlUtils.createXpath(getPath(), index)</code>.<p>
+     * 
+     * @param index the Xpath index for the last element, starting with 1
+     * 
+     * @return the normalized Xpath for the given index
+     */
+    public String getXpath(int index) {
+
+        if ((index == 1) || m_indexed) {
+            return m_xpath;
+        }
+        return CmsXmlUtils.createXpathElement(m_base, index);
+    }
+
+    /**
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+
+        return m_path.hashCode();
+    }
+
+    /**
+     * Returns <code>true</code> if the path contains an Xpath index for the last element.<p>
+     * 
+     * @return <code>true</code> if the path contains an Xpath index for the last element
+     */
+    public boolean isIndexed() {
+
+        return m_indexed;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        return m_xpath;
+    }
+
+    /**
+     * Returns the bookmark name and the base bookmark name for the given locale.<p>
+     * 
+     * @param locale the locale to get the bookmark names for
+     * 
+     * @return the bookmark name and the base bookmark name
+     */
+    private String[] getBookmarkNames(Locale locale) {
+
+        String[] result = m_bookmarkNames.get(locale);
+        if (result == null) {
+            // concurrent threads may both create the names, but the result is the same 
+            result = new String[] {
+                A_CmsXmlDocument.getBookmarkName(m_xpath, locale),
+                A_CmsXmlDocument.getBookmarkName(m_base, locale)};
+            m_bookmarkNames.put(locale, result);
+        }
+        return result;
+    }
+}
@@ -60,6 +60,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 
@@ -170,6 +171,9 @@ public class CmsXmlContentDefinition implements Cloneable {
     /** Constant for the "sequence" node in the XML schema namespace. */
     public static final QName XSD_NODE_SEQUENCE = QName.get("sequence", XSD_NAMESPACE);
 
+    /** The maximum number of compiled paths cached for a content definition. */
+    private static final int COMPILED_PATHS_MAX_SIZE = 1024;
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsXmlContentDefinition.class);
 
@@ -179,6 +183,9 @@ public class CmsXmlContentDefinition implements Cloneable {
     /** Max occurs value for xsd:choice definitions. */
     private int m_choiceMaxOccurs;
 
+    /** The compiled paths used to look up values in documents based on this content definition. */
+    private Map<String, CmsXmlCompiledPath> m_compiledPaths;
+
     /** The XML content handler. */
     private I_CmsXmlContentHandler m_contentHandler;
 
@@ -242,6 +249,7 @@ public class CmsXmlContentDefinition implements Cloneable {
         m_contentHandler = new CmsDefaultXmlContentHandler();
         m_sequenceType = SequenceType.SEQUENCE;
         m_elementTypes = new HashMap<String, I_CmsXmlSchemaType>();
+        m_compiledPaths = new ConcurrentHashMap<String, CmsXmlCompiledPath>();
     }
 
     /**
@@ -882,13 +890,21 @@ public class CmsXmlContentDefinition implements Cloneable {
                 Element inc = includes.get(i);
                 String schemaLoc = validateAttribute(inc, XSD_ATTRIBUTE_SCHEMA_LOCATION, null);
                 if (!(schemaLoc.equals(schemaLocation))) {
-                    InputSource source = null;
-                    try {
-                        source = resolver.resolveEntity(null, schemaLoc);
-                    } catch (Exception e) {
-                        throw new CmsXmlException(Messages.get().container(Messages.ERR_CD_BAD_INCLUDE_1, schemaLoc));
+                    // nested schemas included by many definitions are resolved only once
+                    CmsXmlContentDefinition xmlContentDefinition = getCachedContentDefinition(
+                        translateSchema(schemaLoc),
+                        resolver);
+                    if (xmlContentDefinition == null) {
+                        InputSource source = null;
+                        try {
+                            source = resolver.resolveEntity(null, schemaLoc);
+                        } catch (Exception e) {
+                            throw new CmsXmlException(Messages.get().container(
+                                Messages.ERR_CD_BAD_INCLUDE_1,
+                                schemaLoc));
+                        }
+                        xmlContentDefinition = unmarshal(source, schemaLoc, resolver);
                     }
-                    CmsXmlContentDefinition xmlContentDefinition = unmarshal(source, schemaLoc, resolver);
                     nestedDefinitions.add(xmlContentDefinition);
                 } else {
                     // recursion
@@ -1099,6 +1115,7 @@ public class CmsXmlContentDefinition implements Cloneable {
         result.m_sequenceType = m_sequenceType;
         result.m_choiceMaxOccurs = m_choiceMaxOccurs;
         result.m_elementTypes = m_elementTypes;
+        result.m_compiledPaths = m_compiledPaths;
         return result;
     }
 
@@ -1224,6 +1241,33 @@ public class CmsXmlContentDefinition implements Cloneable {
         return m_choiceMaxOccurs;
     }
 
+    /**
+     * Returns the compiled form of the given simplified Xpath for looking up values 
+     * in documents based on this content definition.<p>
+     * 
+     * Since content definitions are shared by all documents of the same type, the compiled paths 
+     * are reused across documents and requests. Paths with explicit indexes are cached as well,
+     * until a fixed number of paths is reached.<p>
+     * 
+     * @param path the path to compile, for example <code>Teaser/Title</code>
+     * 
+     * @return the compiled path
+     */
+    public CmsXmlCompiledPath getCompiledPath(String path) {
+
+        if (m_compiledPaths == null) {
+            return CmsXmlCompiledPath.compile(path);
+        }
+        CmsXmlCompiledPath result = m_compiledPaths.get(path);
+        if (result == null) {
+            result = CmsXmlCompiledPath.compile(path);
+            if (m_compiledPaths.size() < COMPILED_PATHS_MAX_SIZE) {
+                m_compiledPaths.put(path, result);
+            }
+        }
+        return result;
+    }
+
     /**
      * Returns the selected XML content handler for this XML content definition.<p>
      *
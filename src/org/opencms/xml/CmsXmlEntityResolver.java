@@ -48,8 +48,11 @@ import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 
@@ -65,7 +68,12 @@ import org.xml.sax.InputSource;
  */
 public class CmsXmlEntityResolver implements EntityResolver, I_CmsEventListener {
 
-    /** Maximum size of the content definition cache. */
+    /** 
+     * Maximum size of the content definition cache.<p>
+     * 
+     * @deprecated content definitions are now kept in the {@link CmsXmlSchemaRegistry} until the schema changes
+     */
+    @Deprecated
     public static final int CONTENT_DEFINITION_CACHE_SIZE = 2048;
 
     /** Scheme for files which should be retrieved from the classpath. */
@@ -86,14 +94,11 @@ public class CmsXmlEntityResolver implements EntityResolver, I_CmsEventListener
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsXmlEntityResolver.class);
 
-    /** A temporary cache for XML content definitions. */
-    private static Map<String, CmsXmlContentDefinition> m_cacheContentDefinitions;
-
     /** A permanent cache to avoid multiple readings of often used files from the VFS. */
     private static Map<String, byte[]> m_cachePermanent;
 
-    /** A temporary cache to avoid multiple readings of often used files from the VFS. */
-    private static Map<String, byte[]> m_cacheTemporary;
+    /** The registry for XML schemas read from the VFS and the content definitions generated from them. */
+    private static CmsXmlSchemaRegistry m_schemaRegistry = new CmsXmlSchemaRegistry();
 
     /** The location of the XML page XML schema. */
     private static final String XMLPAGE_OLD_DTD_LOCATION = "org/opencms/xml/page/xmlpage.dtd";
@@ -110,6 +115,9 @@ public class CmsXmlEntityResolver implements EntityResolver, I_CmsEventListener
     /** The cms object to use for VFS access (will be initialized with "Guest" permissions). */
     private CmsObject m_cms;
 
+    /** The version of the schema registry when this resolver read a schema or content definition, by cache key. */
+    private Map<String, Long> m_registryVersions;
+
     /**
      * Creates a new XML entity resolver based on the provided CmsObject.<p>
      * 
@@ -123,6 +131,7 @@ public class CmsXmlEntityResolver implements EntityResolver, I_CmsEventListener
 
         initCaches();
         m_cms = cms;
+        m_registryVersions = new ConcurrentHashMap<String, Long>();
     }
 
     /**
@@ -139,6 +148,16 @@ public class CmsXmlEntityResolver implements EntityResolver, I_CmsEventListener
         m_cachePermanent.put(systemId, content);
     }
 
+    /**
+     * Returns the registry for XML schemas read from the VFS and the content definitions generated from them.<p>
+     * 
+     * @return the schema registry
+     */
+    public static CmsXmlSchemaRegistry getSchemaRegistry() {
+
+        return m_schemaRegistry;
+    }
+
     /**
      * Checks if a given system ID URL is in the internal permanent cache.<p>
      * 
@@ -197,32 +216,18 @@ public class CmsXmlEntityResolver implements EntityResolver, I_CmsEventListener
     }
 
     /**
-     * Initializes the internal caches for permanent and temporary system IDs.<p>
+     * Initializes the internal cache for permanent system IDs.<p>
      */
     private static void initCaches() {
 
-        if (m_cacheTemporary == null) {
-            Map<String, byte[]> cacheTemporary = CmsCollectionsGenericWrapper.createLRUMap(1024);
-            m_cacheTemporary = Collections.synchronizedMap(cacheTemporary);
-
+        if (m_cachePermanent == null) {
             Map<String, byte[]> cachePermanent = new HashMap<String, byte[]>(32);
             m_cachePermanent = Collections.synchronizedMap(cachePermanent);
-
-            Map<String, CmsXmlContentDefinition> cacheContentDefinitions = CmsCollectionsGenericWrapper.createLRUMap(CONTENT_DEFINITION_CACHE_SIZE);
-            m_cacheContentDefinitions = Collections.synchronizedMap(cacheContentDefinitions);
         }
         if (OpenCms.getRunLevel() > OpenCms.RUNLEVEL_1_CORE_OBJECT) {
             if ((OpenCms.getMemoryMonitor() != null)
-                && !OpenCms.getMemoryMonitor().isMonitoring(CmsXmlEntityResolver.class.getName() + ".cacheTemporary")) {
+                && !OpenCms.getMemoryMonitor().isMonitoring(CmsXmlEntityResolver.class.getName() + ".cachePermanent")) {
                 // reinitialize the caches after the memory monitor is set up                
-                Map<String, byte[]> cacheTemporary = CmsCollectionsGenericWrapper.createLRUMap(128);
-                cacheTemporary.putAll(m_cacheTemporary);
-                m_cacheTemporary = Collections.synchronizedMap(cacheTemporary);
-                // map must be of type "LRUMap" so that memory monitor can access all information
-                OpenCms.getMemoryMonitor().register(
-                    CmsXmlEntityResolver.class.getName() + ".cacheTemporary",
-                    cacheTemporary);
-
                 Map<String, byte[]> cachePermanent = new HashMap<String, byte[]>(32);
                 cachePermanent.putAll(m_cachePermanent);
                 m_cachePermanent = Collections.synchronizedMap(cachePermanent);
@@ -230,14 +235,6 @@ public class CmsXmlEntityResolver implements EntityResolver, I_CmsEventListener
                 OpenCms.getMemoryMonitor().register(
                     CmsXmlEntityResolver.class.getName() + ".cachePermanent",
                     cachePermanent);
-
-                Map<String, CmsXmlContentDefinition> cacheContentDefinitions = CmsCollectionsGenericWrapper.createLRUMap(CONTENT_DEFINITION_CACHE_SIZE);
-                cacheContentDefinitions.putAll(m_cacheContentDefinitions);
-                m_cacheContentDefinitions = Collections.synchronizedMap(cacheContentDefinitions);
-                // map must be of type "LRUMap" so that memory monitor can access all information
-                OpenCms.getMemoryMonitor().register(
-                    CmsXmlEntityResolver.class.getName() + ".cacheContentDefinitions",
-                    cacheContentDefinitions);
             }
         }
     }
@@ -268,14 +265,25 @@ public class CmsXmlEntityResolver implements EntityResolver, I_CmsEventListener
      * Caches an XML content definition based on the given system id and the online / offline status
      * of this entity resolver instance.<p>
      * 
+     * The content definition is kept until the schema itself or one of the schemas 
+     * it includes, directly or nested, is changed. It is not cached if one of these schemas 
+     * may have changed since it has been read by this resolver.<p>
+     * 
      * @param systemId the system id to use as cache key
      * @param contentDefinition the content definition to cache
      */
     public void cacheContentDefinition(String systemId, CmsXmlContentDefinition contentDefinition) {
 
         String cacheKey = getCacheKeyForCurrentProject(systemId);
-        m_cacheContentDefinitions.put(cacheKey, contentDefinition);
-        if (LOG.isDebugEnabled()) {
+        Set<String> includeKeys = new HashSet<String>();
+        collectIncludeKeys(contentDefinition, includeKeys, new HashSet<CmsXmlContentDefinition>());
+        // the content definition is only as recent as the oldest schema it was generated from
+        long version = getRegistryVersion(cacheKey, m_schemaRegistry.getVersion());
+        for (String includeKey : includeKeys) {
+            version = getRegistryVersion(includeKey, version);
+        }
+        if (m_schemaRegistry.cacheDefinition(cacheKey, contentDefinition, includeKeys, version)
+            && LOG.isDebugEnabled()) {
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_ERR_CACHED_SYSTEM_ID_1, cacheKey));
         }
     }
@@ -288,11 +296,10 @@ public class CmsXmlEntityResolver implements EntityResolver, I_CmsEventListener
         CmsResource resource;
         switch (event.getType()) {
             case I_CmsEventListener.EVENT_PUBLISH_PROJECT:
-                // only flush cache if a schema definition where published
+                // only flush the published schemas and the content definitions depending on them
                 CmsUUID publishHistoryId = new CmsUUID((String)event.getData().get(I_CmsEventListener.KEY_PUBLISHID));
-                if (isSchemaDefinitionInPublishList(publishHistoryId)) {
-                    m_cacheTemporary.clear();
-                    m_cacheContentDefinitions.clear();
+                if (!uncachePublishedSchemas(publishHistoryId)) {
+                    m_schemaRegistry.clear();
                     if (LOG.isDebugEnabled()) {
                         LOG.debug(Messages.get().getBundle().key(Messages.LOG_ERR_FLUSHED_CACHES_0));
                     }
@@ -300,8 +307,7 @@ public class CmsXmlEntityResolver implements EntityResolver, I_CmsEventListener
                 break;
             case I_CmsEventListener.EVENT_CLEAR_CACHES:
                 // flush cache   
-                m_cacheTemporary.clear();
-                m_cacheContentDefinitions.clear();
+                m_schemaRegistry.clear();
                 if (LOG.isDebugEnabled()) {
                     LOG.debug(Messages.get().getBundle().key(Messages.LOG_ERR_FLUSHED_CACHES_0));
                 }
@@ -339,9 +345,13 @@ public class CmsXmlEntityResolver implements EntityResolver, I_CmsEventListener
     public CmsXmlContentDefinition getCachedContentDefinition(String systemId) {
 
         String cacheKey = getCacheKeyForCurrentProject(systemId);
-        CmsXmlContentDefinition result = m_cacheContentDefinitions.get(cacheKey);
-        if ((result != null) && LOG.isDebugEnabled()) {
-            LOG.debug(Messages.get().getBundle().key(Messages.LOG_CACHE_LOOKUP_SUCCEEDED_1, cacheKey));
+        long version = m_schemaRegistry.getVersion();
+        CmsXmlContentDefinition result = m_schemaRegistry.getDefinition(cacheKey);
+        if (result != null) {
+            m_registryVersions.put(cacheKey, Long.valueOf(version));
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(Messages.get().getBundle().key(Messages.LOG_CACHE_LOOKUP_SUCCEEDED_1, cacheKey));
+            }
         }
         return result;
     }
@@ -389,11 +399,12 @@ public class CmsXmlEntityResolver implements EntityResolver, I_CmsEventListener
 
             // opencms:// VFS reference
             String cacheSystemId = systemId.substring(OPENCMS_SCHEME.length() - 1);
-            String cacheKey = getCacheKey(
-                cacheSystemId,
-                m_cms.getRequestContext().getCurrentProject().isOnlineProject());
+            String cacheKey = getCacheKeyForCurrentProject(systemId);
+            // remember the registry version before reading, a schema changed afterwards must not be cached
+            long version = m_schemaRegistry.getVersion();
+            m_registryVersions.put(cacheKey, Long.valueOf(version));
             // look up temporary cache
-            content = m_cacheTemporary.get(cacheKey);
+            content = m_schemaRegistry.getSchema(cacheKey);
             if (content != null) {
                 return createInputSource(content, systemId);
             }
@@ -404,8 +415,7 @@ public class CmsXmlEntityResolver implements EntityResolver, I_CmsEventListener
                 CmsFile file = m_cms.readFile(cacheSystemId, CmsResourceFilter.IGNORE_EXPIRATION);
                 content = file.getContents();
                 // store content in cache
-                m_cacheTemporary.put(cacheKey, content);
-                if (LOG.isDebugEnabled()) {
+                if (m_schemaRegistry.cacheSchema(cacheKey, content, version) && LOG.isDebugEnabled()) {
                     LOG.debug(Messages.get().getBundle().key(Messages.LOG_ERR_CACHED_SYS_ID_1, cacheKey));
                 }
                 return createInputSource(content, systemId);
@@ -447,33 +457,19 @@ public class CmsXmlEntityResolver implements EntityResolver, I_CmsEventListener
     }
 
     /**
-     * Removes a cached entry for a system id (filename) from the internal offline temporary and content definition caches.<p>
+     * Removes a cached entry for a system id (filename) from the offline schemas and content definitions 
+     * of the schema registry.<p>
      * 
+     * All offline content definitions that include the schema, directly or nested, are removed as well.
      * The online resources cached for the online project are only flushed when a project is published.<p>
      * 
      * @param systemId the system id (filename) to remove from the cache
      */
     public void uncacheSystemId(String systemId) {
 
-        Object o;
-        o = m_cacheTemporary.remove(getCacheKey(systemId, false));
-        if (null != o) {
-            // if an object was removed from the temporary cache, all XML content definitions must be cleared
-            // because this may be a nested subschema 
-            m_cacheContentDefinitions.clear();
-            if (LOG.isDebugEnabled()) {
-                LOG.debug(Messages.get().getBundle().key(
-                    Messages.LOG_ERR_UNCACHED_SYS_ID_1,
-                    getCacheKey(systemId, false)));
-            }
-        } else {
-            // check if a cached content definition has to be removed based on the system id
-            o = m_cacheContentDefinitions.remove(getCacheKey(systemId, false));
-            if ((null != o) && LOG.isDebugEnabled()) {
-                LOG.debug(Messages.get().getBundle().key(
-                    Messages.LOG_ERR_UNCACHED_CONTENT_DEF_1,
-                    getCacheKey(systemId, false)));
-            }
+        String cacheKey = getCacheKey(systemId, false);
+        if (m_schemaRegistry.uncache(cacheKey) && LOG.isDebugEnabled()) {
+            LOG.debug(Messages.get().getBundle().key(Messages.LOG_ERR_UNCACHED_SYS_ID_1, cacheKey));
         }
     }
 
@@ -492,10 +488,38 @@ public class CmsXmlEntityResolver implements EntityResolver, I_CmsEventListener
         return result;
     }
 
+    /**
+     * Collects the cache keys of all schemas included by the given content definition, directly or nested.<p>
+     * 
+     * @param contentDefinition the content definition
+     * @param includeKeys the set to add the cache keys to
+     * @param visited the content definitions already visited, to stop at recursive includes
+     */
+    private void collectIncludeKeys(
+        CmsXmlContentDefinition contentDefinition,
+        Set<String> includeKeys,
+        Set<CmsXmlContentDefinition> visited) {
+
+        for (CmsXmlContentDefinition include : contentDefinition.getIncludes()) {
+            if (visited.add(include)) {
+                String location = include.getSchemaLocation();
+                if ((location != null) && !isCachedSystemId(location)) {
+                    // schemas in the permanent cache never change, so there is no need to track them
+                    includeKeys.add(getCacheKeyForCurrentProject(location));
+                }
+                collectIncludeKeys(include, includeKeys, visited);
+            }
+        }
+    }
+
     /**
      * Returns a cache key for the given system id (filename) based on the status 
      * of the given project flag.<p>
      * 
+     * The system id may either be a VFS root path or an <code>opencms://</code> URL,
+     * both result in the same key. This is required since schemas are cached by their URL, 
+     * but removed from the cache by the root path of the changed resource.<p>
+     * 
      * @param systemId the system id (filename) to get the cache key for
      * @param online indicates if this key is generated for the online project
      * 
@@ -503,6 +527,10 @@ public class CmsXmlEntityResolver implements EntityResolver, I_CmsEventListener
      */
     private String getCacheKey(String systemId, boolean online) {
 
+        // remove opencms:// prefix
+        if (systemId.startsWith(OPENCMS_SCHEME)) {
+            systemId = systemId.substring(OPENCMS_SCHEME.length() - 1);
+        }
         if (online) {
             return "online_".concat(systemId);
         }
@@ -521,43 +549,55 @@ public class CmsXmlEntityResolver implements EntityResolver, I_CmsEventListener
 
         // check the project
         boolean project = (m_cms != null) ? m_cms.getRequestContext().getCurrentProject().isOnlineProject() : false;
+        return getCacheKey(systemId, project);
+    }
 
-        // remove opencms:// prefix
-        if (systemId.startsWith(OPENCMS_SCHEME)) {
-            systemId = systemId.substring(OPENCMS_SCHEME.length() - 1);
-        }
+    /**
+     * Returns the version of the schema registry when this resolver read the schema or content definition 
+     * with the given key, if it is older than the given version.<p>
+     * 
+     * @param cacheKey the cache key of the schema or content definition
+     * @param version the version to compare with
+     * 
+     * @return the older of the two versions
+     */
+    private long getRegistryVersion(String cacheKey, long version) {
 
-        return getCacheKey(systemId, project);
+        Long readVersion = m_registryVersions.get(cacheKey);
+        if ((readVersion != null) && (readVersion.longValue() < version)) {
+            return readVersion.longValue();
+        }
+        return version;
     }
 
     /**
-     * Proves if there is at least one xsd or dtd file in the list of resources to publish.<p>
+     * Removes the online versions of all published resources from the schema registry, 
+     * together with all online content definitions depending on them.<p>
      * 
      * @param publishHistoryId the publish history id
      * 
-     * @return true, if there is at least one xsd or dtd file in the list of resources to publish, otherwise false
+     * @return <code>false</code> if the list of published resources could not be read, 
+     *      in which case the caller has to flush the complete registry
      */
-    private boolean isSchemaDefinitionInPublishList(CmsUUID publishHistoryId) {
+    private boolean uncachePublishedSchemas(CmsUUID publishHistoryId) {
 
         if (m_cms == null) {
             // CmsObject not available, assume there may be a schema definition in the publish history
-            return true;
+            return false;
         }
         try {
             List<CmsPublishedResource> publishedResources = m_cms.readPublishedResources(publishHistoryId);
             for (CmsPublishedResource cmsPublishedResource : publishedResources) {
-                String resourceRootPath = cmsPublishedResource.getRootPath();
-                String resourceRootPathLowerCase = resourceRootPath.toLowerCase();
-                if (resourceRootPathLowerCase.endsWith(".xsd")
-                    || resourceRootPathLowerCase.endsWith(".dtd")
-                    || m_cacheTemporary.containsKey(getCacheKey(resourceRootPath, true))) {
-                    return true;
+                String cacheKey = getCacheKey(cmsPublishedResource.getRootPath(), true);
+                if (m_schemaRegistry.uncache(cacheKey) && LOG.isDebugEnabled()) {
+                    LOG.debug(Messages.get().getBundle().key(Messages.LOG_ERR_UNCACHED_SYS_ID_1, cacheKey));
                 }
             }
         } catch (CmsException e) {
             // error reading published Resources.
             LOG.warn(e.getMessage(), e);
+            return false;
         }
-        return false;
+        return true;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,329 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.xml;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry for XML schemas read from the OpenCms VFS and the XML content definitions generated from them.<p>
+ * 
+ * Other than a LRU cache the registry keeps all schemas and content definitions until they are invalidated,
+ * so its size is bounded by the number of schemas actually in use.
+ * For every content definition the registry remembers the schemas it includes, directly or through
+ * nested includes. If a schema changes, only the schema itself and the content definitions that
+ * depend on it are removed.<p>
+ * 
+ * All keys used by the registry are cache keys as generated by the {@link CmsXmlEntityResolver}, 
+ * i.e. the root path of the schema prefixed with the online / offline state.<p>
+ * 
+ * Every invalidation increases the version of the registry. Callers read the version with {@link #getVersion()} 
+ * before they read a schema, and pass it when they add the schema or the content definition generated from it.
+ * If the registry has been invalidated in the meantime, the entry may be outdated already and is not added.<p>
+ * 
+ * @since 9.0.0 
+ */
+public class CmsXmlSchemaRegistry {
+
+    /** The content definitions, by cache key. */
+    private Map<String, CmsXmlContentDefinition> m_definitions;
+
+    /** The keys of the content definitions that include a schema, by cache key of the included schema. */
+    private Map<String, Set<String>> m_dependents;
+
+    /** The keys of the schemas a content definition includes, by cache key of the content definition. */
+    private Map<String, Set<String>> m_includes;
+
+    /** The raw schema bytes, by cache key. */
+    private Map<String, byte[]> m_schemas;
+
+    /** The version of the registry, increased by every invalidation and only changed while holding the lock. */
+    private volatile long m_version;
+
+    /**
+     * Creates a new, empty schema registry.<p>
+     */
+    public CmsXmlSchemaRegistry() {
+
+        m_definitions = new ConcurrentHashMap<String, CmsXmlContentDefinition>();
+        m_schemas = new ConcurrentHashMap<String, byte[]>();
+        m_dependents = new HashMap<String, Set<String>>();
+        m_includes = new HashMap<String, Set<String>>();
+    }
+
+    /**
+     * Adds a content definition to the registry, unless the registry has been invalidated since the given version.<p>
+     * 
+     * @param key the cache key of the content definition
+     * @param definition the content definition
+     * @param includeKeys the cache keys of all schemas the content definition includes, directly or nested
+     * @param version the version of the registry before the schemas of the content definition were read
+     * 
+     * @return <code>true</code> if the content definition was added
+     */
+    public synchronized boolean cacheDefinition(
+        String key,
+        CmsXmlContentDefinition definition,
+        Collection<String> includeKeys,
+        long version) {
+
+        if (version != m_version) {
+            return false;
+        }
+        // a replaced definition may have included other schemas
+        removeDefinition(key);
+        Set<String> keys = new HashSet<String>(includeKeys);
+        // a recursive definition does not depend on itself
+        keys.remove(key);
+        m_definitions.put(key, definition);
+        if (!keys.isEmpty()) {
+            m_includes.put(key, keys);
+        }
+        for (String includeKey : keys) {
+            Set<String> dependents = m_dependents.get(includeKey);
+            if (dependents == null) {
+                dependents = new HashSet<String>();
+                m_dependents.put(includeKey, dependents);
+            }
+            dependents.add(key);
+        }
+        return true;
+    }
+
+    /**
+     * Adds the raw bytes of a schema to the registry, 
+     * unless the registry has been invalidated since the given version.<p>
+     * 
+     * @param key the cache key of the schema
+     * @param content the schema bytes
+     * @param version the version of the registry before the schema was read
+     * 
+     * @return <code>true</code> if the schema was added
+     */
+    public synchronized boolean cacheSchema(String key, byte[] content, long version) {
+
+        if (version != m_version) {
+            return false;
+        }
+        m_schemas.put(key, content);
+        return true;
+    }
+
+    /**
+     * Removes all schemas and content definitions from the registry.<p>
+     */
+    public synchronized void clear() {
+
+        m_version++;
+        m_schemas.clear();
+        m_definitions.clear();
+        m_dependents.clear();
+        m_includes.clear();
+    }
+
+    /**
+     * Removes all content definitions from the registry, but keeps the schema bytes.<p>
+     */
+    public synchronized void clearDefinitions() {
+
+        m_version++;
+        m_definitions.clear();
+        m_dependents.clear();
+        m_includes.clear();
+    }
+
+    /**
+     * Checks if the registry contains the schema with the given key.<p>
+     * 
+     * @param key the cache key of the schema
+     * 
+     * @return <code>true</code> if the registry contains the schema
+     */
+    public boolean containsSchema(String key) {
+
+        return m_schemas.containsKey(key);
+    }
+
+    /**
+     * Returns the content definition with the given key.<p>
+     * 
+     * @param key the cache key of the content definition
+     * 
+     * @return the content definition, or <code>null</code> if the registry contains no definition for the key
+     */
+    public CmsXmlContentDefinition getDefinition(String key) {
+
+        return m_definitions.get(key);
+    }
+
+    /**
+     * Returns an unmodifiable view of the content definitions in the registry, by cache key.<p>
+     * 
+     * This is used by the memory monitor to report the size of the registry.<p>
+     * 
+     * @return an unmodifiable view of the content definitions in the registry
+     */
+    public Map<String, CmsXmlContentDefinition> getDefinitions() {
+
+        return Collections.unmodifiableMap(m_definitions);
+    }
+
+    /**
+     * Returns the number of content definitions in the registry.<p>
+     * 
+     * @return the number of content definitions in the registry
+     */
+    public int getDefinitionCount() {
+
+        return m_definitions.size();
+    }
+
+    /**
+     * Returns the cache keys of the content definitions that include the schema with the given key.<p>
+     * 
+     * @param key the cache key of the schema
+     * 
+     * @return the cache keys of the dependent content definitions
+     */
+    public synchronized Set<String> getDependents(String key) {
+
+        Set<String> dependents = m_dependents.get(key);
+        if (dependents == null) {
+            return new HashSet<String>();
+        }
+        return new HashSet<String>(dependents);
+    }
+
+    /**
+     * Returns the raw bytes of the schema with the given key.<p>
+     * 
+     * @param key the cache key of the schema
+     * 
+     * @return the schema bytes, or <code>null</code> if the registry contains no schema for the key
+     */
+    public byte[] getSchema(String key) {
+
+        return m_schemas.get(key);
+    }
+
+    /**
+     * Returns the number of schemas in the registry.<p>
+     * 
+     * @return the number of schemas in the registry
+     */
+    public int getSchemaCount() {
+
+        return m_schemas.size();
+    }
+
+    /**
+     * Returns an unmodifiable view of the schema bytes in the registry, by cache key.<p>
+     * 
+     * This is used by the memory monitor to report the size of the registry.<p>
+     * 
+     * @return an unmodifiable view of the schema bytes in the registry
+     */
+    public Map<String, byte[]> getSchemas() {
+
+        return Collections.unmodifiableMap(m_schemas);
+    }
+
+    /**
+     * Returns the version of the registry, which is increased by every invalidation.<p>
+     * 
+     * @return the version of the registry
+     */
+    public long getVersion() {
+
+        return m_version;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        return "CmsXmlSchemaRegistry [schemas=" + m_schemas.size() + ", definitions=" + m_definitions.size() + "]";
+    }
+
+    /**
+     * Removes a schema together with its content definition and all content definitions that include it.<p>
+     * 
+     * Content definitions that neither are generated from the schema nor include it are kept.<p>
+     * 
+     * @param key the cache key of the changed schema
+     * 
+     * @return <code>true</code> if anything was removed from the registry
+     */
+    public synchronized boolean uncache(String key) {
+
+        // schemas or content definitions read before are outdated, even if they are not yet in the registry
+        m_version++;
+        boolean hasSchema = m_schemas.remove(key) != null;
+        boolean hasDefinition = removeDefinition(key);
+        Set<String> dependents = m_dependents.remove(key);
+        if (dependents != null) {
+            // the dependents contain all content definitions that include the schema directly or nested
+            for (String dependent : dependents) {
+                removeDefinition(dependent);
+            }
+        }
+        return hasSchema || hasDefinition || (dependents != null);
+    }
+
+    /**
+     * Removes a content definition and its entries in the dependencies of the schemas it includes.<p>
+     * 
+     * @param key the cache key of the content definition
+     * 
+     * @return <code>true</code> if the registry contained the content definition
+     */
+    private boolean removeDefinition(String key) {
+
+        boolean hasDefinition = m_definitions.remove(key) != null;
+        Set<String> includeKeys = m_includes.remove(key);
+        if (includeKeys != null) {
+            for (String includeKey : includeKeys) {
+                Set<String> dependents = m_dependents.get(includeKey);
+                if (dependents != null) {
+                    dependents.remove(key);
+                    if (dependents.isEmpty()) {
+                        m_dependents.remove(includeKey);
+                    }
+                }
+            }
+        }
+        return hasDefinition;
+    }
+}
@@ -94,6 +94,16 @@ public interface I_CmsXmlDocument {
      */
     Locale getBestMatchingLocale(Locale locale);
 
+    /**
+     * Returns the compiled form of the given path, for repeated lookups with 
+     * {@link #getValue(CmsXmlCompiledPath, Locale)} and {@link #hasValue(CmsXmlCompiledPath, Locale)}.<p>
+     * 
+     * @param path the path to compile, for example <code>Teaser/Title</code>
+     * 
+     * @return the compiled path
+     */
+    CmsXmlCompiledPath getCompiledPath(String path);
+
     /**
      * Returns the content definition object used for this XML document.<p>
      * 
@@ -241,6 +251,21 @@ public interface I_CmsXmlDocument {
      */
     I_CmsXmlContentValue getValue(String path, Locale locale);
 
+    /**
+     * Returns the content value Object for the given compiled path,
+     * or <code>null</code> if no such value exists.<p>
+     * 
+     * This is the same as {@link #getValue(String, Locale)}, but avoids normalizing the path on every lookup.<p>
+     * 
+     * @param path the compiled path to get the content value for
+     * @param locale the locale to get the content value for
+     * 
+     * @return the content value Object for the given compiled path
+     * 
+     * @see #getCompiledPath(String)
+     */
+    I_CmsXmlContentValue getValue(CmsXmlCompiledPath path, Locale locale);
+
     /**
      * Returns the content value Object for the given path and the selected index, 
      * or <code>null</code> if no such value exists.<p>
@@ -304,6 +329,19 @@ public interface I_CmsXmlDocument {
      */
     boolean hasValue(String path, Locale locale);
 
+    /**
+     * Returns <code>true</code> if a value with the given compiled path exists for the selected locale 
+     * in this XML document, or <code>false</code> otherwise.<p> 
+     * 
+     * @param path the compiled path to check
+     * @param locale the locale to check
+     * 
+     * @return <code>true</code> if a value with the given compiled path exists for the selected locale
+     * 
+     * @see #getCompiledPath(String)
+     */
+    boolean hasValue(CmsXmlCompiledPath path, Locale locale);
+
     /**
      * Returns <code>true</code> if a value with the given path and the provided index exists for the selected locale 
      * in this XML document, or <code>false</code> otherwise.<p> 
@@ -74,6 +74,7 @@ import org.opencms.widgets.I_CmsComplexWidget;
 import org.opencms.widgets.I_CmsWidget;
 import org.opencms.workplace.CmsWorkplace;
 import org.opencms.workplace.editors.CmsXmlContentWidgetVisitor;
+import org.opencms.xml.CmsXmlCompiledPath;
 import org.opencms.xml.CmsXmlContentDefinition;
 import org.opencms.xml.CmsXmlEntityResolver;
 import org.opencms.xml.CmsXmlException;
@@ -2879,6 +2880,8 @@ public class CmsDefaultXmlContentHandler implements I_CmsXmlContentHandler, I_Cm
                 // nothing to do if we have no mappings at all
                 continue;
             }
+            // the path is checked for every sibling and mapping, so compile it only once
+            CmsXmlCompiledPath compiledPath = content.getCompiledPath(path);
             if ((siblings == null) || (rootCms == null)) {
                 // create OpenCms user context initialized with "/" as site root to read all siblings
                 rootCms = OpenCms.initCmsObject(cms);
@@ -2901,7 +2904,7 @@ public class CmsDefaultXmlContentHandler implements I_CmsXmlContentHandler, I_Cm
                             // only remove property if the locale fits
                             continue;
                         }
-                        if (content.hasValue(path, locale)) {
+                        if (content.hasValue(compiledPath, locale)) {
                             // value is available, property must be kept
                             continue;
                         }
@@ -2954,7 +2957,7 @@ public class CmsDefaultXmlContentHandler implements I_CmsXmlContentHandler, I_Cm
                             // only remove property if the locale fits
                             continue;
                         }
-                        if (content.hasValue(path, locale)) {
+                        if (content.hasValue(compiledPath, locale)) {
                             // value is available, property must be kept
                             continue;
                         }
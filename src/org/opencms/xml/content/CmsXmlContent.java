@@ -587,7 +587,7 @@ public class CmsXmlContent extends A_CmsXmlDocument {
     public List<I_CmsXmlContentValue> getSubValues(String path, Locale locale) {
 
         List<I_CmsXmlContentValue> result = new ArrayList<I_CmsXmlContentValue>();
-        String bookmark = getBookmarkName(CmsXmlUtils.createXpath(path, 1), locale);
+        String bookmark = getCompiledPath(path).getBookmarkName(locale);
         int depth = CmsResource.getPathLevel(bookmark) + 1;
         Iterator<String> i = getBookmarks().iterator();
         while (i.hasNext()) {
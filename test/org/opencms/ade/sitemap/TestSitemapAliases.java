@@ -0,0 +1,142 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (C) Alkacon Software (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.ade.sitemap;
+
+import org.opencms.db.CmsAlias;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsResource;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.gwt.shared.alias.CmsAliasMode;
+import org.opencms.main.OpenCms;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.Test;
+
+/**
+ * Tests the alias lookups used for sitemap entries.<p>
+ */
+public class TestSitemapAliases extends OpenCmsTestCase {
+
+    /**
+     * Creates a new instance.<p>
+     * 
+     * @param name the test name 
+     */
+    public TestSitemapAliases(String name) {
+
+        super(name);
+    }
+
+    /**
+     * Creates a test suite instance.<p>
+     * 
+     * @return the test suite instance
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+        return generateSetupTestWrapper(TestSitemapAliases.class, "systemtest", "/");
+    }
+
+    /**
+     * Tests that aliases of a resource in other sites than the current one are found.<p>
+     * 
+     * @throws Exception if something goes wrong 
+     */
+    public void testCrossSiteAliases() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        cms.getRequestContext().setSiteRoot("/sites/default");
+        CmsResource page = cms.createResource("/alias_page.txt", CmsResourceTypePlain.getStaticTypeId());
+        List<CmsAlias> aliases = new ArrayList<CmsAlias>();
+        aliases.add(new CmsAlias(page.getStructureId(), "/sites/default", "/local", CmsAliasMode.page));
+        aliases.add(new CmsAlias(page.getStructureId(), "/sites/other", "/foreign", CmsAliasMode.page));
+        OpenCms.getAliasManager().saveAliases(cms, page.getStructureId(), aliases);
+
+        List<String> expected = Arrays.asList("/foreign", "/local");
+        assertEquals(expected, CmsVfsSitemapService.readAliasPaths(cms, page.getStructureId()));
+        Map<CmsUUID, List<String>> aliasPaths = CmsVfsSitemapService.readAliasPaths(
+            cms,
+            Collections.singletonList(page.getStructureId()));
+        assertEquals(expected, aliasPaths.get(page.getStructureId()));
+    }
+
+    /**
+     * Tests reading the aliases of several resources at once.<p>
+     * 
+     * @throws Exception if something goes wrong 
+     */
+    public void testReadAliasesForStructureIds() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        cms.getRequestContext().setSiteRoot("/sites/default");
+        CmsResource first = cms.createResource("/alias_first.txt", CmsResourceTypePlain.getStaticTypeId());
+        CmsResource second = cms.createResource("/alias_second.txt", CmsResourceTypePlain.getStaticTypeId());
+        CmsResource other = cms.createResource("/alias_other.txt", CmsResourceTypePlain.getStaticTypeId());
+        CmsResource none = cms.createResource("/alias_none.txt", CmsResourceTypePlain.getStaticTypeId());
+        saveAlias(cms, first, "/first_b");
+        saveAlias(cms, first, "/first_a");
+        saveAlias(cms, second, "/second");
+        saveAlias(cms, other, "/other");
+
+        Map<CmsUUID, List<String>> aliasPaths = CmsVfsSitemapService.readAliasPaths(
+            cms,
+            Arrays.asList(first.getStructureId(), second.getStructureId(), none.getStructureId()));
+        assertEquals(2, aliasPaths.size());
+        assertEquals(Arrays.asList("/first_a", "/first_b"), aliasPaths.get(first.getStructureId()));
+        assertEquals(Arrays.asList("/second"), aliasPaths.get(second.getStructureId()));
+        assertTrue(CmsVfsSitemapService.readAliasPaths(cms, Collections.<CmsUUID> emptyList()).isEmpty());
+    }
+
+    /**
+     * Adds an alias to the aliases of a resource.<p>
+     * 
+     * @param cms the CMS context
+     * @param resource the resource
+     * @param aliasPath the alias path to add
+     * 
+     * @throws Exception if something goes wrong
+     */
+    private void saveAlias(CmsObject cms, CmsResource resource, String aliasPath) throws Exception {
+
+        List<CmsAlias> aliases = new ArrayList<CmsAlias>(OpenCms.getAliasManager().getAliasesForStructureId(
+            cms,
+            resource.getStructureId()));
+        aliases.add(new CmsAlias(resource.getStructureId(), "/sites/default", aliasPath, CmsAliasMode.page));
+        OpenCms.getAliasManager().saveAliases(cms, resource.getStructureId(), aliases);
+    }
+}
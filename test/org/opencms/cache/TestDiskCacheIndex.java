@@ -0,0 +1,149 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.cache;
+
+import org.opencms.util.CmsFileUtil;
+
+import java.io.File;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the disk cache index.<p>
+ */
+public class TestDiskCacheIndex extends TestCase {
+
+    /** The cache repository used by the tests. */
+    private String m_repository;
+
+    /**
+     * Tests that the least recently used files are removed when the cache becomes too large.<p>
+     * 
+     * @throws Exception if something goes wrong
+     */
+    public void testEvictLeastRecentlyUsed() throws Exception {
+
+        CmsDiskCacheIndex index = new CmsDiskCacheIndex(m_repository, 250);
+        String a = saveFile("a/a.png", 100);
+        index.add(a, 100);
+        String b = saveFile("b.png", 100);
+        index.add(b, 100);
+        // access a, so that b is the least recently used file
+        index.touch(a, 100);
+        String c = saveFile("a/c.png", 100);
+        assertEquals(1, index.add(c, 100));
+
+        assertTrue(new File(a).exists());
+        assertFalse(new File(b).exists());
+        assertTrue(new File(c).exists());
+        assertEquals(2, index.size());
+        assertEquals(200, index.getTotalSize());
+    }
+
+    /**
+     * Tests that the index survives a restart, and is rebuilt from the cache folder if the index file is missing.<p>
+     * 
+     * @throws Exception if something goes wrong
+     */
+    public void testPersistence() throws Exception {
+
+        CmsDiskCacheIndex index = new CmsDiskCacheIndex(m_repository, 0);
+        index.add(saveFile("a.png", 10), 10);
+        index.add(saveFile("x/b.png", 20), 20);
+        index.save();
+
+        CmsDiskCacheIndex reloaded = new CmsDiskCacheIndex(m_repository, 0);
+        assertEquals(2, reloaded.size());
+        assertEquals(30, reloaded.getTotalSize());
+
+        assertTrue(new File(m_repository, CmsDiskCacheIndex.INDEX_FILE_NAME).delete());
+        CmsDiskCacheIndex rebuilt = new CmsDiskCacheIndex(m_repository, 0);
+        assertEquals(2, rebuilt.size());
+        assertEquals(30, rebuilt.getTotalSize());
+    }
+
+    /**
+     * Tests removing the files which have not been used for some time.<p>
+     * 
+     * @throws Exception if something goes wrong
+     */
+    public void testRemoveUnused() throws Exception {
+
+        CmsDiskCacheIndex index = new CmsDiskCacheIndex(m_repository, 0);
+        String a = saveFile("a.png", 10);
+        index.add(a, 10);
+        Thread.sleep(20);
+        long date = System.currentTimeMillis();
+        Thread.sleep(20);
+        String b = saveFile("b.png", 10);
+        index.add(b, 10);
+
+        assertEquals(1, index.removeUnusedSince(date));
+        assertFalse(new File(a).exists());
+        assertTrue(new File(b).exists());
+        assertEquals(1, index.size());
+    }
+
+    /**
+     * @see junit.framework.TestCase#setUp()
+     */
+    @Override
+    protected void setUp() throws Exception {
+
+        File dir = File.createTempFile("diskcache", "");
+        dir.delete();
+        dir.mkdirs();
+        m_repository = CmsFileUtil.normalizePath(dir.getAbsolutePath() + File.separatorChar);
+    }
+
+    /**
+     * @see junit.framework.TestCase#tearDown()
+     */
+    @Override
+    protected void tearDown() throws Exception {
+
+        CmsFileUtil.purgeDirectory(new File(m_repository));
+    }
+
+    /**
+     * Saves a file of the given size in the cache repository.<p>
+     * 
+     * @param name the name of the file relative to the repository
+     * @param size the size of the file
+     * 
+     * @return the RFS name of the file
+     * 
+     * @throws Exception if something goes wrong
+     */
+    private String saveFile(String name, int size) throws Exception {
+
+        String rfsName = m_repository + name;
+        CmsVfsDiskCache.saveFile(rfsName, new byte[size]);
+        return rfsName;
+    }
+}
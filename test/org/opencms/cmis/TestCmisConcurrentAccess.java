@@ -0,0 +1,306 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.cmis;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsPropertyDefinition;
+import org.opencms.file.CmsResource;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.test.OpenCmsThreadedTestCase;
+import org.opencms.test.OpenCmsThreadedTestCaseSuite;
+
+import org.apache.chemistry.opencmis.commons.data.ObjectData;
+import org.apache.chemistry.opencmis.commons.data.ObjectInFolderList;
+import org.apache.chemistry.opencmis.commons.enums.IncludeRelationships;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisPermissionDeniedException;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertiesImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertyStringImpl;
+import org.apache.chemistry.opencmis.commons.server.CallContext;
+import org.apache.chemistry.opencmis.commons.spi.Holder;
+import org.apache.chemistry.opencmis.server.impl.CallContextImpl;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for concurrent access to a CMIS repository.<p>
+ */
+public class TestCmisConcurrentAccess extends OpenCmsTestCase {
+
+    /** The number of read operations each thread performs. */
+    private static final int READ_ITERATIONS = 20;
+
+    /** The repository used by the concurrent test threads. */
+    private CmsCmisRepository m_repository;
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmisConcurrentAccess(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmisConcurrentAccess.class.getName());
+
+        suite.addTest(new TestCmisConcurrentAccess("testConcurrentReads"));
+        suite.addTest(new TestCmisConcurrentAccess("testConcurrentPropertyUpdates"));
+        suite.addTest(new TestCmisConcurrentAccess("testLoginCache"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Concurrent property update test method.<p>
+     *
+     * @param cms the OpenCms user context to use
+     * @param count the count for this test
+     * @param objectId the id of the object to update
+     */
+    public void doConcurrentPropertyUpdate(CmsObject cms, Integer count, String objectId) {
+
+        PropertiesImpl properties = new PropertiesImpl();
+        properties.addProperty(new PropertyStringImpl(CmsCmisTypeManager.PROPERTY_PREFIX
+            + CmsPropertyDefinition.PROPERTY_TITLE, "Title " + count));
+        m_repository.updateProperties(createCallContext(), new Holder<String>(objectId), null, properties);
+    }
+
+    /**
+     * Concurrent read test method.<p>
+     *
+     * @param cms the OpenCms user context to use
+     * @param count the count for this test
+     * @param folderId the id of the folder to read
+     */
+    public void doConcurrentRead(CmsObject cms, Integer count, String folderId) {
+
+        CmsCmisCallContext context = createCallContext();
+        for (int i = 0; i < READ_ITERATIONS; i++) {
+            ObjectInFolderList children = m_repository.getChildren(
+                context,
+                folderId,
+                null,
+                null,
+                false,
+                IncludeRelationships.NONE,
+                "cmis:none",
+                false,
+                null,
+                null);
+            assertFalse(children.getObjects().isEmpty());
+            ObjectData folder = m_repository.getObject(
+                context,
+                folderId,
+                null,
+                false,
+                IncludeRelationships.NONE,
+                "cmis:none",
+                false,
+                false);
+            assertEquals(folderId, folder.getId());
+        }
+    }
+
+    /**
+     * Tests that concurrent property updates of the same object are serialized.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testConcurrentPropertyUpdates() throws Throwable {
+
+        int count = 20;
+        echo("Testing concurrent CMIS property updates of a single object with " + count + " threads");
+        CmsObject cms = getCmsObject();
+        initRepository(cms);
+        CmsResource resource = cms.readResource("/index.html");
+
+        Object[] parameters = new Object[] {
+            OpenCmsThreadedTestCaseSuite.PARAM_CMSOBJECT,
+            OpenCmsThreadedTestCaseSuite.PARAM_COUNTER,
+            resource.getStructureId().toString()};
+        OpenCmsThreadedTestCaseSuite suite = new OpenCmsThreadedTestCaseSuite(
+            count,
+            this,
+            "doConcurrentPropertyUpdate",
+            parameters);
+        OpenCmsThreadedTestCase[] threads = suite.run();
+
+        if (suite.getThrowable() != null) {
+            throw suite.getThrowable();
+        }
+        for (int i = 0; i < threads.length; i++) {
+            if (threads[i].getThrowable() != null) {
+                throw threads[i].getThrowable();
+            }
+        }
+        String title = cms.readPropertyObject(resource, CmsPropertyDefinition.PROPERTY_TITLE, false).getValue();
+        assertTrue(title.startsWith("Title "));
+        assertTrue(cms.getLock(resource).isUnlocked());
+    }
+
+    /**
+     * Tests that read operations of a CMIS repository can run in parallel.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testConcurrentReads() throws Throwable {
+
+        int count = 20;
+        echo("Testing concurrent CMIS reads of a folder with " + count + " threads");
+        CmsObject cms = getCmsObject();
+        initRepository(cms);
+        String folderId = cms.readResource("/").getStructureId().toString();
+
+        Object[] parameters = new Object[] {
+            OpenCmsThreadedTestCaseSuite.PARAM_CMSOBJECT,
+            OpenCmsThreadedTestCaseSuite.PARAM_COUNTER,
+            folderId};
+        OpenCmsThreadedTestCaseSuite suite = new OpenCmsThreadedTestCaseSuite(
+            count,
+            this,
+            "doConcurrentRead",
+            parameters);
+        suite.setAllowedRuntime(60000);
+        OpenCmsThreadedTestCase[] threads = suite.run();
+
+        if (suite.getThrowable() != null) {
+            throw suite.getThrowable();
+        }
+        assertEquals(count, threads.length);
+        for (int i = 0; i < threads.length; i++) {
+            if (threads[i].getThrowable() != null) {
+                throw threads[i].getThrowable();
+            }
+        }
+    }
+
+    /**
+     * Tests that a cached login is not used any more after the password of the user was changed.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testLoginCache() throws Throwable {
+
+        echo("Testing the CMIS login cache");
+        CmsObject cms = getCmsObject();
+        initRepository(cms);
+        cms.createUser("cmisuser", "password1", "CMIS test user", null);
+
+        CmsObject userCms = m_repository.getCmsObject(createCallContext("cmisuser", "password1"));
+        assertEquals("cmisuser", userCms.getRequestContext().getCurrentUser().getName());
+        // every call gets its own context
+        assertNotSame(userCms, m_repository.getCmsObject(createCallContext("cmisuser", "password1")));
+        try {
+            m_repository.getCmsObject(createCallContext("cmisuser", "wrong"));
+            fail("Login with a wrong password must fail");
+        } catch (CmisPermissionDeniedException e) {
+            // expected
+        }
+
+        cms.setPassword("cmisuser", "password2");
+        try {
+            m_repository.getCmsObject(createCallContext("cmisuser", "password1"));
+            fail("Login with the old password must fail after the password was changed");
+        } catch (CmisPermissionDeniedException e) {
+            // expected
+        }
+        userCms = m_repository.getCmsObject(createCallContext("cmisuser", "password2"));
+        assertEquals("cmisuser", userCms.getRequestContext().getCurrentUser().getName());
+    }
+
+    /**
+     * Creates a call context for the Admin user.<p>
+     *
+     * @return the call context
+     */
+    private CmsCmisCallContext createCallContext() {
+
+        return createCallContext("Admin", "admin");
+    }
+
+    /**
+     * Creates a call context for the given credentials.<p>
+     *
+     * @param user the user name
+     * @param password the password
+     *
+     * @return the call context
+     */
+    private CmsCmisCallContext createCallContext(String user, String password) {
+
+        CallContextImpl context = new CallContextImpl(CallContext.BINDING_ATOMPUB, m_repository.getId(), false);
+        context.put(CallContext.USERNAME, user);
+        context.put(CallContext.PASSWORD, password);
+        return new CmsCmisCallContext(context, null);
+    }
+
+    /**
+     * Initializes the repository used by the test threads.<p>
+     *
+     * @param cms the CMS context
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void initRepository(CmsObject cms) throws Exception {
+
+        m_repository = new CmsCmisRepository();
+        m_repository.setName("test");
+        m_repository.addConfigurationParameter(CmsCmisRepository.PARAM_PROJECT, "Offline");
+        m_repository.initConfiguration();
+        m_repository.initializeCms(cms);
+    }
+}
@@ -148,9 +148,12 @@ public class TestAliases extends OpenCmsTestCase {
         List<CmsRewriteAlias> aliases = aliasManager.getRewriteAliases(getCmsObject(), "/sites/default");
         checkRewriteAlias(alias, aliases);
         assertEquals(1, aliases.size());
+        assertNotNull(aliasManager.getRewriteAliasMatcher(getCmsObject(), siteRoot).match("/foo/x"));
         aliasManager.saveRewriteAliases(getCmsObject(), siteRoot, Collections.<CmsRewriteAlias> emptyList());
         aliases = aliasManager.getRewriteAliases(getCmsObject(), "/sites/default");
         assertEquals(0, aliases.size());
+        // the cached matcher must have been flushed
+        assertNull(aliasManager.getRewriteAliasMatcher(getCmsObject(), siteRoot).match("/foo/x"));
 
         CmsRewriteAlias alias2 = new CmsRewriteAlias(
             new CmsUUID(),
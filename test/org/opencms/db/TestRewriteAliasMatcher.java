@@ -0,0 +1,96 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db;
+
+import org.opencms.gwt.shared.alias.CmsAliasMode;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the rewrite alias matcher.<p>
+ */
+public class TestRewriteAliasMatcher extends TestCase {
+
+    /**
+     * Tests the calculation of the literal pattern prefixes.<p>
+     */
+    public void testLiteralPrefix() {
+
+        assertEquals("/foo/", CmsRewriteAliasMatcher.getLiteralPrefix("/foo/(.*)"));
+        assertEquals("/foo/", CmsRewriteAliasMatcher.getLiteralPrefix("^/foo/(.*)"));
+        assertEquals("/foo/bar", CmsRewriteAliasMatcher.getLiteralPrefix("/foo/bar"));
+        assertEquals("/fo", CmsRewriteAliasMatcher.getLiteralPrefix("/foo?/(.*)"));
+        assertEquals("/fo", CmsRewriteAliasMatcher.getLiteralPrefix("/foo*"));
+        assertEquals("/fo", CmsRewriteAliasMatcher.getLiteralPrefix("/foo{2}"));
+        assertEquals("/", CmsRewriteAliasMatcher.getLiteralPrefix("/\\d+"));
+        assertEquals("", CmsRewriteAliasMatcher.getLiteralPrefix("/foo|/bar"));
+        assertEquals("", CmsRewriteAliasMatcher.getLiteralPrefix("(?i)/foo/.*"));
+        assertEquals("", CmsRewriteAliasMatcher.getLiteralPrefix(".*"));
+    }
+
+    /**
+     * Tests that the first matching alias wins.<p>
+     */
+    public void testMatchOrder() {
+
+        List<CmsRewriteAlias> aliases = new ArrayList<CmsRewriteAlias>();
+        aliases.add(createAlias("/foo/bar/(.*)", "/first/$1"));
+        aliases.add(createAlias("(?i)/FOO/(.*)", "/second/$1"));
+        aliases.add(createAlias("/foo/(.*)", "/third/$1"));
+        aliases.add(createAlias("[invalid", "/invalid"));
+        aliases.add(createAlias("/x|/y", "/fourth"));
+        aliases.add(createAlias("/a?b", "/fifth"));
+        CmsRewriteAliasMatcher matcher = new CmsRewriteAliasMatcher(aliases);
+
+        assertEquals("/first/x", matcher.match("/foo/bar/x").getNewPath());
+        assertEquals("/second/baz", matcher.match("/foo/baz").getNewPath());
+        assertSame(aliases.get(1), matcher.match("/foo/baz").getAlias());
+        assertEquals("/fourth", matcher.match("/y").getNewPath());
+        assertEquals("/fifth", matcher.match("/b").getNewPath());
+        assertEquals("/fifth", matcher.match("/ab").getNewPath());
+        assertNull(matcher.match("/other"));
+        assertNull(matcher.match(""));
+    }
+
+    /**
+     * Creates a rewrite alias for the tests.<p>
+     *
+     * @param pattern the pattern
+     * @param replacement the replacement
+     *
+     * @return the rewrite alias
+     */
+    protected static CmsRewriteAlias createAlias(String pattern, String replacement) {
+
+        return new CmsRewriteAlias(new CmsUUID(), "/sites/default", pattern, replacement, CmsAliasMode.redirect);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import junit.framework.TestCase;
+
+/**
+ * Performance tests for the rewrite alias matcher.<p>
+ *
+ * These tests only print the measured values and are not part of the package test suite.<p>
+ */
+public class TestRewriteAliasMatcherPerformance extends TestCase {
+
+    /** The number of lookups per benchmark round. */
+    private static final int BENCHMARK_SIZE = 2000;
+
+    /**
+     * Compares the matcher with compiling every pattern for every lookup, as it was done before.<p>
+     */
+    public void testBenchmark() {
+
+        List<CmsRewriteAlias> aliases = new ArrayList<CmsRewriteAlias>();
+        for (int i = 0; i < 300; i++) {
+            String pattern = "/legacy/section" + i + "/(.*)\\.html";
+            aliases.add(TestRewriteAliasMatcher.createAlias(pattern, "/new/" + i + "/$1/"));
+        }
+        CmsRewriteAliasMatcher matcher = new CmsRewriteAliasMatcher(aliases);
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            int hits = 0;
+            for (int i = 0; i < BENCHMARK_SIZE; i++) {
+                String path = "/legacy/section" + (i % 400) + "/page.html";
+                for (CmsRewriteAlias alias : aliases) {
+                    Matcher m = Pattern.compile(alias.getPatternString()).matcher(path);
+                    if (m.matches()) {
+                        hits++;
+                        break;
+                    }
+                }
+            }
+            long compileTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < BENCHMARK_SIZE; i++) {
+                String path = "/legacy/section" + (i % 400) + "/page.html";
+                if (matcher.match(path) != null) {
+                    hits--;
+                }
+            }
+            long matcherTime = System.nanoTime() - start;
+            assertEquals(0, hits);
+            System.out.println("Round "
+                + round
+                + ", 300 rewrite aliases: "
+                + (compileTime / BENCHMARK_SIZE)
+                + " ns/lookup compiling all patterns, "
+                + (matcherTime / BENCHMARK_SIZE)
+                + " ns/lookup with the matcher");
+        }
+    }
+}
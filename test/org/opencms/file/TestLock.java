@@ -29,6 +29,7 @@ package org.opencms.file;
 
 import org.opencms.file.types.CmsResourceTypeFolder;
 import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.lock.CmsLock;
 import org.opencms.lock.CmsLockException;
 import org.opencms.lock.CmsLockFilter;
 import org.opencms.lock.CmsLockType;
@@ -87,6 +88,7 @@ public class TestLock extends OpenCmsTestCase {
         suite.addTest(new TestLock("testLockRequired"));
         suite.addTest(new TestLock("testLockInherit"));
         suite.addTest(new TestLock("testLockForSiblings"));
+        suite.addTest(new TestLock("testGetLocks"));
         suite.addTest(new TestLock("testLockForBaseOperations"));
         suite.addTest(new TestLock("testCopyToLockedFolder"));
         suite.addTest(new TestLock("testCreationInLockedFolder"));
@@ -165,6 +167,35 @@ public class TestLock extends OpenCmsTestCase {
         }
     }
 
+    /**
+     * Tests that reading the locks of a resource list gives the same results as reading them one by one.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testGetLocks() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing reading the locks of a resource list");
+
+        // folder1 contains an inherited lock, folder2 exclusive and shared locked siblings
+        List<CmsResource> resources = new ArrayList<CmsResource>();
+        resources.addAll(cms.readResources("/folder1/", CmsResourceFilter.ALL, true));
+        resources.addAll(cms.readResources("/folder2/", CmsResourceFilter.ALL, true));
+
+        List<CmsLock> locks = cms.getLocks(resources);
+        assertEquals(resources.size(), locks.size());
+        int locked = 0;
+        for (int i = 0; i < resources.size(); i++) {
+            CmsLock expected = cms.getLock(resources.get(i));
+            assertEquals(resources.get(i).getRootPath(), expected, locks.get(i));
+            assertEquals(expected.getType(), locks.get(i).getType());
+            if (!expected.isNullLock()) {
+                locked++;
+            }
+        }
+        assertTrue(locked > 0);
+    }
+
     /**
      * Test the lock filter. see bug #1460.<p>
      * 
@@ -27,11 +27,15 @@
 
 package org.opencms.file;
 
+import org.opencms.db.CmsChildResourceOrder;
 import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 import org.opencms.test.OpenCmsTestResourceFilter;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import junit.extensions.TestSetup;
@@ -73,6 +77,8 @@ public class TestReadResourceTree extends OpenCmsTestCase {
         suite.addTest(new TestReadResourceTree("testReadResources"));
         suite.addTest(new TestReadResourceTree("testReadModifiedResources"));
         suite.addTest(new TestReadResourceTree("testReadResourcesInTimerange"));
+        suite.addTest(new TestReadResourceTree("testReadChildPagesByName"));
+        suite.addTest(new TestReadResourceTree("testReadChildPagesByDateLastModified"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -92,6 +98,72 @@ public class TestReadResourceTree extends OpenCmsTestCase {
         return wrapper;
     }
 
+    /**
+     * Test reading the child resources of a folder page by page, ordered by the date of last modification.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testReadChildPagesByDateLastModified() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing getResourcesInFolder: reading child pages by date of last modification");
+
+        String path = createPagingFolder(cms, "/pagingbydate/");
+        // resources with the same date are ordered by their root path, also across page boundaries
+        cms.setDateLastModified(path + "a.html", 3000, false);
+        cms.setDateLastModified(path + "b.html", 1000, false);
+        cms.setDateLastModified(path + "c.html", 2000, false);
+        cms.setDateLastModified(path + "c/", 1000, false);
+        cms.setDateLastModified(path + "d.html", 2000, false);
+        cms.setDateLastModified(path + "e.html", 2000, false);
+
+        List<String> expected = Arrays.asList("b.html", "c", "c.html", "d.html", "e.html", "a.html");
+        assertEquals(expected, readChildPages(cms, path, CmsChildResourceOrder.DATE_LASTMODIFIED, 1));
+        assertEquals(expected, readChildPages(cms, path, CmsChildResourceOrder.DATE_LASTMODIFIED, 2));
+        assertEquals(expected, readChildPages(cms, path, CmsChildResourceOrder.DATE_LASTMODIFIED, 4));
+        assertEquals(expected, readChildPages(cms, path, CmsChildResourceOrder.DATE_LASTMODIFIED, 10));
+    }
+
+    /**
+     * Test reading the child resources of a folder page by page, ordered by name.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testReadChildPagesByName() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing getResourcesInFolder: reading child pages by name");
+
+        String path = createPagingFolder(cms, "/pagingbyname/");
+        assertEquals(6, cms.countResourcesInFolder(path));
+
+        // the file "c.html" is ordered before the folder "c/", since '.' is lower than '/'
+        List<String> expected = Arrays.asList("a.html", "b.html", "c.html", "c", "d.html", "e.html");
+        assertEquals(expected, readChildPages(cms, path, CmsChildResourceOrder.NAME, 1));
+        assertEquals(expected, readChildPages(cms, path, CmsChildResourceOrder.NAME, 2));
+        assertEquals(expected, readChildPages(cms, path, CmsChildResourceOrder.NAME, 4));
+        assertEquals(expected, readChildPages(cms, path, CmsChildResourceOrder.NAME, 10));
+
+        // a page starts right after the given resource, and there is no page after the last resource
+        List<CmsResource> all = cms.getResourcesInFolder(
+            path,
+            CmsResourceFilter.DEFAULT,
+            CmsChildResourceOrder.NAME,
+            null,
+            10);
+        List<CmsResource> page = cms.getResourcesInFolder(
+            path,
+            CmsResourceFilter.DEFAULT,
+            CmsChildResourceOrder.NAME,
+            all.get(2),
+            2);
+        assertEquals(all.subList(3, 5), page);
+        page = cms.getResourcesInFolder(path, CmsResourceFilter.DEFAULT, CmsChildResourceOrder.NAME, all.get(5), 2);
+        assertTrue(page.isEmpty());
+        page = cms.getResourcesInFolder(path, CmsResourceFilter.DEFAULT, CmsChildResourceOrder.NAME, null, 0);
+        assertTrue(page.isEmpty());
+    }
+
     /**
      * Test readResources for reading immediate child resources below a given path.<p>
      * 
@@ -398,4 +470,63 @@ public class TestReadResourceTree extends OpenCmsTestCase {
         // check the number of resources
         assertEquals(this.m_currentResourceStrorage.size(), i);
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates a folder with five files and one sub folder for the paging tests.<p>
+     * 
+     * @param cms the CMS context
+     * @param path the path of the folder to create
+     * 
+     * @return the path of the created folder
+     * 
+     * @throws Exception if something goes wrong
+     */
+    private String createPagingFolder(CmsObject cms, String path) throws Exception {
+
+        cms.createResource(path, CmsResourceTypeFolder.getStaticTypeId());
+        cms.createResource(path + "d.html", CmsResourceTypePlain.getStaticTypeId());
+        cms.createResource(path + "b.html", CmsResourceTypePlain.getStaticTypeId());
+        cms.createResource(path + "c/", CmsResourceTypeFolder.getStaticTypeId());
+        cms.createResource(path + "e.html", CmsResourceTypePlain.getStaticTypeId());
+        cms.createResource(path + "a.html", CmsResourceTypePlain.getStaticTypeId());
+        cms.createResource(path + "c.html", CmsResourceTypePlain.getStaticTypeId());
+        return path;
+    }
+
+    /**
+     * Reads all child resources of a folder page by page and returns their names in the order read.<p>
+     * 
+     * Every page except the last one must be full.<p>
+     * 
+     * @param cms the CMS context
+     * @param path the path of the folder
+     * @param order the order of the child resources
+     * @param pageSize the page size
+     * 
+     * @return the names of the child resources
+     * 
+     * @throws Exception if something goes wrong
+     */
+    private List<String> readChildPages(CmsObject cms, String path, CmsChildResourceOrder order, int pageSize)
+    throws Exception {
+
+        List<String> result = new ArrayList<String>();
+        CmsResource startAfter = null;
+        while (true) {
+            List<CmsResource> page = cms.getResourcesInFolder(
+                path,
+                CmsResourceFilter.DEFAULT,
+                order,
+                startAfter,
+                pageSize);
+            assertTrue(page.size() <= pageSize);
+            for (CmsResource resource : page) {
+                result.add(resource.getName());
+            }
+            if (page.size() < pageSize) {
+                return result;
+            }
+            startAfter = page.get(page.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.flex;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the off-heap tier of the FlexCache.<p>
+ */
+public class TestCmsFlexCacheOffHeapTier extends TestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsFlexCacheOffHeapTier(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that the oldest entries are dropped when the tier is full.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testCircularEviction() throws Exception {
+
+        int entrySize = CmsFlexCacheOffHeapTier.serialize(createEntry("page-00")).length;
+        // room for 10 entries and some slack
+        CmsFlexCacheOffHeapTier tier = new CmsFlexCacheOffHeapTier((entrySize * 10) + (entrySize / 2), null);
+        for (int i = 0; i < 35; i++) {
+            String page = "page-" + (i < 10 ? "0" : "") + i;
+            assertTrue(tier.demote("/page.jsp [online]", page, createEntry(page)));
+            assertTrue(tier.getUsedBytes() <= tier.getCapacity());
+        }
+        assertEquals(10, tier.size());
+        assertEquals(35, tier.getDemotedCount());
+        assertEquals(25, tier.getEvictedCount());
+        assertNull(tier.promote("/page.jsp [online]", "page-24"));
+        for (int i = 25; i < 35; i++) {
+            String page = "page-" + i;
+            CmsFlexCacheEntry entry = tier.promote("/page.jsp [online]", page);
+            assertNotNull(page, entry);
+            assertEquals(page, new String((byte[])entry.elements().get(0)));
+        }
+        assertEquals(0, tier.size());
+        assertEquals(0, tier.getUsedBytes());
+
+        // promotions leave holes that are reused once the log wraps around
+        tier.clear();
+        for (int i = 0; i < 10; i++) {
+            tier.demote("/page.jsp [online]", "a" + i, createEntry("page-a" + i));
+        }
+        for (int i = 0; i < 10; i += 2) {
+            assertNotNull(tier.promote("/page.jsp [online]", "a" + i));
+        }
+        for (int i = 0; i < 5; i++) {
+            tier.demote("/page.jsp [online]", "b" + i, createEntry("page-b" + i));
+        }
+        // writing 5 entries into the holes in front of a1 and a3 overwrites these two entries
+        assertEquals(8, tier.size());
+        assertEquals(27, tier.getEvictedCount());
+        for (int i = 0; i < 5; i++) {
+            CmsFlexCacheEntry entry = tier.promote("/page.jsp [online]", "b" + i);
+            assertEquals("page-b" + i, new String((byte[])entry.elements().get(0)));
+        }
+        assertNull(tier.promote("/page.jsp [online]", "a1"));
+        assertNull(tier.promote("/page.jsp [online]", "a3"));
+        for (int i = 5; i < 10; i += 2) {
+            assertNotNull(tier.promote("/page.jsp [online]", "a" + i));
+        }
+    }
+
+    /**
+     * Tests that expired entries and entries with non-String attributes are not demoted.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testDemoteRejected() throws Exception {
+
+        CmsFlexCacheOffHeapTier tier = new CmsFlexCacheOffHeapTier(64 * 1024, null);
+
+        CmsFlexCacheEntry expired = createEntry("expired");
+        expired.setDateExpires(System.currentTimeMillis() - 1000);
+        assertFalse(tier.demote("/a.jsp [online]", "v", expired));
+
+        CmsFlexCacheEntry entry = new CmsFlexCacheEntry();
+        Map<String, Object> attrs = new HashMap<String, Object>();
+        attrs.put("bean", new Object());
+        entry.add("/b.jsp", null, attrs);
+        entry.complete();
+        assertNull(CmsFlexCacheOffHeapTier.serialize(entry));
+        assertFalse(tier.demote("/a.jsp [online]", "v", entry));
+
+        CmsFlexCacheOffHeapTier small = new CmsFlexCacheOffHeapTier(16, null);
+        assertFalse(small.demote("/a.jsp [online]", "v", createEntry("too large")));
+        assertEquals(0, tier.size() + small.size());
+    }
+
+    /**
+     * Tests hit and miss statistics and that promoted entries are removed from the tier.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testHitMissStatistics() throws Exception {
+
+        CmsFlexCacheOffHeapTier tier = new CmsFlexCacheOffHeapTier(64 * 1024, null);
+        tier.demote("/a.jsp [online]", "v1", createEntry("a1"));
+        tier.demote("/a.jsp [offline]", "v1", createEntry("a1 offline"));
+
+        assertNull(tier.promote("/a.jsp [online]", "v2"));
+        assertNotNull(tier.promote("/a.jsp [online]", "v1"));
+        assertNull(tier.promote("/a.jsp [online]", "v1"));
+        assertEquals(1, tier.getHitCount());
+        assertEquals(2, tier.getMissCount());
+
+        // demoting the same variation again replaces the older copy
+        tier.demote("/a.jsp [online]", "v1", createEntry("a1 old"));
+        tier.demote("/a.jsp [online]", "v1", createEntry("a1 new"));
+        assertEquals(2, tier.size());
+        assertEquals("a1 new", new String((byte[])tier.promote("/a.jsp [online]", "v1").elements().get(0)));
+
+        tier.demote("/a.jsp [online]", "v1", createEntry("a1"));
+        tier.removeAll(CmsFlexCache.CACHE_OFFLINESUFFIX);
+        assertEquals(1, tier.size());
+        assertNull(tier.promote("/a.jsp [offline]", "v1"));
+        tier.remove("/a.jsp [online]", "v1");
+        assertEquals(0, tier.size());
+        assertEquals(0, tier.getUsedBytes());
+    }
+
+    /**
+     * Tests a tier that is mapped from a file.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testMappedFile() throws Exception {
+
+        File file = File.createTempFile("flexcache", ".bin");
+        CmsFlexCacheOffHeapTier tier = new CmsFlexCacheOffHeapTier(32 * 1024, file);
+        assertEquals(32 * 1024, file.length());
+        assertEquals(file, tier.getFile());
+        for (int i = 0; i < 100; i++) {
+            tier.demote("/a.jsp [online]", "v" + i, createEntry("output " + i));
+        }
+        CmsFlexCacheEntry entry = tier.promote("/a.jsp [online]", "v99");
+        assertEquals("output 99", new String((byte[])entry.elements().get(0)));
+        tier.clear();
+        assertEquals(0, tier.size());
+    }
+
+    /**
+     * Tests that an entry survives serialization unchanged.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testSerialization() throws Exception {
+
+        CmsFlexCacheEntry entry = createEntry("<html>äöü</html>");
+        CmsFlexCacheEntry copy = CmsFlexCacheOffHeapTier.deserialize(CmsFlexCacheOffHeapTier.serialize(entry));
+
+        List<Object> elements = entry.elements();
+        List<Object> copied = copy.elements();
+        assertEquals(elements.size(), copied.size());
+        assertTrue(Arrays.equals((byte[])elements.get(0), (byte[])copied.get(0)));
+        assertEquals(elements.get(1), copied.get(1));
+        @SuppressWarnings("unchecked")
+        Map<String, String[]> params = (Map<String, String[]>)copied.get(2);
+        assertTrue(Arrays.equals(new String[] {"de", "en"}, params.get("locale")));
+        assertEquals(elements.get(3), copied.get(3));
+        assertTrue(Arrays.equals((byte[])elements.get(4), (byte[])copied.get(4)));
+        assertEquals(entry.getHeaders(), copy.getHeaders());
+        assertEquals(entry.getDateExpires(), copy.getDateExpires());
+        assertEquals(entry.getDateLastModified(), copy.getDateLastModified());
+        assertEquals(entry.getLruCacheCosts(), copy.getLruCacheCosts());
+        assertNull(copy.getRedirectTarget());
+
+        CmsFlexCacheEntry redirect = new CmsFlexCacheEntry();
+        redirect.setRedirect("/target.html");
+        redirect.complete();
+        copy = CmsFlexCacheOffHeapTier.deserialize(CmsFlexCacheOffHeapTier.serialize(redirect));
+        assertEquals("/target.html", copy.getRedirectTarget());
+        assertNull(copy.elements());
+        assertNull(copy.getHeaders());
+    }
+
+    /**
+     * Creates a completed cache entry with output, an include call and headers.<p>
+     * 
+     * @param output the output of the entry
+     * 
+     * @return the cache entry
+     */
+    protected static CmsFlexCacheEntry createEntry(String output) {
+
+        CmsFlexCacheEntry entry = new CmsFlexCacheEntry();
+        entry.add(output.getBytes());
+        Map<String, String[]> params = new HashMap<String, String[]>();
+        params.put("locale", new String[] {"de", "en"});
+        Map<String, Object> attrs = new HashMap<String, Object>();
+        attrs.put("device", "mobile");
+        entry.add("/system/modules/test/elements/teaser.jsp", params, attrs);
+        entry.add(("<!-- end of " + output + " -->").getBytes());
+        Map<String, List<String>> headers = new HashMap<String, List<String>>();
+        headers.put("Content-Type", new ArrayList<String>(Arrays.asList("text/html; charset=UTF-8")));
+        entry.addHeaders(headers);
+        entry.complete();
+        entry.setDateLastModified(1234567890L);
+        return entry;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.flex;
+
+import junit.framework.TestCase;
+
+/**
+ * Performance tests for the off-heap tier of the FlexCache.<p>
+ * 
+ * These tests only print the measured values and are not part of the package test suite.<p>
+ */
+public class TestCmsFlexCacheOffHeapTierPerformance extends TestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsFlexCacheOffHeapTierPerformance(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Measures the costs of demoting and promoting entries of a typical page size.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testPerformance() throws Exception {
+
+        StringBuffer page = new StringBuffer();
+        while (page.length() < (16 * 1024)) {
+            page.append("<div class=\"teaser\"><h2>Headline</h2><p>Some text for the teaser.</p></div>\n");
+        }
+        CmsFlexCacheEntry entry = TestCmsFlexCacheOffHeapTier.createEntry(page.toString());
+        int count = 2000;
+        CmsFlexCacheOffHeapTier tier = new CmsFlexCacheOffHeapTier(8 * 1024 * 1024, null);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            tier.demote("/page.jsp [online]", "v" + i, entry);
+        }
+        long demoteTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        int hits = 0;
+        for (int i = 0; i < count; i++) {
+            if (tier.promote("/page.jsp [online]", "v" + i) != null) {
+                hits++;
+            }
+        }
+        long promoteTime = System.nanoTime() - start;
+
+        System.out.println("Off-heap tier, "
+            + entry.getLruCacheCosts()
+            + " bytes per entry: demote "
+            + ((demoteTime / count) / 1000)
+            + " us, promote "
+            + ((promoteTime / count) / 1000)
+            + " us per entry");
+        System.out.println(tier.toString());
+        assertEquals(hits, tier.getHitCount());
+        assertEquals(count - hits, tier.getMissCount());
+        assertTrue(hits > 0);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.flex;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the segmented Flex output buffer.<p>
+ */
+public class TestCmsFlexOutputBuffer extends TestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsFlexOutputBuffer(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that appending a buffer references its segments and is not affected by later changes.<p>
+     */
+    public void testAppend() {
+
+        byte[] shared = bytes(200, 'x');
+        CmsFlexOutputBuffer child = new CmsFlexOutputBuffer();
+        child.write('a');
+        child.writeShared(shared);
+        child.write('b');
+
+        CmsFlexOutputBuffer parent = new CmsFlexOutputBuffer();
+        parent.write('<');
+        parent.append(child);
+        parent.write('>');
+        String expected = "<a" + new String(shared) + "b>";
+        assertEquals(expected, new String(parent.toByteArray()));
+
+        // changing the child afterwards must not affect the parent
+        child.write('c');
+        child.reset();
+        child.write('d');
+        assertEquals(expected, new String(parent.toByteArray()));
+        assertEquals(expected.length(), parent.size());
+    }
+
+    /**
+     * Tests searching and copying ranges across segment boundaries.<p>
+     */
+    public void testRanges() {
+
+        CmsFlexOutputBuffer buffer = new CmsFlexOutputBuffer();
+        byte[] head = bytes(CmsFlexOutputBuffer.INITIAL_CHUNK_SIZE - 1, 'a');
+        buffer.write(head, 0, head.length);
+        buffer.write(0);
+        buffer.write('b');
+        buffer.writeShared(bytes(300, 'c'));
+        buffer.write(0);
+        buffer.write('d');
+
+        int size = buffer.size();
+        assertEquals(CmsFlexOutputBuffer.INITIAL_CHUNK_SIZE + 303, size);
+        int first = buffer.indexOf((byte)0, 0);
+        assertEquals(CmsFlexOutputBuffer.INITIAL_CHUNK_SIZE - 1, first);
+        int second = buffer.indexOf((byte)0, first + 1);
+        assertEquals(size - 2, second);
+        assertEquals(-1, buffer.indexOf((byte)0, second + 1));
+
+        byte[] all = buffer.toByteArray();
+        assertEquals(size, all.length);
+        byte[] middle = buffer.toByteArray(first + 1, second);
+        assertEquals(301, middle.length);
+        assertEquals('b', middle[0]);
+        assertEquals('c', middle[300]);
+        assertTrue(Arrays.equals(Arrays.copyOfRange(all, first + 1, second), middle));
+    }
+
+    /**
+     * Tests that single shared arrays are returned without copying, while small ones are copied.<p>
+     */
+    public void testSharedArrays() {
+
+        byte[] large = bytes(CmsFlexOutputBuffer.MIN_SHARED_SIZE, 'l');
+        CmsFlexOutputBuffer buffer = new CmsFlexOutputBuffer();
+        buffer.writeShared(large);
+        assertSame(large, buffer.toByteArray());
+        assertSame(large, new CmsFlexOutputBuffer(large).toByteArray());
+
+        byte[] small = bytes(CmsFlexOutputBuffer.MIN_SHARED_SIZE - 1, 's');
+        buffer = new CmsFlexOutputBuffer();
+        buffer.writeShared(small);
+        byte[] result = buffer.toByteArray();
+        assertNotSame(small, result);
+        assertTrue(Arrays.equals(small, result));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        buffer.writeShared(large);
+        try {
+            buffer.writeTo(out);
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+        assertEquals(new String(small) + new String(large), new String(out.toByteArray()));
+    }
+
+    /**
+     * Creates a byte array filled with the given character.<p>
+     * 
+     * @param size the size of the array
+     * @param c the character
+     * 
+     * @return the byte array
+     */
+    private byte[] bytes(int size, char c) {
+
+        byte[] result = new byte[size];
+        Arrays.fill(result, (byte)c);
+        return result;
+    }
+}
@@ -37,6 +37,7 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 
@@ -245,6 +246,8 @@ public class TestCmsFlexResponse extends OpenCmsTestCase {
         suite.setName(TestCmsFlexResponse.class.getName());
 
         suite.addTest(new TestCmsFlexResponse("testContentTypeRules"));
+        suite.addTest(new TestCmsFlexResponse("testIncludeResults"));
+        suite.addTest(new TestCmsFlexResponse("testCacheHitOutput"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -264,6 +267,38 @@ public class TestCmsFlexResponse extends OpenCmsTestCase {
         return wrapper;
     }
 
+    /**
+     * Creates a byte array filled with the given character.<p>
+     * 
+     * @param size the size of the array
+     * @param c the character
+     * 
+     * @return the byte array
+     */
+    protected static byte[] bytes(int size, char c) {
+
+        byte[] result = new byte[size];
+        Arrays.fill(result, (byte)c);
+        return result;
+    }
+
+    /**
+     * Creates a completed cache entry that contains the given byte arrays.<p>
+     * 
+     * @param pieces the byte arrays of the cache entry
+     * 
+     * @return the cache entry
+     */
+    protected static CmsFlexCacheEntry createCacheEntry(byte[]... pieces) {
+
+        CmsFlexCacheEntry entry = new CmsFlexCacheEntry();
+        for (byte[] piece : pieces) {
+            entry.add(piece);
+        }
+        entry.complete();
+        return entry;
+    }
+
     /** 
      * Convenience method to create a mock {@link HttpServletRequest} backed by the given invocation handler.<p>
      * 
@@ -296,6 +331,38 @@ public class TestCmsFlexResponse extends OpenCmsTestCase {
             handler);
     }
 
+    /**
+     * Tests that cached elements delivered to an include are passed on without copying.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testCacheHitOutput() throws Exception {
+
+        byte[] leaf = bytes(CmsFlexOutputBuffer.MIN_SHARED_SIZE, 'l');
+        byte[] first = bytes(300, 'f');
+        byte[] second = bytes(20, 's');
+
+        CmsFlexResponse top = createTopResponse();
+        top.getWriter().print("<");
+        // a cached "leaf" entry is referenced by the include result
+        CmsFlexResponse res = beginInclude(top, "/leaf.html");
+        createCacheEntry(leaf).service(null, res);
+        assertSame(leaf, res.getWriterBuffer().toByteArray());
+        endInclude(top, res);
+        top.getWriter().print("|");
+        // an entry with several pieces is written with the shared pieces
+        res = beginInclude(top, "/pieces.html");
+        createCacheEntry(first, second).service(null, res);
+        assertEquals(new String(first) + new String(second), new String(res.getWriterBuffer().toByteArray()));
+        endInclude(top, res);
+        top.getWriter().print(">");
+        top.processCacheEntry();
+
+        String expected = "<" + new String(leaf) + "|" + new String(first) + new String(second) + ">";
+        assertEquals(expected, new String(top.getWriterBuffer().toByteArray()));
+        assertEquals(expected, new String(top.getWriterBytes()));
+    }
+
     /**
      * Test semantics for Content-Type header on
      * {@link CmsFlexResponse#setContentType(String)} and {@link CmsFlexResponse#setHeader(String, String)}.<p>
@@ -346,6 +413,112 @@ public class TestCmsFlexResponse extends OpenCmsTestCase {
         assertEquals("no other methods called", 1, m_resMock.m_invocations.size());
     }
 
+    /**
+     * Tests that the include results of a nested include are assembled in the right order,
+     * and that the output is split at the include calls across the segments of the buffer.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testIncludeResults() throws Exception {
+
+        // make sure the first piece spans several segments of the buffer
+        String head = new String(bytes(3 * CmsFlexOutputBuffer.INITIAL_CHUNK_SIZE, 'h'));
+        byte[] leaf = bytes(200, 'l');
+        CmsFlexCacheEntry leafEntry = createCacheEntry(leaf);
+
+        CmsFlexResponse top = createTopResponse();
+        top.getWriter().print(head);
+        CmsFlexResponse res = beginInclude(top, "/leaf.html");
+        leafEntry.service(null, res);
+        endInclude(top, res);
+        top.getWriter().print("b");
+        // a nested page that includes the cached element again
+        CmsFlexResponse nested = beginInclude(top, "/nested.jsp");
+        nested.getWriter().print("x");
+        res = beginInclude(nested, "/leaf.html");
+        leafEntry.service(null, res);
+        endInclude(nested, res);
+        nested.getWriter().print("y");
+        CmsFlexCacheEntry nestedEntry = nested.processCacheEntry();
+        endInclude(top, nested);
+        top.getWriter().print("c");
+        CmsFlexCacheEntry topEntry = top.processCacheEntry();
+
+        String expected = head + new String(leaf) + "b" + "x" + new String(leaf) + "y" + "c";
+        assertEquals(expected, new String(top.getWriterBuffer().toByteArray()));
+
+        // the cache entries contain the output of the page only, with the include calls in between
+        List<Object> elements = topEntry.elements();
+        assertEquals(9, elements.size());
+        assertEquals(head, new String((byte[])elements.get(0)));
+        assertEquals("/leaf.html", elements.get(1));
+        assertEquals("b", new String((byte[])elements.get(4)));
+        assertEquals("/nested.jsp", elements.get(5));
+        assertEquals("c", new String((byte[])elements.get(8)));
+        elements = nestedEntry.elements();
+        assertEquals(5, elements.size());
+        assertEquals("x", new String((byte[])elements.get(0)));
+        assertEquals("/leaf.html", elements.get(1));
+        assertEquals("y", new String((byte[])elements.get(4)));
+    }
+
+    /**
+     * Starts an include call on the given response the way the JSP include tag and 
+     * the Flex request dispatcher do it.<p>
+     * 
+     * @param parent the response of the including page
+     * @param target the include target
+     * 
+     * @return the response for the included element
+     */
+    protected CmsFlexResponse beginInclude(CmsFlexResponse parent, String target) {
+
+        parent.addToIncludeList(target, new HashMap<String, String[]>(), new HashMap<String, Object>());
+        parent.setCmsIncludeMode(true);
+        CmsFlexResponse res = new CmsFlexResponse(parent, m_controller);
+        m_controller.push(null, res);
+        return res;
+    }
+
+    /**
+     * Creates the response for the top page of a new request, which buffers its output like a JSP page.<p>
+     * 
+     * @return the response for the top page
+     */
+    protected CmsFlexResponse createTopResponse() {
+
+        // every page is rendered with a new controller, like a new request
+        m_controller = new CmsFlexController(
+            m_controller.getCmsObject(),
+            null,
+            CmsFlexDummyLoader.getFlexCache(),
+            m_request,
+            m_response,
+            false,
+            true);
+        CmsFlexResponse res = new CmsFlexResponse(m_response, m_controller, false, true);
+        m_controller.push(null, res);
+        return res;
+    }
+
+    /**
+     * Finishes an include call started with {@link #beginInclude(CmsFlexResponse, String)},
+     * passing the result of the included element to the including page.<p>
+     * 
+     * @param parent the response of the including page
+     * @param res the response of the included element
+     * 
+     * @throws Exception if something goes wrong
+     */
+    protected void endInclude(CmsFlexResponse parent, CmsFlexResponse res) throws Exception {
+
+        parent.addToIncludeResults(res.getWriterBuffer());
+        parent.setCmsIncludeMode(false);
+        m_controller.pop();
+        // the JSP include tag marks the position of the include result
+        parent.getWriter().print(CmsFlexResponse.FLEX_CACHE_DELIMITER);
+    }
+
     /**
      * Initializes a flex cache controller and mock servlet request and response objects to be
      * used by this unit tests.<p>
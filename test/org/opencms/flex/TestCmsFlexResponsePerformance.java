@@ -0,0 +1,236 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.flex;
+
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+import junit.extensions.TestSetup;
+import junit.framework.TestSuite;
+
+/**
+ * Performance tests for the output of nested includes in the {@link CmsFlexResponse}.<p>
+ * 
+ * These tests only print the measured values and are not part of the package test suite.<p>
+ */
+public class TestCmsFlexResponsePerformance extends TestCmsFlexResponse {
+
+    /**
+     * Output stream that only counts the bytes written to it.<p>
+     */
+    private static class NullOutputStream extends OutputStream {
+
+        /** The number of bytes written. */
+        private long m_count;
+
+        /**
+         * Returns the number of bytes written.<p>
+         * 
+         * @return the number of bytes written
+         */
+        public long getCount() {
+
+            return m_count;
+        }
+
+        /**
+         * @see java.io.OutputStream#write(byte[], int, int)
+         */
+        @Override
+        public void write(byte[] b, int off, int len) {
+
+            m_count += len;
+        }
+
+        /**
+         * @see java.io.OutputStream#write(int)
+         */
+        @Override
+        public void write(int b) {
+
+            m_count++;
+        }
+    }
+
+    /** Number of cached elements included per page. */
+    private static final int ELEMENTS = 20;
+
+    /** Size of each cached element in bytes. */
+    private static final int ELEMENT_SIZE = 4096;
+
+    /** Nesting depth of the include cascade. */
+    private static final int LEVELS = 3;
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsFlexResponsePerformance(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     * 
+     * @return the test suite
+     */
+    public static TestSetup suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsFlexResponsePerformance.class.getName());
+
+        suite.addTest(new TestCmsFlexResponsePerformance("testNestedIncludePerformance"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Measures the time and the bytes allocated for rendering a page with nested includes 
+     * of cached elements through the Flex responses.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testNestedIncludePerformance() throws Exception {
+
+        CmsFlexCacheEntry[] elements = new CmsFlexCacheEntry[ELEMENTS];
+        for (int i = 0; i < ELEMENTS; i++) {
+            elements[i] = createCacheEntry(bytes(ELEMENT_SIZE, (char)('a' + i)));
+        }
+        int runs = 500;
+        // warm up
+        NullOutputStream out = new NullOutputStream();
+        for (int i = 0; i < runs; i++) {
+            renderPage(elements, out);
+        }
+
+        out = new NullOutputStream();
+        long allocated = getAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            renderPage(elements, out);
+        }
+        long time = System.nanoTime() - start;
+        long bytes = getAllocatedBytes() - allocated;
+
+        int pageSize = ELEMENTS * ELEMENT_SIZE;
+        echo("Rendering a page of " + pageSize + " bytes with " + LEVELS + " include levels, " + runs + " runs");
+        echo("Time: "
+            + ((time / runs) / 1000)
+            + " us/page"
+            + ((allocated < 0) ? "" : ", " + (bytes / runs) + " bytes allocated/page"));
+        // the markup of every level is written around the cached elements 
+        assertEquals(pageSize + (LEVELS * "<div></div>".length()), out.getCount() / runs);
+    }
+
+    /**
+     * Returns the bytes allocated by the current thread, or -1 if this is not supported by the JVM.<p>
+     * 
+     * @return the bytes allocated by the current thread
+     */
+    private long getAllocatedBytes() {
+
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        try {
+            // only available in HotSpot based JVMs
+            Method method = Class.forName("com.sun.management.ThreadMXBean").getMethod(
+                "getThreadAllocatedBytes",
+                long.class);
+            return ((Long)method.invoke(bean, new Long(Thread.currentThread().getId()))).longValue();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Includes a page of the given level, which includes the next level or the cached elements.<p>
+     * 
+     * @param parent the response of the including page
+     * @param elements the cached elements
+     * @param level the level of the included page
+     * 
+     * @throws Exception if something goes wrong
+     */
+    private void includeLevel(CmsFlexResponse parent, CmsFlexCacheEntry[] elements, int level) throws Exception {
+
+        CmsFlexResponse res = beginInclude(parent, "/level" + level + ".jsp");
+        res.getWriter().print("<div>");
+        if (level == 1) {
+            for (int i = 0; i < elements.length; i++) {
+                CmsFlexResponse element = beginInclude(res, "/element" + i + ".html");
+                elements[i].service(null, element);
+                endInclude(res, element);
+            }
+        } else {
+            includeLevel(res, elements, level - 1);
+        }
+        res.getWriter().print("</div>");
+        res.processCacheEntry();
+        endInclude(parent, res);
+    }
+
+    /**
+     * Renders the top page, which includes the nested pages, and writes it to the given stream.<p>
+     * 
+     * @param elements the cached elements
+     * @param out the stream to write the page to, like the stream of the servlet container
+     * 
+     * @throws Exception if something goes wrong
+     */
+    private void renderPage(CmsFlexCacheEntry[] elements, OutputStream out) throws Exception {
+
+        CmsFlexResponse top = createTopResponse();
+        top.getWriter().print("<div>");
+        includeLevel(top, elements, LEVELS - 1);
+        top.getWriter().print("</div>");
+        top.processCacheEntry();
+        top.getWriterBuffer().writeTo(out);
+    }
+}
@@ -62,6 +62,7 @@ public final class AllTests {
         suite.addTestSuite(TestCmsEncoder.class);
         suite.addTestSuite(TestCmsLocaleManager.class);
         suite.addTestSuite(TestCmsMessages.class);
+        suite.addTestSuite(TestCmsResourceBundleLoader.class);
         suite.addTestSuite(TestCmsModuleMessageBundles.class);
         //$JUnit-END$
         return suite;
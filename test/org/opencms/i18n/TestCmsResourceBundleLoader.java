@@ -0,0 +1,64 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.i18n;
+
+import java.util.Locale;
+import java.util.ResourceBundle;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the OpenCms resource bundle loader.<p>
+ */
+public class TestCmsResourceBundleLoader extends TestCase {
+
+    /** The bundle used for the tests. */
+    protected static final String BUNDLE = "org.opencms.i18n.messages";
+
+    /**
+     * Tests flushing the bundle cache.<p>
+     */
+    public void testFlush() {
+
+        ResourceBundle bundle = CmsResourceBundleLoader.getBundle(BUNDLE, Locale.ENGLISH);
+        assertNotNull(bundle);
+        assertSame(bundle, CmsResourceBundleLoader.getBundle(BUNDLE, Locale.ENGLISH));
+
+        CmsResourceBundleLoader.flushBundleCache(BUNDLE + ".other", false);
+        assertSame(bundle, CmsResourceBundleLoader.getBundle(BUNDLE, Locale.ENGLISH));
+
+        CmsResourceBundleLoader.flushBundleCache(BUNDLE, false);
+        ResourceBundle reloaded = CmsResourceBundleLoader.getBundle(BUNDLE, Locale.ENGLISH);
+        assertNotSame(bundle, reloaded);
+        String key = Messages.ERR_MULTIMSG_EMPTY_LIST_0;
+        assertEquals(bundle.getString(key), reloaded.getString(key));
+
+        CmsResourceBundleLoader.flushBundleCache();
+        assertNotSame(reloaded, CmsResourceBundleLoader.getBundle(BUNDLE, Locale.ENGLISH));
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.i18n;
+
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.TestCase;
+
+/**
+ * Performance tests for the OpenCms resource bundle loader.<p>
+ *
+ * These tests only print the measured values and are not part of the package test suite.<p>
+ */
+public class TestCmsResourceBundleLoaderPerformance extends TestCase {
+
+    /** The duration of a benchmark run in milliseconds. */
+    private static final long BENCHMARK_MILLIS = 500;
+
+    /**
+     * Measures the throughput of bundle lookups with an increasing number of threads.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testBenchmark() throws Exception {
+
+        int cpus = Runtime.getRuntime().availableProcessors();
+        // warm up
+        runBenchmark(1);
+        for (int threads = 1; threads <= Math.max(8, cpus); threads *= 2) {
+            long lookups = runBenchmark(threads);
+            System.out.println(threads
+                + " threads: "
+                + ((lookups * 1000) / BENCHMARK_MILLIS)
+                + " lookups/s ("
+                + cpus
+                + " cpus)");
+        }
+    }
+
+    /**
+     * Looks up bundles with the given number of threads for the benchmark duration.<p>
+     *
+     * @param threads the number of threads
+     *
+     * @return the total number of lookups
+     *
+     * @throws InterruptedException if the benchmark is interrupted
+     */
+    private long runBenchmark(int threads) throws InterruptedException {
+
+        final String bundle = TestCmsResourceBundleLoader.BUNDLE;
+        final Locale[] locales = new Locale[] {Locale.ENGLISH, Locale.GERMAN, Locale.GERMANY, Locale.FRENCH};
+        final AtomicLong lookups = new AtomicLong();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        final long end = System.currentTimeMillis() + BENCHMARK_MILLIS;
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread() {
+
+                @Override
+                public void run() {
+
+                    try {
+                        start.await();
+                        long count = 0;
+                        while (System.currentTimeMillis() < end) {
+                            for (int i = 0; i < 1000; i++) {
+                                CmsResourceBundleLoader.getBundle(bundle, locales[i % locales.length]);
+                            }
+                            count += 1000;
+                        }
+                        lookups.addAndGet(count);
+                    } catch (InterruptedException e) {
+                        // ignore
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            };
+            thread.start();
+        }
+        start.countDown();
+        done.await();
+        return lookups.get();
+    }
+}
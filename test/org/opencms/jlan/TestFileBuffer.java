@@ -0,0 +1,99 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.jlan;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the JLAN file buffer.<p>
+ */
+public class TestFileBuffer extends TestCase {
+
+    /** The spill threshold used for the tests. */
+    private static final int THRESHOLD = 1000;
+
+    /**
+     * Tests that small contents are kept in memory.<p>
+     * 
+     * @throws Exception if something goes wrong 
+     */
+    public void testInMemory() throws Exception {
+
+        CmsFileBuffer buffer = new CmsFileBuffer(THRESHOLD);
+        buffer.init(new byte[] {1, 2, 3});
+        buffer.seek(5);
+        buffer.write(new byte[] {9, 9, 7, 8}, 2, 2);
+        assertFalse(buffer.isSpilled());
+        assertTrue(Arrays.equals(new byte[] {1, 2, 3, 0, 0, 7, 8}, buffer.getContents()));
+        buffer.truncate(2);
+        assertTrue(Arrays.equals(new byte[] {1, 2}, buffer.getContents()));
+        buffer.close();
+    }
+
+    /**
+     * Tests random reads and writes after the contents have been moved to a temporary file.<p>
+     * 
+     * @throws Exception if something goes wrong 
+     */
+    public void testSpillToDisk() throws Exception {
+
+        Random random = new Random(42);
+        byte[] expected = new byte[THRESHOLD * 5];
+        random.nextBytes(expected);
+
+        CmsFileBuffer buffer = new CmsFileBuffer(THRESHOLD);
+        // write the chunks in reverse order, so that the first write already spills 
+        for (int start = expected.length - 300; start >= 0; start -= 300) {
+            buffer.seek(start);
+            buffer.write(expected, start, 300);
+        }
+        buffer.seek(0);
+        buffer.write(expected, 0, expected.length % 300);
+        assertTrue(buffer.isSpilled());
+        assertEquals(expected.length, buffer.getLength());
+        assertTrue(Arrays.equals(expected, buffer.getContents()));
+
+        byte[] part = new byte[500];
+        assertEquals(500, buffer.read(part, 500, 0, 1234));
+        assertTrue(Arrays.equals(Arrays.copyOfRange(expected, 1234, 1734), part));
+        assertEquals(100, buffer.read(part, 500, 0, expected.length - 100));
+        assertEquals(-1, buffer.read(part, 500, 0, expected.length));
+
+        buffer.truncate(10);
+        assertTrue(Arrays.equals(Arrays.copyOfRange(expected, 0, 10), buffer.getContents()));
+        buffer.truncate(20);
+        assertEquals(20, buffer.getLength());
+
+        buffer.close();
+        assertFalse(buffer.isSpilled());
+        assertEquals(0, buffer.getLength());
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.loader;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
+import org.opencms.file.CmsResource;
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypeJsp;
+import org.opencms.main.OpenCms;
+import org.opencms.report.CmsShellReport;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.util.CmsFileUtil;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.RequestDispatcher;
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the JSP warm-up.<p>
+ */
+public class TestCmsJspWarmup extends OpenCmsTestCase {
+
+    /** The folder containing the test JSPs. */
+    private static final String FOLDER = CmsJspWarmup.WARMUP_FOLDER + "org.opencms.test.warmup/";
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsJspWarmup(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsJspWarmup.class.getName());
+
+        suite.addTest(new TestCmsJspWarmup("testWarmup"));
+        suite.addTest(new TestCmsJspWarmup("testPrecompileDispatch"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that the warm-up forwards to the JSP with a request that asks the JSP container to only compile it.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testPrecompileDispatch() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the dispatcher call of the JSP warm-up");
+        CmsObject onlineCms = OpenCms.initCmsObject(cms);
+        onlineCms.getRequestContext().setSiteRoot("");
+        onlineCms.getRequestContext().setCurrentProject(cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        CmsResource jsp = onlineCms.readResource(FOLDER + "formatter0.jsp");
+
+        final List<String> paths = new ArrayList<String>();
+        final List<String> calls = new ArrayList<String>();
+        final RequestDispatcher dispatcher = (RequestDispatcher)Proxy.newProxyInstance(
+            getClass().getClassLoader(),
+            new Class<?>[] {RequestDispatcher.class},
+            new InvocationHandler() {
+
+                public Object invoke(Object proxy, Method method, Object[] args) {
+
+                    HttpServletRequest req = (HttpServletRequest)args[0];
+                    calls.add(method.getName()
+                        + " "
+                        + req.getQueryString()
+                        + " "
+                        + req.getParameter(CmsJspWarmup.PARAM_JSP_PRECOMPILE));
+                    return null;
+                }
+            });
+        ServletContext context = (ServletContext)Proxy.newProxyInstance(
+            getClass().getClassLoader(),
+            new Class<?>[] {ServletContext.class},
+            new InvocationHandler() {
+
+                public Object invoke(Object proxy, Method method, Object[] args) {
+
+                    if ("getRequestDispatcher".equals(method.getName())) {
+                        paths.add((String)args[0]);
+                        return dispatcher;
+                    }
+                    return null;
+                }
+            });
+
+        CmsJspLoader loader = (CmsJspLoader)OpenCms.getResourceManager().getLoader(CmsJspLoader.RESOURCE_LOADER_ID);
+        CmsJspWarmup warmup = new CmsJspWarmup(loader, onlineCms, context, 1);
+        try {
+            String target = warmup.warmupJsp(jsp);
+            assertEquals(1, paths.size());
+            assertEquals(target + "?jsp_precompile=true", paths.get(0));
+            assertEquals(1, calls.size());
+            assertEquals("forward jsp_precompile=true true", calls.get(0));
+        } finally {
+            warmup.shutDown();
+        }
+    }
+
+    /**
+     * Tests that the JSPs of the modules are written to the JSP repository.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testWarmup() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the JSP warm-up");
+        cms.getRequestContext().setSiteRoot("");
+        if (!cms.existsResource(CmsJspWarmup.WARMUP_FOLDER)) {
+            cms.createResource(CmsJspWarmup.WARMUP_FOLDER, CmsResourceTypeFolder.getStaticTypeId());
+        }
+        cms.createResource(FOLDER, CmsResourceTypeFolder.getStaticTypeId());
+        List<String> paths = new ArrayList<String>();
+        for (int i = 0; i < 10; i++) {
+            String path = FOLDER + "formatter" + i + ".jsp";
+            cms.createResource(
+                path,
+                CmsResourceTypeJsp.getJSPTypeId(),
+                ("<%@ page session=\"false\" %>Formatter " + i).getBytes("UTF-8"),
+                null);
+            paths.add(path);
+        }
+        OpenCms.getPublishManager().publishProject(cms);
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        CmsObject onlineCms = OpenCms.initCmsObject(cms);
+        onlineCms.getRequestContext().setCurrentProject(cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        CmsJspLoader loader = (CmsJspLoader)OpenCms.getResourceManager().getLoader(CmsJspLoader.RESOURCE_LOADER_ID);
+        CmsJspWarmup warmup = new CmsJspWarmup(loader, onlineCms, null, 4);
+        try {
+            List<CmsResource> jsps = warmup.readJsps();
+            List<String> found = new ArrayList<String>();
+            for (CmsResource jsp : jsps) {
+                found.add(jsp.getRootPath());
+            }
+            assertTrue(found.containsAll(paths));
+
+            long start = System.currentTimeMillis();
+            assertEquals(0, warmup.warmup(jsps, new CmsShellReport(cms.getRequestContext().getLocale())));
+            echo("Warmed up " + jsps.size() + " JSPs in " + (System.currentTimeMillis() - start) + " ms");
+            for (String path : paths) {
+                File file = new File(CmsFileUtil.getRepositoryName(loader.getJspRepository(), path, true));
+                assertTrue("JSP " + path + " was not written to " + file, file.exists());
+            }
+        } finally {
+            warmup.shutDown();
+        }
+    }
+}
@@ -64,7 +64,9 @@ public final class AllTests {
         suite.addTest(new TestSuite(TestCmsShell.class));
         suite.addTest(TestOpenCmsSingleton.suite());
         suite.addTest(TestCmsEvents.suite());
+        suite.addTest(new TestSuite(TestCmsEventManager.class));
         suite.addTest(TestCmsSystemInfo.suite());
+        suite.addTest(new TestSuite(TestCmsStartupStepGraph.class));
         // $JUnit-END$
         return suite;
     }
@@ -0,0 +1,370 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.main;
+
+import org.opencms.db.CmsResourceState;
+import org.opencms.file.CmsResource;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the listener registry and the asynchronous delivery of the event manager.<p>
+ */
+public class TestCmsEventManager extends TestCase {
+
+    /**
+     * Event listener that collects the received events.<p>
+     */
+    protected static class CollectingListener implements I_CmsEventListener {
+
+        /** The received events. */
+        private List<CmsEvent> m_events = Collections.synchronizedList(new ArrayList<CmsEvent>());
+
+        /** The work done per event, in loop iterations. */
+        private int m_work;
+
+        /**
+         * Creates a new listener.<p>
+         * 
+         * @param work the work done per event, in loop iterations
+         */
+        CollectingListener(int work) {
+
+            m_work = work;
+        }
+
+        /**
+         * @see org.opencms.main.I_CmsEventListener#cmsEvent(org.opencms.main.CmsEvent)
+         */
+        public void cmsEvent(CmsEvent event) {
+
+            double value = 0;
+            for (int i = 0; i < m_work; i++) {
+                value += Math.sqrt(i);
+            }
+            if (value >= 0) {
+                m_events.add(event);
+            }
+        }
+
+        /**
+         * Returns the received events.<p>
+         * 
+         * @return the received events
+         */
+        List<CmsEvent> getEvents() {
+
+            return m_events;
+        }
+    }
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsEventManager(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that events for the same resource are coalesced, while other events are delivered in order.<p>
+     */
+    public void testAsyncCoalescing() {
+
+        CmsEventManager manager = new CmsEventManager();
+        CollectingListener listener = new CollectingListener(0);
+        CmsAsyncEventListener asyncListener = manager.addAsyncCmsEventListener(listener, null, 1000, 10000);
+
+        CmsResource a = createResource("/a.html");
+        CmsResource b = createResource("/b.html");
+        for (int i = 0; i < 100; i++) {
+            manager.fireEvent(createModifiedEvent(a, i));
+            manager.fireEvent(createModifiedEvent(b, i));
+        }
+        manager.fireEvent(I_CmsEventListener.EVENT_CLEAR_CACHES);
+        manager.fireEvent(I_CmsEventListener.EVENT_CLEAR_CACHES);
+        // removing the listener delivers the queued events without waiting for the coalescing window 
+        manager.removeCmsEventListener(listener);
+        assertTrue(manager.getAsyncEventListeners().isEmpty());
+
+        List<CmsEvent> events = listener.getEvents();
+        assertEquals(4, events.size());
+        assertEquals(198, asyncListener.getCoalescedCount());
+        assertEquals(0, asyncListener.getOverflowCount());
+        assertSame(a, events.get(0).getData().get(I_CmsEventListener.KEY_RESOURCE));
+        assertSame(b, events.get(1).getData().get(I_CmsEventListener.KEY_RESOURCE));
+        // the latest event is delivered
+        assertEquals(new Integer(99), events.get(0).getData().get("count"));
+        assertEquals(new Integer(99), events.get(1).getData().get("count"));
+        assertEquals(I_CmsEventListener.EVENT_CLEAR_CACHES, events.get(2).getType());
+        assertEquals(I_CmsEventListener.EVENT_CLEAR_CACHES, events.get(3).getType());
+
+        // after shut down, events are delivered synchronously
+        asyncListener.cmsEvent(new CmsEvent(I_CmsEventListener.EVENT_CLEAR_CACHES, null));
+        assertEquals(5, events.size());
+    }
+
+    /**
+     * Tests that the firing thread waits if the queue is full, and that all events are still delivered 
+     * in order by the worker thread.<p>
+     * 
+     * @throws Exception if something goes wrong
+     */
+    public void testAsyncOverflow() throws Exception {
+
+        final Thread testThread = Thread.currentThread();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+        final CollectingListener collector = new CollectingListener(0);
+        I_CmsEventListener listener = new I_CmsEventListener() {
+
+            public void cmsEvent(CmsEvent event) {
+
+                threads.add(Thread.currentThread());
+                collector.cmsEvent(event);
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+            }
+        };
+        final CmsEventManager manager = new CmsEventManager();
+        CmsAsyncEventListener asyncListener = manager.addAsyncCmsEventListener(listener, null, 2, 0);
+        final CmsResource resource = createResource("/a.html");
+        manager.fireEvent(createModifiedEvent(resource, 0));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        manager.fireEvent(createModifiedEvent(resource, 1));
+        manager.fireEvent(createModifiedEvent(resource, 2));
+        assertEquals(2, asyncListener.getQueueSize());
+
+        Thread firing = new Thread() {
+
+            @Override
+            public void run() {
+
+                manager.fireEvent(createModifiedEvent(resource, 3));
+            }
+        };
+        firing.start();
+        long timeout = System.currentTimeMillis() + 10000;
+        while ((asyncListener.getOverflowCount() == 0) && (System.currentTimeMillis() < timeout)) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, asyncListener.getOverflowCount());
+        // the firing thread waits for free space instead of delivering the event itself
+        firing.join(100);
+        assertTrue(firing.isAlive());
+        assertEquals(1, collector.getEvents().size());
+
+        release.countDown();
+        firing.join(10000);
+        assertFalse(firing.isAlive());
+        manager.shutDown();
+        assertEquals(4, asyncListener.getDeliveredCount());
+        assertEquals(0, asyncListener.getQueueSize());
+        List<CmsEvent> events = collector.getEvents();
+        for (int i = 0; i < 4; i++) {
+            assertEquals(new Integer(i), events.get(i).getData().get("count"));
+            assertNotSame(testThread, threads.get(i));
+            assertNotSame(firing, threads.get(i));
+        }
+    }
+
+    /**
+     * Tests that shutting down delivers the queued events and the events fired meanwhile in order 
+     * on the worker thread, before switching to synchronous delivery.<p>
+     * 
+     * @throws Exception if something goes wrong
+     */
+    public void testAsyncShutDown() throws Exception {
+
+        final Thread testThread = Thread.currentThread();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+        final CollectingListener collector = new CollectingListener(0);
+        I_CmsEventListener listener = new I_CmsEventListener() {
+
+            public void cmsEvent(CmsEvent event) {
+
+                threads.add(Thread.currentThread());
+                collector.cmsEvent(event);
+                started.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+            }
+        };
+        final CmsEventManager manager = new CmsEventManager();
+        final CmsAsyncEventListener asyncListener = manager.addAsyncCmsEventListener(listener, null, 10, 0);
+        CmsResource resource = createResource("/a.html");
+        manager.fireEvent(createModifiedEvent(resource, 0));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        manager.fireEvent(createModifiedEvent(resource, 1));
+
+        Thread shutDown = new Thread() {
+
+            @Override
+            public void run() {
+
+                asyncListener.shutDown();
+            }
+        };
+        shutDown.start();
+        long timeout = System.currentTimeMillis() + 10000;
+        while ((shutDown.getState() != Thread.State.TIMED_WAITING) && (System.currentTimeMillis() < timeout)) {
+            Thread.sleep(10);
+        }
+        // the worker is still busy, so events fired while shutting down are queued behind the older events
+        manager.fireEvent(createModifiedEvent(resource, 2));
+        manager.fireEvent(createModifiedEvent(resource, 3));
+        assertEquals(1, collector.getEvents().size());
+
+        release.countDown();
+        shutDown.join(10000);
+        assertFalse(shutDown.isAlive());
+        assertEquals(4, asyncListener.getDeliveredCount());
+        List<CmsEvent> events = collector.getEvents();
+        for (int i = 0; i < 4; i++) {
+            assertEquals(new Integer(i), events.get(i).getData().get("count"));
+            assertNotSame(testThread, threads.get(i));
+        }
+
+        // once the queue is drained, events are delivered on the firing thread
+        manager.fireEvent(createModifiedEvent(resource, 4));
+        assertEquals(5, events.size());
+        assertSame(testThread, threads.get(4));
+    }
+
+    /**
+     * Tests that listeners can be added and removed while an event is fired.<p>
+     */
+    public void testRegistryChangeDuringEvent() {
+
+        final CmsEventManager manager = new CmsEventManager();
+        final CollectingListener added = new CollectingListener(0);
+        I_CmsEventListener listener = new I_CmsEventListener() {
+
+            public void cmsEvent(CmsEvent event) {
+
+                manager.addCmsEventListener(added);
+                manager.removeCmsEventListener(this);
+            }
+        };
+        manager.addCmsEventListener(listener);
+        manager.fireEvent(I_CmsEventListener.EVENT_CLEAR_CACHES);
+        // the added listener does not see the event that was fired while it was added
+        assertEquals(0, added.getEvents().size());
+        manager.fireEvent(I_CmsEventListener.EVENT_CLEAR_CACHES);
+        assertEquals(1, added.getEvents().size());
+        assertEquals(1, manager.getEventListeners().get(I_CmsEventListener.LISTENERS_FOR_ALL_EVENTS).size());
+
+        CmsEventManager copy = new CmsEventManager();
+        copy.initialize(manager);
+        copy.fireEvent(I_CmsEventListener.EVENT_CLEAR_CACHES);
+        assertEquals(2, added.getEvents().size());
+    }
+
+    /**
+     * Creates a resource modified event.<p>
+     * 
+     * @param resource the modified resource
+     * @param count the count stored in the event data
+     * 
+     * @return the event
+     */
+    protected CmsEvent createModifiedEvent(CmsResource resource, int count) {
+
+        Map<String, Object> data = new HashMap<String, Object>();
+        data.put(I_CmsEventListener.KEY_RESOURCE, resource);
+        data.put(I_CmsEventListener.KEY_CHANGE, new Integer(1));
+        data.put("count", new Integer(count));
+        return new CmsEvent(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, data);
+    }
+
+    /**
+     * Creates a resource with the given root path.<p>
+     * 
+     * @param rootPath the root path
+     * 
+     * @return the resource
+     */
+    protected CmsResource createResource(String rootPath) {
+
+        return new CmsResource(
+            new CmsUUID(),
+            new CmsUUID(),
+            rootPath,
+            1,
+            false,
+            0,
+            CmsUUID.getNullUUID(),
+            CmsResourceState.STATE_CHANGED,
+            0,
+            CmsUUID.getNullUUID(),
+            0,
+            CmsUUID.getNullUUID(),
+            CmsResource.DATE_RELEASED_DEFAULT,
+            CmsResource.DATE_EXPIRED_DEFAULT,
+            1,
+            0,
+            0,
+            0);
+    }
+
+    /**
+     * Fires modification events for the given resources in turn.<p>
+     * 
+     * @param manager the event manager
+     * @param resources the resources
+     * @param events the number of events to fire
+     */
+    protected void fireModifiedEvents(CmsEventManager manager, List<CmsResource> resources, int events) {
+
+        for (int i = 0; i < events; i++) {
+            manager.fireEvent(createModifiedEvent(resources.get(i % resources.size()), i));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.main;
+
+import org.opencms.file.CmsResource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Performance tests for the asynchronous delivery of the event manager.<p>
+ * 
+ * These tests only print the measured values and are not part of the package test suite.<p>
+ */
+public class TestCmsEventManagerPerformance extends TestCmsEventManager {
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsEventManagerPerformance(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     * 
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsEventManagerPerformance.class.getName());
+        suite.addTest(new TestCmsEventManagerPerformance("testAsyncBenchmark"));
+        return suite;
+    }
+
+    /**
+     * Compares the time a bulk operation spends firing modification events 
+     * with synchronous and with asynchronous, coalescing delivery.<p>
+     */
+    public void testAsyncBenchmark() {
+
+        int events = 20000;
+        int resources = 100;
+        List<CmsResource> resourceList = new ArrayList<CmsResource>();
+        for (int i = 0; i < resources; i++) {
+            resourceList.add(createResource("/sites/default/file" + i + ".html"));
+        }
+
+        CmsEventManager manager = new CmsEventManager();
+        CollectingListener syncListener = new CollectingListener(2000);
+        manager.addCmsEventListener(syncListener, new int[] {I_CmsEventListener.EVENT_RESOURCE_MODIFIED});
+        long start = System.nanoTime();
+        fireModifiedEvents(manager, resourceList, events);
+        long syncTime = System.nanoTime() - start;
+        assertEquals(events, syncListener.getEvents().size());
+
+        manager = new CmsEventManager();
+        CollectingListener listener = new CollectingListener(2000);
+        CmsAsyncEventListener asyncListener = manager.addAsyncCmsEventListener(
+            listener,
+            new int[] {I_CmsEventListener.EVENT_RESOURCE_MODIFIED},
+            CmsAsyncEventListener.DEFAULT_QUEUE_SIZE,
+            CmsAsyncEventListener.DEFAULT_COALESCE_WINDOW);
+        start = System.nanoTime();
+        fireModifiedEvents(manager, resourceList, events);
+        long asyncTime = System.nanoTime() - start;
+        manager.removeCmsEventListener(listener);
+
+        System.out.println("Firing " + events + " modification events for " + resources + " resources");
+        System.out.println("Synchronous:  " + TimeUnit.NANOSECONDS.toMillis(syncTime) + " ms");
+        System.out.println("Asynchronous: " + TimeUnit.NANOSECONDS.toMillis(asyncTime) + " ms, " + asyncListener);
+        assertEquals(events, asyncListener.getDeliveredCount() + asyncListener.getCoalescedCount());
+        assertEquals(asyncListener.getDeliveredCount(), listener.getEvents().size());
+        assertTrue(listener.getEvents().size() < events);
+    }
+}
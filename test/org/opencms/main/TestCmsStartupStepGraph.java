@@ -0,0 +1,170 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the dependency ordered execution of the startup steps.<p>
+ */
+public class TestCmsStartupStepGraph extends TestCase {
+
+    /** The time in seconds after which a step gives up waiting for the steps running in parallel. */
+    private static final long TIMEOUT_SECONDS = 10;
+
+    /**
+     * Tests that a failing step stops the startup and its exception is thrown.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testFailure() throws Exception {
+
+        List<String> log = Collections.synchronizedList(new ArrayList<String>());
+        CmsStartupStepGraph graph = new CmsStartupStepGraph();
+        graph.addStep("a", createStep("a", log));
+        graph.addStep("b", new Callable<Void>() {
+
+            public Void call() throws CmsException {
+
+                throw new CmsException(Messages.get().container(Messages.ERR_CRITICAL_INIT_MANAGERS_0));
+            }
+        }, "a");
+        graph.addStep("c", createStep("c", log), "b");
+        try {
+            graph.run(4);
+            fail("Exception of the failed step was not thrown");
+        } catch (CmsException e) {
+            assertEquals(Messages.ERR_CRITICAL_INIT_MANAGERS_0, e.getMessageContainer().getKey());
+        }
+        assertEquals(1, log.size());
+        assertFalse(log.contains("c"));
+    }
+
+    /**
+     * Tests that independent steps run in parallel and dependent steps wait for their dependencies.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testParallelOrder() throws Exception {
+
+        List<String> log = Collections.synchronizedList(new ArrayList<String>());
+        // the steps a, b and c only finish if all three of them are running at the same time
+        CountDownLatch running = new CountDownLatch(3);
+        CmsStartupStepGraph graph = new CmsStartupStepGraph();
+        graph.addStep("a", createParallelStep("a", running, log));
+        graph.addStep("b", createParallelStep("b", running, log));
+        graph.addStep("c", createParallelStep("c", running, log));
+        graph.addStep("d", createStep("d", log), "a", "b");
+        graph.addStep("e", createStep("e", log), "d", "c");
+
+        graph.run(4);
+        assertEquals(5, log.size());
+        assertTrue(log.indexOf("d") > log.indexOf("a"));
+        assertTrue(log.indexOf("d") > log.indexOf("b"));
+        assertEquals("e", log.get(4));
+        assertTrue(graph.getStartOffset("d") >= (graph.getStartOffset("a") + graph.getDuration("a")));
+
+        log.clear();
+        graph.run(1);
+        assertEquals(graph.getStepNames(), log);
+    }
+
+    /**
+     * Tests that steps must be added after the steps they depend on.<p>
+     */
+    public void testUnknownDependency() {
+
+        CmsStartupStepGraph graph = new CmsStartupStepGraph();
+        graph.addStep("a", createStep("a", new ArrayList<String>()));
+        try {
+            graph.addStep("b", createStep("b", new ArrayList<String>()), "c");
+            fail("Unknown dependency was accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            graph.addStep("a", createStep("a", new ArrayList<String>()));
+            fail("Duplicate step was accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Creates a step which waits until the given number of steps is running and then adds its name to the log.<p>
+     *
+     * @param name the name of the step
+     * @param running the latch counting the running steps
+     * @param log the list to which the name of the finished step is added
+     *
+     * @return the step
+     */
+    private Callable<Void> createParallelStep(final String name, final CountDownLatch running, final List<String> log) {
+
+        return new Callable<Void>() {
+
+            public Void call() throws Exception {
+
+                running.countDown();
+                if (!running.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    throw new TimeoutException("Step " + name + " was not run in parallel");
+                }
+                log.add(name);
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Creates a step which adds its name to the log.<p>
+     *
+     * @param name the name of the step
+     * @param log the list to which the name of the finished step is added
+     *
+     * @return the step
+     */
+    private Callable<Void> createStep(final String name, final List<String> log) {
+
+        return new Callable<Void>() {
+
+            public Void call() {
+
+                log.add(name);
+                return null;
+            }
+        };
+    }
+}
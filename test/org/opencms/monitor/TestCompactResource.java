@@ -0,0 +1,162 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import org.opencms.file.CmsFile;
+import org.opencms.file.CmsFolder;
+import org.opencms.file.CmsResource;
+import org.opencms.util.CmsUUID;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the compact resource representation used by the resource cache.<p>
+ */
+public class TestCompactResource extends TestCase {
+
+    /**
+     * Creates a file resource for the tests.<p>
+     *
+     * @param rootPath the root path
+     * @param project the project id
+     * @param user the user id
+     *
+     * @return the resource
+     */
+    protected static CmsResource createResource(String rootPath, CmsUUID project, CmsUUID user) {
+
+        return new CmsResource(
+            new CmsUUID(),
+            new CmsUUID(),
+            rootPath,
+            1,
+            false,
+            0,
+            project,
+            CmsResource.STATE_CHANGED,
+            1000L,
+            user,
+            System.currentTimeMillis(),
+            user,
+            CmsResource.DATE_RELEASED_DEFAULT,
+            CmsResource.DATE_EXPIRED_DEFAULT,
+            2,
+            rootPath.length() * 100,
+            System.currentTimeMillis(),
+            7);
+    }
+
+    /**
+     * Tests that resources which can't be packed without losing information are rejected.<p>
+     */
+    public void testNotPackable() {
+
+        CmsResource resource = createResource("/sites/default/index.html", new CmsUUID(), new CmsUUID());
+        CmsFile file = new CmsFile(resource);
+        file.setContents(new byte[] {1, 2, 3});
+        assertNull(CmsCompactResource.pack(file));
+
+        CmsResource touched = createResource("/sites/default/index.html", new CmsUUID(), new CmsUUID());
+        touched.setDateLastModified(System.currentTimeMillis());
+        assertNull(CmsCompactResource.pack(touched));
+    }
+
+    /**
+     * Tests packing and unpacking resources and folders.<p>
+     */
+    public void testRoundTrip() {
+
+        CmsResource resource = createResource("/sites/default/a/b/index.html", new CmsUUID(), new CmsUUID());
+        assertResourceEquals(resource, CmsCompactResource.pack(resource).toResource());
+
+        CmsFolder folder = new CmsFolder(
+            new CmsUUID(),
+            new CmsUUID(),
+            "/sites/default/a/b/",
+            0,
+            CmsResource.FLAG_INTERNAL,
+            new CmsUUID(),
+            CmsResource.STATE_NEW,
+            -5L,
+            new CmsUUID(),
+            Long.MAX_VALUE,
+            new CmsUUID(),
+            CmsResource.DATE_RELEASED_DEFAULT,
+            CmsResource.DATE_EXPIRED_DEFAULT,
+            3);
+        CmsResource unpacked = CmsCompactResource.pack(folder).toResource();
+        assertEquals(CmsFolder.class, unpacked.getClass());
+        assertResourceEquals(folder, unpacked);
+
+        CmsResource root = new CmsFolder(
+            new CmsUUID(),
+            new CmsUUID(),
+            "/",
+            0,
+            0,
+            new CmsUUID(),
+            CmsResource.STATE_UNCHANGED,
+            0,
+            new CmsUUID(),
+            0,
+            new CmsUUID(),
+            0,
+            0,
+            0);
+        assertEquals("/", CmsCompactResource.pack(root).getRootPath());
+        assertResourceEquals(root, CmsCompactResource.pack(root).toResource());
+    }
+
+    /**
+     * Asserts that all attributes of two resources are equal.<p>
+     *
+     * @param expected the expected resource
+     * @param actual the actual resource
+     */
+    private void assertResourceEquals(CmsResource expected, CmsResource actual) {
+
+        assertEquals(expected.getStructureId(), actual.getStructureId());
+        assertEquals(expected.getResourceId(), actual.getResourceId());
+        assertEquals(expected.getRootPath(), actual.getRootPath());
+        assertEquals(expected.getTypeId(), actual.getTypeId());
+        assertEquals(expected.isFolder(), actual.isFolder());
+        assertEquals(expected.getFlags(), actual.getFlags());
+        assertEquals(expected.getProjectLastModified(), actual.getProjectLastModified());
+        assertEquals(expected.getState(), actual.getState());
+        assertEquals(expected.getDateCreated(), actual.getDateCreated());
+        assertEquals(expected.getUserCreated(), actual.getUserCreated());
+        assertEquals(expected.getDateLastModified(), actual.getDateLastModified());
+        assertEquals(expected.getUserLastModified(), actual.getUserLastModified());
+        assertEquals(expected.getDateReleased(), actual.getDateReleased());
+        assertEquals(expected.getDateExpired(), actual.getDateExpired());
+        assertEquals(expected.getSiblingCount(), actual.getSiblingCount());
+        assertEquals(expected.getLength(), actual.getLength());
+        assertEquals(expected.getDateContent(), actual.getDateContent());
+        assertEquals(expected.getVersion(), actual.getVersion());
+    }
+}
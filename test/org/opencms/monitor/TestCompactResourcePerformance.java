@@ -0,0 +1,123 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import org.opencms.file.CmsResource;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Performance tests for the compact resource representation used by the resource cache.<p>
+ *
+ * These tests only print the measured values and are not part of the package test suite.<p>
+ */
+public class TestCompactResourcePerformance extends TestCase {
+
+    /** The number of resources used for the benchmark. */
+    private static final int BENCHMARK_SIZE = 100000;
+
+    /**
+     * Compares the memory needed per cached resource and the read latency of the compact
+     * representation with caching the full resource objects.<p>
+     */
+    public void testBenchmark() {
+
+        CmsUUID project = new CmsUUID();
+        CmsUUID user = new CmsUUID();
+        String[] folders = new String[100];
+        for (int i = 0; i < folders.length; i++) {
+            folders[i] = "/sites/default/folder" + i + "/";
+        }
+
+        long before = usedMemory();
+        Map<String, CmsResource> resources = new HashMap<String, CmsResource>();
+        for (int i = 0; i < BENCHMARK_SIZE; i++) {
+            // use distinct id and string instances, like resources read from the database
+            CmsResource resource = TestCompactResource.createResource(
+                folders[i % folders.length] + "file" + i + ".html",
+                new CmsUUID(project.toString()),
+                new CmsUUID(user.toString()));
+            resources.put(resource.getRootPath(), resource);
+        }
+        long resourceMemory = usedMemory() - before;
+
+        before = usedMemory();
+        Map<String, CmsCompactResource> compactResources = new HashMap<String, CmsCompactResource>();
+        for (CmsResource resource : resources.values()) {
+            // copy the key, it is part of the resource in the other map
+            compactResources.put(new String(resource.getRootPath()), CmsCompactResource.pack(resource));
+        }
+        long compactMemory = usedMemory() - before;
+
+        List<String> keys = new ArrayList<String>(resources.keySet());
+        long start = System.nanoTime();
+        long checksum = 0;
+        for (String key : keys) {
+            checksum += resources.get(key).getDateLastModified();
+        }
+        long resourceTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (String key : keys) {
+            checksum -= compactResources.get(key).toResource().getDateLastModified();
+        }
+        long compactTime = System.nanoTime() - start;
+        assertEquals(0, checksum);
+
+        System.out.println("Resource cache with " + BENCHMARK_SIZE + " entries:");
+        System.out.println("  CmsResource:        "
+            + (resourceMemory / BENCHMARK_SIZE)
+            + " bytes/entry, "
+            + (resourceTime / BENCHMARK_SIZE)
+            + " ns/read");
+        System.out.println("  CmsCompactResource: "
+            + (compactMemory / BENCHMARK_SIZE)
+            + " bytes/entry, "
+            + (compactTime / BENCHMARK_SIZE)
+            + " ns/read");
+    }
+
+    /**
+     * Returns the currently used heap memory after a garbage collection.<p>
+     *
+     * @return the used heap memory in bytes
+     */
+    private long usedMemory() {
+
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import org.opencms.util.CmsUUID;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the composite cache keys of the memory monitor.<p>
+ */
+public class TestCompositeCacheKey extends TestCase {
+
+    /**
+     * Tests equals and hashCode of composite keys.<p>
+     */
+    public void testEquals() {
+
+        CmsUUID id = new CmsUUID();
+        CmsCompositeCacheKey key = new CmsCompositeCacheKey("type", CmsCompositeCacheKey.ONLINE, "/a/", id);
+
+        CmsCompositeCacheKey same = new CmsCompositeCacheKey(
+            new String("type"),
+            CmsCompositeCacheKey.ONLINE,
+            new String("/a/"),
+            new CmsUUID(id.toString()));
+        assertEquals(key, same);
+        assertEquals(key.hashCode(), same.hashCode());
+
+        assertFalse(key.equals(new CmsCompositeCacheKey(null, CmsCompositeCacheKey.ONLINE, "/a/", id)));
+        assertFalse(key.equals(new CmsCompositeCacheKey("other", CmsCompositeCacheKey.ONLINE, "/a/", id)));
+        assertFalse(key.equals(new CmsCompositeCacheKey("type", 0, "/a/", id)));
+        assertFalse(key.equals(new CmsCompositeCacheKey("type", CmsCompositeCacheKey.ONLINE, "/b/", id)));
+        assertFalse(key.equals(new CmsCompositeCacheKey("type", CmsCompositeCacheKey.ONLINE, "/a/")));
+        assertFalse(key.equals(new CmsCompositeCacheKey("type", CmsCompositeCacheKey.ONLINE, id, "/a/")));
+        assertFalse(key.equals("type_1_/a/_" + id));
+
+        // null parts are allowed
+        assertEquals(
+            new CmsCompositeCacheKey(null, 0, "/a/", null),
+            new CmsCompositeCacheKey(null, 0, "/a/", null));
+        assertFalse(CmsCompositeCacheKey.NONE.equals(new CmsCompositeCacheKey(null, 0, (Object)null)));
+        assertEquals("type_1_/a/_" + id, key.toString());
+    }
+}
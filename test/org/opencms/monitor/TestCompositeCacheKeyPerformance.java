@@ -0,0 +1,133 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import org.opencms.util.CmsUUID;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Performance tests for the composite cache keys of the memory monitor.<p>
+ *
+ * These tests only print the measured values and are not part of the package test suite.<p>
+ */
+public class TestCompositeCacheKeyPerformance extends TestCase {
+
+    /** The number of lookups per benchmark round. */
+    private static final int BENCHMARK_SIZE = 200000;
+
+    /**
+     * Compares the lookup time of composite keys with concatenated String keys.<p>
+     */
+    public void testBenchmark() {
+
+        String user = "Admin";
+        String filter = "r-rqr";
+        String[] paths = new String[1000];
+        CmsUUID[] ids = new CmsUUID[paths.length];
+        Map<String, Object> stringMap = new HashMap<String, Object>();
+        Map<Object, Object> compositeMap = new HashMap<Object, Object>();
+        for (int i = 0; i < paths.length; i++) {
+            paths[i] = "/sites/default/folder" + (i % 10) + "/file" + i + ".html";
+            ids[i] = new CmsUUID();
+            stringMap.put(stringKey(user, filter, paths[i], ids[i]), paths[i]);
+            compositeMap.put(compositeKey(user, filter, paths[i], ids[i]), paths[i]);
+        }
+
+        for (int round = 0; round < 3; round++) {
+            int hits = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < BENCHMARK_SIZE; i++) {
+                int index = i % paths.length;
+                hits += (stringMap.get(stringKey(user, filter, paths[index], ids[index])) != null) ? 1 : 0;
+            }
+            long stringTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < BENCHMARK_SIZE; i++) {
+                int index = i % paths.length;
+                hits += (compositeMap.get(compositeKey(user, filter, paths[index], ids[index])) != null) ? 1 : 0;
+            }
+            long compositeTime = System.nanoTime() - start;
+            assertEquals(2 * BENCHMARK_SIZE, hits);
+
+            System.out.println("Round "
+                + round
+                + ", String keys: "
+                + (stringTime / BENCHMARK_SIZE)
+                + " ns/lookup; composite keys: "
+                + (compositeTime / BENCHMARK_SIZE)
+                + " ns/lookup");
+        }
+    }
+
+    /**
+     * Creates a composite key like the driver manager does for resource lists.<p>
+     *
+     * @param user the user name
+     * @param filter the filter cache id
+     * @param path the resource path
+     * @param id the structure id
+     *
+     * @return the cache key
+     */
+    private CmsCompositeCacheKey compositeKey(String user, String filter, String path, CmsUUID id) {
+
+        return new CmsCompositeCacheKey(null, CmsCompositeCacheKey.ONLINE, new Object[] {
+            user,
+            filter,
+            Boolean.TRUE,
+            path,
+            id});
+    }
+
+    /**
+     * Creates a String key like the driver manager did before composite keys were introduced.<p>
+     *
+     * @param user the user name
+     * @param filter the filter cache id
+     * @param path the resource path
+     * @param id the structure id
+     *
+     * @return the cache key
+     */
+    private String stringKey(String user, String filter, String path, CmsUUID id) {
+
+        String[] keys = new String[] {user, filter, "+", path, id.toString()};
+        StringBuffer b = new StringBuffer(64);
+        for (int i = 0; i < keys.length; i++) {
+            b.append(keys[i]);
+            b.append('_');
+        }
+        b.append("+");
+        return b.toString();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.pdftools;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the PDF rendering pool.<p>
+ */
+public class TestPdfRenderPool extends TestCase {
+
+    /**
+     * Tests that concurrent requests for the same key are rendered only once.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testCoalescing() throws Exception {
+
+        final CmsPdfRenderPool pool = new CmsPdfRenderPool(2, 10);
+        final AtomicInteger executions = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Callable<byte[]> job = new Callable<byte[]>() {
+
+            public byte[] call() throws Exception {
+
+                executions.incrementAndGet();
+                started.countDown();
+                release.await(10, TimeUnit.SECONDS);
+                return new byte[] {1, 2, 3};
+            }
+        };
+        int count = 5;
+        final byte[][] results = new byte[count][];
+        Thread[] threads = new Thread[count];
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            threads[i] = new Thread() {
+
+                @Override
+                public void run() {
+
+                    try {
+                        results[index] = pool.render("key", job);
+                    } catch (Exception e) {
+                        // results stays null and the assertion below fails
+                    }
+                }
+            };
+            threads[i].start();
+            if (i == 0) {
+                assertTrue(started.await(10, TimeUnit.SECONDS));
+            }
+        }
+        while (pool.getCoalescedCount() < (count - 1)) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        for (int i = 0; i < count; i++) {
+            threads[i].join(10000);
+            assertEquals(3, results[i].length);
+        }
+        assertEquals(1, executions.get());
+        assertEquals(0, pool.getPendingCount());
+        assertNull(pool.getPending("key"));
+    }
+
+    /**
+     * Tests that exceptions of a rendering job are passed to the caller.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testFailure() throws Exception {
+
+        CmsPdfRenderPool pool = new CmsPdfRenderPool(1, 10);
+        try {
+            pool.render("key", new Callable<byte[]>() {
+
+                public byte[] call() throws Exception {
+
+                    throw new IllegalStateException("failed");
+                }
+            });
+            fail("exception expected");
+        } catch (IllegalStateException e) {
+            assertEquals("failed", e.getMessage());
+        }
+        assertEquals(0, pool.getPendingCount());
+    }
+
+    /**
+     * Tests that pre-rendering jobs are dropped when the queue is full.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testPrerenderQueueFull() throws Exception {
+
+        CmsPdfRenderPool pool = new CmsPdfRenderPool(1, 1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Callable<byte[]> job = new Callable<byte[]>() {
+
+            public byte[] call() throws Exception {
+
+                release.await(10, TimeUnit.SECONDS);
+                return new byte[0];
+            }
+        };
+        assertTrue(pool.prerender("a", job));
+        assertFalse(pool.prerender("a", job));
+        // one job is running or queued, so at least the third one can't be accepted
+        pool.prerender("b", job);
+        assertFalse(pool.prerender("c", job));
+        assertTrue(pool.getRejectedCount() > 0);
+        // the rendering of a rejected job falls back to the calling thread
+        release.countDown();
+        assertEquals(0, pool.render("d", job).length);
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.report;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the HTML report, in particular moving the not yet fetched output to a temporary file.<p>
+ */
+public class TestCmsHtmlReport extends TestCase {
+
+    /** The prefix of the temporary files created by the report. */
+    private static final String SPILL_FILE_PREFIX = "opencms-report-";
+
+    /** The names of the temporary files that existed before the test started. */
+    private Set<String> m_oldSpillFiles;
+
+    /**
+     * Tests that output which is fetched regularly is never moved to a temporary file.<p>
+     */
+    public void testFetchedOutputNotSpilled() {
+
+        CmsHtmlReport report = new CmsHtmlReport(Locale.ENGLISH, null, true);
+        StringBuffer expected = new StringBuffer();
+        StringBuffer fetched = new StringBuffer();
+        for (int i = 0; i < (3 * CmsHtmlReport.MAX_CONTENT_SIZE); i++) {
+            String entry = "entry " + i + ";";
+            report.print(entry);
+            expected.append(entry);
+            if ((i % 100) == 0) {
+                fetched.append(report.getReportUpdate());
+            }
+        }
+        assertTrue(getNewSpillFiles().isEmpty());
+        fetched.append(report.getReportUpdate());
+        assertEquals(expected.toString(), fetched.toString());
+        assertEquals("", report.getReportUpdate());
+    }
+
+    /**
+     * Tests that releasing a report deletes its temporary file and discards the not yet fetched output.<p>
+     */
+    public void testRelease() {
+
+        CmsHtmlReport report = new CmsHtmlReport(Locale.ENGLISH, null, true);
+        for (int i = 0; i <= CmsHtmlReport.MAX_CONTENT_SIZE; i++) {
+            report.print("entry " + i + ";");
+        }
+        report.print("last entry;");
+        Set<File> spillFiles = getNewSpillFiles();
+        assertEquals(1, spillFiles.size());
+
+        report.release();
+        assertFalse(spillFiles.iterator().next().exists());
+        assertEquals("", report.getReportUpdate());
+
+        // the report can still be used after it has been released
+        report.print("new entry;");
+        assertEquals("new entry;", report.getReportUpdate());
+    }
+
+    /**
+     * Tests that output not fetched for a longer time is moved to a temporary file,
+     * and is returned in order and in chunks of limited size.<p>
+     */
+    public void testSpilledOutputFetchedInChunks() {
+
+        CmsHtmlReport report = new CmsHtmlReport(Locale.ENGLISH, null, true);
+        StringBuffer padding = new StringBuffer();
+        for (int i = 0; i < 100; i++) {
+            padding.append('x');
+        }
+        StringBuffer expected = new StringBuffer();
+        int count = 5 * CmsHtmlReport.MAX_CONTENT_SIZE;
+        for (int i = 0; i < count; i++) {
+            String entry = "entry " + i + " " + padding + ";";
+            report.print(entry);
+            expected.append(entry);
+        }
+        assertTrue(expected.length() > (2 * CmsHtmlReport.MAX_UPDATE_LENGTH));
+
+        Set<File> spillFiles = getNewSpillFiles();
+        assertEquals(1, spillFiles.size());
+        File spillFile = spillFiles.iterator().next();
+
+        StringBuffer fetched = new StringBuffer();
+        int updates = 0;
+        String update = report.getReportUpdate();
+        while (update.length() > 0) {
+            updates++;
+            fetched.append(update);
+            if (spillFile.exists()) {
+                // a chunk from the temporary file only exceeds the limit by the last entry appended to it
+                assertTrue(update.length() < (CmsHtmlReport.MAX_UPDATE_LENGTH + padding.length() + 20));
+                // output added while the temporary file is read must follow the older output
+                String entry = "entry " + count + " " + padding + ";";
+                report.print(entry);
+                expected.append(entry);
+                count++;
+            }
+            update = report.getReportUpdate();
+        }
+        assertTrue(updates > 2);
+        assertEquals(expected.toString(), fetched.toString());
+        assertFalse(spillFile.exists());
+    }
+
+    /**
+     * @see junit.framework.TestCase#setUp()
+     */
+    @Override
+    protected void setUp() throws Exception {
+
+        super.setUp();
+        m_oldSpillFiles = new HashSet<String>();
+        for (File file : getSpillFiles()) {
+            m_oldSpillFiles.add(file.getName());
+        }
+    }
+
+    /**
+     * Returns the temporary files created by reports since the test started.<p>
+     *
+     * @return the temporary files created by reports since the test started
+     */
+    private Set<File> getNewSpillFiles() {
+
+        Set<File> result = new HashSet<File>();
+        for (File file : getSpillFiles()) {
+            if (!m_oldSpillFiles.contains(file.getName())) {
+                result.add(file);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the temporary files created by reports.<p>
+     *
+     * @return the temporary files created by reports
+     */
+    private Set<File> getSpillFiles() {
+
+        Set<File> result = new HashSet<File>();
+        File[] files = new File(System.getProperty("java.io.tmpdir")).listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().startsWith(SPILL_FILE_PREFIX)) {
+                    result.add(file);
+                }
+            }
+        }
+        return result;
+    }
+}
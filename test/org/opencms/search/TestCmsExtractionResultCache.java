@@ -0,0 +1,200 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.search;
+
+import org.opencms.search.documents.CmsExtractionResultCache;
+import org.opencms.search.extractors.CmsExtractionResult;
+import org.opencms.search.extractors.I_CmsExtractionResult;
+import org.opencms.util.CmsFileUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the extraction result cache.<p>
+ */
+public class TestCmsExtractionResultCache extends TestCase {
+
+    /** The cache used for the tests. */
+    private CmsExtractionResultCache m_cache;
+
+    /** The folder of the cache used for the tests. */
+    private File m_folder;
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsExtractionResultCache(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that a resource requested by several threads at once is extracted only once.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testCoalescedExtraction() throws Exception {
+
+        final String rfsName = m_cache.getRepositoryPath() + "coalesced.ext";
+        final AtomicInteger extractions = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Callable<I_CmsExtractionResult> extractor = new Callable<I_CmsExtractionResult>() {
+
+            public I_CmsExtractionResult call() throws Exception {
+
+                extractions.incrementAndGet();
+                started.countDown();
+                release.await(10, TimeUnit.SECONDS);
+                return new CmsExtractionResult("content");
+            }
+        };
+        final List<I_CmsExtractionResult> results = new ArrayList<I_CmsExtractionResult>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread() {
+
+                @Override
+                public void run() {
+
+                    try {
+                        I_CmsExtractionResult result = m_cache.extractCacheObject(rfsName, extractor);
+                        synchronized (results) {
+                            results.add(result);
+                        }
+                    } catch (Exception e) {
+                        // the result is missing
+                    }
+                }
+            });
+        }
+        threads.get(0).start();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        for (int i = 1; i < threads.size(); i++) {
+            threads.get(i).start();
+        }
+        // wait until all other threads wait for the running extraction
+        long timeout = System.currentTimeMillis() + 10000;
+        for (int i = 1; i < threads.size(); i++) {
+            while ((threads.get(i).getState() != Thread.State.WAITING) && (System.currentTimeMillis() < timeout)) {
+                Thread.sleep(1);
+            }
+        }
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join(10000);
+        }
+
+        assertEquals(1, extractions.get());
+        assertEquals(threads.size(), results.size());
+        for (I_CmsExtractionResult result : results) {
+            assertEquals("content", result.getContent());
+        }
+        assertEquals("content", m_cache.getCacheObject(rfsName).getContent());
+        // the result is read from the cache afterwards
+        assertEquals("content", m_cache.extractCacheObject(rfsName, extractor).getContent());
+        assertEquals(1, extractions.get());
+    }
+
+    /**
+     * Tests that a failed extraction is reported and not cached.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testFailedExtraction() throws Exception {
+
+        String rfsName = m_cache.getRepositoryPath() + "failed.ext";
+        final AtomicInteger extractions = new AtomicInteger();
+        Callable<I_CmsExtractionResult> extractor = new Callable<I_CmsExtractionResult>() {
+
+            public I_CmsExtractionResult call() throws Exception {
+
+                if (extractions.incrementAndGet() == 1) {
+                    throw new IOException("failed");
+                }
+                return new CmsExtractionResult("content");
+            }
+        };
+        try {
+            m_cache.extractCacheObject(rfsName, extractor);
+            fail("Exception of the extraction was not thrown");
+        } catch (IOException e) {
+            assertEquals("failed", e.getMessage());
+        }
+        assertNull(m_cache.getCacheObject(rfsName));
+        assertEquals("content", m_cache.extractCacheObject(rfsName, extractor).getContent());
+        assertEquals(2, extractions.get());
+    }
+
+    /**
+     * Tests that the results of an index are shared until all updates of the index have ended.<p>
+     */
+    public void testSharingResults() {
+
+        assertFalse(m_cache.isSharingResults("index"));
+        m_cache.beginSharingResults("index");
+        m_cache.beginSharingResults("index");
+        assertTrue(m_cache.isSharingResults("index"));
+        assertFalse(m_cache.isSharingResults("other"));
+        m_cache.endSharingResults("index");
+        assertTrue(m_cache.isSharingResults("index"));
+        m_cache.endSharingResults("index");
+        assertFalse(m_cache.isSharingResults("index"));
+    }
+
+    /**
+     * @see junit.framework.TestCase#setUp()
+     */
+    @Override
+    protected void setUp() throws Exception {
+
+        m_folder = File.createTempFile("extraction", "");
+        m_folder.delete();
+        m_cache = new CmsExtractionResultCache(m_folder.getParent() + File.separatorChar, m_folder.getName());
+    }
+
+    /**
+     * @see junit.framework.TestCase#tearDown()
+     */
+    @Override
+    protected void tearDown() {
+
+        CmsFileUtil.purgeDirectory(m_folder);
+    }
+}
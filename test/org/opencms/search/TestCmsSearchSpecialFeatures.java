@@ -48,6 +48,10 @@ import junit.framework.Test;
 import junit.framework.TestSuite;
 
 import org.apache.lucene.document.Document;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
 
 /**
  * Unit test for special search features added for OpenCms 7.5.<p>
@@ -82,6 +86,7 @@ public class TestCmsSearchSpecialFeatures extends OpenCmsTestCase {
         suite.addTest(new TestCmsSearchSpecialFeatures("testSearchIndexSetup"));
         suite.addTest(new TestCmsSearchSpecialFeatures("testIncrementalIndexUpdate"));
         suite.addTest(new TestCmsSearchSpecialFeatures("testLazyContentFields"));
+        suite.addTest(new TestCmsSearchSpecialFeatures("testSearcherSurvivesReopen"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -209,4 +214,31 @@ public class TestCmsSearchSpecialFeatures extends OpenCmsTestCase {
         assertNotNull("No 'content blob' field available", doc.getField(CmsSearchField.FIELD_CONTENT_BLOB));
         // assertTrue("Content blob field not lazy", doc.getField(CmsSearchField.FIELD_CONTENT_BLOB).isLazy());
     }
-}
\ No newline at end of file
+
+    /**
+     * Ensures an acquired index searcher can still be used after the index has been reopened.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testSearcherSurvivesReopen() throws Exception {
+
+        echo("Testing that an acquired searcher stays open while the index is reopened");
+
+        String fileName = "/sites/default/test/master.pdf";
+
+        CmsSearchIndex searchIndex = OpenCms.getSearchManager().getIndex(INDEX_SPECIAL);
+        IndexSearcher searcher = searchIndex.acquireSearcher();
+        assertNotNull("No searcher available", searcher);
+        try {
+            // open a completely new searcher, this closes the searcher manager the searcher was acquired from
+            searchIndex.indexSearcherOpen(searchIndex.getPath());
+            TopDocs hits = searcher.search(new TermQuery(new Term(CmsSearchField.FIELD_PATH, fileName)), 1);
+            assertEquals(1, hits.totalHits);
+        } finally {
+            searchIndex.releaseSearcher(searcher);
+        }
+        assertNotNull("Document '" + fileName + "' not found", searchIndex.getDocument(
+            CmsSearchField.FIELD_PATH,
+            fileName));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.staticexport;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the content hash manifest of the static export.<p>
+ */
+public class TestCmsStaticExportManifest extends TestCase {
+
+    /**
+     * Tests detecting unchanged export files.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testUnchanged() throws Exception {
+
+        File file = File.createTempFile("export", ".css");
+        try {
+            byte[] content = "body { color: red; }".getBytes("UTF-8");
+            byte[] hash = CmsStaticExportManifest.getHash(content);
+            CmsStaticExportManifest manifest = new CmsStaticExportManifest();
+
+            // a file that does not exist has to be written
+            file.delete();
+            assertFalse(manifest.isUnchanged(file, content.length, hash));
+
+            // a file that was written by someone else is checked by reading its content
+            write(file, content);
+            assertTrue(manifest.isUnchanged(file, content.length, hash));
+            byte[] other = "body { color: blue; }".getBytes("UTF-8");
+            assertFalse(manifest.isUnchanged(file, other.length, CmsStaticExportManifest.getHash(other)));
+            byte[] sameLength = "body { color: redd }".getBytes("UTF-8");
+            assertEquals(content.length, sameLength.length);
+            assertFalse(manifest.isUnchanged(file, sameLength.length, CmsStaticExportManifest.getHash(sameLength)));
+
+            // a recorded file is checked with the manifest entry
+            manifest.update(file, hash);
+            assertTrue(manifest.isUnchanged(file, content.length, hash));
+
+            // a file changed outside of the static export is detected
+            write(file, sameLength);
+            file.setLastModified(file.lastModified() - 10000);
+            assertFalse(manifest.isUnchanged(file, content.length, hash));
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Writes the given content to a file.<p>
+     *
+     * @param file the file
+     * @param content the content
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void write(File file, byte[] content) throws Exception {
+
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+    }
+}
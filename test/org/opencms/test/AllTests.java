@@ -107,6 +107,7 @@ public final class AllTests {
         suite.addTest(org.opencms.notification.AllTests.suite());
         suite.addTest(org.opencms.publish.AllTests.suite());
         suite.addTest(org.opencms.relations.AllTests.suite());
+        suite.addTest(org.opencms.report.AllTests.suite());
         suite.addTest(org.opencms.scheduler.AllTests.suite());
         suite.addTest(org.opencms.search.AllTests.suite());
         suite.addTest(org.opencms.search.extractors.AllTests.suite());
@@ -125,6 +126,10 @@ public final class AllTests {
         suite.addTest(org.opencms.xml.page.AllTests.suite());
         suite.addTest(org.opencms.repository.AllTests.suite());
         suite.addTest(org.opencms.ugc.AllTests.suite());
+        suite.addTest(org.opencms.cmis.AllTests.suite());
+        suite.addTest(org.opencms.jlan.AllTests.suite());
+        suite.addTest(org.opencms.webdav.AllTests.suite());
+        suite.addTest(org.opencms.pdftools.AllTests.suite());
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -28,9 +28,14 @@
 package org.opencms.util;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
 import java.util.Arrays;
+import java.util.Random;
 
 import junit.framework.TestCase;
 
@@ -161,4 +166,86 @@ public class TestCmsFileUtil extends TestCase {
 
         assertTrue("input stream was closed", is.isClosed());
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests streaming a file with {@link CmsFileUtil#transferFile(File, java.io.OutputStream)}.<p>
+     * 
+     * @throws IOException in case the test fails
+     */
+    public void testTransferFile() throws IOException {
+
+        byte[] content = new byte[300 * 1024];
+        new Random(42).nextBytes(content);
+        File file = createTempFile(content);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(content.length, CmsFileUtil.transferFile(file, out));
+            assertTrue(Arrays.equals(content, out.toByteArray()));
+
+            File empty = createTempFile(new byte[0]);
+            out.reset();
+            assertEquals(0, CmsFileUtil.transferFile(empty, out));
+            assertEquals(0, out.size());
+            empty.delete();
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Tests that {@link CmsFileUtil#transferFile(File, java.io.OutputStream)} stops 
+     * if the file gets shorter during the transfer.<p>
+     * 
+     * @throws IOException in case the test fails
+     */
+    public void testTransferTruncatedFile() throws IOException {
+
+        byte[] content = new byte[300 * 1024];
+        Arrays.fill(content, (byte)7);
+        File file = createTempFile(content);
+        final RandomAccessFile writer = new RandomAccessFile(file, "rw");
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream() {
+
+                @Override
+                public synchronized void write(byte[] b, int off, int len) {
+
+                    super.write(b, off, len);
+                    try {
+                        // truncate the file after the first chunk, like a cache file that is rewritten in place
+                        writer.setLength(1024);
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            };
+            long count = CmsFileUtil.transferFile(file, out);
+            assertEquals(out.size(), count);
+            assertTrue(count < content.length);
+        } finally {
+            writer.close();
+            file.delete();
+        }
+    }
+
+    /**
+     * Creates a temporary file with the given content.<p>
+     * 
+     * @param content the content of the file
+     * 
+     * @return the file
+     * 
+     * @throws IOException in case the file could not be written
+     */
+    private File createTempFile(byte[] content) throws IOException {
+
+        File file = File.createTempFile("transfer", ".bin");
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+}
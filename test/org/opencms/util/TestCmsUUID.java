@@ -191,6 +191,62 @@ public class TestCmsUUID extends OpenCmsTestCase {
         System.out.println("Time for UUID equals() implementation for " + testSize + " UUIDs : " + time1);
     }
 
+    /**
+     * Tests that CmsUUID behaves like the JUG UUID implementation.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testUUIDCompatibility() throws Exception {
+
+        CmsUUID.init(CmsUUID.getDummyEthernetAddress());
+        Random r = new Random(42);
+        CmsUUID[] ids = new CmsUUID[300];
+        for (int i = 0; i < ids.length; i++) {
+            switch (i % 3) {
+                case 0:
+                    ids[i] = new CmsUUID();
+                    break;
+                case 1:
+                    ids[i] = CmsUUID.getConstantUUID("name" + i);
+                    break;
+                default:
+                    byte[] bytes = new byte[16];
+                    r.nextBytes(bytes);
+                    ids[i] = new CmsUUID(bytes);
+            }
+        }
+        for (int i = 0; i < ids.length; i++) {
+            CmsUUID id = ids[i];
+            UUID uid = new UUID(id.toByteArray());
+            assertEquals(uid.toString(), id.toString());
+            assertEquals(uid.hashCode(), id.hashCode());
+            assertEquals(id, new CmsUUID(id.toString()));
+            assertEquals(id, new CmsUUID(id.toString().toUpperCase()));
+            assertEquals(id.toString(), new CmsUUID(id.toString().toUpperCase()).toString());
+            assertEquals(id, new CmsUUID(id.getMostSignificantBits(), id.getLeastSignificantBits()));
+            assertEquals(id, id.clone());
+            for (int j = 0; j < ids.length; j += 7) {
+                UUID other = new UUID(ids[j].toByteArray());
+                assertEquals(Integer.signum(uid.compareTo(other)), Integer.signum(id.compareTo(ids[j])));
+            }
+        }
+        String[] invalid = {
+            "",
+            "c300ba5c-01e8-3727-b305-5dcc9ccae1e",
+            "c300ba5c-01e8-3727-b305-5dcc9ccae1eee",
+            "c300ba5c+01e8-3727-b305-5dcc9ccae1ee",
+            "c300ba5c-01e8-3727-b305-5dcc9ccae1eg"};
+        for (int i = 0; i < invalid.length; i++) {
+            assertFalse(CmsUUID.isValidUUID(invalid[i]));
+            try {
+                new CmsUUID(invalid[i]);
+                fail("Invalid UUID accepted: " + invalid[i]);
+            } catch (NumberFormatException e) {
+                // expected
+            }
+        }
+    }
+
     /**
      * Tests the {@link CmsUUID#isValidUUID(String)} method.<p> 
      * 
@@ -0,0 +1,126 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.util;
+
+import org.opencms.test.OpenCmsTestCase;
+
+import org.safehaus.uuid.UUID;
+
+/** 
+ * Performance tests for the UUID implementation.<p>
+ * 
+ * These tests only print the measured values and are not part of the package test suite.<p>
+ */
+public class TestCmsUUIDPerformance extends OpenCmsTestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsUUIDPerformance(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Compares parsing, formatting, equals/hashCode and comparing of CmsUUID with the JUG UUID implementation.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testUUIDBenchmark() throws Exception {
+
+        CmsUUID.init(CmsUUID.getDummyEthernetAddress());
+        int testSize = 100000;
+        String[] strings = new String[testSize];
+        for (int i = 0; i < testSize; i++) {
+            strings[i] = new CmsUUID().toString();
+        }
+        for (int round = 0; round < 3; round++) {
+            // parse
+            long start = System.nanoTime();
+            UUID[] uids = new UUID[testSize];
+            for (int i = 0; i < testSize; i++) {
+                uids[i] = new UUID(strings[i]);
+            }
+            long jugParse = System.nanoTime() - start;
+            start = System.nanoTime();
+            CmsUUID[] ids = new CmsUUID[testSize];
+            for (int i = 0; i < testSize; i++) {
+                ids[i] = new CmsUUID(strings[i]);
+            }
+            long cmsParse = System.nanoTime() - start;
+
+            // equals and hashCode
+            int hits = 0;
+            start = System.nanoTime();
+            for (int i = 1; i < testSize; i++) {
+                hits += uids[i].equals(uids[i - 1]) ? 1 : uids[i].hashCode() & 1;
+            }
+            long jugEquals = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 1; i < testSize; i++) {
+                hits -= ids[i].equals(ids[i - 1]) ? 1 : ids[i].hashCode() & 1;
+            }
+            long cmsEquals = System.nanoTime() - start;
+            assertEquals(0, hits);
+
+            // format, without the String cached during parsing
+            for (int i = 0; i < testSize; i++) {
+                uids[i] = new UUID(uids[i].asByteArray());
+                ids[i] = new CmsUUID(ids[i].getMostSignificantBits(), ids[i].getLeastSignificantBits());
+            }
+            start = System.nanoTime();
+            for (int i = 0; i < testSize; i++) {
+                hits += uids[i].toString().length();
+            }
+            long jugFormat = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < testSize; i++) {
+                hits -= ids[i].toString().length();
+            }
+            long cmsFormat = System.nanoTime() - start;
+            assertEquals(0, hits);
+
+            System.out.println("Round "
+                + round
+                + ", ns/op for JUG UUID / CmsUUID: parse "
+                + (jugParse / testSize)
+                + " / "
+                + (cmsParse / testSize)
+                + ", equals+hashCode "
+                + (jugEquals / testSize)
+                + " / "
+                + (cmsEquals / testSize)
+                + ", format "
+                + (jugFormat / testSize)
+                + " / "
+                + (cmsFormat / testSize));
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.webdav;
+
+import java.io.ByteArrayInputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests parsing the body of WebDAV PROPFIND requests.<p>
+ */
+public class TestPropfindRequestParser extends TestCase {
+
+    /**
+     * Tests a request for all properties.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testAllProp() throws Exception {
+
+        List<String> properties = new ArrayList<String>();
+        int type = parse("<?xml version=\"1.0\" encoding=\"utf-8\" ?>"
+            + "<D:propfind xmlns:D=\"DAV:\"><D:allprop/></D:propfind>", properties);
+        assertEquals(CmsWebdavServlet.FIND_ALL_PROP, type);
+        assertTrue(properties.isEmpty());
+    }
+
+    /**
+     * Tests that an empty request body is treated like a request for all properties.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testEmptyBody() throws Exception {
+
+        List<String> properties = new ArrayList<String>();
+        assertEquals(CmsWebdavServlet.FIND_ALL_PROP, parse("", properties));
+        assertTrue(properties.isEmpty());
+    }
+
+    /**
+     * Tests that external entities in the request body are not resolved.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testExternalEntityNotResolved() throws Exception {
+
+        List<String> properties = new ArrayList<String>();
+        int type = parse("<?xml version=\"1.0\"?>"
+            + "<!DOCTYPE propfind [<!ENTITY ext SYSTEM \"file:///etc/passwd\">]>"
+            + "<D:propfind xmlns:D=\"DAV:\"><D:prop><D:getetag>&ext;</D:getetag></D:prop></D:propfind>", properties);
+        assertEquals(CmsWebdavServlet.FIND_ALL_PROP, type);
+        assertTrue(properties.isEmpty());
+    }
+
+    /**
+     * Tests that malformed request bodies are treated like a request for all properties.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testMalformedBody() throws Exception {
+
+        String[] bodies = {
+            "not xml at all",
+            "<D:propfind xmlns:D=\"DAV:\"><D:prop><D:getetag/>",
+            "<D:propfind xmlns:D=\"DAV:\"><D:prop><D:getetag></D:prop></D:propfind>",
+            "<D:propfind xmlns:D=\"DAV:\"><X:prop><X:getetag/></X:prop></D:propfind>",
+            "<D:propfind xmlns:D=\"DAV:\"><D:prop><D:getetag/></D:prop></D:propfind><D:propfind/>"};
+        for (String body : bodies) {
+            List<String> properties = new ArrayList<String>();
+            assertEquals(body, CmsWebdavServlet.FIND_ALL_PROP, parse(body, properties));
+            assertTrue(body, properties.isEmpty());
+        }
+    }
+
+    /**
+     * Tests a request for named properties from different namespaces.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testNamedProperties() throws Exception {
+
+        List<String> properties = new ArrayList<String>();
+        int type = parse("<?xml version=\"1.0\" encoding=\"utf-8\" ?>"
+            + "<D:propfind xmlns:D=\"DAV:\" xmlns:Z=\"http://ns.example.com/z/\">"
+            + "<D:prop>"
+            + "<D:getcontentlength/>"
+            + "<Z:author/>"
+            + "<D:resourcetype><D:collection/></D:resourcetype>"
+            + "<displayname xmlns=\"DAV:\"/>"
+            + "</D:prop>"
+            + "</D:propfind>", properties);
+        assertEquals(CmsWebdavServlet.FIND_BY_PROPERTY, type);
+        // only the local names of the direct children of the prop element are used
+        assertEquals(Arrays.asList("getcontentlength", "author", "resourcetype", "displayname"), properties);
+    }
+
+    /**
+     * Tests a request for named properties using the DAV namespace as default namespace.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testNamedPropertiesDefaultNamespace() throws Exception {
+
+        List<String> properties = new ArrayList<String>();
+        int type = parse("<propfind xmlns=\"DAV:\">\n"
+            + "  <prop>\n"
+            + "    <getetag/>\n"
+            + "    <getlastmodified/>\n"
+            + "  </prop>\n"
+            + "</propfind>", properties);
+        assertEquals(CmsWebdavServlet.FIND_BY_PROPERTY, type);
+        assertEquals(Arrays.asList("getetag", "getlastmodified"), properties);
+    }
+
+    /**
+     * Tests a request for the property names.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testPropName() throws Exception {
+
+        List<String> properties = new ArrayList<String>();
+        int type = parse("<D:propfind xmlns:D=\"DAV:\"><D:propname/></D:propfind>", properties);
+        assertEquals(CmsWebdavServlet.FIND_PROPERTY_NAMES, type);
+        assertTrue(properties.isEmpty());
+    }
+
+    /**
+     * Parses the given PROPFIND request body.<p>
+     *
+     * @param body the request body
+     * @param properties the list to add the requested properties to
+     *
+     * @return the PROPFIND type
+     *
+     * @throws UnsupportedEncodingException should never happen
+     */
+    private int parse(String body, List<String> properties) throws UnsupportedEncodingException {
+
+        return CmsWebdavServlet.parsePropfindRequest(new ByteArrayInputStream(body.getBytes("UTF-8")), properties);
+    }
+}
@@ -58,7 +58,9 @@ public final class AllTests {
         TestSuite suite = new TestSuite("Tests for package " + AllTests.class.getPackage().getName());
         OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
         //$JUnit-BEGIN$
+        suite.addTest(new TestSuite(TestCmsXmlCompiledPath.class));
         suite.addTest(TestCmsXmlEntityResolver.suite());
+        suite.addTest(new TestSuite(TestCmsXmlSchemaRegistry.class));
         suite.addTest(new TestSuite(TestXmlUtils.class));
         //$JUnit-END$
         return suite;
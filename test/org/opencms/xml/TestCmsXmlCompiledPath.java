@@ -0,0 +1,127 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.xml;
+
+import java.util.Locale;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the compiled Xpath used for value lookups in XML documents.<p>
+ * 
+ * @since 9.0.0
+ */
+public class TestCmsXmlCompiledPath extends TestCase {
+
+    /** Paths used to compare the compiled paths with the string based Xpath methods. */
+    private static final String[] PATHS = {
+        "Title",
+        "Title[3]",
+        "Title/Test",
+        "Title/Test/Toast",
+        "Title[4]/Test[2]/Toast[1]",
+        "Title/Test[2]/Toast",
+        "Title[2]/Test",
+        "Title/Test/Toast/Toll[5]"};
+
+    /**
+     * Tests that the bookmark names of compiled paths match the bookmark names of the document.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testBookmarkNames() throws Exception {
+
+        Locale[] locales = {Locale.ENGLISH, Locale.GERMAN};
+        for (String path : PATHS) {
+            CmsXmlCompiledPath compiledPath = CmsXmlCompiledPath.compile(path);
+            for (Locale locale : locales) {
+                for (int i = 0; i < 2; i++) {
+                    // the second iteration uses the cached bookmark names
+                    assertEquals(
+                        A_CmsXmlDocument.getBookmarkName(CmsXmlUtils.createXpath(path, 1), locale),
+                        compiledPath.getBookmarkName(locale));
+                    assertEquals(
+                        A_CmsXmlDocument.getBookmarkName(CmsXmlUtils.createXpath(path, 3), locale),
+                        compiledPath.getBookmarkName(locale, 3));
+                    assertEquals(
+                        CmsXmlUtils.removeXpathIndex(compiledPath.getBookmarkName(locale)),
+                        compiledPath.getBaseBookmarkName(locale));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that compiled paths are cached by the content definition.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testCachedInContentDefinition() throws Exception {
+
+        CmsXmlContentDefinition definition = new CmsXmlContentDefinition("Test", "opencms://test.xsd");
+        CmsXmlCompiledPath compiledPath = definition.getCompiledPath("Title/Test");
+        assertSame(compiledPath, definition.getCompiledPath("Title/Test"));
+        assertSame(compiledPath, ((CmsXmlContentDefinition)definition.clone()).getCompiledPath("Title/Test"));
+    }
+
+    /**
+     * Tests the element names and indexes of compiled paths.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testElements() throws Exception {
+
+        CmsXmlCompiledPath compiledPath = CmsXmlCompiledPath.compile("Title[4]/Test/Toast[2]");
+        assertEquals(3, compiledPath.getElementCount());
+        assertEquals("Title", compiledPath.getElementName(0));
+        assertEquals(4, compiledPath.getElementIndex(0));
+        assertEquals("Test", compiledPath.getElementName(1));
+        assertEquals(1, compiledPath.getElementIndex(1));
+        assertEquals("Toast", compiledPath.getElementName(2));
+        assertEquals(2, compiledPath.getElementIndex(2));
+        assertTrue(compiledPath.isIndexed());
+        assertFalse(CmsXmlCompiledPath.compile("Title[4]/Test").isIndexed());
+        assertEquals("Title[4]/Test/Toast[2]", compiledPath.getPath());
+        assertEquals(compiledPath, CmsXmlCompiledPath.compile("Title[4]/Test/Toast[2]"));
+    }
+
+    /**
+     * Tests that compiled paths create the same Xpath as {@link CmsXmlUtils#createXpath(String, int)}.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testXpath() throws Exception {
+
+        for (String path : PATHS) {
+            CmsXmlCompiledPath compiledPath = CmsXmlCompiledPath.compile(path);
+            assertEquals(CmsXmlUtils.createXpath(path, 1), compiledPath.getXpath());
+            assertEquals(CmsXmlUtils.createXpath(path, 1), compiledPath.getXpath(1));
+            assertEquals(CmsXmlUtils.createXpath(path, 7), compiledPath.getXpath(7));
+        }
+    }
+}
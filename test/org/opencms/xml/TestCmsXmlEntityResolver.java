@@ -29,6 +29,7 @@ package org.opencms.xml;
 
 import org.opencms.file.CmsFile;
 import org.opencms.file.CmsObject;
+import org.opencms.file.types.CmsResourceTypePlain;
 import org.opencms.i18n.CmsEncoder;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
@@ -36,6 +37,8 @@ import org.opencms.util.CmsFileUtil;
 import org.opencms.xml.content.CmsXmlContent;
 import org.opencms.xml.content.CmsXmlContentFactory;
 
+import java.io.File;
+
 import junit.extensions.TestSetup;
 import junit.framework.Test;
 import junit.framework.TestSuite;
@@ -69,6 +72,7 @@ public class TestCmsXmlEntityResolver extends OpenCmsTestCase {
         suite.setName(TestCmsXmlEntityResolver.class.getName());
 
         suite.addTest(new TestCmsXmlEntityResolver("testRemoveNestedSubschemaFromCacheIssue"));
+        suite.addTest(new TestCmsXmlEntityResolver("testUncacheDependentDefinitionsOnly"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -159,4 +163,59 @@ public class TestCmsXmlEntityResolver extends OpenCmsTestCase {
             fail("Content of XML files must not be equal after schema change");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that changing a nested schema in the VFS only removes the content definitions depending on it.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testUncacheDependentDefinitionsOnly() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that changing a nested schema only removes the content definitions depending on it");
+
+        String nestedSchemaUri = "/xmlcontent/registry_nested.xsd";
+        String schemaUri = "/xmlcontent/registry_main.xsd";
+        String otherSchemaUri = "/xmlcontent/registry_other.xsd";
+        String nestedLocation = CmsXmlEntityResolver.OPENCMS_SCHEME
+            + cms.getRequestContext().addSiteRoot(nestedSchemaUri).substring(1);
+        String location = CmsXmlEntityResolver.OPENCMS_SCHEME
+            + cms.getRequestContext().addSiteRoot(schemaUri).substring(1);
+        String otherLocation = CmsXmlEntityResolver.OPENCMS_SCHEME
+            + cms.getRequestContext().addSiteRoot(otherSchemaUri).substring(1);
+
+        // the nested schema and the unrelated schema are both copies of the original article schema
+        byte[] articleSchema = CmsFileUtil.readFile(new File(
+            getTestDataPath("imports/simpletest/sites/default/xmlcontent/article.xsd")));
+        cms.createResource(nestedSchemaUri, CmsResourceTypePlain.getStaticTypeId(), articleSchema, null);
+        cms.createResource(otherSchemaUri, CmsResourceTypePlain.getStaticTypeId(), articleSchema, null);
+        // the main schema includes the nested schema
+        String content = CmsFileUtil.readFile(
+            "org/opencms/xml/xmlcontent-definition-1.xsd",
+            CmsEncoder.ENCODING_ISO_8859_1);
+        content = content.replace("opencms://sites/default/xmlcontent/subarticle.xsd", nestedLocation);
+        cms.createResource(
+            schemaUri,
+            CmsResourceTypePlain.getStaticTypeId(),
+            content.getBytes(CmsEncoder.ENCODING_UTF_8),
+            null);
+
+        CmsXmlEntityResolver resolver = new CmsXmlEntityResolver(cms);
+        CmsXmlContentDefinition definition = CmsXmlContentDefinition.unmarshal(location, resolver);
+        CmsXmlContentDefinition otherDefinition = CmsXmlContentDefinition.unmarshal(otherLocation, resolver);
+        assertSame(definition, resolver.getCachedContentDefinition(location));
+        assertNotNull(resolver.getCachedContentDefinition(nestedLocation));
+        assertSame(otherDefinition, resolver.getCachedContentDefinition(otherLocation));
+        assertTrue(CmsXmlEntityResolver.getSchemaRegistry().getDependents(
+            "offline_" + cms.getRequestContext().addSiteRoot(nestedSchemaUri)).size() > 0);
+
+        // writing the nested schema fires a "resource modified" event with the root path of the schema
+        CmsFile nestedSchemaFile = cms.readFile(nestedSchemaUri);
+        cms.writeFile(nestedSchemaFile);
+
+        assertNull(resolver.getCachedContentDefinition(nestedLocation));
+        assertNull(resolver.getCachedContentDefinition(location));
+        // the unrelated content definition must still be cached
+        assertSame(otherDefinition, resolver.getCachedContentDefinition(otherLocation));
+    }
+}
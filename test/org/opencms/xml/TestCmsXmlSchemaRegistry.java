@@ -0,0 +1,224 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.xml;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the dependency tracking of the XML schema registry.<p>
+ * 
+ * @since 9.0.0
+ */
+public class TestCmsXmlSchemaRegistry extends TestCase {
+
+    /**
+     * Tests that schemas and content definitions read before the registry was invalidated are not cached.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testOutdatedEntriesNotCached() throws Exception {
+
+        CmsXmlSchemaRegistry registry = new CmsXmlSchemaRegistry();
+        long version = registry.getVersion();
+        // the schema is changed while it is read
+        registry.uncache("offline_/a.xsd");
+        assertFalse(registry.cacheSchema("offline_/a.xsd", new byte[] {1}, version));
+        assertFalse(registry.cacheDefinition(
+            "offline_/a.xsd",
+            createDefinition("A", "/a.xsd"),
+            Collections.<String> emptySet(),
+            version));
+        assertNull(registry.getSchema("offline_/a.xsd"));
+        assertNull(registry.getDefinition("offline_/a.xsd"));
+
+        version = registry.getVersion();
+        assertTrue(registry.cacheSchema("offline_/a.xsd", new byte[] {2}, version));
+        assertTrue(registry.cacheDefinition(
+            "offline_/a.xsd",
+            createDefinition("A", "/a.xsd"),
+            Collections.<String> emptySet(),
+            version));
+        assertNotNull(registry.getSchema("offline_/a.xsd"));
+        assertNotNull(registry.getDefinition("offline_/a.xsd"));
+
+        // clearing the registry invalidates the version as well
+        registry.clearDefinitions();
+        assertFalse(registry.cacheDefinition(
+            "offline_/a.xsd",
+            createDefinition("A", "/a.xsd"),
+            Collections.<String> emptySet(),
+            version));
+        assertEquals(0, registry.getDefinitionCount());
+    }
+
+    /**
+     * Tests that removing a content definition also removes it from the dependencies of all schemas it includes.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testUncacheRemovesDependencies() throws Exception {
+
+        CmsXmlSchemaRegistry registry = new CmsXmlSchemaRegistry();
+        registry.cacheDefinition(
+            "offline_/article.xsd",
+            createDefinition("Article", "/article.xsd"),
+            Arrays.asList("offline_/nested.xsd", "offline_/shared.xsd"),
+            registry.getVersion());
+        registry.cacheDefinition(
+            "offline_/page.xsd",
+            createDefinition("Page", "/page.xsd"),
+            Arrays.asList("offline_/nested.xsd"),
+            registry.getVersion());
+        assertEquals(Collections.singleton("offline_/article.xsd"), registry.getDependents("offline_/shared.xsd"));
+
+        assertTrue(registry.uncache("offline_/nested.xsd"));
+        assertEquals(0, registry.getDefinitionCount());
+        assertTrue(registry.getDependents("offline_/nested.xsd").isEmpty());
+        assertTrue(registry.getDependents("offline_/shared.xsd").isEmpty());
+
+        // replacing a content definition replaces its dependencies
+        registry.cacheDefinition(
+            "offline_/article.xsd",
+            createDefinition("Article", "/article.xsd"),
+            Arrays.asList("offline_/shared.xsd"),
+            registry.getVersion());
+        registry.cacheDefinition(
+            "offline_/article.xsd",
+            createDefinition("Article", "/article.xsd"),
+            Arrays.asList("offline_/other.xsd"),
+            registry.getVersion());
+        assertTrue(registry.getDependents("offline_/shared.xsd").isEmpty());
+        assertEquals(Collections.singleton("offline_/article.xsd"), registry.getDependents("offline_/other.xsd"));
+        assertFalse(registry.uncache("offline_/shared.xsd"));
+        assertNotNull(registry.getDefinition("offline_/article.xsd"));
+    }
+
+    /**
+     * Tests that changing a schema without a known content definition keeps all content definitions.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testUncacheUnknownSchema() throws Exception {
+
+        CmsXmlSchemaRegistry registry = new CmsXmlSchemaRegistry();
+        registry.cacheDefinition(
+            "offline_/a.xsd",
+            createDefinition("A", "/a.xsd"),
+            Collections.<String> emptySet(),
+            registry.getVersion());
+        registry.cacheDefinition(
+            "online_/a.xsd",
+            createDefinition("A", "/a.xsd"),
+            Collections.<String> emptySet(),
+            registry.getVersion());
+        registry.cacheSchema("offline_/other.xsd", new byte[] {1}, registry.getVersion());
+
+        assertTrue(registry.uncache("offline_/other.xsd"));
+        assertNull(registry.getSchema("offline_/other.xsd"));
+        assertNotNull(registry.getDefinition("offline_/a.xsd"));
+        assertNotNull(registry.getDefinition("online_/a.xsd"));
+        assertFalse(registry.uncache("offline_/other.xsd"));
+    }
+
+    /**
+     * Tests that changing an included schema removes exactly the content definitions depending on it.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testUncacheWithIncludes() throws Exception {
+
+        CmsXmlSchemaRegistry registry = new CmsXmlSchemaRegistry();
+        registry.cacheSchema("offline_/nested.xsd", new byte[] {1}, registry.getVersion());
+        registry.cacheSchema("offline_/article.xsd", new byte[] {2}, registry.getVersion());
+        registry.cacheSchema("offline_/other.xsd", new byte[] {3}, registry.getVersion());
+        registry.cacheDefinition(
+            "offline_/nested.xsd",
+            createDefinition("Nested", "/nested.xsd"),
+            Collections.<String> emptySet(),
+            registry.getVersion());
+        registry.cacheDefinition(
+            "offline_/article.xsd",
+            createDefinition("Article", "/article.xsd"),
+            Arrays.asList("offline_/nested.xsd", "offline_/article.xsd"),
+            registry.getVersion());
+        registry.cacheDefinition(
+            "offline_/page.xsd",
+            createDefinition("Page", "/page.xsd"),
+            Arrays.asList("offline_/article.xsd", "offline_/nested.xsd"),
+            registry.getVersion());
+        registry.cacheDefinition(
+            "offline_/other.xsd",
+            createDefinition("Other", "/other.xsd"),
+            Collections.<String> emptySet(),
+            registry.getVersion());
+        registry.cacheDefinition(
+            "online_/page.xsd",
+            createDefinition("Page", "/page.xsd"),
+            Arrays.asList("online_/article.xsd", "online_/nested.xsd"),
+            registry.getVersion());
+
+        assertEquals(3, registry.getSchemaCount());
+        assertEquals(5, registry.getDefinitionCount());
+        assertEquals(2, registry.getDependents("offline_/nested.xsd").size());
+        // a recursive include is not a dependency
+        assertTrue(registry.getDependents("offline_/article.xsd").contains("offline_/page.xsd"));
+        assertFalse(registry.getDependents("offline_/article.xsd").contains("offline_/article.xsd"));
+
+        assertTrue(registry.uncache("offline_/nested.xsd"));
+        assertNull(registry.getSchema("offline_/nested.xsd"));
+        assertNull(registry.getDefinition("offline_/nested.xsd"));
+        assertNull(registry.getDefinition("offline_/article.xsd"));
+        assertNull(registry.getDefinition("offline_/page.xsd"));
+        // unrelated definitions and the online project are not affected
+        assertNotNull(registry.getDefinition("offline_/other.xsd"));
+        assertNotNull(registry.getDefinition("online_/page.xsd"));
+        assertNotNull(registry.getSchema("offline_/article.xsd"));
+        assertEquals(2, registry.getSchemaCount());
+        assertEquals(2, registry.getDefinitionCount());
+
+        registry.clear();
+        assertEquals(0, registry.getSchemaCount());
+        assertEquals(0, registry.getDefinitions().size());
+    }
+
+    /**
+     * Creates a content definition for testing.<p>
+     * 
+     * @param name the inner name of the content definition
+     * @param path the root path of the schema
+     * 
+     * @return the content definition
+     */
+    private CmsXmlContentDefinition createDefinition(String name, String path) {
+
+        return new CmsXmlContentDefinition(name, CmsXmlEntityResolver.OPENCMS_SCHEME + path.substring(1));
+    }
+}